@@ -2,6 +2,10 @@ package edu.sdccd.cisc191.game;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 /**
@@ -11,6 +15,7 @@ import java.io.Serializable;
  * Ships can engage in combat, take damage, and be upgraded.
  * <p>
  * Implements {@link Serializable} so instances can be saved and loaded as part of the game state.
+ * Abilities are held as a bitmask but still saved as a list, so older save files keep loading.
  *
  */
 public class GalacticShip implements java.io.Serializable{
@@ -22,7 +27,17 @@ public class GalacticShip implements java.io.Serializable{
     private String name;
     private int health;
     private int attackPower;
-    private List<CombatAbility> combatAbilities;
+    /** One bit per ability, see {@link CombatAbility#bit()}. */
+    private int abilities;
+
+    /** The saved form predates the bitmask: abilities are written as a list of constants. */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("name", String.class),
+            new ObjectStreamField("health", int.class),
+            new ObjectStreamField("attackPower", int.class),
+            new ObjectStreamField("combatAbilities", List.class)
+    };
+    private static final CombatAbility[] ABILITIES = CombatAbility.values();
 
     /**
      * Enum representing different combat abilities a ship can have.
@@ -32,7 +47,14 @@ public class GalacticShip implements java.io.Serializable{
         SHIELD_GENERATOR,
         MISSILE_LAUNCHER,
         CLOAKING_DEVICE,
-        REPAIR_DRONES
+        REPAIR_DRONES;
+
+        /**
+         * @return this ability's bit in an ability mask
+         */
+        public int bit() {
+            return 1 << ordinal();
+        }
     }
 
     /**
@@ -46,13 +68,11 @@ public class GalacticShip implements java.io.Serializable{
         this.name = name;
         this.health = health;
         this.attackPower = attackPower;
-        this.combatAbilities = new ArrayList<>();
     }
 
     public GalacticShip(String enterprise) {
         this.health = 0;
         this.name = enterprise;
-        this.combatAbilities = new ArrayList<>();
     }
 
     public String getName() {
@@ -88,9 +108,7 @@ public class GalacticShip implements java.io.Serializable{
      * @param ability The combat ability to add.
      */
     public void addCombatAbility(CombatAbility ability) {
-        if (!combatAbilities.contains(ability)) {
-            combatAbilities.add(ability);
-        }
+        abilities |= ability.bit();
     }
 
     /**
@@ -99,7 +117,7 @@ public class GalacticShip implements java.io.Serializable{
      * @param ability The combat ability to remove.
      */
     public void removeCombatAbility(CombatAbility ability) {
-        combatAbilities.remove(ability);
+        abilities &= ~ability.bit();
     }
 
     /**
@@ -109,15 +127,52 @@ public class GalacticShip implements java.io.Serializable{
      * @return true if the ship has the ability, false otherwise.
      */
     public boolean hasCombatAbility(CombatAbility ability) {
-        return combatAbilities.contains(ability);
+        return (abilities & ability.bit()) != 0;
     }
 
     /**
      * Gets a list of all combat abilities the ship has.
      *
-     * @return A list of the ship's combat abilities.
+     * @return A list of the ship's combat abilities, in declaration order.
      */
     public List<CombatAbility> getCombatAbilities() {
-        return new ArrayList<>(combatAbilities);
+        List<CombatAbility> list = new ArrayList<>(Integer.bitCount(abilities));
+        for (CombatAbility ability : ABILITIES) {
+            if ((abilities & ability.bit()) != 0) {
+                list.add(ability);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Gets the ship's abilities as a bitmask, for code that checks them in a tight loop.
+     *
+     * @return The {@link CombatAbility#bit()} of every ability the ship has, or'ed together.
+     */
+    public int getAbilityMask() {
+        return abilities;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("name", name);
+        fields.put("health", health);
+        fields.put("attackPower", attackPower);
+        fields.put("combatAbilities", getCombatAbilities());
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        name = (String) fields.get("name", null);
+        health = fields.get("health", 0);
+        attackPower = fields.get("attackPower", 0);
+        List<?> saved = (List<?>) fields.get("combatAbilities", null);
+        if (saved != null) {
+            for (Object ability : saved) {
+                abilities |= ((CombatAbility) ability).bit();
+            }
+        }
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package edu.sdccd.cisc191.game;
 
+import edu.sdccd.cisc191.subsystems.CombatLog;
 import edu.sdccd.cisc191.subsystems.CombatSystem;
 import edu.sdccd.cisc191.subsystems.ExplorationSystem;
 import edu.sdccd.cisc191.subsystems.ResourceManagement;
@@ -234,8 +235,11 @@ public class Game extends Application {
         GalacticShip enemyShip = new GalacticShip("Klingon Raider", 80, 18);
         CombatSystem combatSystem = new CombatSystem();
 
-        // Engage combat (logs will appear in the console as per CombatSystem)
-        combatSystem.engageCombat(playerShip, enemyShip);
+        // Engage combat, then print its log to the console; only a viewer formats the strikes
+        CombatLog log = combatSystem.engageCombat(playerShip, enemyShip);
+        for (String line : log.lines()) {
+            System.out.println(line);
+        }
 
         // Optionally, display result in the UI if gameUI is available
         if (gameUI != null) {
@@ -266,7 +270,7 @@ public class Game extends Application {
      * @param shipType The Type of ship to build
      */
     private void buildShip(String shipType, int mineralsCost, int energyCost) {
-        if (inventory == null || !inventory.useResource("Minerals", mineralsCost) || !inventory.useResource("Energy", energyCost)) {
+        if (inventory == null || !inventory.useResource(ResourceType.MINERALS, mineralsCost) || !inventory.useResource(ResourceType.ENERGY, energyCost)) {
             statusLabel.setText("Not enough resources to build " + shipType);
             return;
         }
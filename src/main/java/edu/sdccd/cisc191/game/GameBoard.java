@@ -1,12 +1,52 @@
 package edu.sdccd.cisc191.game;
 
+/**
+ * A rectangle of the galaxy: the whole of it for a single server, or one region when the galaxy
+ * is split across servers.
+ * <p>
+ * Coordinates are always galaxy coordinates. A board covering rows 10-19 answers for row 10 as
+ * its first row, and {@link #inBounds} is false for squares owned by another region.
+ */
 public class GameBoard {
+    /** Side of the block the planet layout repeats in. */
+    public static final int SECTOR_SIZE = 5;
+    /** Fuel needed to enter a square whose cost was never changed. */
+    public static final int DEFAULT_COST = 1;
+
     private int[][] planets; // Represents planets in the galaxy (0 = empty, other values = planet IDs)
     private int[][] resourceCosts; // Represents resource cost to traverse each cell
-    private final int rows = 5;
-    private final int cols = 5;
+    private final int firstRow;
+    private final int firstCol;
+    private final int rows;
+    private final int cols;
 
     public GameBoard() {
+        this(SECTOR_SIZE, SECTOR_SIZE);
+    }
+
+    /**
+     * Creates a whole galaxy of the given size.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     */
+    public GameBoard(int rows, int cols) {
+        this(0, 0, rows, cols);
+    }
+
+    /**
+     * Creates the part of a larger galaxy starting at {@code (firstRow, firstCol)}.
+     *
+     * @param firstRow The galaxy row of this board's top edge.
+     * @param firstCol The galaxy column of this board's left edge.
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     */
+    public GameBoard(int firstRow, int firstCol, int rows, int cols) {
+        this.firstRow = firstRow;
+        this.firstCol = firstCol;
+        this.rows = rows;
+        this.cols = cols;
         planets = new int[rows][cols];
         resourceCosts = new int[rows][cols];
     }
@@ -14,20 +54,30 @@ public class GameBoard {
     /**
      * Initializes the game board with default values.
      * Planets are set to 0 (empty), and resource costs are set to default values.
+     * Every {@link #SECTOR_SIZE} square block of the galaxy has the same planets, so boards for
+     * different regions agree on the layout without sharing anything.
      */
     public void initializeBoard() {
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
                 planets[i][j] = 0; // No planet in this cell
-                resourceCosts[i][j] = 1; // Default traversal cost
+                resourceCosts[i][j] = DEFAULT_COST; // Default traversal cost
             }
         }
 
-        placePlanet(0, 0, 1); // Earth
-
-        placePlanet(2, 2, 2); // Mars
-
-        placePlanet(4, 4, 3); // Jupiter
+        for (int row = firstRow; row < firstRow + rows; row++) {
+            for (int col = firstCol; col < firstCol + cols; col++) {
+                int sectorRow = row % SECTOR_SIZE;
+                int sectorCol = col % SECTOR_SIZE;
+                if (sectorRow == 0 && sectorCol == 0) {
+                    placePlanet(row, col, 1); // Earth
+                } else if (sectorRow == 2 && sectorCol == 2) {
+                    placePlanet(row, col, 2); // Mars
+                } else if (sectorRow == 4 && sectorCol == 4) {
+                    placePlanet(row, col, 3); // Jupiter
+                }
+            }
+        }
     }
 
     /**
@@ -38,7 +88,7 @@ public class GameBoard {
      * @param planetId The ID of the planet to place (e.g., 1, 2, 3...).
      */
     public void placePlanet(int row, int col, int planetId) {
-        planets[row][col] = planetId;
+        planets[row - firstRow][col - firstCol] = planetId;
     }
 
     /**
@@ -49,7 +99,7 @@ public class GameBoard {
      * @param cost The resource cost to traverse this cell.
      */
     public void setResourceCost(int row, int col, int cost) {
-        resourceCosts[row][col] = cost;
+        resourceCosts[row - firstRow][col - firstCol] = cost;
     }
 
     /**
@@ -60,15 +110,15 @@ public class GameBoard {
      * @return The ID of the planet (or 0 if no planet is present).
      */
     public int getPlanetId(int row, int col) {
-        return planets[row][col];
+        return planets[row - firstRow][col - firstCol];
     }
 
     public int getResourceCost(int row, int col) {
-        return resourceCosts[row][col];
+        return resourceCosts[row - firstRow][col - firstCol];
     }
 
     public boolean inBounds(int row, int col) {
-        return row >= 0 && row < rows && col >= 0 && col < cols;
+        return row >= firstRow && row < firstRow + rows && col >= firstCol && col < firstCol + cols;
     }
 
     public void displayBoard() {
@@ -88,6 +138,14 @@ public class GameBoard {
         }
     }
 
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    public int getFirstCol() {
+        return firstCol;
+    }
+
     public int getRows() {
         return rows;
     }
@@ -37,7 +37,6 @@ public class Player {
      */
     public void addShip(GalacticShip ship) {
         fleet.add(ship);
-        fleet.add(ship);
     }
 
     /**
@@ -1,45 +1,71 @@
 package edu.sdccd.cisc191.game;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 // Manages player's inventory of resources
+// One int slot per ResourceType, updated with compare-and-set: no locks, maps or boxed objects
 public class PlayerInventory implements Serializable {
-    private Map<String, Resource> resources;
+    private static final long serialVersionUID = 1L;
+
+    private final AtomicIntegerArray amounts = new AtomicIntegerArray(ResourceType.COUNT);
 
     public PlayerInventory() {
-        resources = new HashMap<>();
-        resources.put("Fuel", new Resource("Dilithium"));
-        resources.put("Minerals", new Resource("Fuel"));
-        resources.put("Minerals", new Resource("Minerals"));
-        resources.put("Energy", new Resource("Energy"));
-        resources.put("Credits", new Resource("Credits"));
-    }
-
-    public void addResource(String type, int amount) {
-        if (resources.containsKey(type)) {
-            resources.get(type).addAmount(amount);
-        } else {
-            resources.put(type, new Resource(type));
+    }
+
+    public void addResource(ResourceType type, int amount) {
+        amounts.addAndGet(type.ordinal(), amount);
+    }
+
+    /*
+     * Takes an amount of a resource, if there is enough of it
+     * @return true if the amount was taken, false if the inventory was left unchanged
+     */
+    public boolean useResource(ResourceType type, int amount) {
+        int slot = type.ordinal();
+        int current;
+        do {
+            current = amounts.get(slot);
+            if (current < amount) {
+                return false;
+            }
+        } while (!amounts.compareAndSet(slot, current, current - amount));
+        return true;
+    }
+
+    public int getResourceAmount(ResourceType type) {
+        return amounts.get(type.ordinal());
+    }
+
+    // The methods below take a resource's name, for names that arrive as text; unknown names hold nothing
+
+    /*
+     * Adds an amount of a resource named as text
+     * @return true if the amount was added, false if there is no resource by that name
+     */
+    public boolean addResource(String type, int amount) {
+        ResourceType resource = ResourceType.byName(type);
+        if (resource == null) {
+            return false;
         }
+        addResource(resource, amount);
+        return true;
     }
 
     public boolean useResource(String type, int amount) {
-        return resources.containsKey(type) && resources.get(type).useAmount(amount);
+        ResourceType resource = ResourceType.byName(type);
+        return resource != null && useResource(resource, amount);
     }
 
     public int getResourceAmount(String type) {
-        if (resources.containsKey(type)) {
-            return resources.get(type).getAmount();
-        }
-        return resources.getOrDefault(type, new Resource(type)).getAmount();
+        ResourceType resource = ResourceType.byName(type);
+        return resource == null ? 0 : getResourceAmount(resource);
     }
 
     public String displayResources() {
         StringBuilder sb = new StringBuilder();
-        for (Resource r : resources.values()) {
-            sb.append(r.toString()).append("\n");
+        for (int slot = 0; slot < ResourceType.COUNT; slot++) {
+            sb.append(ResourceType.of(slot).getDisplayName()).append(": ").append(amounts.get(slot)).append("\n");
         }
         return sb.toString();
     }
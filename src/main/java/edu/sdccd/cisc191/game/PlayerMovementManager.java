@@ -13,6 +13,8 @@ public class PlayerMovementManager {
         this.player = player;
         this.board = board;
         this.inventory = inventory;
+        this.row = board.getFirstRow();
+        this.col = board.getFirstCol();
     }
 
     public int getRow() {
@@ -23,6 +25,22 @@ public class PlayerMovementManager {
         return col;
     }
 
+    /**
+     * Puts the player on a square without moving there, e.g. when it arrives from another region.
+     *
+     * @param row The galaxy row.
+     * @param col The galaxy column.
+     * @return false if the square is not on this board.
+     */
+    public boolean placeAt(int row, int col) {
+        if (!board.inBounds(row, col)) {
+            return false;
+        }
+        this.row = row;
+        this.col = col;
+        return true;
+    }
+
     public String getCurrentPlanetName() {
         int planetId = board.getPlanetId(row, col);
         return getPlanetNameById(planetId);
@@ -50,7 +68,7 @@ public class PlayerMovementManager {
         }
 
         int fuelCost = board.getResourceCost(newRow, newCol);
-        if (!inventory.useResource("Fuel", fuelCost)) {
+        if (!inventory.useResource(ResourceType.FUEL, fuelCost)) {
             System.out.println("Not enough fuel to move!");
             return false;
         }
@@ -0,0 +1,66 @@
+package edu.sdccd.cisc191.game;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Every kind of resource a {@link PlayerInventory} can hold.
+ * <p>
+ * The ordinal is the resource's slot in an inventory, so code that knows which resource it
+ * wants should pass the constant rather than its name; {@link #byName} is for names that
+ * arrive as text, such as network commands and data files.
+ */
+public enum ResourceType {
+    FUEL("Fuel"),
+    MINERALS("Minerals"),
+    ENERGY("Energy"),
+    CREDITS("Credits"),
+    DILITHIUM("Dilithium");
+
+    /** Number of resource types, i.e. the number of slots in an inventory. */
+    public static final int COUNT = values().length;
+
+    private static final ResourceType[] TYPES = values();
+    private static final Map<String, ResourceType> BY_NAME = new HashMap<>();
+
+    static {
+        for (ResourceType type : TYPES) {
+            BY_NAME.put(type.displayName.toLowerCase(Locale.ROOT), type);
+        }
+    }
+
+    private final String displayName;
+
+    ResourceType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * @return the name players see, e.g. "Fuel"
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @param ordinal a resource's slot
+     * @return the resource in that slot
+     */
+    public static ResourceType of(int ordinal) {
+        return TYPES[ordinal];
+    }
+
+    /**
+     * @param name a resource's name, in any case
+     * @return the resource, or null if there is none by that name
+     */
+    public static ResourceType byName(String name) {
+        return name == null ? null : BY_NAME.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
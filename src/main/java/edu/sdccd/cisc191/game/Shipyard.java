@@ -20,6 +20,9 @@ import java.util.concurrent.*;
  */
 
 public class Shipyard {
+    /** Ship types every shipyard can build. */
+    public static final List<String> SHIP_TYPES = List.of("Fighter", "Cruiser", "Battleship");
+
     private final Map<String, GalacticShip> availableShips;
     private final List<GalacticShip> playerFleet;
     private final ExecutorService shipBuilderPool;
@@ -41,9 +44,23 @@ public class Shipyard {
 
     // Initializes default ship types available in the shipyard
     private void initializeShipyard() {
-        availableShips.put("Fighter", new GalacticShip("Fighter", 100, 20));
-        availableShips.put("Cruiser", new GalacticShip("Cruiser", 200, 40));
-        availableShips.put("Battleship", new GalacticShip("Battleship", 300, 60));
+        for (String shipType : SHIP_TYPES) {
+            availableShips.put(shipType, newShip(shipType));
+        }
+    }
+
+    /*
+     * Creates a new ship of a standard type with its base stats, without any build delay
+     * @param shipType The type of ship to create
+     * @return the new ship, or null if the type is unknown
+     */
+    public static GalacticShip newShip(String shipType) {
+        return switch (shipType) {
+            case "Fighter" -> new GalacticShip("Fighter", 100, 20);
+            case "Cruiser" -> new GalacticShip("Cruiser", 200, 40);
+            case "Battleship" -> new GalacticShip("Battleship", 300, 60);
+            default -> null;
+        };
     }
 
 
@@ -0,0 +1,178 @@
+package edu.sdccd.cisc191.network;
+
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodes and decodes {@link GameMessage}s in the binary wire protocol.
+ * <p>
+ * A frame is {@code varint bodyLength | opcode byte | fields}, where integer fields are zigzag
+ * varints (one byte for values in -64..63, such as board coordinates) and string fields are a
+ * varint byte length followed by UTF-8. A move update is typically 6-10 bytes against 15-20 as
+ * a text line, and decoding it allocates nothing but the player id.
+ */
+public final class BinaryCodec {
+    /** Largest body accepted from a peer; anything bigger is treated as a protocol error. */
+    public static final int MAX_FRAME_LENGTH = 64 * 1024;
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * @param message the message to encode
+     * @return a complete frame, length prefix included
+     */
+    public static byte[] encodeFrame(GameMessage message) {
+        ByteSink body = new ByteSink(32);
+        body.write(message.getOpcode().getCode());
+        for (int i = 0; i < message.size(); i++) {
+            if (message.isString(i)) {
+                byte[] bytes = message.getString(i).getBytes(StandardCharsets.UTF_8);
+                body.writeVarLong(bytes.length);
+                body.write(bytes, 0, bytes.length);
+            } else {
+                body.writeVarLong(zigzag(message.getLong(i)));
+            }
+        }
+        ByteSink frame = new ByteSink(body.size() + 5);
+        frame.writeVarLong(body.size());
+        frame.write(body.bytes, 0, body.size());
+        return frame.toByteArray();
+    }
+
+    /**
+     * Decodes one frame body (opcode and fields, without the length prefix).
+     *
+     * @param buf buffer holding the body
+     * @param offset where the body starts
+     * @param length body length in bytes
+     * @return the decoded message
+     * @throws ProtocolException if the body is malformed or the opcode is unknown
+     */
+    public static GameMessage decodeBody(byte[] buf, int offset, int length) throws ProtocolException {
+        if (length < 1) {
+            throw new ProtocolException("Empty frame");
+        }
+        Opcode opcode = Opcode.fromCode(buf[offset] & 0xFF);
+        if (opcode == null) {
+            throw new ProtocolException("Unknown opcode " + (buf[offset] & 0xFF));
+        }
+        int[] pos = {offset + 1};
+        int end = offset + length;
+        List<Object> fields = new ArrayList<>(opcode.fixedFields() + 8);
+        for (int i = 0; i < opcode.fixedFields() || (opcode.isVariable() && pos[0] < end); i++) {
+            long raw = readVarLong(buf, pos, end);
+            if (opcode.isStringField(i)) {
+                if (raw < 0 || raw > end - pos[0]) {
+                    throw new ProtocolException("String field overruns frame");
+                }
+                fields.add(new String(buf, pos[0], (int) raw, StandardCharsets.UTF_8));
+                pos[0] += (int) raw;
+            } else {
+                fields.add(unzigzag(raw));
+            }
+        }
+        if (pos[0] != end) {
+            throw new ProtocolException("Trailing bytes in " + opcode + " frame");
+        }
+        return GameMessage.of(opcode, fields.toArray());
+    }
+
+    /**
+     * Reads the length prefix of the frame starting at {@code offset}.
+     *
+     * @param buf buffered bytes
+     * @param offset start of the frame
+     * @param end end of the buffered bytes
+     * @return {@code {headerLength, bodyLength}}, or null if the prefix is not complete yet
+     * @throws ProtocolException if the declared length is out of range
+     */
+    public static int[] readFrameHeader(byte[] buf, int offset, int end) throws ProtocolException {
+        long value = 0;
+        for (int i = 0; i < 5 && offset + i < end; i++) {
+            int b = buf[offset + i] & 0xFF;
+            value |= (long) (b & 0x7F) << (7 * i);
+            if ((b & 0x80) == 0) {
+                if (value > MAX_FRAME_LENGTH) {
+                    throw new ProtocolException("Frame of " + value + " bytes exceeds limit");
+                }
+                return new int[]{i + 1, (int) value};
+            }
+        }
+        if (end - offset >= 5) {
+            throw new ProtocolException("Malformed frame length");
+        }
+        return null;
+    }
+
+    private static long readVarLong(byte[] buf, int[] pos, int end) throws ProtocolException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos[0] >= end) {
+                throw new ProtocolException("Truncated varint");
+            }
+            int b = buf[pos[0]++] & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new ProtocolException("Varint too long");
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Minimal growable byte array; avoids the synchronisation in {@code ByteArrayOutputStream}.
+     */
+    static final class ByteSink {
+        private byte[] bytes;
+        private int size;
+
+        ByteSink(int capacity) {
+            this.bytes = new byte[Math.max(8, capacity)];
+        }
+
+        void write(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        void write(byte[] src, int offset, int length) {
+            ensure(length);
+            System.arraycopy(src, offset, bytes, size, length);
+            size += length;
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package edu.sdccd.cisc191.network;
+
+/**
+ * A connected client as seen by the broadcast logic in {@link MultiplayerServer},
+ * independent of whether it is served by a dedicated thread or by an NIO event loop.
+ */
+public interface ClientConnection {
+
+    /**
+     * Queues a message for delivery to this client without waiting for the socket.
+     * If the client's queue is full its {@link OverflowPolicy} applies.
+     *
+     * @param message the message to send
+     */
+    void send(OutboundMessage message);
+
+    /**
+     * Queues a single protocol line for delivery to this client.
+     * The line terminator is added by the connection.
+     *
+     * @param message the line to send
+     */
+    default void send(String message) {
+        send(OutboundMessage.of(message));
+    }
+
+    /**
+     * Closes the underlying socket. Safe to call more than once.
+     */
+    void close();
+
+    /**
+     * @return a printable "host:port" description of the remote end
+     */
+    String getClientInfo();
+
+    /**
+     * @return the number of messages waiting to be written to this client
+     */
+    int getQueueDepth();
+
+    /**
+     * @return how many messages were dropped or coalesced away because this client fell behind
+     */
+    long getDroppedMessages();
+}
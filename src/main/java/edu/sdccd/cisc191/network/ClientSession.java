@@ -0,0 +1,186 @@
+package edu.sdccd.cisc191.network;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A resumable session: outlives any one connection for up to the grace window.
+ * <p>
+ * Every message written to the session's current connection after the {@link Opcode#SESSION}
+ * or {@link Opcode#RESUME} reply is numbered and kept in a {@link ReplayBuffer}. The client
+ * numbers the messages it receives the same way, so on reconnect it only has to say how many it
+ * got. While no connection is attached the session keeps numbering the broadcasts of the room
+ * it was in, and holds the client's room, replication state and player binding, ready to hand
+ * to the next connection.
+ */
+class ClientSession {
+    private final String token;
+    private final Lock lock = new ReentrantLock();
+    private final ReplayBuffer replay;
+    private ClientConnection connection;
+    /** Whether the current connection has been sent the reply that starts numbering. */
+    private boolean numbering;
+    private long parkedAtNanos;
+    private GameRoom room;
+    private StateReplicator.ClientView view;
+    private String playerId;
+
+    ClientSession(String token, int bufferSize, ClientConnection connection) {
+        this.token = token;
+        this.replay = new ReplayBuffer(bufferSize);
+        this.connection = connection;
+    }
+
+    String getToken() {
+        return token;
+    }
+
+    /**
+     * Records a message the connection's writer has just handed to the socket.
+     *
+     * @param writer the connection that wrote it; ignored unless it is the current one
+     * @param message the message
+     */
+    void written(ClientConnection writer, OutboundMessage message) {
+        lock.lock();
+        try {
+            if (writer != connection) {
+                return;
+            }
+            Opcode opcode = message.getMessage().getOpcode();
+            if (opcode == Opcode.SESSION || opcode == Opcode.RESUME) {
+                numbering = true;
+            } else if (numbering) {
+                replay.append(message);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Keeps a broadcast for a parked session, numbered as if it had been written.
+     *
+     * @param from the room the broadcast was sent in; ignored unless it is the session's room
+     * @param message the broadcast
+     */
+    void buffer(GameRoom from, OutboundMessage message) {
+        lock.lock();
+        try {
+            if (connection == null && from == room) {
+                replay.append(message);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Detaches the session from its connection and keeps what the next connection will need.
+     *
+     * @param from the connection that closed; ignored unless it is the current one
+     * @param room the room the connection was in
+     * @param view the client's replication state, or null
+     * @param playerId the player the connection controlled, or null
+     * @param nowNanos current {@link System#nanoTime()}, when the grace window starts
+     * @return false if the session had already moved to another connection
+     */
+    boolean park(ClientConnection from, GameRoom room, StateReplicator.ClientView view, String playerId, long nowNanos) {
+        lock.lock();
+        try {
+            if (from != connection) {
+                return false;
+            }
+            this.connection = null;
+            this.numbering = false;
+            this.room = room;
+            this.view = view;
+            this.playerId = playerId;
+            this.parkedAtNanos = nowNanos;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the session to a new connection if the client is missing nothing that has been
+     * overwritten. Replay numbering restarts after {@code lastSeq}.
+     *
+     * @param to the new connection
+     * @param lastSeq the last message number the client received
+     * @return the messages the client missed, oldest first, or null if they cannot all be
+     *         replayed or the session is still attached to another connection
+     */
+    List<OutboundMessage> resume(ClientConnection to, long lastSeq) {
+        lock.lock();
+        try {
+            if (connection != null || !replay.canReplayAfter(lastSeq)) {
+                return null;
+            }
+            List<OutboundMessage> missed = replay.after(lastSeq);
+            replay.truncate(lastSeq);
+            connection = to;
+            numbering = false;
+            return missed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the parked replication state, handing it over (later calls return null)
+     */
+    StateReplicator.ClientView takeView() {
+        lock.lock();
+        try {
+            StateReplicator.ClientView taken = view;
+            view = null;
+            return taken;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    GameRoom getRoom() {
+        lock.lock();
+        try {
+            return room;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String getPlayerId() {
+        lock.lock();
+        try {
+            return playerId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    ClientConnection getConnection() {
+        lock.lock();
+        try {
+            return connection;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param nowNanos current {@link System#nanoTime()}
+     * @param graceNanos how long a parked session is kept
+     * @return true if parked for longer than {@code graceNanos}
+     */
+    boolean isExpired(long nowNanos, long graceNanos) {
+        lock.lock();
+        try {
+            return connection == null && nowNanos - parkedAtNanos > graceNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
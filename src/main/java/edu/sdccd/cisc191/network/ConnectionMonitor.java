@@ -0,0 +1,139 @@
+package edu.sdccd.cisc191.network;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Tracks connection counts and, for virtual-thread mode, how busy the carrier threads are.
+ * <p>
+ * Carrier utilisation is the CPU time consumed by the virtual-thread scheduler's carrier
+ * threads since the previous report, divided by the wall time and the number of carriers.
+ * A value near 100% means the carriers are saturated; a low value with many connections
+ * means idle players are cheap, which is what virtual-thread mode is for.
+ */
+public class ConnectionMonitor {
+    /** Class name of the JDK's virtual-thread carrier threads. */
+    private static final String CARRIER_THREAD_CLASS = "jdk.internal.misc.CarrierThread";
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final Map<Long, Long> lastCarrierCpu = new HashMap<>();
+    private long lastSampleNanos = System.nanoTime();
+    private ScheduledExecutorService reporter;
+    /** Further report lines from other server components, printed after the connection line. */
+    private final List<Supplier<String>> extraReports = new CopyOnWriteArrayList<>();
+
+    /**
+     * Records a new connection.
+     */
+    public void connectionOpened() {
+        accepted.increment();
+        int now = active.incrementAndGet();
+        peak.accumulateAndGet(now, Math::max);
+    }
+
+    /**
+     * Records a closed connection.
+     */
+    public void connectionClosed() {
+        active.decrementAndGet();
+    }
+
+    public int getActiveConnections() {
+        return active.get();
+    }
+
+    public int getPeakConnections() {
+        return peak.get();
+    }
+
+    public long getAcceptedConnections() {
+        return accepted.sum();
+    }
+
+    /**
+     * Builds a one-line report and resets the carrier utilisation sample window.
+     *
+     * @return the report text
+     */
+    public synchronized String report() {
+        long now = System.nanoTime();
+        long elapsed = Math.max(1, now - lastSampleNanos);
+        lastSampleNanos = now;
+
+        int carriers = 0;
+        long carrierCpu = 0;
+        Map<Long, Long> current = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (!CARRIER_THREAD_CLASS.equals(thread.getClass().getName())) {
+                continue;
+            }
+            long cpu = threadBean.isThreadCpuTimeSupported() ? threadBean.getThreadCpuTime(thread.threadId()) : -1;
+            if (cpu < 0) {
+                continue;
+            }
+            carriers++;
+            current.put(thread.threadId(), cpu);
+            carrierCpu += cpu - lastCarrierCpu.getOrDefault(thread.threadId(), cpu);
+        }
+        lastCarrierCpu.clear();
+        lastCarrierCpu.putAll(current);
+
+        double utilisation = carriers == 0 ? 0.0 : 100.0 * carrierCpu / ((double) elapsed * carriers);
+        return String.format("Connections: active=%d, peak=%d, accepted=%d, platformThreads=%d, carriers=%d, carrierUtilisation=%.1f%%",
+                active.get(), peak.get(), accepted.sum(), threadBean.getThreadCount(), carriers, utilisation);
+    }
+
+    /**
+     * Adds a line to every periodic report.
+     *
+     * @param report builds the line; called on the reporting thread
+     */
+    public void addReport(Supplier<String> report) {
+        extraReports.add(report);
+    }
+
+    /**
+     * Prints {@link #report()}, then every added report, to standard out every {@code intervalSeconds}.
+     *
+     * @param intervalSeconds seconds between reports; 0 or less does nothing
+     */
+    public void startReporting(int intervalSeconds) {
+        if (intervalSeconds <= 0 || reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            System.out.println(report());
+            for (Supplier<String> extra : extraReports) {
+                System.out.println(extra.get());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops periodic reporting.
+     */
+    public void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package edu.sdccd.cisc191.network;
+
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflates large binary frames for connections that negotiated {@link WireProtocol#COMPRESSED}.
+ * <p>
+ * Each frame is compressed on its own, with no state carried between frames, so the result can
+ * be cached on the {@link OutboundMessage} and shared by every compressed connection like any
+ * other encoding. To make that pay off on short messages, both ends prime the compressor with
+ * the same preset {@link #DICTIONARY} of strings the game sends over and over.
+ * <p>
+ * A compressed frame keeps the usual length prefix; its body is the marker byte {@code 0xFF}
+ * (never an opcode), the varint length of the original body, then raw deflate data. Frames
+ * below the threshold, or that would not shrink, are sent as they are, so a compressed stream is
+ * an ordinary binary stream with some frames packed. {@link InboundDecoder} accepts packed frames
+ * in binary mode, so only the sending side needs to be told.
+ */
+public final class FrameCompressor {
+    /** First body byte of a compressed frame. */
+    static final int MARKER = 0xFF;
+    /** Frame bodies at least this long are compressed unless configured otherwise. */
+    public static final int DEFAULT_THRESHOLD = 256;
+
+    /**
+     * Text both sides start from, most common last (deflate reaches recent bytes more cheaply).
+     * Changing it breaks compatibility with clients built against the old one.
+     */
+    static final byte[] DICTIONARY = String.join("",
+            "LASER_CANNON+SHIELD_GENERATOR+MISSILE_LAUNCHER+CLOAKING_DEVICE+REPAIR_DRONES",
+            "Saturn Jupiter Mars Earth arrived at empty space. ",
+            "Explore rejected: there is no planet hereGather rejected: resources can only be gathered at a planet",
+            "Trade rejected: not enough Build rejected: a needs 20 Minerals",
+            "Move rejected: out of bounds or not enough fuel",
+            "Dilithium: Credits: Energy: Minerals: Fuel: ",
+            "Battleship:300:60;Cruiser:200:40;Fighter:100:20;",
+            "]: [127.0.0.1:"
+    ).getBytes(StandardCharsets.UTF_8);
+
+    private static volatile int threshold = DEFAULT_THRESHOLD;
+    private static final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+    private static final Queue<Inflater> inflaters = new ConcurrentLinkedQueue<>();
+
+    private static final LongAdder compressedFrames = new LongAdder();
+    private static final LongAdder skippedFrames = new LongAdder();
+    private static final LongAdder bytesBefore = new LongAdder();
+    private static final LongAdder bytesAfter = new LongAdder();
+    private static final LongAdder compressNanos = new LongAdder();
+    private static final LongAdder inflatedFrames = new LongAdder();
+    private static final LongAdder inflateNanos = new LongAdder();
+
+    private FrameCompressor() {
+    }
+
+    /**
+     * @param bytes smallest frame body worth compressing, or negative to refuse compression
+     */
+    public static void setThreshold(int bytes) {
+        threshold = bytes;
+    }
+
+    /**
+     * @return true if connections asking for compression get it
+     */
+    public static boolean isEnabled() {
+        return threshold >= 0;
+    }
+
+    /**
+     * @param frame a complete binary frame, length prefix included
+     * @return the frame with its body compressed, or {@code frame} itself if it is below the
+     *         threshold or would not get smaller
+     */
+    static byte[] compressFrame(byte[] frame) {
+        int headerLength = headerLength(frame);
+        int bodyLength = frame.length - headerLength;
+        if (bodyLength < Math.max(threshold, 1)) {
+            return frame;
+        }
+        long start = System.nanoTime();
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.BEST_SPEED, true);
+        }
+        byte[] packed;
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(frame, headerLength, bodyLength);
+            deflater.finish();
+            BinaryCodec.ByteSink out = new BinaryCodec.ByteSink(bodyLength / 2 + 16);
+            out.write(MARKER);
+            out.writeVarLong(bodyLength);
+            byte[] chunk = new byte[Math.min(bodyLength + 16, 8 * 1024)];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+                if (out.size() >= bodyLength) {
+                    break; // not worth it
+                }
+            }
+            packed = out.size() < bodyLength ? out.toByteArray() : null;
+        } finally {
+            deflater.reset();
+            deflaters.offer(deflater);
+        }
+        compressNanos.add(System.nanoTime() - start);
+        if (packed == null) {
+            skippedFrames.increment();
+            return frame;
+        }
+        BinaryCodec.ByteSink result = new BinaryCodec.ByteSink(packed.length + 5);
+        result.writeVarLong(packed.length);
+        result.write(packed, 0, packed.length);
+        compressedFrames.increment();
+        bytesBefore.add(frame.length);
+        bytesAfter.add(result.size());
+        return result.toByteArray();
+    }
+
+    /**
+     * @param buf buffer holding a frame body
+     * @param offset where the body starts
+     * @return true if the body is a compressed frame
+     */
+    static boolean isCompressed(byte[] buf, int offset) {
+        return (buf[offset] & 0xFF) == MARKER;
+    }
+
+    /**
+     * Restores the original body of a compressed frame.
+     *
+     * @param buf buffer holding the compressed body, marker included
+     * @param offset where the body starts
+     * @param length body length in bytes
+     * @return the original body
+     * @throws ProtocolException if the data is corrupt or inflates past the frame size limit
+     */
+    static byte[] inflateBody(byte[] buf, int offset, int length) throws ProtocolException {
+        long start = System.nanoTime();
+        int pos = offset + 1;
+        int end = offset + length;
+        long originalLength = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (pos >= end || shift > 28) {
+                throw new ProtocolException("Malformed compressed frame");
+            }
+            int b = buf[pos++] & 0xFF;
+            originalLength |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (originalLength < 1 || originalLength > BinaryCodec.MAX_FRAME_LENGTH) {
+            throw new ProtocolException("Compressed frame of " + originalLength + " bytes exceeds limit");
+        }
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        try {
+            inflater.setDictionary(DICTIONARY);
+            inflater.setInput(buf, pos, end - pos);
+            byte[] body = new byte[(int) originalLength];
+            int filled = 0;
+            while (filled < body.length) {
+                int n = inflater.inflate(body, filled, body.length - filled);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                filled += n;
+            }
+            if (filled != body.length || inflater.getRemaining() > 0) {
+                throw new ProtocolException("Compressed frame does not match its declared length");
+            }
+            inflatedFrames.increment();
+            inflateNanos.add(System.nanoTime() - start);
+            return body;
+        } catch (DataFormatException e) {
+            throw new ProtocolException("Corrupt compressed frame: " + e.getMessage());
+        } finally {
+            inflater.reset();
+            inflaters.offer(inflater);
+        }
+    }
+
+    private static int headerLength(byte[] frame) {
+        int i = 0;
+        while ((frame[i] & 0x80) != 0) {
+            i++;
+        }
+        return i + 1;
+    }
+
+    public static long getCompressedFrames() {
+        return compressedFrames.sum();
+    }
+
+    /**
+     * @return frames over the threshold that were sent uncompressed because they did not shrink
+     */
+    public static long getSkippedFrames() {
+        return skippedFrames.sum();
+    }
+
+    /**
+     * @return compressed size over original size for the frames that were compressed, or 1
+     */
+    public static double getRatio() {
+        long before = bytesBefore.sum();
+        return before == 0 ? 1.0 : (double) bytesAfter.sum() / before;
+    }
+
+    /**
+     * @return nanoseconds spent compressing, including attempts that were skipped
+     */
+    public static long getCompressNanos() {
+        return compressNanos.sum();
+    }
+
+    /**
+     * Builds a one-line summary of bandwidth saved against CPU spent. Each message is compressed
+     * once however many connections receive it, so the cost is per distinct message.
+     *
+     * @return the report text
+     */
+    public static String report() {
+        long frames = compressedFrames.sum();
+        long attempts = frames + skippedFrames.sum();
+        long inflated = inflatedFrames.sum();
+        return String.format("Compression: threshold=%d, frames=%d compressed/%d skipped, ratio=%.2f, saved=%dKB, "
+                        + "deflate=%.1fus/frame (%dms total), inflate=%d frames %.1fus/frame",
+                threshold, frames, skippedFrames.sum(), getRatio(), (bytesBefore.sum() - bytesAfter.sum()) / 1024,
+                attempts == 0 ? 0.0 : compressNanos.sum() / 1e3 / attempts, compressNanos.sum() / 1_000_000,
+                inflated, inflated == 0 ? 0.0 : inflateNanos.sum() / 1e3 / inflated);
+    }
+}
@@ -0,0 +1,167 @@
+package edu.sdccd.cisc191.network;
+
+import java.util.Arrays;
+
+/**
+ * One protocol message, independent of whether it travels as a text line or a binary frame.
+ * <p>
+ * Fields follow the layout of the message's {@link Opcode}: strings are stored as
+ * {@link String} and integers as {@link Long}.
+ */
+public class GameMessage {
+    private final Opcode opcode;
+    private final Object[] fields;
+
+    private GameMessage(Opcode opcode, Object[] fields) {
+        this.opcode = opcode;
+        this.fields = fields;
+    }
+
+    /**
+     * Creates a message, checking the fields against the opcode's layout.
+     *
+     * @param opcode the message type
+     * @param fields one value per layout character; integers may be any {@link Number}
+     * @return the message
+     * @throws IllegalArgumentException if the fields do not match the layout
+     */
+    public static GameMessage of(Opcode opcode, Object... fields) {
+        int fixed = opcode.fixedFields();
+        if (fields.length < fixed || (!opcode.isVariable() && fields.length != fixed)) {
+            throw new IllegalArgumentException(opcode + " expects " + fixed + " fields, got " + fields.length);
+        }
+        Object[] values = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            Object field = fields[i];
+            if (opcode.isStringField(i) && field instanceof String) {
+                values[i] = field;
+            } else if (!opcode.isStringField(i) && field instanceof Number number) {
+                values[i] = number.longValue();
+            } else {
+                throw new IllegalArgumentException(opcode + " field " + i + " has the wrong type: " + field);
+            }
+        }
+        return new GameMessage(opcode, values);
+    }
+
+    /**
+     * @param text free-form server text
+     * @return a {@link Opcode#NOTICE} message
+     */
+    public static GameMessage notice(String text) {
+        return of(Opcode.NOTICE, text);
+    }
+
+    /**
+     * @param sender who sent the line (filled in by the server)
+     * @param text the chat text
+     * @return a {@link Opcode#CHAT} message
+     */
+    public static GameMessage chat(String sender, String text) {
+        return of(Opcode.CHAT, sender, text);
+    }
+
+    /**
+     * Parses one text-protocol line. Lines of the form {@code /keyword fields...} that match an
+     * opcode's layout become typed messages; anything else is chat, so old clients keep working.
+     *
+     * @param line the line without its terminator
+     * @return the parsed message
+     */
+    public static GameMessage fromText(String line) {
+        if (line.startsWith("/")) {
+            String[] tokens = line.substring(1).split(" ", 2);
+            Opcode opcode = Opcode.fromKeyword(tokens[0]);
+            if (opcode != null && tokens.length == 2) {
+                GameMessage typed = parseFields(opcode, tokens[1]);
+                if (typed != null) {
+                    return typed;
+                }
+            }
+        }
+        return chat("", line);
+    }
+
+    private static GameMessage parseFields(Opcode opcode, String rest) {
+        int fixed = opcode.fixedFields();
+        String[] tokens = opcode.isVariable() ? rest.split(" ") : rest.split(" ", fixed);
+        if (tokens.length < fixed || (!opcode.isVariable() && tokens.length != fixed)) {
+            return null;
+        }
+        Object[] values = new Object[tokens.length];
+        try {
+            for (int i = 0; i < tokens.length; i++) {
+                values[i] = opcode.isStringField(i) ? tokens[i] : Long.parseLong(tokens[i]);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return new GameMessage(opcode, values);
+    }
+
+    /**
+     * @return the text-protocol form of this message, without a terminator
+     */
+    public String toText() {
+        switch (opcode) {
+            case NOTICE:
+                return getString(0);
+            case CHAT:
+                return "[" + getString(0) + "]: " + getString(1);
+            default:
+                StringBuilder sb = new StringBuilder("/").append(opcode.keyword());
+                for (Object field : fields) {
+                    sb.append(' ').append(field);
+                }
+                return sb.toString();
+        }
+    }
+
+    public Opcode getOpcode() {
+        return opcode;
+    }
+
+    /**
+     * @return the number of fields
+     */
+    public int size() {
+        return fields.length;
+    }
+
+    public String getString(int index) {
+        return (String) fields[index];
+    }
+
+    public long getLong(int index) {
+        return (Long) fields[index];
+    }
+
+    public int getInt(int index) {
+        return (int) getLong(index);
+    }
+
+    /**
+     * @param index field index
+     * @return true if the field is a string, false if it is an integer
+     */
+    boolean isString(int index) {
+        return fields[index] instanceof String;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameMessage other)) return false;
+        return opcode == other.opcode && Arrays.equals(fields, other.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * opcode.hashCode() + Arrays.hashCode(fields);
+    }
+
+    @Override
+    public String toString() {
+        return "GameMessage{" + opcode + " " + Arrays.toString(fields) + '}';
+    }
+}
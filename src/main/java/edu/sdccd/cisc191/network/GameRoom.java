@@ -0,0 +1,285 @@
+package edu.sdccd.cisc191.network;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One independent game: its own board, player registry, broadcast group, replication and
+ * simulation tick.
+ * <p>
+ * When the galaxy is split across servers the board is only this server's region; the room with
+ * the same name on each server holds its share of the game, and players crossing a border are
+ * handed to the room of the same name on the owning server.
+ * <p>
+ * A room owns no threads. Its tick and replication passes run as tasks on an executor shared by
+ * every room, which orders them by deadline, so hundreds of small rooms share a few threads and
+ * a busy room delays the others by at most one of its ticks. Each task reschedules itself only
+ * after it finishes, so a room never runs two ticks at once and a tick that overruns skips the
+ * missed ticks, as {@link SimulationEngine} does on its own thread.
+ */
+public class GameRoom {
+    private final String name;
+    private final MultiplayerHandler handler = new MultiplayerHandler();
+    private final InterestManager interest;
+    private final StateReplicator replicator;
+    private final SimulationEngine engine;
+    private final SessionManager sessions;
+    private final RegionMap regions;
+    private final ShardLinks links;
+    private final Set<ClientConnection> members = ConcurrentHashMap.newKeySet();
+    private final long replicationNanos;
+    private ScheduledExecutorService executor;
+    private volatile ScheduledFuture<?> tickTask;
+    private volatile ScheduledFuture<?> replicationTask;
+    private volatile boolean closed;
+
+    /**
+     * @param name the room's name, unique on the server
+     * @param config interest, replication and tick settings
+     * @param sessions where broadcasts are buffered for members whose connection dropped
+     */
+    public GameRoom(String name, ServerConfig config, SessionManager sessions) {
+        this(name, config, sessions, RegionMap.single(config.getGalaxyRows(), config.getGalaxyCols()), null);
+    }
+
+    /**
+     * @param name the room's name, the same on every server of a sharded galaxy
+     * @param config interest, replication and tick settings
+     * @param sessions where broadcasts are buffered for members whose connection dropped
+     * @param regions the galaxy's regions; the room's board is the local one
+     * @param links connections to the other regions' servers, or null if not sharded
+     */
+    GameRoom(String name, ServerConfig config, SessionManager sessions, RegionMap regions, ShardLinks links) {
+        this.name = name;
+        this.sessions = sessions;
+        this.regions = regions;
+        this.links = links;
+        this.interest = new InterestManager(handler, config.getInterestRadius(), config.getInterestRegionSize());
+        this.replicator = new StateReplicator(handler, interest);
+        this.engine = new SimulationEngine(handler, regions.newLocalBoard(), config.getSimulationTickMillis());
+        if (links != null) {
+            engine.setHandoff(regions, this::handOff);
+        }
+        this.replicationNanos = TimeUnit.MILLISECONDS.toNanos(config.getReplicationIntervalMillis());
+    }
+
+    /**
+     * Runs on the tick: captures the session and sends it to this room's counterpart on the
+     * other server, without waiting for the link.
+     */
+    private CompletableFuture<GameMessage> handOff(PlayerSession session, int row, int col, int region) {
+        GameMessage redirect = GameMessage.of(Opcode.REDIRECT, regions.getHost(region), regions.getPort(region), session.getPlayerId());
+        return links.handOff(region, session.toHandoff(name, row, col)).thenApply(accepted -> accepted ? redirect : null);
+    }
+
+    /**
+     * Starts ticking and replicating on a shared executor.
+     *
+     * @param executor the executor every room runs on
+     */
+    void start(ScheduledExecutorService executor) {
+        this.executor = executor;
+        long now = System.nanoTime();
+        scheduleTick(now + engine.getTickNanos());
+        scheduleReplication(now + replicationNanos);
+    }
+
+    private void scheduleTick(long deadline) {
+        if (!closed) {
+            tickTask = executor.schedule(() -> runTick(deadline), deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void runTick(long deadline) {
+        try {
+            engine.tick();
+        } catch (RuntimeException e) {
+            System.err.println("Tick failed in room " + name + ": " + e.getMessage());
+        }
+        long next = deadline + engine.getTickNanos();
+        scheduleTick(Math.max(next, System.nanoTime())); // fell behind: skip the missed ticks
+    }
+
+    private void scheduleReplication(long deadline) {
+        if (!closed) {
+            replicationTask = executor.schedule(() -> runReplication(deadline), deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void runReplication(long deadline) {
+        try {
+            replicator.replicate();
+        } catch (RuntimeException e) {
+            System.err.println("Replication pass failed in room " + name + ": " + e.getMessage());
+        }
+        scheduleReplication(Math.max(deadline + replicationNanos, System.nanoTime()));
+    }
+
+    /**
+     * Stops the room's tick and replication.
+     */
+    void close() {
+        closed = true;
+        if (tickTask != null) {
+            tickTask.cancel(false);
+        }
+        if (replicationTask != null) {
+            replicationTask.cancel(false);
+        }
+    }
+
+    /**
+     * Adds a client to the broadcast group; it gets snapshots of every player here on the next
+     * replication pass.
+     *
+     * @param client the client joining
+     */
+    void join(ClientConnection client) {
+        members.add(client);
+        replicator.addClient(client);
+    }
+
+    /**
+     * Adds a resumed client with the replication state its previous connection had reached.
+     *
+     * @param client the new connection
+     * @param view the previous connection's replication state, or null for a fresh one
+     * @param playerId the player it controlled, or null
+     */
+    void rejoin(ClientConnection client, StateReplicator.ClientView view, String playerId) {
+        members.add(client);
+        if (playerId != null) {
+            interest.bind(client, playerId);
+        }
+        if (view != null) {
+            replicator.addClient(client, view);
+        } else {
+            replicator.addClient(client);
+        }
+    }
+
+    /**
+     * Removes a client from the broadcast group. Its player stays in the game.
+     *
+     * @param client the client leaving
+     * @return what the client held, for a session that may resume, or null
+     */
+    StateReplicator.ClientView leave(ClientConnection client) {
+        members.remove(client);
+        StateReplicator.ClientView view = replicator.removeClient(client);
+        interest.unbind(client);
+        return view;
+    }
+
+    /**
+     * Queues a player command for this room's next tick. A connection controls the player its
+     * first command names, and only while no other connection controls it; a command for any
+     * other player is refused with a notice, so one client cannot move, build, explore, gather
+     * or trade as another.
+     *
+     * @param client the sender, bound to the command's player
+     * @param command the command; field 0 is the player id
+     * @return true if the command was queued
+     */
+    boolean submit(ClientConnection client, GameMessage command) {
+        String playerId = command.getString(0);
+        if (!interest.bind(client, playerId)) {
+            client.send(OutboundMessage.of(GameMessage.notice("Command rejected: this connection does not control " + playerId)));
+            return false;
+        }
+        engine.submit(client, command);
+        return true;
+    }
+
+    /**
+     * Queues a player handed over by another region's server for this room's next tick, which
+     * answers the link with a {@link Opcode#HANDOFF_ACK}.
+     *
+     * @param peer the link from the other server
+     * @param handoff the {@link Opcode#HANDOFF} message
+     */
+    void acceptHandoff(ClientConnection peer, GameMessage handoff) {
+        engine.submit(peer, handoff);
+    }
+
+    /**
+     * Records that a client holds a player's state up to {@code version}.
+     *
+     * @param client the acknowledging client
+     * @param playerId the player the ack refers to
+     * @param version the version the client now holds
+     */
+    void acknowledge(ClientConnection client, String playerId, long version) {
+        replicator.acknowledge(client, playerId, version);
+    }
+
+    /**
+     * Queues a message on every member, and keeps it for members whose connection dropped.
+     *
+     * @param message the message to broadcast
+     */
+    void broadcast(OutboundMessage message) {
+        sessions.bufferForParked(this, message);
+        for (ClientConnection client : members) {
+            try {
+                client.send(message);
+            } catch (Exception e) {
+                System.err.println("Failed to send message to a client: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sends a message only to members whose area of interest covers a player's square, or to
+     * every member if the player has no position or interest filtering is disabled. Like
+     * {@link #broadcast}, it is kept for parked sessions it would have reached.
+     *
+     * @param playerId the player the event happened to
+     * @param message the message to send
+     */
+    void broadcastNear(String playerId, GameMessage message) {
+        OutboundMessage shared = OutboundMessage.forBroadcast(null, message);
+        int[] pos = handler.getPositions().positionOf(playerId);
+        if (pos == null || !interest.isEnabled()) {
+            broadcast(shared);
+            return;
+        }
+        sessions.bufferForParked(this, shared, parkedPlayer -> interest.canSee(parkedPlayer, pos[0], pos[1]));
+        interest.forEachClientNear(pos[0], pos[1], client -> client.send(shared));
+    }
+
+    /**
+     * @param client a member
+     * @return the player it controls, or null
+     */
+    String playerOf(ClientConnection client) {
+        return interest.playerOf(client);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return connected clients in the room
+     */
+    public int getMemberCount() {
+        return members.size();
+    }
+
+    public MultiplayerHandler getHandler() {
+        return handler;
+    }
+
+    public SimulationEngine getEngine() {
+        return engine;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,131 @@
+package edu.sdccd.cisc191.network;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Turns the raw bytes read from one client into {@link GameMessage}s.
+ * <p>
+ * Starts in {@link WireProtocol#TEXT} and switches to {@link WireProtocol#BINARY} right after
+ * a {@code /hello binary} (or {@code /hello compressed}) line, so any binary frames that arrived
+ * in the same read are decoded correctly. Binary frames packed by {@link FrameCompressor} are
+ * inflated before decoding. Used by both the NIO loops and the thread-per-client handlers. Partial input is
+ * held in a buffer that is released as soon as it is fully consumed, so idle clients cost
+ * nothing here.
+ */
+public class InboundDecoder {
+    /** Longest text line accepted; longer lines are treated as a protocol violation. */
+    private static final int MAX_LINE_LENGTH = 8 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Consumer<GameMessage> listener;
+    private WireProtocol protocol = WireProtocol.TEXT;
+    private byte[] buf = EMPTY;
+    private int length;
+    /** How far a partial text line has already been searched for a terminator. */
+    private int scanned;
+
+    /**
+     * @param listener receives each decoded message, in order, on the reading thread
+     */
+    public InboundDecoder(Consumer<GameMessage> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Consumes everything remaining in {@code input} and dispatches every complete message.
+     *
+     * @param input freshly read bytes
+     * @throws ProtocolException if the client sent an oversized or malformed message
+     */
+    public void feed(ByteBuffer input) throws ProtocolException {
+        int count = input.remaining();
+        if (length + count > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(length + count, Math.max(64, buf.length * 2)));
+        }
+        input.get(buf, length, count);
+        length += count;
+        process();
+    }
+
+    /**
+     * Array variant of {@link #feed(ByteBuffer)} for stream-based readers.
+     */
+    public void feed(byte[] input, int offset, int count) throws ProtocolException {
+        feed(ByteBuffer.wrap(input, offset, count));
+    }
+
+    public WireProtocol getProtocol() {
+        return protocol;
+    }
+
+    private void process() throws ProtocolException {
+        int pos = 0;
+        while (pos < length) {
+            if (protocol == WireProtocol.TEXT) {
+                int newline = indexOfNewline(Math.max(pos, scanned));
+                if (newline < 0) {
+                    scanned = length;
+                    if (length - pos > MAX_LINE_LENGTH) {
+                        throw new ProtocolException("Line too long");
+                    }
+                    break;
+                }
+                int end = newline > pos && buf[newline - 1] == '\r' ? newline - 1 : newline;
+                GameMessage message = GameMessage.fromText(new String(buf, pos, end - pos, StandardCharsets.UTF_8));
+                pos = newline + 1;
+                scanned = pos;
+                if (message.getOpcode() == Opcode.HELLO && switchesToBinary(message.getString(0))) {
+                    protocol = WireProtocol.BINARY;
+                }
+                listener.accept(message);
+            } else {
+                int[] header = BinaryCodec.readFrameHeader(buf, pos, length);
+                if (header == null || pos + header[0] + header[1] > length) {
+                    break;
+                }
+                int body = pos + header[0];
+                GameMessage message;
+                if (header[1] > 0 && FrameCompressor.isCompressed(buf, body)) {
+                    byte[] inflated = FrameCompressor.inflateBody(buf, body, header[1]);
+                    message = BinaryCodec.decodeBody(inflated, 0, inflated.length);
+                } else {
+                    message = BinaryCodec.decodeBody(buf, body, header[1]);
+                }
+                pos += header[0] + header[1];
+                listener.accept(message);
+            }
+        }
+        compact(pos);
+    }
+
+    private static boolean switchesToBinary(String hello) {
+        return "binary".equalsIgnoreCase(hello) || "compressed".equalsIgnoreCase(hello);
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from; i < length; i++) {
+            if (buf[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void compact(int consumed) {
+        if (consumed == length) {
+            buf = EMPTY; // give memory back once the client goes idle
+            length = 0;
+            scanned = 0;
+            return;
+        }
+        if (consumed > 0) {
+            System.arraycopy(buf, consumed, buf, 0, length - consumed);
+            length -= consumed;
+            scanned -= consumed;
+        }
+    }
+}
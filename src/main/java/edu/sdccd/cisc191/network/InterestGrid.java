@@ -0,0 +1,107 @@
+package edu.sdccd.cisc191.network;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Spatial hash over {@link edu.sdccd.cisc191.game.GameBoard} coordinates.
+ * <p>
+ * Items are bucketed into square cells of {@code cellSize} board squares, so a range query
+ * only visits the few buckets that overlap the range instead of every item. Safe for
+ * concurrent moves and queries; a query that races a move may see the item in either place.
+ *
+ * @param <T> the indexed item type, e.g. a player id
+ */
+public class InterestGrid<T> {
+    private final int cellSize;
+    private final Map<Long, Set<T>> cells = new ConcurrentHashMap<>();
+    private final Map<T, int[]> positions = new ConcurrentHashMap<>();
+
+    /**
+     * @param cellSize board squares per bucket side; roughly the typical query radius
+     */
+    public InterestGrid(int cellSize) {
+        this.cellSize = Math.max(1, cellSize);
+    }
+
+    /**
+     * Places or moves an item.
+     *
+     * @param item the item
+     * @param row board row
+     * @param col board column
+     */
+    public void move(T item, int row, int col) {
+        int[] previous = positions.put(item, new int[]{row, col});
+        long newCell = cellKey(row, col);
+        if (previous != null) {
+            long oldCell = cellKey(previous[0], previous[1]);
+            if (oldCell == newCell) {
+                return;
+            }
+            Set<T> old = cells.get(oldCell);
+            if (old != null) {
+                old.remove(item);
+            }
+        }
+        cells.computeIfAbsent(newCell, key -> ConcurrentHashMap.newKeySet()).add(item);
+    }
+
+    /**
+     * @param item the item to forget
+     */
+    public void remove(T item) {
+        int[] previous = positions.remove(item);
+        if (previous != null) {
+            Set<T> old = cells.get(cellKey(previous[0], previous[1]));
+            if (old != null) {
+                old.remove(item);
+            }
+        }
+    }
+
+    /**
+     * @param item the item
+     * @return {@code {row, col}}, or null if the item is not indexed
+     */
+    public int[] positionOf(T item) {
+        return positions.get(item);
+    }
+
+    /**
+     * Visits every item whose position lies inside the inclusive box.
+     */
+    public void forEachInRange(int minRow, int minCol, int maxRow, int maxCol, Consumer<T> action) {
+        for (int cellRow = Math.floorDiv(minRow, cellSize); cellRow <= Math.floorDiv(maxRow, cellSize); cellRow++) {
+            for (int cellCol = Math.floorDiv(minCol, cellSize); cellCol <= Math.floorDiv(maxCol, cellSize); cellCol++) {
+                Set<T> cell = cells.get(pack(cellRow, cellCol));
+                if (cell == null) {
+                    continue;
+                }
+                for (T item : cell) {
+                    int[] pos = positions.get(item);
+                    if (pos != null && pos[0] >= minRow && pos[0] <= maxRow && pos[1] >= minCol && pos[1] <= maxCol) {
+                        action.accept(item);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of indexed items
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    private long cellKey(int row, int col) {
+        return pack(Math.floorDiv(row, cellSize), Math.floorDiv(col, cellSize));
+    }
+
+    private static long pack(int cellRow, int cellCol) {
+        return ((long) cellRow << 32) | (cellCol & 0xFFFFFFFFL);
+    }
+}
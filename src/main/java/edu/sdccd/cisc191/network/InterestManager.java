@@ -0,0 +1,165 @@
+package edu.sdccd.cisc191.network;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Decides which clients care about which players, based on board position.
+ * <p>
+ * A client sees a player if the player is within {@code radius} squares of the client's own
+ * player (Chebyshev distance) or, when regions are enabled, in the same
+ * {@code regionSize x regionSize} region. Lookups go through the position index kept by
+ * {@link MultiplayerHandler}, so the cost of a query depends on how crowded the area is, not on
+ * how many players are online.
+ * <p>
+ * With both radius and regions disabled every client sees everything, as before. Otherwise a
+ * client sees nothing area-scoped until it has a player with a position.
+ */
+public class InterestManager {
+    private final MultiplayerHandler handler;
+    private final int radius;
+    private final int regionSize;
+    private final Map<ClientConnection, String> playerOf = new ConcurrentHashMap<>();
+    private final Map<String, ClientConnection> connectionOf = new ConcurrentHashMap<>();
+
+    /**
+     * @param handler the player registry and position index
+     * @param radius visibility radius in board squares, or negative to disable
+     * @param regionSize region side in board squares, or 0 to disable
+     */
+    public InterestManager(MultiplayerHandler handler, int radius, int regionSize) {
+        this.handler = handler;
+        this.radius = radius;
+        this.regionSize = regionSize;
+    }
+
+    /**
+     * @return true if updates are filtered by position at all
+     */
+    public boolean isEnabled() {
+        return radius >= 0 || regionSize > 0;
+    }
+
+    /**
+     * Associates a connection with the player it controls. A connection controls one player and
+     * a player one connection, so the first player a connection reports is kept, and a player
+     * already controlled by a connection that has not been unbound cannot be taken over.
+     * Binding is atomic across both directions; a connection that is already bound is answered
+     * without locking.
+     *
+     * @param client the connection
+     * @param playerId the player it controls
+     * @return true if the connection now controls the player, false if it controls another
+     *         player or another connection controls this one
+     */
+    public boolean bind(ClientConnection client, String playerId) {
+        String bound = playerOf.get(client);
+        if (bound != null) {
+            return bound.equals(playerId);
+        }
+        synchronized (this) {
+            bound = playerOf.get(client);
+            if (bound != null) {
+                return bound.equals(playerId);
+            }
+            if (connectionOf.putIfAbsent(playerId, client) != null) {
+                return false;
+            }
+            playerOf.put(client, playerId);
+            return true;
+        }
+    }
+
+    /**
+     * @param client the connection that closed
+     */
+    public synchronized void unbind(ClientConnection client) {
+        String playerId = playerOf.remove(client);
+        if (playerId != null) {
+            connectionOf.remove(playerId, client);
+        }
+    }
+
+    /**
+     * @param client a connection
+     * @return the player it controls, or null
+     */
+    public String playerOf(ClientConnection client) {
+        return playerOf.get(client);
+    }
+
+    /**
+     * @param viewer the client
+     * @return ids of the players the client should receive state for, or null if filtering is
+     *         disabled and it should receive everyone
+     */
+    public Set<String> visiblePlayers(ClientConnection viewer) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Set<String> visible = new HashSet<>();
+        String own = playerOf.get(viewer);
+        int[] pos = own == null ? null : handler.getPositions().positionOf(own);
+        if (pos != null) {
+            forEachVisibleFrom(pos[0], pos[1], visible::add);
+        }
+        return visible;
+    }
+
+    /**
+     * @param playerId a player
+     * @param row board row
+     * @param col board column
+     * @return true if the player has a position and the square is in its area of interest, or
+     *         filtering is disabled
+     */
+    public boolean canSee(String playerId, int row, int col) {
+        if (!isEnabled()) {
+            return true;
+        }
+        int[] pos = playerId == null ? null : handler.getPositions().positionOf(playerId);
+        if (pos == null) {
+            return false;
+        }
+        return withinRadius(pos, row, col) || (regionSize > 0
+                && Math.floorDiv(pos[0], regionSize) == Math.floorDiv(row, regionSize)
+                && Math.floorDiv(pos[1], regionSize) == Math.floorDiv(col, regionSize));
+    }
+
+    /**
+     * Visits every bound client whose player can see the square {@code (row, col)}.
+     * Visibility is symmetric, so these are the players visible from that square.
+     */
+    public void forEachClientNear(int row, int col, Consumer<ClientConnection> action) {
+        forEachVisibleFrom(row, col, playerId -> {
+            ClientConnection client = connectionOf.get(playerId);
+            if (client != null) {
+                action.accept(client);
+            }
+        });
+    }
+
+    private void forEachVisibleFrom(int row, int col, Consumer<String> action) {
+        InterestGrid<String> positions = handler.getPositions();
+        if (regionSize > 0) {
+            int top = Math.floorDiv(row, regionSize) * regionSize;
+            int left = Math.floorDiv(col, regionSize) * regionSize;
+            positions.forEachInRange(top, left, top + regionSize - 1, left + regionSize - 1, playerId -> {
+                // avoid reporting players twice when they are also within the radius
+                if (radius < 0 || !withinRadius(positions.positionOf(playerId), row, col)) {
+                    action.accept(playerId);
+                }
+            });
+        }
+        if (radius >= 0) {
+            positions.forEachInRange(row - radius, col - radius, row + radius, col + radius, action);
+        }
+    }
+
+    private boolean withinRadius(int[] pos, int row, int col) {
+        return pos != null && Math.abs(pos[0] - row) <= radius && Math.abs(pos[1] - col) <= radius;
+    }
+}
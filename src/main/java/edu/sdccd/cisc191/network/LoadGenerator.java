@@ -0,0 +1,271 @@
+package edu.sdccd.cisc191.network;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Command-line load generator: opens many headless {@link MultiplayerClient} bots against a
+ * running {@link MultiplayerServer} and reports round-trip latency and throughput.
+ * <p>
+ * Each bot replays a script of actions in a loop at a fixed rate. {@code move} steps to a
+ * neighbouring square, {@code build} orders a ship, {@code explore} explores the current
+ * square, {@code gather} gathers minerals there and {@code trade} gives one credit to
+ * another bot. Separately, each bot pings the server at its own rate, and the echoes give the
+ * round-trip percentiles. Bot start times are spread out so they do not all act in lockstep.
+ * With {@code --rooms=N} the bots are dealt round-robin into N game rooms and only trade within
+ * their own room. Bots follow redirects, so against a galaxy split across servers they wander
+ * between regions (set {@code --board} to the galaxy size).
+ * <p>
+ * Options use the same {@code --key=value} form as the server, for example
+ * {@code --host=localhost --port=5000 --bots=500 --rate=10 --ping-rate=2 --duration=30
+ * --protocol=binary --script=move,move,move,build,explore --board=5 --report-interval=5 --rooms=0}.
+ * Loopback tests with thousands of bots also need {@code ulimit -n} raised on both sides.
+ */
+public class LoadGenerator {
+    private static final String[] SHIP_TYPES = {"Fighter", "Cruiser", "Battleship"};
+
+    private String host = "localhost";
+    private int port = ServerConfig.DEFAULT_PORT;
+    private int bots = 100;
+    private double rate = 5;
+    private double pingRate = 1;
+    private int durationSeconds = 30;
+    private int reportIntervalSeconds = 5;
+    private int boardSize = 5;
+    private WireProtocol protocol = WireProtocol.TEXT;
+    private String[] script = {"move", "move", "move", "build", "explore"};
+    private int rooms = 0;
+
+    private final LatencyHistogram roundTrips = new LatencyHistogram();
+    private final LongAdder actions = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final List<MultiplayerClient> clients = new ArrayList<>();
+    private final List<Bot> botList = new ArrayList<>();
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadGenerator generator = fromArgs(args);
+        generator.run();
+    }
+
+    /**
+     * @param args options in {@code --key=value} form
+     * @return a generator configured from the command line
+     */
+    public static LoadGenerator fromArgs(String[] args) {
+        LoadGenerator generator = new LoadGenerator();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Ignoring unrecognised argument: " + arg);
+                continue;
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            try {
+                switch (key) {
+                    case "host" -> generator.host = value;
+                    case "port" -> generator.port = Integer.parseInt(value);
+                    case "bots" -> generator.bots = Math.max(1, Integer.parseInt(value));
+                    case "rate" -> generator.rate = Double.parseDouble(value);
+                    case "ping-rate" -> generator.pingRate = Double.parseDouble(value);
+                    case "duration" -> generator.durationSeconds = Math.max(1, Integer.parseInt(value));
+                    case "report-interval" -> generator.reportIntervalSeconds = Math.max(0, Integer.parseInt(value));
+                    case "board" -> generator.boardSize = Math.max(1, Integer.parseInt(value));
+                    case "protocol" -> generator.protocol = WireProtocol.valueOf(value.toUpperCase());
+                    case "script" -> generator.script = value.split(",");
+                    case "rooms" -> generator.rooms = Math.max(0, Integer.parseInt(value));
+                    default -> System.err.println("Ignoring unknown option: " + arg);
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid value for " + key + ": " + value);
+            }
+        }
+        return generator;
+    }
+
+    /**
+     * Connects every bot, drives traffic for the configured duration, then prints the results.
+     *
+     * @throws InterruptedException if interrupted while waiting for the run to finish
+     */
+    public void run() throws InterruptedException {
+        System.out.println("Connecting " + bots + " bots to " + host + ":" + port + " (" + protocol + ")...");
+        long connectStart = System.nanoTime();
+        for (int i = 0; i < bots; i++) {
+            try {
+                Bot bot = new Bot(i, clients.size(), new Random(i));
+                MultiplayerClient client = MultiplayerClient.connect(host, port, protocol, bot::onMessage, roundTrips);
+                if (rooms > 0) {
+                    client.send(GameMessage.of(Opcode.JOIN, "room-" + (i % rooms)));
+                }
+                bot.client = client;
+                clients.add(client);
+                botList.add(bot);
+            } catch (IOException e) {
+                failures.increment();
+            }
+        }
+        System.out.printf("Connected %d bots in %d ms (%d failed)%n", clients.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart), failures.sum());
+        if (clients.isEmpty()) {
+            return;
+        }
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+                Runtime.getRuntime().availableProcessors(), Thread.ofPlatform().daemon().factory());
+        for (Bot bot : botList) {
+            schedule(scheduler, bot::act, rate);
+            schedule(scheduler, bot::ping, pingRate);
+        }
+
+        long start = System.nanoTime();
+        long lastSent = 0;
+        long lastReceived = 0;
+        long lastReport = start;
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long reportNanos = TimeUnit.SECONDS.toNanos(reportIntervalSeconds > 0 ? reportIntervalSeconds : durationSeconds);
+        while (System.nanoTime() < end) {
+            TimeUnit.NANOSECONDS.sleep(Math.min(reportNanos, end - System.nanoTime()));
+            if (reportIntervalSeconds > 0) {
+                long now = System.nanoTime();
+                long sentNow = totalSent();
+                long receivedNow = totalReceived();
+                double seconds = (now - lastReport) / 1e9;
+                System.out.printf("[%3ds] sent %.0f msg/s, received %.0f msg/s, rtt %s%n",
+                        TimeUnit.NANOSECONDS.toSeconds(now - start),
+                        (sentNow - lastSent) / seconds, (receivedNow - lastReceived) / seconds, roundTrips.summaryMillis());
+                lastSent = sentNow;
+                lastReceived = receivedNow;
+                lastReport = now;
+            }
+        }
+        scheduler.shutdownNow();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long connected = clients.stream().filter(MultiplayerClient::isConnected).count();
+        clients.forEach(MultiplayerClient::close);
+
+        System.out.println("=== Load test results ===");
+        System.out.printf("Bots: %d connected at end of %d started, %d failures%n", connected, clients.size(), failures.sum());
+        System.out.printf("Actions: %d (%.0f/s)%n", actions.sum(), actions.sum() / seconds);
+        System.out.printf("Sent: %d messages (%.0f/s)%n", totalSent(), totalSent() / seconds);
+        System.out.printf("Received: %d messages (%.0f/s)%n", totalReceived(), totalReceived() / seconds);
+        System.out.println("Round trip: " + roundTrips.summaryMillis());
+    }
+
+    private static void schedule(ScheduledExecutorService scheduler, Runnable task, double perSecond) {
+        if (perSecond <= 0) {
+            return;
+        }
+        long periodMicros = Math.max(1, (long) (1_000_000 / perSecond));
+        long initialDelay = ThreadLocalRandom.current().nextLong(periodMicros);
+        scheduler.scheduleAtFixedRate(task, initialDelay, periodMicros, TimeUnit.MICROSECONDS);
+    }
+
+    private long totalSent() {
+        return clients.stream().mapToLong(MultiplayerClient::getSentCount).sum();
+    }
+
+    private long totalReceived() {
+        return clients.stream().mapToLong(MultiplayerClient::getReceivedCount).sum();
+    }
+
+    public LatencyHistogram getRoundTrips() {
+        return roundTrips;
+    }
+
+    /**
+     * One simulated player walking through the script.
+     */
+    private class Bot {
+        private final int index;
+        private final int slot;
+        private final String playerId;
+        private final Random random;
+        private volatile MultiplayerClient client;
+        /** A redirect to follow before the next action. */
+        private volatile GameMessage redirect;
+        private int step;
+        private int row;
+        private int col;
+
+        Bot(int index, int slot, Random random) {
+            this.index = index;
+            this.slot = slot;
+            this.playerId = "bot-" + index;
+            this.random = random;
+        }
+
+        void onMessage(GameMessage message) {
+            if (message.getOpcode() == Opcode.REDIRECT) {
+                redirect = message;
+            }
+        }
+
+        void act() {
+            GameMessage pending = redirect;
+            if (pending != null) {
+                redirect = null;
+                try {
+                    client = client.follow(pending);
+                    clients.set(slot, client);
+                } catch (IOException e) {
+                    failures.increment();
+                }
+            }
+            if (!client.isConnected()) {
+                return;
+            }
+            String action = script[step++ % script.length];
+            try {
+                switch (action) {
+                    case "move" -> {
+                        // one orthogonal step, as the server only accepts moves to a neighbour
+                        int delta = random.nextBoolean() ? 1 : -1;
+                        if (random.nextBoolean()) {
+                            row = Math.min(boardSize - 1, Math.max(0, row + delta));
+                        } else {
+                            col = Math.min(boardSize - 1, Math.max(0, col + delta));
+                        }
+                        client.move(playerId, row, col);
+                    }
+                    case "build" -> client.build(playerId, SHIP_TYPES[random.nextInt(SHIP_TYPES.length)]);
+                    case "explore" -> client.explore(playerId);
+                    case "gather" -> client.gather(playerId, "Minerals");
+                    case "trade" -> client.trade(playerId, "bot-" + tradePartner(), "Credits", 1);
+                    default -> client.chat(action);
+                }
+                actions.increment();
+            } catch (IOException e) {
+                failures.increment();
+                client.close();
+            }
+        }
+
+        /** A random bot in the same room; rooms hold the bots whose index matches modulo the room count. */
+        private int tradePartner() {
+            if (rooms <= 0) {
+                return random.nextInt(bots);
+            }
+            int roomSize = (bots - 1 - index % rooms) / rooms + 1;
+            return index % rooms + rooms * random.nextInt(roomSize);
+        }
+
+        void ping() {
+            if (!client.isConnected()) {
+                return;
+            }
+            try {
+                client.ping();
+            } catch (IOException e) {
+                failures.increment();
+                client.close();
+            }
+        }
+    }
+}
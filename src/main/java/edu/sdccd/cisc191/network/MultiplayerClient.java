@@ -0,0 +1,310 @@
+package edu.sdccd.cisc191.network;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Headless client for {@link MultiplayerServer}, used by bots and the {@link LoadGenerator}.
+ * <p>
+ * Speaks either wire protocol: it always connects in text and, if binary is requested, sends
+ * {@code /hello binary} and switches its own output straight away, exactly as the server's
+ * decoder expects. Incoming bytes go through the same {@link InboundDecoder} the server uses,
+ * so the server's {@code /hello binary} acknowledgement switches the inbound side. Asking for
+ * {@link WireProtocol#COMPRESSED} sends {@code /hello compressed} instead; the client's own
+ * messages are short and go out as plain binary, while the server may compress what it sends.
+ * <p>
+ * A reader thread (virtual, so thousands of bots are cheap) delivers every message to the
+ * listener. Replicated state is acknowledged automatically so the server moves on to deltas,
+ * and {@link Opcode#PING} echoes are turned into round-trip times.
+ * <p>
+ * After {@link #openSession()} the client numbers every message it receives, the same way the
+ * server numbers what it writes, so a dropped client can {@link #resume} and be sent only what
+ * it missed. Replayed state may be older than state already received on the new connection;
+ * listeners that keep player state should ignore versions older than the one they hold.
+ * <p>
+ * When the galaxy is split across servers, a move into another region is answered with a
+ * {@link Opcode#REDIRECT}; {@link #follow} reconnects to the server named in it.
+ */
+public class MultiplayerClient implements Closeable {
+    private final SocketChannel channel;
+    private final Consumer<GameMessage> listener;
+    private final Lock writeLock = new ReentrantLock();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LatencyHistogram roundTrips;
+    private final WireProtocol requestedProtocol;
+    private final Thread reader;
+    private volatile boolean autoAck = true;
+    private volatile String sessionToken;
+    /** Number of the last message received in the session, or -1 if numbering has not started. */
+    private volatile long lastSeq = -1;
+    /** Protocol for outgoing messages; only changed under the write lock. */
+    private WireProtocol protocol = WireProtocol.TEXT;
+
+    private MultiplayerClient(SocketChannel channel, WireProtocol requestedProtocol, Consumer<GameMessage> listener,
+                              LatencyHistogram roundTrips) {
+        this.channel = channel;
+        this.requestedProtocol = requestedProtocol;
+        this.listener = listener;
+        this.roundTrips = roundTrips;
+        this.reader = Thread.ofVirtual().name("client-reader-" + channel.socket().getLocalPort()).unstarted(this::readLoop);
+    }
+
+    /**
+     * Connects to a server and starts reading.
+     *
+     * @param host server host
+     * @param port server port
+     * @param protocol protocol to use once connected
+     * @param listener receives every message from the server on the reader thread; may be null
+     * @param roundTrips where ping round-trip times are recorded in nanoseconds; may be null
+     * @return the connected client
+     * @throws IOException if the connection fails
+     */
+    public static MultiplayerClient connect(String host, int port, WireProtocol protocol,
+                                            Consumer<GameMessage> listener, LatencyHistogram roundTrips) throws IOException {
+        return connect(host, port, protocol, listener, roundTrips, 0);
+    }
+
+    /**
+     * Connects to a server, giving up if it does not accept in time, and starts reading.
+     *
+     * @param host server host
+     * @param port server port
+     * @param protocol protocol to use once connected
+     * @param listener receives every message from the server on the reader thread; may be null
+     * @param roundTrips where ping round-trip times are recorded in nanoseconds; may be null
+     * @param connectTimeoutMillis longest wait for the connection, or 0 to wait as long as the OS does
+     * @return the connected client
+     * @throws IOException if the connection fails or times out
+     */
+    public static MultiplayerClient connect(String host, int port, WireProtocol protocol, Consumer<GameMessage> listener,
+                                            LatencyHistogram roundTrips, int connectTimeoutMillis) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.socket().connect(new InetSocketAddress(host, port), connectTimeoutMillis);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        channel.socket().setTcpNoDelay(true);
+        MultiplayerClient client = new MultiplayerClient(channel, protocol, listener, roundTrips);
+        client.reader.start();
+        if (protocol == WireProtocol.BINARY) {
+            client.send(GameMessage.of(Opcode.HELLO, "binary"));
+        } else if (protocol == WireProtocol.COMPRESSED) {
+            client.send(GameMessage.of(Opcode.HELLO, "compressed"));
+        }
+        return client;
+    }
+
+    /**
+     * Reconnects a dropped session: the server replays what this client missed, or starts a new
+     * session (and full resync) if it no longer can.
+     *
+     * @param host server host
+     * @param port server port
+     * @param protocol protocol to use once connected
+     * @param listener receives every message from the server on the reader thread; may be null
+     * @param roundTrips where ping round-trip times are recorded in nanoseconds; may be null
+     * @param previous the client whose connection dropped
+     * @return the connected client
+     * @throws IOException if the connection fails
+     */
+    public static MultiplayerClient resume(String host, int port, WireProtocol protocol, Consumer<GameMessage> listener,
+                                           LatencyHistogram roundTrips, MultiplayerClient previous) throws IOException {
+        MultiplayerClient client = connect(host, port, protocol, listener, roundTrips);
+        client.send(GameMessage.of(Opcode.RESUME, previous.getSessionToken(), Math.max(0, previous.getLastSeq())));
+        return client;
+    }
+
+    /**
+     * Closes this connection and reconnects to the server a {@link Opcode#REDIRECT} names, with
+     * the same protocol and listener, then joins as the redirected player.
+     *
+     * @param redirect the redirect received
+     * @return the new client
+     * @throws IOException if the connection fails
+     */
+    public MultiplayerClient follow(GameMessage redirect) throws IOException {
+        close();
+        MultiplayerClient client = connect(redirect.getString(0), redirect.getInt(1), requestedProtocol, listener, roundTrips);
+        client.setAutoAck(autoAck);
+        String playerId = redirect.getString(2);
+        client.send(GameMessage.of(Opcode.PLAYER_DATA, playerId, playerId, 0, 0, 0, 0));
+        return client;
+    }
+
+    /**
+     * Asks the server for a resumable session; the token arrives asynchronously.
+     *
+     * @throws IOException if the connection has failed
+     */
+    public void openSession() throws IOException {
+        send(GameMessage.of(Opcode.SESSION, "new"));
+    }
+
+    /**
+     * @return the session token, or null until the server has issued one
+     */
+    public String getSessionToken() {
+        return sessionToken;
+    }
+
+    /**
+     * @return the number of the last message received in the session, or -1 before it starts
+     */
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Sends one message in the current protocol. Safe to call from any thread.
+     *
+     * @param message the message to send
+     * @throws IOException if the connection has failed
+     */
+    public void send(GameMessage message) throws IOException {
+        writeLock.lock();
+        try {
+            ByteBuffer payload = OutboundMessage.of(message).payload(protocol);
+            while (payload.hasRemaining()) {
+                channel.write(payload);
+            }
+            sent.increment();
+            if (message.getOpcode() == Opcode.HELLO && ("binary".equalsIgnoreCase(message.getString(0))
+                    || "compressed".equalsIgnoreCase(message.getString(0)))) {
+                protocol = WireProtocol.BINARY;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void move(String playerId, int row, int col) throws IOException {
+        send(GameMessage.of(Opcode.MOVE, playerId, row, col));
+    }
+
+    public void build(String playerId, String shipType) throws IOException {
+        send(GameMessage.of(Opcode.BUILD, playerId, shipType));
+    }
+
+    public void explore(String playerId) throws IOException {
+        send(GameMessage.of(Opcode.EXPLORE, playerId));
+    }
+
+    public void gather(String playerId, String resource) throws IOException {
+        send(GameMessage.of(Opcode.GATHER, playerId, resource));
+    }
+
+    public void trade(String playerId, String partnerId, String resource, int amount) throws IOException {
+        send(GameMessage.of(Opcode.TRADE, playerId, partnerId, resource, amount));
+    }
+
+    public void chat(String text) throws IOException {
+        send(GameMessage.chat("", text));
+    }
+
+    /**
+     * Sends a ping stamped with the current time; the echo is recorded as a round trip.
+     *
+     * @throws IOException if the connection has failed
+     */
+    public void ping() throws IOException {
+        send(GameMessage.of(Opcode.PING, System.nanoTime()));
+    }
+
+    /**
+     * @param autoAck whether replicated snapshots and deltas are acknowledged automatically
+     */
+    public void setAutoAck(boolean autoAck) {
+        this.autoAck = autoAck;
+    }
+
+    /**
+     * @return messages sent so far
+     */
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    /**
+     * @return messages received so far
+     */
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    public boolean isConnected() {
+        return channel.isOpen();
+    }
+
+    private void readLoop() {
+        InboundDecoder decoder = new InboundDecoder(this::onMessage);
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        try {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                decoder.feed(buffer);
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            if (channel.isOpen()) {
+                System.err.println("Client connection lost: " + e.getMessage());
+            }
+        } finally {
+            close();
+        }
+    }
+
+    private void onMessage(GameMessage message) {
+        received.increment();
+        // number messages exactly as the server does: everything after the session reply
+        if (message.getOpcode() == Opcode.SESSION || message.getOpcode() == Opcode.RESUME) {
+            sessionToken = message.getString(0);
+            lastSeq = message.getOpcode() == Opcode.SESSION ? 0 : message.getLong(1);
+        } else if (lastSeq >= 0) {
+            lastSeq++;
+        }
+        switch (message.getOpcode()) {
+            case PING -> {
+                if (roundTrips != null) {
+                    roundTrips.record(System.nanoTime() - message.getLong(0));
+                }
+            }
+            case SNAPSHOT -> acknowledge(message.getString(0), message.getLong(2));
+            case DELTA -> acknowledge(message.getString(0), message.getLong(1));
+            default -> {
+            }
+        }
+        if (listener != null) {
+            listener.accept(message);
+        }
+    }
+
+    private void acknowledge(String playerId, long version) {
+        if (!autoAck) {
+            return;
+        }
+        try {
+            send(GameMessage.of(Opcode.ACK, playerId, version));
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing client: " + e.getMessage());
+        }
+    }
+}
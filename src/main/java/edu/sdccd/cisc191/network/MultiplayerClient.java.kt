@@ -1,9 +0,0 @@
-package edu.sdccd.cisc191.network;
-
-import java.io.*;
-import java.net.*;
-import java.util.Scanner;
-
-// Multiplayer Client for Player Connection
-public class MultiplayerClient {
-}
\ No newline at end of file
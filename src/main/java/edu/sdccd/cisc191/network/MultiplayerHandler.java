@@ -4,19 +4,34 @@ import org.mortbay.jetty.security.ClientCertAuthenticator;
 
 import java.io.IOException;
 import java.net.ServerSocket;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /*
  * Features added:
  * - Manages connected players and their data
  * - Handles player-specific actions (e.g., joining, leaving, and in-game updates)
  * - Provides utility methods for managing game state
+ * - Concurrent registry: lock-free reads, per-player atomic updates, no global lock
  */
 
 public class MultiplayerHandler {
+    /** Joins, leaves and misses are logged at debug level only; these calls sit on hot paths. */
+    private static final System.Logger LOG = System.getLogger(MultiplayerHandler.class.getName());
 
-    public final Map<String, PlayerData> players; // Map to store player data by unique ID
+    /**
+     * Map to store player data by unique ID. A {@link ConcurrentHashMap}: reads never lock,
+     * and writes lock only the hash bin of the player being changed, so joins, leaves and
+     * updates for different players proceed in parallel.
+     */
+    public final Map<String, PlayerData> players;
+    /** Board position of every player that has one, for area-of-interest queries. */
+    private final InterestGrid<String> positions = new InterestGrid<>(POSITION_CELL_SIZE);
+    /** Bucket size of the position index, in board squares. */
+    private static final int POSITION_CELL_SIZE = 4;
 
     public void initializeServer(int port) {
         try {
@@ -36,8 +51,12 @@ public class MultiplayerHandler {
 
 
     public MultiplayerHandler(ServerSocket serverSocket) {
+        this();
+    }
+
+    public MultiplayerHandler() {
         ClientCertAuthenticator authenticator = new ClientCertAuthenticator();
-        this.players = new HashMap<>();
+        this.players = new ConcurrentHashMap<>();
     }
 
     /**
@@ -46,59 +65,115 @@ public class MultiplayerHandler {
      * @param playerId Unique ID for the player
      * @param playerName Name of the player
      */
-    public synchronized void addPlayer(String playerId, String playerName) {
-        if (!players.containsKey(playerId)) {
-            players.put(playerId, new PlayerData(playerId, playerName));
-            System.out.println("Player added: " + playerName + " (ID: " + playerId + ")");
+    public void addPlayer(String playerId, String playerName) {
+        if (players.putIfAbsent(playerId, new PlayerData(playerId, playerName)) == null) {
+            LOG.log(System.Logger.Level.DEBUG, () -> "Player added: " + playerName + " (ID: " + playerId + ")");
         } else {
-            System.out.println("Player with ID " + playerId + " already exists.");
+            LOG.log(System.Logger.Level.DEBUG, () -> "Player with ID " + playerId + " already exists.");
         }
     }
 
     /**
-     * Removes a player from the game.
+     * Removes a player from the game. The player leaves the position index under the same
+     * per-player lock as {@link #updatePlayer}, so an update racing the removal cannot put it
+     * back in the index.
      *
      * @param playerId Unique ID for the player
      */
-    public synchronized void removePlayer(String playerId) {
-        if (players.containsKey(playerId)) {
-            PlayerData removedPlayer = players.remove(playerId);
-            System.out.println("Player removed: " + removedPlayer.getPlayerName() + " (ID: " + playerId + ")");
-        } else {
-            System.out.println("No player found with ID: " + playerId);
-        }
+    public void removePlayer(String playerId) {
+        PlayerData[] removed = new PlayerData[1];
+        players.computeIfPresent(playerId, (id, data) -> {
+            positions.remove(id);
+            removed[0] = data;
+            return null;
+        });
+        LOG.log(System.Logger.Level.DEBUG, () -> removed[0] != null
+                ? "Player removed: " + removed[0].getPlayerName() + " (ID: " + playerId + ")"
+                : "No player found with ID: " + playerId);
     }
 
     /**
      * Updates a player's data (e.g., position or score).
+     * Merges field by field into the existing entry, so only fields whose values actually changed
+     * get a new version and are replicated. Adds the player if it is not known yet.
      *
      * @param playerId Unique ID for the player
      * @param newData Updated data for the player
      */
-    public synchronized void updatePlayerData(String playerId, PlayerData newData) {
-        if (players.containsKey(playerId)) {
-            players.put(playerId, newData);
-            System.out.println("Updated data for player: " + newData.getPlayerName());
-        } else {
-            players.put(playerId, new PlayerData(playerId, newData.getPlayerName()));
-            System.out.println("No player found with ID: " + playerId);
-        }
+    public void updatePlayerData(String playerId, PlayerData newData) {
+        updatePlayer(playerId, newData.getPlayerName(), data -> data.mergeFrom(newData));
     }
 
     /**
-     * Retrieves a player's data.
+     * Updates a player's board position, adding the player if it is not known yet.
      *
      * @param playerId Unique ID for the player
+     * @param row The player's row on the game board
+     * @param col The player's column on the game board
      */
-    public synchronized void getPlayerData(String playerId) {
-        if (players.containsKey(playerId)) {
-            getPlayerData(playerId);
-            players.get(playerId);
-            return;
-        } else {
-            System.out.println("No player found with ID: " + playerId);
+    public void updatePosition(String playerId, int row, int col) {
+        updatePlayer(playerId, playerId, data -> {
+            data.set(PlayerField.ROW, row);
+            data.set(PlayerField.COL, col);
+        });
+    }
+
+    /**
+     * Applies {@code update} to a player atomically with respect to every other update of the
+     * same player, creating the player first if needed. Updates to other players are not
+     * blocked. The position index is refreshed inside the same atomic section, so it always
+     * follows the player's updates in the order they were applied.
+     *
+     * @param playerId Unique ID for the player
+     * @param playerName Name to use if the player has to be created
+     * @param update Changes to apply; should be short and must not touch other players
+     * @return the updated player data
+     */
+    public PlayerData updatePlayer(String playerId, String playerName, Consumer<PlayerData> update) {
+        return players.compute(playerId, (id, existing) -> {
+            PlayerData data = existing != null ? existing : new PlayerData(id, playerName);
+            update.accept(data);
+            positions.move(id, data.get(PlayerField.ROW), data.get(PlayerField.COL));
+            return data;
+        });
+    }
+
+    /**
+     * Retrieves a player's data. Never locks.
+     *
+     * @param playerId Unique ID for the player
+     * @return the player's data, or null if no such player
+     */
+    public PlayerData getPlayerData(String playerId) {
+        PlayerData data = players.get(playerId);
+        if (data == null) {
+            LOG.log(System.Logger.Level.DEBUG, () -> "No player found with ID: " + playerId);
         }
-        players.get(playerId);
+        return data;
+    }
+
+    /**
+     * @return a copy of every player's data, taken without blocking joins, leaves or updates
+     */
+    public List<PlayerData> getAllPlayers() {
+        return new ArrayList<>(players.values());
+    }
+
+    /**
+     * Visits every player without copying and without a global lock. Players that join or
+     * leave during the iteration may or may not be visited.
+     *
+     * @param action what to do with each player
+     */
+    public void forEachPlayer(Consumer<PlayerData> action) {
+        players.values().forEach(action);
+    }
+
+    /**
+     * @return the position index, kept up to date as players move, join and leave
+     */
+    public InterestGrid<String> getPositions() {
+        return positions;
     }
 
     /**
@@ -106,8 +181,8 @@ public class MultiplayerHandler {
      *
      * @param message The message to broadcast
      */
-    public synchronized void broadcastMessage(String message) {
-        System.out.println("Broadcasting message to all players: " + message);
+    public void broadcastMessage(String message) {
+        LOG.log(System.Logger.Level.DEBUG, () -> "Broadcasting message to all players: " + message);
         // In a real implementation, this would send messages to connected clients.
     }
-}
\ No newline at end of file
+}
@@ -2,33 +2,100 @@ package edu.sdccd.cisc191.network;
 
 import java.io.*;
 import java.net.*;
-import java.util.HashSet;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.security.MessageDigest;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
     /*
      * Features added:
      * Multiplayer server for handling multiple player connections
      * Creates a server that listens for connections
      * Accepts multiple players
-     * Broadcasts messages to all connected client
+     * Broadcasts chat to all connected client; server-only messages sent by a client are refused
+     * Optional non-blocking NIO mode (--mode=nio) for holding thousands of idle players
+     * Optional virtual-thread mode (--mode=virtual) running each ClientHandler on a virtual thread
+     * Periodic connection / carrier utilisation report (--report-interval=seconds)
+     * Network metrics over JMX and in the report: traffic rates, queue depth, accept rate, fan-out latency
+     * Token-bucket input limits per connection and per command, with read backpressure (--input-rate, --command-rate)
+     * Per-client bounded outbound queues so a slow client cannot stall broadcast
+     * Encode-once broadcast: one read-only buffer per message, shared by every connection
+     * Length-prefixed binary protocol negotiated per connection with "/hello binary"
+     * Snapshot + delta replication of PlayerData with client acks (--replication-interval=ms)
+     * Area-of-interest filtering of position and combat updates (--interest-radius, --interest-region)
+     * Per-tick output batching: one write per client per window, same-player updates collapsed (--tick-window=ms)
+     * Server-authoritative simulation applying move/build/explore/gather/trade commands each tick (--sim-tick=ms)
+     * Session tokens and replay of missed messages on reconnect (--resume-grace=seconds, --replay-buffer)
+     * Independent game rooms joined with "/join name", sharing I/O and room threads (--room-threads, --max-rooms)
+     * Galaxy split into regions owned by separate servers, with player handoff (--galaxy, --regions, --region, --shards)
+     * Server links authenticated with a shared secret before they may hand players over (--shard-secret)
+     * Deflate compression of large frames for clients that send "/hello compressed" (--compress-threshold=bytes)
      */
 
 public class MultiplayerServer {
-    /** Port for client/server communication. */
-    private static final int PORT = 5000; // Port for communication
-    /** Stores the output writers for all connected clients for broadcasting. */
-    private static Set<PrintWriter> clientWriters = new HashSet<>();
+    /**
+     * Stores every connected client, whichever mode serves it; each is also in one room.
+     * A concurrent set rather than {@code synchronized} blocks: a virtual thread that blocks on
+     * socket I/O while holding a monitor pins its carrier, and broadcast does exactly that.
+     */
+    private static final Set<ClientConnection> clients = ConcurrentHashMap.newKeySet();
+    /** Links from other servers of the galaxy that sent the shard secret; only these may hand players over. */
+    private static final Set<ClientConnection> peers = ConcurrentHashMap.newKeySet();
+    /** Connection counts and carrier utilisation for the periodic report. */
+    private static final ConnectionMonitor monitor = new ConnectionMonitor();
+    /** Traffic, queue depth and fan-out latency, published over JMX and in the periodic report. */
+    private static final NetworkMetrics metrics = new NetworkMetrics(monitor, clients);
+    /** Options the server was started with; queue sizing for thread-mode clients comes from here. */
+    private static ServerConfig config = new ServerConfig();
+    /** Resumable sessions; replaced in main once the config is known. */
+    private static SessionManager sessions = new SessionManager(config.getReplayBufferSize(), config.getResumeGraceSeconds());
+    /** Independent games hosted by this process, each with its own players, broadcast group and tick. */
+    private static RoomManager rooms = new RoomManager(config, sessions);
     /**
      * Starts the multiplayer server, accepting connections and launching handlers for each client.
-     * @param args not used
+     * @param args optional {@code --key=value} options, see {@link ServerConfig}
      */
     public static void main(String[] args) {
-        System.out.println("Multiplayer Server Started on port " + PORT + "...");
-        try (ServerSocket serverSocket = new ServerSocket(PORT)) {
+        config = ServerConfig.fromArgs(args);
+        FrameCompressor.setThreshold(config.getCompressThreshold());
+        sessions = new SessionManager(config.getReplayBufferSize(), config.getResumeGraceSeconds());
+        rooms.shutdown();
+        try {
+            rooms = new RoomManager(config, sessions);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid region options: " + e.getMessage());
+            return;
+        }
+        metrics.registerMBean();
+        monitor.addReport(metrics::report);
+        monitor.addReport(rooms::report);
+        monitor.addReport(FrameCompressor::report);
+        System.out.println("Multiplayer Server Started on port " + config.getPort() + " (" + config.getMode() + " mode, "
+                + rooms.getRegions() + ")...");
+        monitor.startReporting(config.getReportIntervalSeconds());
+        startHousekeeping();
+        switch (config.getMode()) {
+            case THREAD -> runThreadPerClient(config, Thread.ofPlatform().name("client-", 0));
+            case VIRTUAL -> runThreadPerClient(config, Thread.ofVirtual().name("client-", 0));
+            case NIO -> runNio(config);
+        }
+    }
+
+    private static void runThreadPerClient(ServerConfig config, Thread.Builder threads) {
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(config.getPort()));
             while (true) {
                 try {
-                    Socket clientSocket = serverSocket.accept();
-                    new ClientHandler(clientSocket).start();
+                    SocketChannel clientChannel = serverChannel.accept();
+                    threads.start(new ClientHandler(clientChannel));
                 } catch (IOException e) {
                     System.err.println("Error accepting new connection: " + e.getMessage());
                 }
@@ -38,76 +105,400 @@ public class MultiplayerServer {
         }
     }
 
+    /**
+     * Expires stale sessions, then closes rooms nobody can come back to. Replication and
+     * simulation run per room on the room threads.
+     */
+    private static void startHousekeeping() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "housekeeping");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            sessions.expire();
+            rooms.closeIdleRooms();
+            metrics.sample();
+        }, 1, 1, TimeUnit.SECONDS);
+    }
+
+    private static void runNio(ServerConfig config) {
+        try {
+            NioServer server = new NioServer(config);
+            server.bind();
+            server.serve();
+        } catch (IOException e) {
+            System.err.println("Server Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds a newly connected client to the server and puts it in the lobby.
+     * @param client the client that connected
+     */
+    static void registerClient(ClientConnection client) {
+        if (clients.add(client)) {
+            monitor.connectionOpened();
+            rooms.join(client, RoomManager.LOBBY);
+        }
+        System.out.println("New Player Connected: " + client.getClientInfo());
+    }
+
+    /**
+     * Removes a disconnected client from the server and its room.
+     * @param client the client that disconnected
+     */
+    static void unregisterClient(ClientConnection client) {
+        peers.remove(client);
+        if (clients.remove(client)) {
+            monitor.connectionClosed();
+            GameRoom room = rooms.detach(client);
+            if (room != null) {
+                String playerId = room.playerOf(client);
+                StateReplicator.ClientView view = room.leave(client);
+                sessions.park(client, room, view, playerId);
+            }
+        }
+    }
+
+    /**
+     * Called by every connection's writer for each message it hands to the socket, in order,
+     * so resumable sessions can keep a replay buffer and traffic is counted.
+     * @param client the connection
+     * @param message the message written
+     * @param bytes its encoded size
+     */
+    static void messageWritten(ClientConnection client, OutboundMessage message, int bytes) {
+        metrics.messageWritten(message, bytes);
+        sessions.written(client, message);
+    }
+
+    /**
+     * Moves a session to a reconnected client and replays what it missed, or starts a new
+     * session with a full resync if that is not possible.
+     * @param client the new connection
+     * @param token the token of the session to resume
+     * @param lastSeq the last message number the client received
+     */
+    private static void resume(ClientConnection client, String token, long lastSeq) {
+        ClientSession session = sessions.find(token);
+        if (session == null) {
+            sessions.recordResync();
+            client.send(OutboundMessage.of(GameMessage.of(Opcode.SESSION, sessions.open(client))));
+            return;
+        }
+        ClientConnection previous = session.getConnection();
+        if (previous != null && previous != client) {
+            // the old socket has not noticed the drop yet; retire it so the session is parked
+            unregisterClient(previous);
+            previous.close();
+        }
+        List<OutboundMessage> missed = sessions.resume(client, session, lastSeq);
+        if (missed == null) {
+            // this connection's fresh replication view sends full snapshots
+            client.send(OutboundMessage.of(GameMessage.of(Opcode.SESSION, sessions.open(client))));
+            return;
+        }
+        client.send(OutboundMessage.of(GameMessage.of(Opcode.RESUME, token, lastSeq)));
+        for (OutboundMessage message : missed) {
+            client.send(message);
+        }
+        // only now, so replicated state is queued after the replay
+        GameRoom room = rooms.rejoin(client, session.getRoom(), session.takeView(), session.getPlayerId());
+        client.send(OutboundMessage.of(GameMessage.of(Opcode.JOIN, room.getName())));
+    }
+
+    /**
+     * Verifies a link from another server of the galaxy. A link that sends the shard secret is
+     * taken out of its room, since it is not a player, and may hand players over from then on;
+     * any other connection sending it is refused and closed.
+     * @param link the connection
+     * @param hello the {@link Opcode#PEER} message
+     */
+    private static void acceptPeer(ClientConnection link, GameMessage hello) {
+        byte[] secret = config.getShardSecret().getBytes(StandardCharsets.UTF_8);
+        byte[] offered = hello.getString(0).getBytes(StandardCharsets.UTF_8);
+        if (!rooms.getRegions().isSharded() || secret.length == 0 || !MessageDigest.isEqual(secret, offered)) {
+            System.err.println("Refusing server link from " + link.getClientInfo() + ": wrong shard secret");
+            link.send(OutboundMessage.of(GameMessage.notice("Peer refused: not a shard of this galaxy")));
+            link.close();
+            return;
+        }
+        if (peers.add(link)) {
+            rooms.leave(link); // a server link, not a player: no broadcasts or replication
+        }
+    }
+
+    /**
+     * Takes over a player from the server owning another region of the galaxy. The link is
+     * answered with a {@link Opcode#HANDOFF_ACK} once the player is taken over or refused.
+     * @param peer the link from that server, which must have been verified by {@link #acceptPeer}
+     * @param handoff the {@link Opcode#HANDOFF} message
+     */
+    private static void acceptHandoff(ClientConnection peer, GameMessage handoff) {
+        if (!peers.contains(peer)) {
+            peer.send(OutboundMessage.of(GameMessage.notice("Handoff refused: not a verified shard of this galaxy")));
+            return;
+        }
+        GameRoom room = rooms.getOrCreate(handoff.getString(1));
+        if (room == null) {
+            // the sender keeps the player until it hears back
+            System.err.println("Handoff of " + handoff.getString(0) + " refused: cannot open room " + handoff.getString(1));
+            peer.send(OutboundMessage.of(GameMessage.of(Opcode.HANDOFF_ACK, handoff.getString(0), handoff.getString(1), 0)));
+            return;
+        }
+        room.acceptHandoff(peer, handoff);
+    }
+
+    /**
+     * Moves a client to another room, creating it if needed.
+     * @param client the client
+     * @param name the room to join
+     */
+    private static void joinRoom(ClientConnection client, String name) {
+        GameRoom room = rooms.join(client, name.trim());
+        if (room == null) {
+            client.send(OutboundMessage.of(GameMessage.notice("Cannot join room " + name
+                    + ": names are 1-" + RoomManager.MAX_NAME_LENGTH + " characters and at most "
+                    + config.getMaxRooms() + " rooms can be open")));
+            return;
+        }
+        client.send(OutboundMessage.of(GameMessage.of(Opcode.JOIN, room.getName())));
+    }
+
+    /**
+     * @return the monitor tracking connection counts for this server
+     */
+    public static ConnectionMonitor getMonitor() {
+        return monitor;
+    }
+
+    /**
+     * @return traffic and latency metrics for this server
+     */
+    public static NetworkMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the rooms hosted by this server
+     */
+    public static RoomManager getRooms() {
+        return rooms;
+    }
+
+    /**
+     * Applies a connection's input limits to a decoded message, then handles it, drops it or
+     * disconnects a client that keeps going over its limits.
+     * @param client the connection the message came from
+     * @param limiter the connection's limits
+     * @param message the message
+     */
+    static void onInput(ClientConnection client, RateLimiter limiter, GameMessage message) {
+        if (message.getOpcode() == Opcode.HANDOFF && peers.contains(client)) {
+            onMessage(client, message); // a verified server link is not throttled like a player
+            return;
+        }
+        switch (limiter.check(message, System.nanoTime())) {
+            case ADMIT -> onMessage(client, message);
+            case DROP -> metrics.messageThrottled();
+            case DISCONNECT -> {
+                metrics.messageThrottled();
+                metrics.abuserDisconnected();
+                System.err.println("Disconnecting " + client.getClientInfo() + ": input rate limit exceeded ("
+                        + limiter.getDropped() + " messages dropped)");
+                client.close();
+            }
+        }
+    }
+
+    /**
+     * Handles one message received from a client, in any mode and either protocol. Chat is the
+     * only message relayed to the room as sent; game commands go to the room's simulation, and
+     * opcodes only the server may send (notices, replicated state, combat results, redirects)
+     * are refused, so a client cannot forge them for everyone else.
+     * @param client the sender
+     * @param message the decoded message
+     */
+    static void onMessage(ClientConnection client, GameMessage message) {
+        metrics.messageRead();
+        if (message.getOpcode() == Opcode.PEER) {
+            acceptPeer(client, message);
+            return;
+        }
+        if (message.getOpcode() == Opcode.HANDOFF) {
+            acceptHandoff(client, message);
+            return;
+        }
+        GameRoom room = rooms.roomOf(client);
+        if (room == null) {
+            return; // already disconnected
+        }
+        switch (message.getOpcode()) {
+            case HELLO -> {
+                // the decoder has already switched inbound framing; switch outbound after the ack
+                if ("compressed".equalsIgnoreCase(message.getString(0)) && FrameCompressor.isEnabled()) {
+                    client.send(OutboundMessage.protocolSwitch(WireProtocol.COMPRESSED, GameMessage.of(Opcode.HELLO, "compressed")));
+                } else if ("binary".equalsIgnoreCase(message.getString(0)) || "compressed".equalsIgnoreCase(message.getString(0))) {
+                    // compression turned off: the client still gets the binary framing it is now sending
+                    client.send(OutboundMessage.protocolSwitch(WireProtocol.BINARY, GameMessage.of(Opcode.HELLO, "binary")));
+                } else {
+                    client.send(OutboundMessage.of(GameMessage.of(Opcode.HELLO, "text")));
+                }
+            }
+            case CHAT -> {
+                room.broadcast(OutboundMessage.forBroadcast(null, GameMessage.chat(client.getClientInfo(), message.getString(1))));
+            }
+            // game commands are applied by the simulation, never relayed; the replicator sends
+            // each client the resulting state. PLAYER_DATA only joins: the server owns the values.
+            case MOVE, BUILD, EXPLORE, GATHER, TRADE, PLAYER_DATA -> room.submit(client, message);
+            case PING -> client.send(OutboundMessage.of(message));
+            case SESSION -> client.send(OutboundMessage.of(GameMessage.of(Opcode.SESSION, sessions.open(client))));
+            case RESUME -> resume(client, message.getString(0), message.getLong(1));
+            case JOIN -> joinRoom(client, message.getString(0));
+            case ACK -> room.acknowledge(client, message.getString(0), message.getLong(1));
+            default -> client.send(OutboundMessage.of(GameMessage.notice(
+                    "Not accepted from clients: /" + message.getOpcode().keyword())));
+        }
+    }
+
     /**
      * Handles a single client connection, reading input and broadcasting to all clients.
+     * <p>
+     * Outgoing messages go through the client's own {@link OutboundQueue}; a companion writer
+     * thread (virtual if the reader is virtual) drains it, so broadcasting never waits on this
+     * client's socket. The socket is a blocking {@link SocketChannel} so queued messages can be
+     * written straight from their shared encoded buffers. Incoming bytes go through the same
+     * {@link InboundDecoder} as NIO connections, so both protocols work in this mode too.
      */
-    private static class ClientHandler extends Thread {
+    private static class ClientHandler implements Runnable, ClientConnection {
+        private SocketChannel channel;
         private Socket socket;
-        private PrintWriter out;
-        private BufferedReader in;
+        private InputStream in;
         private String clientInfo; // <--- Declare here
+        private final OutboundQueue outbound;
+        private final RateLimiter limiter;
 
-        public ClientHandler(Socket socket) {
-            this.socket = socket;
+        public ClientHandler(SocketChannel channel) {
+            this.channel = channel;
+            this.socket = channel.socket();
             this.clientInfo = socket.getInetAddress().getHostAddress() + ":" + socket.getPort(); // Or do this in run()
+            this.outbound = config.newOutboundQueue();
+            this.limiter = config.newRateLimiter();
         }
 
         @Override
-        public void run() {
+        public void send(OutboundMessage message) {
+            if (!outbound.offer(message)) {
+                System.err.println("Disconnecting slow client " + clientInfo + " (outbound queue full)");
+                close();
+            }
+        }
+
+        @Override
+        public int getQueueDepth() {
+            return outbound.size();
+        }
+
+        @Override
+        public long getDroppedMessages() {
+            return outbound.getDroppedCount();
+        }
+
+        /**
+         * Writes queued messages until the queue is closed, one gathering write per batch.
+         * With a tick window configured, a batch is written at most once per window; messages
+         * arriving in the meantime wait in the queue, where same-key updates replace each other.
+         */
+        private void writeLoop() {
+            List<OutboundMessage> batch = new ArrayList<>();
+            WireProtocol protocol = WireProtocol.TEXT;
+            long windowNanos = TimeUnit.MILLISECONDS.toNanos(config.getTickWindowMillis());
+            long nextWrite = System.nanoTime();
             try {
-                in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-                out = new PrintWriter(socket.getOutputStream(), true);
-                synchronized (clientWriters) {
-                    clientWriters.add(out);
+                while (outbound.awaitMessages()) {
+                    if (windowNanos > 0) {
+                        long wait = nextWrite - System.nanoTime();
+                        if (wait > 0) {
+                            TimeUnit.NANOSECONDS.sleep(wait);
+                        }
+                        nextWrite = System.nanoTime() + windowNanos;
+                    }
+                    if (outbound.drainTo(batch) == 0) {
+                        continue;
+                    }
+                    ByteBuffer[] views = new ByteBuffer[batch.size()];
+                    for (int i = 0; i < views.length; i++) {
+                        OutboundMessage message = batch.get(i);
+                        views[i] = message.payload(protocol);
+                        messageWritten(this, message, views[i].remaining());
+                        if (message.getSwitchesTo() != null) {
+                            protocol = message.getSwitchesTo();
+                        }
+                    }
+                    batch.clear();
+                    while (views[views.length - 1].hasRemaining()) {
+                        channel.write(views);
+                    }
                 }
+            } catch (IOException e) {
+                close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public String getClientInfo() {
+            return clientInfo;
+        }
 
-                System.out.println("New Player Connected: " + clientInfo);
+        @Override
+        public void close() {
+            try {
+                if (channel != null && channel.isOpen()) channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing socket: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                in = socket.getInputStream();
+                Thread.Builder writers = Thread.currentThread().isVirtual() ? Thread.ofVirtual() : Thread.ofPlatform();
+                writers.name("writer-" + clientInfo).start(this::writeLoop);
+                registerClient(this);
 
-                String message;
-                while ((message = in.readLine()) != null) {
-                    System.out.println("Received from " + clientInfo + ": " + message);
-                    broadcastMessage("[" + clientInfo + "]: " + message);
+                InboundDecoder decoder = new InboundDecoder(message -> onInput(this, limiter, message));
+                byte[] chunk = new byte[4096];
+                int read;
+                while ((read = in.read(chunk)) != -1) {
+                    metrics.bytesRead(read);
+                    decoder.feed(chunk, 0, read);
+                    // over the limit: stop reading and let the socket buffer push back on the client
+                    long wait = limiter.nanosUntilReady(System.nanoTime());
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
                 }
             } catch (IOException e) {
                 System.err.println("Connection Lost: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             } finally {
                 // resource cleanup
-                if (out != null) {
-                    synchronized (clientWriters) {
-                        clientWriters.remove(out);
-                    }
+                unregisterClient(this);
+                outbound.close();
+                if (outbound.getDroppedCount() > 0) {
+                    System.out.println("Dropped " + outbound.getDroppedCount() + " messages for " + clientInfo);
                 }
                 try {
                     if (in != null) in.close();
                 } catch (IOException e) {
                     System.err.println("Error closing input stream: " + e.getMessage());
                 }
-                try {
-                    if (out != null) out.close();
-                } catch (Exception e) {
-                    System.err.println("Error closing output stream: " + e.getMessage());
-                }
-                try {
-                    if (socket != null && !socket.isClosed()) socket.close();
-                } catch (IOException e) {
-                    System.err.println("Error closing socket: " + e.getMessage());
-                }
-            }
-        }
-    }
-
-    /**
-     * Broadcasts a message to all connected clients.
-     * @param message the message to broadcast
-     */
-    private static void broadcastMessage(String message) {
-        synchronized (clientWriters) {
-            for (PrintWriter writer : clientWriters) {
-                try {
-                    writer.println(message);
-                } catch (Exception e) {
-                    System.err.println("Failed to send message to a client: " + e.getMessage());
-                }
+                close();
             }
         }
     }
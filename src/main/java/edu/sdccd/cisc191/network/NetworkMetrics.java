@@ -0,0 +1,288 @@
+package edu.sdccd.cisc191.network;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the network layer: traffic in and out, connections, outbound queue depth and
+ * how long broadcasts take to reach each recipient.
+ * <p>
+ * Recording is a {@link LongAdder} increment or a {@link LatencyHistogram} record, so it is
+ * safe and cheap on every read, write and message from any thread. Per-second rates are worked
+ * out by {@link #sample()}, which the server calls once a second; queue depths are read from the
+ * live connections whenever someone asks. Everything is published over JMX (see
+ * {@link NetworkMetricsMXBean}) and summarised by {@link #report()} in the periodic report, so
+ * a running server can be watched with jconsole or its log, no profiler needed.
+ * <p>
+ * Fan-out latency is measured per recipient, from the moment a broadcast message is built to the
+ * moment a connection hands it to its socket, so it covers queueing, tick batching and waiting
+ * for a slow socket. Messages replayed after a session resume are old by then and land in the
+ * tail.
+ */
+public class NetworkMetrics implements NetworkMetricsMXBean {
+    /** Name the metrics are registered under in the platform MBean server. */
+    public static final String OBJECT_NAME = "edu.sdccd.cisc191:type=NetworkMetrics";
+    /** How many of the deepest queues are listed. */
+    private static final int DEEPEST_QUEUES = 10;
+
+    private final ConnectionMonitor monitor;
+    private final Collection<? extends ClientConnection> clients;
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder messagesIn = new LongAdder();
+    private final LongAdder messagesOut = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder abusers = new LongAdder();
+    private final LatencyHistogram stateFanOut = new LatencyHistogram();
+    private final LatencyHistogram eventFanOut = new LatencyHistogram();
+
+    /** Totals at the previous sample, in the order bytes in, bytes out, messages in, messages out, accepts. */
+    private final long[] lastTotals = new long[5];
+    private long lastSampleNanos = System.nanoTime();
+    private volatile double[] rates = new double[5];
+
+    /**
+     * @param monitor where connection counts are kept
+     * @param clients the live connections, read for queue depths
+     */
+    public NetworkMetrics(ConnectionMonitor monitor, Collection<? extends ClientConnection> clients) {
+        this.monitor = monitor;
+        this.clients = clients;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under {@link #OBJECT_NAME}.
+     *
+     * @return false if they could not be registered, for instance because another server in the
+     *         same process already did
+     */
+    public boolean registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+            return true;
+        } catch (JMException e) {
+            System.err.println("Could not register network metrics with JMX: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @param bytes bytes read from a client socket
+     */
+    public void bytesRead(int bytes) {
+        bytesIn.add(bytes);
+    }
+
+    /**
+     * Records one decoded message from a client.
+     */
+    public void messageRead() {
+        messagesIn.increment();
+    }
+
+    /**
+     * Records a message dropped because its client was over an input limit.
+     */
+    public void messageThrottled() {
+        throttled.increment();
+    }
+
+    /**
+     * Records a client disconnected for going over its input limits too often.
+     */
+    public void abuserDisconnected() {
+        abusers.increment();
+    }
+
+    /**
+     * Records a message handed to a client's socket.
+     *
+     * @param message the message
+     * @param bytes its encoded size
+     */
+    public void messageWritten(OutboundMessage message, int bytes) {
+        messagesOut.increment();
+        bytesOut.add(bytes);
+        if (message.isBroadcast()) {
+            Opcode opcode = message.getMessage().getOpcode();
+            LatencyHistogram histogram = opcode == Opcode.SNAPSHOT || opcode == Opcode.DELTA ? stateFanOut : eventFanOut;
+            histogram.record(System.nanoTime() - message.getCreatedNanos());
+        }
+    }
+
+    /**
+     * Works out the per-second rates since the previous call. Meant to be called about once a
+     * second from a single thread.
+     */
+    public synchronized void sample() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1, now - lastSampleNanos) / 1e9;
+        lastSampleNanos = now;
+        long[] totals = {bytesIn.sum(), bytesOut.sum(), messagesIn.sum(), messagesOut.sum(), monitor.getAcceptedConnections()};
+        double[] next = new double[totals.length];
+        for (int i = 0; i < totals.length; i++) {
+            next[i] = (totals[i] - lastTotals[i]) / seconds;
+            lastTotals[i] = totals[i];
+        }
+        rates = next;
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return monitor.getActiveConnections();
+    }
+
+    @Override
+    public int getPeakConnections() {
+        return monitor.getPeakConnections();
+    }
+
+    @Override
+    public long getAcceptedConnections() {
+        return monitor.getAcceptedConnections();
+    }
+
+    @Override
+    public double getAcceptsPerSecond() {
+        return rates[4];
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public long getMessagesIn() {
+        return messagesIn.sum();
+    }
+
+    @Override
+    public long getMessagesOut() {
+        return messagesOut.sum();
+    }
+
+    @Override
+    public double getBytesInPerSecond() {
+        return rates[0];
+    }
+
+    @Override
+    public double getBytesOutPerSecond() {
+        return rates[1];
+    }
+
+    @Override
+    public double getMessagesInPerSecond() {
+        return rates[2];
+    }
+
+    @Override
+    public double getMessagesOutPerSecond() {
+        return rates[3];
+    }
+
+    @Override
+    public long getThrottledMessages() {
+        return throttled.sum();
+    }
+
+    @Override
+    public long getAbuseDisconnects() {
+        return abusers.sum();
+    }
+
+    @Override
+    public int getTotalQueueDepth() {
+        int total = 0;
+        for (ClientConnection client : clients) {
+            total += client.getQueueDepth();
+        }
+        return total;
+    }
+
+    @Override
+    public int getMaxQueueDepth() {
+        int max = 0;
+        for (ClientConnection client : clients) {
+            max = Math.max(max, client.getQueueDepth());
+        }
+        return max;
+    }
+
+    @Override
+    public Map<String, Integer> getDeepestQueues() {
+        List<Map.Entry<String, Integer>> depths = new ArrayList<>();
+        for (ClientConnection client : clients) {
+            int depth = client.getQueueDepth();
+            if (depth > 0) {
+                depths.add(Map.entry(client.getClientInfo(), depth));
+            }
+        }
+        depths.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+        Map<String, Integer> deepest = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : depths.subList(0, Math.min(DEEPEST_QUEUES, depths.size()))) {
+            deepest.put(entry.getKey(), entry.getValue());
+        }
+        return deepest;
+    }
+
+    @Override
+    public Map<String, Long> getStateFanOutMicros() {
+        return percentilesMicros(stateFanOut);
+    }
+
+    @Override
+    public Map<String, Long> getEventFanOutMicros() {
+        return percentilesMicros(eventFanOut);
+    }
+
+    @Override
+    public void resetHistograms() {
+        stateFanOut.reset();
+        eventFanOut.reset();
+    }
+
+    private static Map<String, Long> percentilesMicros(LatencyHistogram histogram) {
+        Map<String, Long> percentiles = new LinkedHashMap<>();
+        percentiles.put("count", histogram.getCount());
+        percentiles.put("p50", histogram.getPercentile(50) / 1000);
+        percentiles.put("p90", histogram.getPercentile(90) / 1000);
+        percentiles.put("p99", histogram.getPercentile(99) / 1000);
+        percentiles.put("p99.9", histogram.getPercentile(99.9) / 1000);
+        percentiles.put("max", histogram.getMax() / 1000);
+        return percentiles;
+    }
+
+    /**
+     * Builds the periodic report: traffic rates and queue depths on one line, fan-out latency
+     * on the next.
+     *
+     * @return the report text
+     */
+    public String report() {
+        double[] current = rates;
+        return String.format("Traffic: in=%.1fKB/s %.0fmsg/s, out=%.1fKB/s %.0fmsg/s, accepts=%.1f/s, "
+                        + "queued=%d (max %d), throttled=%d, abusers=%d%n"
+                        + "Fan-out: state %s%n"
+                        + "Fan-out: events %s",
+                current[0] / 1024, current[2], current[1] / 1024, current[3], current[4],
+                getTotalQueueDepth(), getMaxQueueDepth(), throttled.sum(), abusers.sum(),
+                stateFanOut.summaryMillis(), eventFanOut.summaryMillis());
+    }
+}
@@ -0,0 +1,75 @@
+package edu.sdccd.cisc191.network;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link NetworkMetrics}, published over JMX as
+ * {@value NetworkMetrics#OBJECT_NAME}. Rates are per second over the last full second; counts
+ * are totals since the server started.
+ */
+public interface NetworkMetricsMXBean {
+    int getActiveConnections();
+
+    int getPeakConnections();
+
+    long getAcceptedConnections();
+
+    double getAcceptsPerSecond();
+
+    long getBytesIn();
+
+    long getBytesOut();
+
+    long getMessagesIn();
+
+    long getMessagesOut();
+
+    double getBytesInPerSecond();
+
+    double getBytesOutPerSecond();
+
+    double getMessagesInPerSecond();
+
+    double getMessagesOutPerSecond();
+
+    /**
+     * @return messages dropped because their client was over an input limit
+     */
+    long getThrottledMessages();
+
+    /**
+     * @return clients disconnected for going over their input limits too often
+     */
+    long getAbuseDisconnects();
+
+    /**
+     * @return messages waiting in every client's outbound queue together
+     */
+    int getTotalQueueDepth();
+
+    /**
+     * @return the longest outbound queue of any one client
+     */
+    int getMaxQueueDepth();
+
+    /**
+     * @return outbound queue depth of the clients furthest behind, deepest first
+     */
+    Map<String, Integer> getDeepestQueues();
+
+    /**
+     * @return percentiles, in microseconds, of the time from a state update being built to it
+     *         being handed to each recipient's socket
+     */
+    Map<String, Long> getStateFanOutMicros();
+
+    /**
+     * @return the same for every other broadcast: chat, notices and combat results
+     */
+    Map<String, Long> getEventFanOutMicros();
+
+    /**
+     * Clears both fan-out histograms.
+     */
+    void resetHistograms();
+}
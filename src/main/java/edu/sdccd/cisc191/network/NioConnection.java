@@ -0,0 +1,198 @@
+package edu.sdccd.cisc191.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A non-blocking client connection owned by one {@link NioEventLoop}.
+ * <p>
+ * Speaks the same protocols as the thread-per-client handler: newline-delimited UTF-8 by
+ * default, so existing clients work unchanged, or binary frames once negotiated. Incoming
+ * bytes go through an {@link InboundDecoder}. Outgoing messages wait in a bounded
+ * {@link OutboundQueue} and are written from their shared, already-encoded buffers as the
+ * socket drains, everything queued going out in one gathering write. With a tick window
+ * configured the loop flushes once per window, so a busy client gets one write per tick.
+ */
+class NioConnection implements ClientConnection {
+    private final NioEventLoop loop;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final String clientInfo;
+    private final OutboundQueue outbound;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private final RateLimiter limiter;
+    private final InboundDecoder decoder;
+    /** Protocol for outgoing messages; only touched on the loop thread. */
+    private WireProtocol protocol = WireProtocol.TEXT;
+    /** Messages taken from the queue for the current write; only touched on the loop thread. */
+    private final List<OutboundMessage> drained = new ArrayList<>();
+    /** Payloads of the batch currently being written; only touched on the loop thread. */
+    private ByteBuffer[] pending;
+    /** Index of the first payload in {@link #pending} not yet fully written. */
+    private int pendingIndex;
+
+    NioConnection(NioEventLoop loop, SocketChannel channel, SelectionKey key, OutboundQueue outbound,
+                  RateLimiter limiter) throws IOException {
+        this.loop = loop;
+        this.channel = channel;
+        this.key = key;
+        this.outbound = outbound;
+        this.limiter = limiter;
+        this.decoder = new InboundDecoder(message -> MultiplayerServer.onInput(this, limiter, message));
+        InetSocketAddress remote = (InetSocketAddress) channel.getRemoteAddress();
+        this.clientInfo = remote.getAddress().getHostAddress() + ":" + remote.getPort();
+    }
+
+    @Override
+    public void send(OutboundMessage message) {
+        if (closed.get()) {
+            return;
+        }
+        if (!outbound.offer(message)) {
+            System.err.println("Disconnecting slow client " + clientInfo + " (outbound queue full)");
+            close();
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (loop.isBatching()) {
+            loop.flushOnTick(this);
+        } else if (loop.inEventLoop()) {
+            flush();
+        } else {
+            loop.execute(this::flush);
+        }
+    }
+
+    @Override
+    public String getClientInfo() {
+        return clientInfo;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return outbound.size();
+    }
+
+    @Override
+    public long getDroppedMessages() {
+        return outbound.getDroppedCount();
+    }
+
+    /**
+     * Reads whatever is available and dispatches every complete message. A client that has gone
+     * over its input rate stops being read until it is back under, so it cannot hog the loop;
+     * its unread bytes wait in the socket buffer and, once that fills, hold the client back.
+     * Runs on the loop thread.
+     *
+     * @param buffer the loop's shared read buffer
+     */
+    void handleRead(ByteBuffer buffer) {
+        try {
+            buffer.clear();
+            int read = channel.read(buffer);
+            if (read < 0) {
+                close();
+                return;
+            }
+            MultiplayerServer.getMetrics().bytesRead(read);
+            buffer.flip();
+            decoder.feed(buffer);
+            long wait = limiter.nanosUntilReady(System.nanoTime());
+            if (wait > 0 && key.isValid()) {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                loop.resumeReadingAfter(this, wait);
+            }
+        } catch (IOException e) {
+            System.err.println("Connection Lost: " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Starts reading again after {@link #handleRead} paused. Runs on the loop thread.
+     */
+    void resumeReading() {
+        if (key.isValid()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Writes as much queued output as the socket accepts, registering for
+     * {@code OP_WRITE} only while data is left over. Runs on the loop thread.
+     */
+    void flush() {
+        if (closed.get()) {
+            return;
+        }
+        try {
+            while (true) {
+                if (pending == null) {
+                    if (outbound.drainTo(drained) == 0) {
+                        break;
+                    }
+                    pending = new ByteBuffer[drained.size()];
+                    for (int i = 0; i < pending.length; i++) {
+                        OutboundMessage next = drained.get(i);
+                        pending[i] = next.payload(protocol);
+                        MultiplayerServer.messageWritten(this, next, pending[i].remaining());
+                        if (next.getSwitchesTo() != null) {
+                            protocol = next.getSwitchesTo();
+                        }
+                    }
+                    pendingIndex = 0;
+                    drained.clear();
+                }
+                channel.write(pending, pendingIndex, pending.length - pendingIndex);
+                while (pendingIndex < pending.length && !pending[pendingIndex].hasRemaining()) {
+                    pendingIndex++;
+                }
+                if (pendingIndex < pending.length) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                pending = null;
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            flushScheduled.set(false);
+            // a sender may have enqueued after our last peek but lost the CAS above
+            if (!outbound.isEmpty() && flushScheduled.compareAndSet(false, true)) {
+                scheduleFlush();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to send message to " + clientInfo + ": " + e.getMessage());
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        MultiplayerServer.unregisterClient(this);
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing channel: " + e.getMessage());
+        }
+        outbound.close();
+        if (outbound.getDroppedCount() > 0) {
+            System.out.println("Dropped " + outbound.getDroppedCount() + " messages for " + clientInfo);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package edu.sdccd.cisc191.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single-threaded selector loop that owns a subset of the server's client channels.
+ * <p>
+ * All reads, writes and interest changes for a channel happen on the loop that owns it.
+ * Other threads hand work to the loop through {@link #execute(Runnable)}, which wakes the
+ * selector so the task runs promptly.
+ * <p>
+ * With a tick window configured, connections with new output ask for a flush through
+ * {@link #flushOnTick(NioConnection)} instead, which does not wake the selector; the loop
+ * flushes all of them together once per window.
+ * <p>
+ * Connections over their input rate are paused with {@link #resumeReadingAfter}; the loop
+ * wakes up in time to read them again.
+ */
+class NioEventLoop implements Runnable {
+    /** Shared scratch buffer for reads; idle connections hold no read buffer of their own. */
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    private final ServerConfig config;
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    /** Connections waiting for the next tick to write their batched output. */
+    private final Queue<NioConnection> tickFlushes = new ConcurrentLinkedQueue<>();
+    private final long tickWindowNanos;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    /** Connections not being read because they went over their input rate, with when to resume; loop thread only. */
+    private final Map<NioConnection, Long> pausedReads = new HashMap<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    NioEventLoop(String name, ServerConfig config) throws IOException {
+        this.config = config;
+        this.selector = Selector.open();
+        this.tickWindowNanos = TimeUnit.MILLISECONDS.toNanos(config.getTickWindowMillis());
+        this.thread = new Thread(this, name);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Hands an accepted channel to this loop. Registration happens on the loop thread.
+     *
+     * @param channel a freshly accepted client channel
+     */
+    void register(SocketChannel channel) {
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                OutboundQueue queue = config.newOutboundQueue();
+                NioConnection connection = new NioConnection(this, channel, key, queue, config.newRateLimiter());
+                key.attach(connection);
+                MultiplayerServer.registerClient(connection);
+            } catch (IOException e) {
+                System.err.println("Failed to register connection: " + e.getMessage());
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // already failing, nothing more to do
+                }
+            }
+        });
+    }
+
+    /**
+     * Schedules a task to run on this loop's thread.
+     *
+     * @param task the task to run
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Asks for a connection to be flushed at the end of the current tick window.
+     *
+     * @param connection a connection with newly queued output
+     */
+    void flushOnTick(NioConnection connection) {
+        tickFlushes.add(connection);
+    }
+
+    /**
+     * Reads a paused connection again after a delay. Must be called on the loop thread.
+     *
+     * @param connection a connection that has stopped reading
+     * @param delayNanos how long to wait
+     */
+    void resumeReadingAfter(NioConnection connection, long delayNanos) {
+        pausedReads.put(connection, System.nanoTime() + delayNanos);
+    }
+
+    /**
+     * Resumes every paused connection that is due.
+     *
+     * @return nanoseconds until the next one is due, or {@link Long#MAX_VALUE} if none are paused
+     */
+    private long resumeDueReads() {
+        if (pausedReads.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        long now = System.nanoTime();
+        long next = Long.MAX_VALUE;
+        Iterator<Map.Entry<NioConnection, Long>> paused = pausedReads.entrySet().iterator();
+        while (paused.hasNext()) {
+            Map.Entry<NioConnection, Long> entry = paused.next();
+            long wait = entry.getValue() - now;
+            if (wait <= 0) {
+                paused.remove();
+                entry.getKey().resumeReading();
+            } else {
+                next = Math.min(next, wait);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * @return true if output is batched per tick rather than written as it is queued
+     */
+    boolean isBatching() {
+        return tickWindowNanos > 0;
+    }
+
+    boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Stops the loop and closes every channel it owns.
+     */
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime() + tickWindowNanos;
+        try {
+            while (running) {
+                long wait = resumeDueReads();
+                if (isBatching()) {
+                    wait = Math.min(wait, nextTick - System.nanoTime());
+                }
+                if (wait == Long.MAX_VALUE) {
+                    selector.select();
+                } else if (wait > 0) {
+                    selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+                } else {
+                    selector.selectNow();
+                }
+                runTasks();
+                if (isBatching() && System.nanoTime() - nextTick >= 0) {
+                    flushTick();
+                    nextTick = System.nanoTime() + tickWindowNanos;
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    NioConnection connection = (NioConnection) key.attachment();
+                    if (!key.isValid()) {
+                        connection.close();
+                        continue;
+                    }
+                    if (key.isReadable()) {
+                        connection.handleRead(readBuffer);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.flush();
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            System.err.println("Event loop " + thread.getName() + " failed: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof NioConnection connection) {
+                    connection.close();
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Error closing selector: " + e.getMessage());
+            }
+        }
+    }
+
+    private void flushTick() {
+        NioConnection connection;
+        while ((connection = tickFlushes.poll()) != null) {
+            connection.flush();
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Event loop task failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package edu.sdccd.cisc191.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Non-blocking front end for {@link MultiplayerServer}.
+ * <p>
+ * One acceptor thread hands new channels round-robin to a fixed pool of
+ * {@link NioEventLoop}s (one per core by default), so the thread count stays constant no
+ * matter how many players are connected. Holding 10k+ sockets also needs the process
+ * file-descriptor limit raised ({@code ulimit -n}).
+ */
+public class NioServer {
+    /** Pending-connection backlog; large so bursts of joins are not refused. */
+    private static final int ACCEPT_BACKLOG = 1024;
+
+    private final ServerConfig config;
+    private final NioEventLoop[] loops;
+    private ServerSocketChannel serverChannel;
+    private int nextLoop;
+
+    public NioServer(ServerConfig config) throws IOException {
+        this.config = config;
+        this.loops = new NioEventLoop[config.getIoThreads()];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new NioEventLoop("nio-loop-" + i, config);
+        }
+    }
+
+    /**
+     * Binds the listening socket and starts the event loops.
+     *
+     * @return the bound port (useful when the configured port is 0)
+     * @throws IOException if the port cannot be bound
+     */
+    public int bind() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(config.getPort()), ACCEPT_BACKLOG);
+        for (NioEventLoop loop : loops) {
+            loop.start();
+        }
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed. Blocks the calling thread.
+     */
+    public void serve() {
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                loops[nextLoop].register(channel);
+                nextLoop = (nextLoop + 1) % loops.length;
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                System.err.println("Error accepting new connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops accepting and shuts down every event loop.
+     */
+    public void close() {
+        try {
+            if (serverChannel != null) serverChannel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing server channel: " + e.getMessage());
+        }
+        for (NioEventLoop loop : loops) {
+            loop.shutdown();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package edu.sdccd.cisc191.network;
+
+/**
+ * Message types shared by the text and binary wire protocols.
+ * <p>
+ * Each opcode has a field layout: {@code S} is a string and {@code V} is a signed integer (sent
+ * as a zigzag varint in binary). A trailing {@code *} means any number of further integers.
+ * In the text protocol a typed message is written as {@code /keyword field field ...}; only the
+ * last string field may contain spaces.
+ */
+public enum Opcode {
+    /** Protocol negotiation: the requested (client) or accepted (server) {@link WireProtocol}. */
+    HELLO(0, "S"),
+    /** Free-form server text, sent to text clients exactly as written. */
+    NOTICE(1, "S"),
+    /** Chat line: sender, text. Text clients see {@code [sender]: text}. */
+    CHAT(2, "SS"),
+    /** Player position: playerId, row, col. */
+    MOVE(3, "SVV"),
+    /** Ship construction: playerId, ship type. */
+    BUILD(4, "SS"),
+    /** Combat outcome: attacker, defender, damage dealt, attacker health, defender health. */
+    COMBAT_RESULT(5, "SSVVV"),
+    /** Player summary: playerId, name, row, col, ship count, fleet health. */
+    PLAYER_DATA(6, "SSVVVV"),
+    /** Full replicated state: playerId, name, version, then every {@link PlayerField} value in order. */
+    SNAPSHOT(7, "SSV*"),
+    /** Changed replicated fields: playerId, version, field bitmask, then the values of the set bits. */
+    DELTA(8, "SVV*"),
+    /** Client confirmation that it holds a player's state up to a version: playerId, version. */
+    ACK(9, "SV"),
+    /** A replicated player has left: playerId. */
+    REMOVE(10, "S"),
+    /** Round-trip probe: an opaque client value the server echoes back to the sender only. */
+    PING(11, "V"),
+    /** Exploration of the player's current square: playerId. */
+    EXPLORE(12, "S"),
+    /** Resource gathering at the player's current planet: playerId, resource name. */
+    GATHER(13, "SS"),
+    /** Resource transfer to another player: playerId, partnerId, resource name, amount. */
+    TRADE(14, "SSSV"),
+    /** Session token: requested by the client with any value (e.g. {@code new}), issued by the server. */
+    SESSION(15, "S"),
+    /** Reconnect: token and last message number received (client), or token and the number replay follows (server). */
+    RESUME(16, "SV"),
+    /** Move to a game room, created if needed: room name (client), or the room joined (server). */
+    JOIN(17, "S"),
+    /**
+     * Player moving to another server's region, sent between servers: playerId, room, fleet, name,
+     * row, col, then every inventory {@link PlayerField} value in order. The fleet is
+     * {@code name:health:attack[:ABILITY+ABILITY]} per ship, separated by {@code ;}, or {@code -}.
+     */
+    HANDOFF(18, "SSSSV*"),
+    /** The player now lives on another server and the client should reconnect there: host, port, playerId. */
+    REDIRECT(19, "SVS"),
+    /** First message on a link between two servers of a galaxy, before any handoff: the galaxy's shared secret. */
+    PEER(20, "S"),
+    /** Answer to a {@link #HANDOFF}, sent between servers: playerId, room, 1 if the player was taken over or 0 if refused. */
+    HANDOFF_ACK(21, "SSV");
+
+    private static final Opcode[] BY_CODE = new Opcode[64];
+
+    static {
+        for (Opcode opcode : values()) {
+            BY_CODE[opcode.code] = opcode;
+        }
+    }
+
+    private final int code;
+    private final String layout;
+
+    Opcode(int code, String layout) {
+        this.code = code;
+        this.layout = layout;
+    }
+
+    /**
+     * @return the byte written on the wire in binary mode
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return one character per field, {@code S} for string or {@code V} for integer, optionally
+     *         ending in {@code *} for a variable number of trailing integers
+     */
+    public String getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return the number of fields every message of this type has
+     */
+    public int fixedFields() {
+        return isVariable() ? layout.length() - 1 : layout.length();
+    }
+
+    /**
+     * @return true if the layout ends in a variable number of integers
+     */
+    public boolean isVariable() {
+        return layout.endsWith("*");
+    }
+
+    /**
+     * @param index field index
+     * @return true if that field is a string
+     */
+    public boolean isStringField(int index) {
+        return index < fixedFields() && layout.charAt(index) == 'S';
+    }
+
+    /**
+     * @return the keyword used after the slash in the text protocol
+     */
+    public String keyword() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * @param code a wire opcode
+     * @return the matching opcode, or null if unknown
+     */
+    public static Opcode fromCode(int code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+
+    /**
+     * @param keyword a text-protocol keyword, case-insensitive
+     * @return the matching opcode, or null if unknown
+     */
+    public static Opcode fromKeyword(String keyword) {
+        for (Opcode opcode : values()) {
+            if (opcode.keyword().equalsIgnoreCase(keyword)) {
+                return opcode;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,164 @@
+package edu.sdccd.cisc191.network;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single message waiting in a client's {@link OutboundQueue}.
+ * <p>
+ * The message is encoded at most once per {@link WireProtocol}, the first time a connection
+ * speaking that protocol writes it, into a read-only buffer. Every connection that sends it
+ * writes from its own {@link #payload(WireProtocol)} view of that buffer, so broadcasting to N
+ * clients costs one encode per protocol instead of N.
+ * <p>
+ * The encoding is picked by the connection's writer at write time, not when the message is
+ * queued, so a protocol switch takes effect exactly after the message that announces it.
+ * <p>
+ * Messages that describe replaceable state (a player's position, say) carry a coalesce key,
+ * so a newer message can take the place of an older one that has not been sent yet.
+ */
+public class OutboundMessage {
+    private final String coalesceKey;
+    private final GameMessage message;
+    private final boolean direct;
+    private final WireProtocol switchesTo;
+    private final long createdNanos = System.nanoTime();
+    private volatile ByteBuffer textEncoding;
+    private volatile ByteBuffer binaryEncoding;
+    private volatile ByteBuffer compressedEncoding;
+
+    private OutboundMessage(String coalesceKey, GameMessage message, boolean direct, WireProtocol switchesTo) {
+        this.coalesceKey = coalesceKey;
+        this.message = message;
+        this.direct = direct;
+        this.switchesTo = switchesTo;
+    }
+
+    /**
+     * @param text the line to send
+     * @return a message that is never coalesced
+     */
+    public static OutboundMessage of(String text) {
+        return of(GameMessage.notice(text));
+    }
+
+    /**
+     * @param message the message to send
+     * @return a message that is never coalesced
+     */
+    public static OutboundMessage of(GameMessage message) {
+        return new OutboundMessage(null, message, false, null);
+    }
+
+    /**
+     * @param coalesceKey key identifying the state this message describes
+     * @param text the line to send
+     * @return a message that replaces older queued messages with the same key
+     */
+    public static OutboundMessage keyed(String coalesceKey, String text) {
+        return keyed(coalesceKey, GameMessage.notice(text));
+    }
+
+    /**
+     * @param coalesceKey key identifying the state this message describes
+     * @param message the message to send
+     * @return a message that replaces older queued messages with the same key
+     */
+    public static OutboundMessage keyed(String coalesceKey, GameMessage message) {
+        return new OutboundMessage(coalesceKey, message, false, null);
+    }
+
+    /**
+     * Wraps a message that is about to be handed to many connections. Uses direct buffers,
+     * which cost more to allocate but are then written to every socket without copying.
+     *
+     * @param coalesceKey key identifying the state this message describes, or null
+     * @param message the message to send
+     * @return the shared message
+     */
+    public static OutboundMessage forBroadcast(String coalesceKey, GameMessage message) {
+        return new OutboundMessage(coalesceKey, message, true, null);
+    }
+
+    /**
+     * A message after which the connection writes everything in {@code protocol}. The message
+     * itself is still written in the connection's current protocol.
+     *
+     * @param protocol the protocol to switch to
+     * @param message the acknowledgement to send
+     * @return the message
+     */
+    public static OutboundMessage protocolSwitch(WireProtocol protocol, GameMessage message) {
+        return new OutboundMessage(null, message, false, protocol);
+    }
+
+    public String getCoalesceKey() {
+        return coalesceKey;
+    }
+
+    public GameMessage getMessage() {
+        return message;
+    }
+
+    public String getText() {
+        return message.toText();
+    }
+
+    /**
+     * @return true if the message was made with {@link #forBroadcast} to go to many connections
+     */
+    public boolean isBroadcast() {
+        return direct;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} when the message was made, for fan-out latency
+     */
+    public long getCreatedNanos() {
+        return createdNanos;
+    }
+
+    /**
+     * @return the protocol the connection uses after writing this message, or null for no change
+     */
+    public WireProtocol getSwitchesTo() {
+        return switchesTo;
+    }
+
+    /**
+     * @param protocol the protocol the receiving connection speaks
+     * @return a fresh read-only view of the encoded bytes with its own position and limit;
+     *         safe to hand to one channel write without affecting other connections
+     */
+    public ByteBuffer payload(WireProtocol protocol) {
+        ByteBuffer encoded = switch (protocol) {
+            case TEXT -> textEncoding;
+            case BINARY -> binaryEncoding;
+            case COMPRESSED -> compressedEncoding;
+        };
+        if (encoded == null) {
+            // two writers may race here; both produce identical bytes, so either result is fine
+            byte[] bytes = switch (protocol) {
+                case TEXT -> (message.toText() + "\n").getBytes(StandardCharsets.UTF_8);
+                case BINARY -> BinaryCodec.encodeFrame(message);
+                case COMPRESSED -> FrameCompressor.compressFrame(BinaryCodec.encodeFrame(message));
+            };
+            encoded = wrap(bytes);
+            switch (protocol) {
+                case TEXT -> textEncoding = encoded;
+                case BINARY -> binaryEncoding = encoded;
+                case COMPRESSED -> compressedEncoding = encoded;
+            }
+        }
+        return encoded.duplicate();
+    }
+
+    private ByteBuffer wrap(byte[] bytes) {
+        if (!direct) {
+            return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+}
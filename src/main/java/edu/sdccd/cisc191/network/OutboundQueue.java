@@ -0,0 +1,249 @@
+package edu.sdccd.cisc191.network;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded queue of messages waiting to be written to one client.
+ * <p>
+ * Broadcasting only ever appends here, so a client on a slow link fills its own queue instead
+ * of blocking the broadcaster. When the queue is full the configured {@link OverflowPolicy}
+ * decides what gives way, and every discarded message is counted. A keyed message carries
+ * replicated state that is never sent again unless it changes, so it is never simply dropped:
+ * a newer message with the same key takes its place, and when only keyed messages are queued a
+ * keyed message is queued past the capacity, at most once per key.
+ * <p>
+ * With keyed coalescing on (used when output is batched per tick), a message whose coalesce key
+ * matches one still queued always takes that message's place, so a client receives only the
+ * latest update for each key per write.
+ * <p>
+ * Uses a {@link ReentrantLock} rather than {@code synchronized} so that virtual-thread writers
+ * waiting for work park instead of pinning their carrier.
+ */
+public class OutboundQueue {
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final boolean coalesceKeyed;
+    private final ArrayDeque<Slot> slots = new ArrayDeque<>();
+    /** Queued slot for each coalesce key, so replacement is O(1). */
+    private final Map<String, Slot> slotsByKey = new HashMap<>();
+    private final Lock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private boolean closed;
+
+    /** Queue position of one message; the message can be swapped without moving the slot. */
+    private static final class Slot {
+        OutboundMessage message;
+
+        Slot(OutboundMessage message) {
+            this.message = message;
+        }
+    }
+
+    public OutboundQueue(int capacity, OverflowPolicy policy) {
+        this(capacity, policy, false);
+    }
+
+    /**
+     * @param capacity maximum queued messages before the overflow policy applies
+     * @param policy what to do when full
+     * @param coalesceKeyed if true, a keyed message always replaces a queued one with the same key
+     */
+    public OutboundQueue(int capacity, OverflowPolicy policy, boolean coalesceKeyed) {
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+        this.coalesceKeyed = coalesceKeyed;
+    }
+
+    /**
+     * Adds a message, applying the overflow policy if the queue is full.
+     *
+     * @param message the message to queue
+     * @return false if the queue is closed or the policy says the client should be disconnected
+     */
+    public boolean offer(OutboundMessage message) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            if (coalesceKeyed && replaceKeyed(message)) {
+                coalesced.incrementAndGet();
+                return true;
+            }
+            if (slots.size() >= capacity) {
+                switch (policy) {
+                    case DISCONNECT -> {
+                        dropped.incrementAndGet();
+                        return false;
+                    }
+                    case COALESCE, DROP_OLDEST -> {
+                        if (replaceKeyed(message)) {
+                            dropped.incrementAndGet();
+                            return true;
+                        }
+                        if (removeOldestUnkeyed()) {
+                            dropped.incrementAndGet();
+                        } else if (message.getCoalesceKey() == null) {
+                            dropped.incrementAndGet(); // nothing but state queued: the newcomer gives way
+                            return true;
+                        }
+                    }
+                }
+            }
+            Slot slot = new Slot(message);
+            slots.addLast(slot);
+            if (message.getCoalesceKey() != null) {
+                slotsByKey.put(message.getCoalesceKey(), slot);
+            }
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts {@code message} in place of the queued message sharing its key, keeping the position.
+     */
+    private boolean replaceKeyed(OutboundMessage message) {
+        String key = message.getCoalesceKey();
+        Slot slot = key == null ? null : slotsByKey.get(key);
+        if (slot == null) {
+            return false;
+        }
+        slot.message = message;
+        return true;
+    }
+
+    /**
+     * Discards the oldest queued message that has no key.
+     *
+     * @return false if every queued message is keyed
+     */
+    private boolean removeOldestUnkeyed() {
+        Iterator<Slot> queued = slots.iterator();
+        while (queued.hasNext()) {
+            if (queued.next().message.getCoalesceKey() == null) {
+                queued.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private OutboundMessage removeFirst() {
+        Slot slot = slots.pollFirst();
+        if (slot == null) {
+            return null;
+        }
+        String key = slot.message.getCoalesceKey();
+        if (key != null) {
+            slotsByKey.remove(key, slot);
+        }
+        return slot.message;
+    }
+
+    /**
+     * @return the next message, or null if the queue is empty
+     */
+    public OutboundMessage poll() {
+        lock.lock();
+        try {
+            return removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves everything queued into {@code sink} without waiting.
+     *
+     * @param sink list that receives the messages in order
+     * @return the number of messages moved
+     */
+    public int drainTo(List<OutboundMessage> sink) {
+        lock.lock();
+        try {
+            int count = slots.size();
+            for (Slot slot : slots) {
+                sink.add(slot.message);
+            }
+            slots.clear();
+            slotsByKey.clear();
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until at least one message is queued, leaving it in place so later messages in the
+     * same tick can still coalesce with it.
+     *
+     * @return false once the queue has been closed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitMessages() throws InterruptedException {
+        lock.lock();
+        try {
+            while (slots.isEmpty() && !closed) {
+                notEmpty.await();
+            }
+            return !slots.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rejects further messages and wakes any waiting writer.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            slots.clear();
+            slotsByKey.clear();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return how many messages this queue has discarded or replaced because it was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return how many messages were superseded by a newer one with the same key before being sent
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+}
@@ -0,0 +1,20 @@
+package edu.sdccd.cisc191.network;
+
+/**
+ * What a client's {@link OutboundQueue} does when a new message arrives and the queue is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Discard the oldest queued message without a coalesce key to make room. Keyed messages are
+     * replicated state and are only ever replaced by a newer message with the same key.
+     */
+    DROP_OLDEST,
+    /**
+     * Replace a queued message with the same coalesce key (e.g. an older position update for
+     * the same player); messages without a key fall back to {@link #DROP_OLDEST}. Keyed state
+     * is treated the same way under both policies.
+     */
+    COALESCE,
+    /** Treat the client as too slow to keep up and disconnect it. */
+    DISCONNECT
+}
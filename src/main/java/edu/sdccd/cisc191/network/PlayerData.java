@@ -1,13 +1,25 @@
 package edu.sdccd.cisc191.network;
 
+import edu.sdccd.cisc191.game.Player;
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.PlayerMovementManager;
+
 import java.net.Socket;
 
+/**
+ * Replicated state for one player: position, fleet summary and inventory.
+ * <p>
+ * Every change bumps the player's version, and each field remembers the version at which it
+ * last changed. That is all {@link StateReplicator} needs to send a client only the fields that
+ * changed since the version it last acknowledged.
+ */
 public class PlayerData {
     private final String playerId;
     private final String playerName;
     private Socket socket;
-
-    // Additional fields such as score, position, etc., can be added here.
+    private final int[] values = new int[PlayerField.COUNT];
+    private final long[] fieldVersions = new long[PlayerField.COUNT];
+    private long version;
 
     public PlayerData(String playerId, String playerName) {
         this.playerId = playerId;
@@ -30,11 +42,120 @@ public class PlayerData {
         return playerName;
     }
 
+    /**
+     * Sets one field, bumping the version only if the value actually changed.
+     *
+     * @param field the field to set
+     * @param value the new value
+     * @return true if the value changed
+     */
+    public synchronized boolean set(PlayerField field, int value) {
+        int i = field.ordinal();
+        if (values[i] == value) {
+            return false;
+        }
+        values[i] = value;
+        fieldVersions[i] = ++version;
+        return true;
+    }
+
+    public synchronized int get(PlayerField field) {
+        return values[field.ordinal()];
+    }
+
+    /**
+     * @return the version of the most recent change
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Copies every field of {@code other} into this player; unchanged fields keep their versions.
+     *
+     * @param other the incoming state
+     */
+    public void mergeFrom(PlayerData other) {
+        int[] incoming;
+        synchronized (other) {
+            incoming = other.values.clone();
+        }
+        synchronized (this) {
+            for (PlayerField field : PlayerField.values()) {
+                set(field, incoming[field.ordinal()]);
+            }
+        }
+    }
+
+    /**
+     * Captures the authoritative game state for this player.
+     *
+     * @param movement source of the player's board position
+     * @param player source of the fleet summary
+     * @param inventory source of resource amounts
+     */
+    public synchronized void updateFrom(PlayerMovementManager movement, Player player, PlayerInventory inventory) {
+        set(PlayerField.ROW, movement.getRow());
+        set(PlayerField.COL, movement.getCol());
+        set(PlayerField.SHIP_COUNT, player.getFleet().size());
+        set(PlayerField.FLEET_HEALTH, player.getTotalFleetHealth());
+        for (PlayerField field : PlayerField.values()) {
+            if (field.getResourceType() != null) {
+                set(field, inventory.getResourceAmount(field.getResourceType()));
+            }
+        }
+    }
+
+    /**
+     * @return a {@link Opcode#SNAPSHOT} carrying every field
+     */
+    public synchronized GameMessage toSnapshot() {
+        Object[] fields = new Object[3 + PlayerField.COUNT];
+        fields[0] = playerId;
+        fields[1] = playerName;
+        fields[2] = version;
+        for (int i = 0; i < PlayerField.COUNT; i++) {
+            fields[3 + i] = values[i];
+        }
+        return GameMessage.of(Opcode.SNAPSHOT, fields);
+    }
+
+    /**
+     * @param sinceVersion the version the receiver already holds
+     * @return a {@link Opcode#DELTA} with only the fields changed after {@code sinceVersion},
+     *         or null if nothing changed
+     */
+    public synchronized GameMessage toDelta(long sinceVersion) {
+        long mask = 0;
+        int changed = 0;
+        for (int i = 0; i < PlayerField.COUNT; i++) {
+            if (fieldVersions[i] > sinceVersion) {
+                mask |= 1L << i;
+                changed++;
+            }
+        }
+        if (changed == 0) {
+            return null;
+        }
+        Object[] fields = new Object[3 + changed];
+        fields[0] = playerId;
+        fields[1] = version;
+        fields[2] = mask;
+        int next = 3;
+        for (int i = 0; i < PlayerField.COUNT; i++) {
+            if ((mask & (1L << i)) != 0) {
+                fields[next++] = values[i];
+            }
+        }
+        return GameMessage.of(Opcode.DELTA, fields);
+    }
+
     @Override
     public String toString() {
         return "PlayerData{" +
                 "playerId='" + playerId + '\'' +
                 ", playerName='" + playerName + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,38 @@
+package edu.sdccd.cisc191.network;
+
+import edu.sdccd.cisc191.game.ResourceType;
+
+/**
+ * The individually versioned pieces of a player's replicated state.
+ * <p>
+ * The ordinal is the field's bit in a {@link Opcode#DELTA} mask and its position in a
+ * {@link Opcode#SNAPSHOT}, so new fields must only ever be added at the end.
+ */
+public enum PlayerField {
+    ROW(null),
+    COL(null),
+    SHIP_COUNT(null),
+    FLEET_HEALTH(null),
+    FUEL(ResourceType.FUEL),
+    MINERALS(ResourceType.MINERALS),
+    ENERGY(ResourceType.ENERGY),
+    CREDITS(ResourceType.CREDITS),
+    DILITHIUM(ResourceType.DILITHIUM);
+
+    /** Number of fields, i.e. the length of a snapshot's value list. */
+    public static final int COUNT = values().length;
+
+    private final ResourceType resourceType;
+
+    PlayerField(ResourceType resourceType) {
+        this.resourceType = resourceType;
+    }
+
+    /**
+     * @return the {@link edu.sdccd.cisc191.game.PlayerInventory} resource this field mirrors,
+     *         or null if it is not an inventory field
+     */
+    public ResourceType getResourceType() {
+        return resourceType;
+    }
+}
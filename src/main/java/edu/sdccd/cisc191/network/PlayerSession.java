@@ -0,0 +1,142 @@
+package edu.sdccd.cisc191.network;
+
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.game.GameBoard;
+import edu.sdccd.cisc191.game.Player;
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.PlayerMovementManager;
+import edu.sdccd.cisc191.game.ResourceType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * The server's authoritative copy of one player's game state.
+ * <p>
+ * Owned by the {@link SimulationEngine}: only the simulation thread reads or changes it, so
+ * the game classes it wraps need no locking of their own. Clients see it only through the
+ * {@link PlayerData} the engine publishes after each tick.
+ */
+class PlayerSession {
+    /** Resources every new player starts with. */
+    static final ResourceType[] STARTING_RESOURCES = {
+            ResourceType.FUEL, ResourceType.MINERALS, ResourceType.ENERGY, ResourceType.CREDITS};
+    static final int STARTING_AMOUNT = 100;
+
+    private final String playerId;
+    private final String playerName;
+    private final Player player;
+    private final PlayerInventory inventory;
+    private final PlayerMovementManager movement;
+
+    PlayerSession(String playerId, String playerName, GameBoard board) {
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.player = new Player(playerName);
+        this.inventory = new PlayerInventory();
+        this.movement = new PlayerMovementManager(player, board, inventory);
+        for (ResourceType resource : STARTING_RESOURCES) {
+            inventory.addResource(resource, STARTING_AMOUNT);
+        }
+    }
+
+    String getPlayerId() {
+        return playerId;
+    }
+
+    String getPlayerName() {
+        return playerName;
+    }
+
+    Player getPlayer() {
+        return player;
+    }
+
+    PlayerInventory getInventory() {
+        return inventory;
+    }
+
+    PlayerMovementManager getMovement() {
+        return movement;
+    }
+
+    /**
+     * Packs the whole session for the server that owns the square the player is moving to.
+     *
+     * @param room the room the player is in
+     * @param row the galaxy row it is moving to
+     * @param col the galaxy column it is moving to
+     * @return a {@link Opcode#HANDOFF} message
+     */
+    GameMessage toHandoff(String room, int row, int col) {
+        StringJoiner fleet = new StringJoiner(";");
+        for (GalacticShip ship : player.getFleet()) {
+            StringBuilder entry = new StringBuilder(ship.getName()).append(':').append(ship.getHealth())
+                    .append(':').append(ship.getAttackPower());
+            List<GalacticShip.CombatAbility> abilities = ship.getCombatAbilities();
+            for (int i = 0; i < abilities.size(); i++) {
+                entry.append(i == 0 ? ':' : '+').append(abilities.get(i).name());
+            }
+            fleet.add(entry);
+        }
+        List<Object> fields = new ArrayList<>(List.of(playerId, room, fleet.length() == 0 ? "-" : fleet.toString(), playerName, row, col));
+        for (PlayerField field : PlayerField.values()) {
+            if (field.getResourceType() != null) {
+                fields.add(inventory.getResourceAmount(field.getResourceType()));
+            }
+        }
+        return GameMessage.of(Opcode.HANDOFF, fields.toArray());
+    }
+
+    /**
+     * Rebuilds a session handed over by another server.
+     *
+     * @param handoff a {@link Opcode#HANDOFF} message
+     * @param board this server's board
+     * @return the session, placed on its new square, or null if that square is not on the board
+     * @throws IllegalArgumentException if the fleet cannot be parsed
+     */
+    static PlayerSession fromHandoff(GameMessage handoff, GameBoard board) {
+        PlayerSession session = new PlayerSession(handoff.getString(0), handoff.getString(3), board);
+        if (!session.movement.placeAt(handoff.getInt(4), handoff.getInt(5))) {
+            return null;
+        }
+        String fleet = handoff.getString(2);
+        if (!"-".equals(fleet)) {
+            for (String entry : fleet.split(";")) {
+                String[] parts = entry.split(":");
+                if (parts.length < 3) {
+                    throw new IllegalArgumentException("Bad ship in handoff: " + entry);
+                }
+                GalacticShip ship = new GalacticShip(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                if (parts.length > 3) {
+                    for (String ability : parts[3].split("\\+")) {
+                        ship.addCombatAbility(GalacticShip.CombatAbility.valueOf(ability));
+                    }
+                }
+                session.player.addShip(ship);
+            }
+        }
+        int index = 6;
+        for (PlayerField field : PlayerField.values()) {
+            if (field.getResourceType() != null && index < handoff.size()) {
+                session.setAmount(field.getResourceType(), handoff.getInt(index++));
+            }
+        }
+        return session;
+    }
+
+    private void setAmount(ResourceType resource, int amount) {
+        inventory.addResource(resource, amount - inventory.getResourceAmount(resource));
+    }
+
+    /**
+     * Copies this session's state into the replicated view clients receive.
+     *
+     * @param data the player's replicated data
+     */
+    void publishTo(PlayerData data) {
+        data.updateFrom(movement, player, inventory);
+    }
+}
@@ -0,0 +1,97 @@
+package edu.sdccd.cisc191.network;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Input limits for one client connection.
+ * <p>
+ * Every message but acknowledgements spends a token from the connection's bucket, and the
+ * commands listed in the per-command rates also need one from their own bucket. Handoffs from a
+ * server link that has proven it is a peer never reach the limiter.
+ * The connection bucket may go into debt: the messages of a burst that already arrived are
+ * handled, but the connection's reader then stops reading for {@link #nanosUntilReady} so the
+ * client is slowed down by TCP instead of by the server doing its work. Only messages beyond a
+ * full burst of debt, or over a command's own rate, are dropped.
+ * <p>
+ * Each dropped message costs a token from a tolerance bucket that refills at one per second; a
+ * client that runs it dry is abusing the limits and should be disconnected. Like its buckets, a
+ * limiter is only used by the thread reading its connection.
+ */
+public class RateLimiter {
+    /** What to do with a message. */
+    public enum Verdict {
+        /** Handle the message. */
+        ADMIT,
+        /** Ignore the message; the client is over a limit. */
+        DROP,
+        /** Ignore the message and disconnect the client; it keeps exceeding its limits. */
+        DISCONNECT
+    }
+
+    private final TokenBucket connection;
+    private final Map<Opcode, TokenBucket> commands = new EnumMap<>(Opcode.class);
+    private final TokenBucket tolerance;
+    private long dropped;
+
+    /**
+     * @param messagesPerSecond long-run message rate for the connection; 0 or less turns every
+     *                          limit off
+     * @param burst messages the connection may send at once, and the debt it may run up
+     * @param commandRates per-second limits for individual commands, each allowed bursts of twice
+     *                     its rate
+     * @param abuseLimit dropped messages tolerated, regained at one per second, before the client
+     *                   is disconnected
+     * @param now the current {@link System#nanoTime()}
+     */
+    public RateLimiter(double messagesPerSecond, double burst, Map<Opcode, Double> commandRates, int abuseLimit, long now) {
+        if (messagesPerSecond <= 0) {
+            this.connection = null;
+            this.tolerance = null;
+            return;
+        }
+        this.connection = new TokenBucket(messagesPerSecond, burst, now);
+        this.tolerance = new TokenBucket(1, abuseLimit, now);
+        for (Map.Entry<Opcode, Double> entry : commandRates.entrySet()) {
+            if (entry.getValue() > 0) {
+                commands.put(entry.getKey(), new TokenBucket(entry.getValue(), 2 * entry.getValue(), now));
+            }
+        }
+    }
+
+    /**
+     * Decides what to do with one incoming message.
+     *
+     * @param message the decoded message
+     * @param now the current {@link System#nanoTime()}
+     * @return the verdict
+     */
+    public Verdict check(GameMessage message, long now) {
+        if (connection == null) {
+            return Verdict.ADMIT;
+        }
+        Opcode opcode = message.getOpcode();
+        boolean exempt = opcode == Opcode.ACK;
+        TokenBucket command = commands.get(opcode);
+        if ((exempt || connection.tryBorrow(now)) && (command == null || command.tryTake(now))) {
+            return Verdict.ADMIT;
+        }
+        dropped++;
+        return tolerance.tryTake(now) ? Verdict.DROP : Verdict.DISCONNECT;
+    }
+
+    /**
+     * @param now the current {@link System#nanoTime()}
+     * @return nanoseconds the reader should wait before reading more, 0 to carry on
+     */
+    public long nanosUntilReady(long now) {
+        return connection == null ? 0 : connection.nanosUntilAvailable(now);
+    }
+
+    /**
+     * @return messages dropped so far
+     */
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,146 @@
+package edu.sdccd.cisc191.network;
+
+import edu.sdccd.cisc191.game.GameBoard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How the galaxy is split into regions and which server owns each one.
+ * <p>
+ * The galaxy is cut into a grid of {@code gridRows x gridCols} equal rectangles (the last row and
+ * column of regions take what is left over), numbered row by row from 0. Every server is started
+ * with the same map and its own region number; it holds a {@link GameBoard} for that region only
+ * and hands a player to the owning server when a move crosses a region border. With a 1x1 grid
+ * the one server owns the whole galaxy and nothing is ever handed off.
+ */
+public class RegionMap {
+    private final int galaxyRows;
+    private final int galaxyCols;
+    private final int gridRows;
+    private final int gridCols;
+    private final int regionRows;
+    private final int regionCols;
+    private final int localRegion;
+    private final List<String> hosts = new ArrayList<>();
+    private final List<Integer> ports = new ArrayList<>();
+
+    /**
+     * @param galaxyRows rows in the whole galaxy
+     * @param galaxyCols columns in the whole galaxy
+     * @param gridRows regions from top to bottom
+     * @param gridCols regions from left to right
+     * @param localRegion the region this server owns
+     * @param shards {@code host:port} of the server owning each region, in region order; may be
+     *               empty when there is only one region
+     * @throws IllegalArgumentException if the grid does not fit the galaxy or a shard is missing
+     */
+    public RegionMap(int galaxyRows, int galaxyCols, int gridRows, int gridCols, int localRegion, List<String> shards) {
+        if (galaxyRows < 1 || galaxyCols < 1 || gridRows < 1 || gridCols < 1 || gridRows > galaxyRows || gridCols > galaxyCols) {
+            throw new IllegalArgumentException("Cannot split a " + galaxyRows + "x" + galaxyCols
+                    + " galaxy into " + gridRows + "x" + gridCols + " regions");
+        }
+        int regions = gridRows * gridCols;
+        if (localRegion < 0 || localRegion >= regions) {
+            throw new IllegalArgumentException("Region " + localRegion + " does not exist; there are " + regions);
+        }
+        if (regions > 1 && shards.size() != regions) {
+            throw new IllegalArgumentException("Expected " + regions + " shard addresses, got " + shards.size());
+        }
+        this.galaxyRows = galaxyRows;
+        this.galaxyCols = galaxyCols;
+        this.gridRows = gridRows;
+        this.gridCols = gridCols;
+        this.regionRows = galaxyRows / gridRows;
+        this.regionCols = galaxyCols / gridCols;
+        this.localRegion = localRegion;
+        for (String shard : shards) {
+            int colon = shard.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Shard address must be host:port: " + shard);
+            }
+            hosts.add(shard.substring(0, colon));
+            ports.add(Integer.parseInt(shard.substring(colon + 1)));
+        }
+    }
+
+    /**
+     * @param rows galaxy rows
+     * @param cols galaxy columns
+     * @return a map with one region covering the whole galaxy
+     */
+    public static RegionMap single(int rows, int cols) {
+        return new RegionMap(rows, cols, 1, 1, 0, List.of());
+    }
+
+    /**
+     * @return true if the galaxy is split across more than one server
+     */
+    public boolean isSharded() {
+        return gridRows * gridCols > 1;
+    }
+
+    /**
+     * @param row galaxy row
+     * @param col galaxy column
+     * @return true if the square is anywhere in the galaxy
+     */
+    public boolean inGalaxy(int row, int col) {
+        return row >= 0 && row < galaxyRows && col >= 0 && col < galaxyCols;
+    }
+
+    /**
+     * @param row galaxy row
+     * @param col galaxy column
+     * @return the region owning the square, or -1 if it is outside the galaxy
+     */
+    public int regionOf(int row, int col) {
+        if (!inGalaxy(row, col)) {
+            return -1;
+        }
+        int gridRow = Math.min(row / regionRows, gridRows - 1);
+        int gridCol = Math.min(col / regionCols, gridCols - 1);
+        return gridRow * gridCols + gridCol;
+    }
+
+    /**
+     * @return a new, initialized board covering only this server's region
+     */
+    public GameBoard newLocalBoard() {
+        int gridRow = localRegion / gridCols;
+        int gridCol = localRegion % gridCols;
+        int firstRow = gridRow * regionRows;
+        int firstCol = gridCol * regionCols;
+        int rows = gridRow == gridRows - 1 ? galaxyRows - firstRow : regionRows;
+        int cols = gridCol == gridCols - 1 ? galaxyCols - firstCol : regionCols;
+        GameBoard board = new GameBoard(firstRow, firstCol, rows, cols);
+        board.initializeBoard();
+        return board;
+    }
+
+    public int getLocalRegion() {
+        return localRegion;
+    }
+
+    /**
+     * @param region a region number
+     * @return the host of the server owning it
+     */
+    public String getHost(int region) {
+        return hosts.get(region);
+    }
+
+    /**
+     * @param region a region number
+     * @return the port of the server owning it
+     */
+    public int getPort(int region) {
+        return ports.get(region);
+    }
+
+    @Override
+    public String toString() {
+        return galaxyRows + "x" + galaxyCols + " galaxy in " + gridRows + "x" + gridCols
+                + " regions, local region " + localRegion;
+    }
+}
@@ -0,0 +1,72 @@
+package edu.sdccd.cisc191.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring of the most recent messages written to one session, numbered from 1.
+ * <p>
+ * Holds references to the shared {@link OutboundMessage}s rather than copies, so a broadcast
+ * retained by thousands of sessions is still stored once. Not thread-safe; the owning
+ * {@link ClientSession} guards it.
+ */
+class ReplayBuffer {
+    private final OutboundMessage[] ring;
+    /** Sequence number of the newest message, or 0 if none has been written. */
+    private long lastSeq;
+
+    ReplayBuffer(int capacity) {
+        this.ring = new OutboundMessage[Math.max(1, capacity)];
+    }
+
+    /**
+     * @param message a message just written
+     * @return its sequence number
+     */
+    long append(OutboundMessage message) {
+        lastSeq++;
+        ring[(int) (lastSeq % ring.length)] = message;
+        return lastSeq;
+    }
+
+    long getLastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * @param seq the last sequence number the client received
+     * @return true if every message after {@code seq} is still held
+     */
+    boolean canReplayAfter(long seq) {
+        return seq >= 0 && seq <= lastSeq && lastSeq - seq <= ring.length;
+    }
+
+    /**
+     * @param seq the last sequence number the client received
+     * @return the messages after {@code seq}, oldest first
+     * @throws IllegalArgumentException if some of them have been overwritten
+     */
+    List<OutboundMessage> after(long seq) {
+        if (!canReplayAfter(seq)) {
+            throw new IllegalArgumentException("Cannot replay after " + seq + " (last " + lastSeq + ")");
+        }
+        List<OutboundMessage> missed = new ArrayList<>((int) (lastSeq - seq));
+        for (long s = seq + 1; s <= lastSeq; s++) {
+            missed.add(ring[(int) (s % ring.length)]);
+        }
+        return missed;
+    }
+
+    /**
+     * Forgets everything after {@code seq}, so replayed messages are numbered again as they are
+     * rewritten.
+     *
+     * @param seq the new last sequence number
+     */
+    void truncate(long seq) {
+        for (long s = seq + 1; s <= lastSeq; s++) {
+            ring[(int) (s % ring.length)] = null;
+        }
+        lastSeq = Math.min(lastSeq, seq);
+    }
+}
@@ -0,0 +1,265 @@
+package edu.sdccd.cisc191.network;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The game rooms hosted by one server process, and which room each connection is in.
+ * <p>
+ * Every connection starts in the {@link #LOBBY} and can move with {@code /join <room>}, which
+ * creates the room if it does not exist yet. All rooms share the server's I/O threads and one
+ * small pool of room threads (see {@link GameRoom}), so a room costs some memory but no threads
+ * of its own. A room other than the lobby is closed once it has no members and no parked session
+ * that could still resume into it.
+ */
+public class RoomManager {
+    /** Room every connection joins first; never closed. */
+    public static final String LOBBY = "lobby";
+    /** Longest room name accepted from a client. */
+    static final int MAX_NAME_LENGTH = 32;
+
+    private final ServerConfig config;
+    private final SessionManager sessions;
+    private final RegionMap regions;
+    private final ShardLinks links;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<String, GameRoom> rooms = new ConcurrentHashMap<>();
+    private final Map<ClientConnection, GameRoom> roomOf = new ConcurrentHashMap<>();
+    private final AtomicInteger roomCount = new AtomicInteger();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+
+    /**
+     * @param config room limits and the settings every room is created with
+     * @param sessions resumable sessions shared by every room
+     * @throws IllegalArgumentException if the galaxy, region and shard options do not fit together,
+     *         or the galaxy is sharded without a shard secret
+     */
+    public RoomManager(ServerConfig config, SessionManager sessions) {
+        this.config = config;
+        this.sessions = sessions;
+        this.regions = config.newRegionMap();
+        if (regions.isSharded() && config.getShardSecret().isEmpty()) {
+            throw new IllegalArgumentException("a sharded galaxy needs --shard-secret, or any client could hand players over");
+        }
+        this.links = regions.isSharded() ? new ShardLinks(regions, config.getShardSecret()) : null;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(config.getRoomThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "room-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+        getOrCreate(LOBBY);
+    }
+
+    /**
+     * @param name a room name
+     * @return the open room with that name, creating and starting it if needed, or null if the
+     *         name is invalid or the room limit has been reached
+     */
+    GameRoom getOrCreate(String name) {
+        if (name == null || name.isBlank() || name.length() > MAX_NAME_LENGTH) {
+            return null;
+        }
+        GameRoom existing = rooms.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        if (roomCount.incrementAndGet() > config.getMaxRooms()) {
+            roomCount.decrementAndGet();
+            return null;
+        }
+        GameRoom created = new GameRoom(name, config, sessions, regions, links);
+        GameRoom raced = rooms.putIfAbsent(name, created);
+        if (raced != null) {
+            roomCount.decrementAndGet();
+            return raced;
+        }
+        created.start(executor);
+        opened.increment();
+        return created;
+    }
+
+    /**
+     * Moves a connection into a room, leaving the one it was in.
+     *
+     * @param client the connection
+     * @param name the room to join
+     * @return the room joined, or null if it could not be opened; the connection then stays
+     *         where it was
+     */
+    public GameRoom join(ClientConnection client, String name) {
+        GameRoom room = getOrCreate(name);
+        if (room == null) {
+            return null;
+        }
+        GameRoom previous = roomOf.put(client, room);
+        if (previous == room) {
+            return room;
+        }
+        if (previous != null) {
+            previous.leave(client);
+        }
+        room.join(client);
+        if (room.isClosed()) {
+            // closed as idle between lookup and join; open it again
+            room.leave(client);
+            return join(client, name);
+        }
+        return room;
+    }
+
+    /**
+     * Puts a resumed connection back into the room its session was parked in, or the lobby if
+     * that room has since closed.
+     *
+     * @param client the new connection
+     * @param room the room the session was in
+     * @param view the replication state to carry on from, or null
+     * @param playerId the player the session controlled, or null
+     * @return the room the connection is now in
+     */
+    GameRoom rejoin(ClientConnection client, GameRoom room, StateReplicator.ClientView view, String playerId) {
+        if (room == null || room.isClosed()) {
+            return join(client, LOBBY);
+        }
+        GameRoom previous = roomOf.put(client, room);
+        if (previous != null && previous != room) {
+            previous.leave(client);
+        }
+        room.rejoin(client, view, playerId);
+        return room;
+    }
+
+    /**
+     * Takes a connection out of its room.
+     *
+     * @param client the connection
+     * @return the room it was in, or null
+     */
+    public GameRoom leave(ClientConnection client) {
+        GameRoom room = roomOf.remove(client);
+        if (room != null) {
+            room.leave(client);
+        }
+        return room;
+    }
+
+    /**
+     * Forgets which room a closed connection was in without taking it out; the caller does that
+     * with {@link GameRoom#leave}, keeping what a resumable session needs.
+     *
+     * @param client the connection that closed
+     * @return the room it was in, or null
+     */
+    GameRoom detach(ClientConnection client) {
+        return roomOf.remove(client);
+    }
+
+    /**
+     * @param client a connection
+     * @return the room it is in, or null if it has not joined one
+     */
+    public GameRoom roomOf(ClientConnection client) {
+        return roomOf.get(client);
+    }
+
+    /**
+     * @param name a room name
+     * @return the open room with that name, or null
+     */
+    public GameRoom getRoom(String name) {
+        return rooms.get(name);
+    }
+
+    /**
+     * @return how the galaxy is split between servers
+     */
+    public RegionMap getRegions() {
+        return regions;
+    }
+
+    public Collection<GameRoom> getRooms() {
+        return rooms.values();
+    }
+
+    /**
+     * @return rooms currently open, including the lobby
+     */
+    public int getRoomCount() {
+        return roomCount.get();
+    }
+
+    /**
+     * Closes every room other than the lobby that nobody is in or can resume into.
+     *
+     * @return the number closed
+     */
+    public int closeIdleRooms() {
+        int count = 0;
+        for (GameRoom room : rooms.values()) {
+            if (!LOBBY.equals(room.getName()) && room.getMemberCount() == 0 && !sessions.hasParkedIn(room)
+                    && rooms.remove(room.getName(), room)) {
+                room.close();
+                roomCount.decrementAndGet();
+                closed.increment();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Builds a one-line summary of every room's tick timing and resets each room's duration
+     * window.
+     *
+     * @return the report text
+     */
+    public String report() {
+        long ticks = 0;
+        long overruns = 0;
+        long queued = 0;
+        long handoffsOut = 0;
+        long handoffsIn = 0;
+        long worstP99 = 0;
+        String worstRoom = "-";
+        int members = 0;
+        for (GameRoom room : rooms.values()) {
+            SimulationEngine engine = room.getEngine();
+            members += room.getMemberCount();
+            ticks += engine.getTickCount();
+            overruns += engine.getOverrunCount();
+            queued += engine.getQueuedCommands();
+            handoffsOut += engine.getHandoffsOut();
+            handoffsIn += engine.getHandoffsIn();
+            long p99 = engine.getTickDurations().getPercentile(99);
+            if (p99 > worstP99) {
+                worstP99 = p99;
+                worstRoom = room.getName();
+            }
+            engine.getTickDurations().reset();
+        }
+        return String.format("Rooms: open=%d, opened=%d, closed=%d, members=%d, threads=%d, ticks=%d, overruns=%d, "
+                        + "queued=%d, worst tick p99=%.2fms (%s), pending tasks=%d, handoffs=%d out/%d in",
+                roomCount.get(), opened.sum(), closed.sum(), members, executor.getPoolSize(), ticks, overruns,
+                queued, worstP99 / 1e6, worstRoom, executor.getQueue().size(), handoffsOut, handoffsIn);
+    }
+
+    /**
+     * Stops every room.
+     */
+    public void shutdown() {
+        for (GameRoom room : rooms.values()) {
+            room.close();
+        }
+        executor.shutdownNow();
+        if (links != null) {
+            links.close();
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package edu.sdccd.cisc191.network;
+
+import edu.sdccd.cisc191.game.GameBoard;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startup options for {@link MultiplayerServer}.
+ * <p>
+ * Options are passed on the command line as {@code --key=value}, for example
+ * {@code --mode=nio --port=5000 --io-threads=4 --report-interval=10 --queue-capacity=256
+ * --overflow=coalesce --replication-interval=50 --interest-radius=2 --interest-region=0
+ * --tick-window=33 --sim-tick=50 --resume-grace=30 --replay-buffer=256 --room-threads=2 --max-rooms=1000
+ * --galaxy=10x20 --regions=1x2 --region=0 --shards=localhost:5000,localhost:5001 --shard-secret=s3cret
+ * --compress-threshold=256 --input-rate=50 --input-burst=100 --command-rate=chat:5,move:20
+ * --abuse-limit=50}.
+ * Anything not given keeps its default.
+ */
+public class ServerConfig {
+    /** Default port for client/server communication. */
+    public static final int DEFAULT_PORT = 5000;
+
+    private int port = DEFAULT_PORT;
+    private ServerMode mode = ServerMode.THREAD;
+    private int ioThreads = Runtime.getRuntime().availableProcessors();
+    private int reportIntervalSeconds = 0;
+    private int queueCapacity = 256;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private int replicationIntervalMillis = 50;
+    private int interestRadius = -1;
+    private int interestRegionSize = 0;
+    private int tickWindowMillis = 0;
+    private int simulationTickMillis = 50;
+    private int resumeGraceSeconds = 30;
+    private int replayBufferSize = 256;
+    private int roomThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int maxRooms = 1000;
+    private int galaxyRows = GameBoard.SECTOR_SIZE;
+    private int galaxyCols = GameBoard.SECTOR_SIZE;
+    private int regionGridRows = 1;
+    private int regionGridCols = 1;
+    private int region = 0;
+    private List<String> shards = List.of();
+    private String shardSecret = "";
+    private int compressThreshold = FrameCompressor.DEFAULT_THRESHOLD;
+    private double inputRate = 50;
+    private double inputBurst = 100;
+    private final Map<Opcode, Double> commandRates = defaultCommandRates();
+    private int abuseLimit = 50;
+
+    /**
+     * @return the per-command limits used unless configured otherwise
+     */
+    private static Map<Opcode, Double> defaultCommandRates() {
+        Map<Opcode, Double> commandRates = new EnumMap<>(Opcode.class);
+        // game commands take effect once per tick, so a few a second is plenty
+        commandRates.put(Opcode.CHAT, 5.0);
+        commandRates.put(Opcode.MOVE, 20.0);
+        commandRates.put(Opcode.BUILD, 5.0);
+        commandRates.put(Opcode.EXPLORE, 5.0);
+        commandRates.put(Opcode.GATHER, 5.0);
+        commandRates.put(Opcode.TRADE, 5.0);
+        commandRates.put(Opcode.JOIN, 2.0);
+        commandRates.put(Opcode.SESSION, 1.0);
+        commandRates.put(Opcode.RESUME, 1.0);
+        commandRates.put(Opcode.ACK, 1000.0);
+        return commandRates;
+    }
+
+    /**
+     * Builds a configuration from command line arguments.
+     *
+     * @param args arguments in {@code --key=value} form
+     * @return the parsed configuration
+     */
+    public static ServerConfig fromArgs(String[] args) {
+        ServerConfig config = new ServerConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("Ignoring unrecognised argument: " + arg);
+                continue;
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            try {
+                switch (key) {
+                    case "port" -> config.setPort(Integer.parseInt(value));
+                    case "mode" -> config.setMode(ServerMode.valueOf(value.toUpperCase()));
+                    case "io-threads" -> config.setIoThreads(Integer.parseInt(value));
+                    case "report-interval" -> config.setReportIntervalSeconds(Integer.parseInt(value));
+                    case "queue-capacity" -> config.setQueueCapacity(Integer.parseInt(value));
+                    case "overflow" -> config.setOverflowPolicy(OverflowPolicy.valueOf(value.toUpperCase()));
+                    case "replication-interval" -> config.setReplicationIntervalMillis(Integer.parseInt(value));
+                    case "interest-radius" -> config.setInterestRadius(Integer.parseInt(value));
+                    case "interest-region" -> config.setInterestRegionSize(Integer.parseInt(value));
+                    case "tick-window" -> config.setTickWindowMillis(Integer.parseInt(value));
+                    case "sim-tick" -> config.setSimulationTickMillis(Integer.parseInt(value));
+                    case "resume-grace" -> config.setResumeGraceSeconds(Integer.parseInt(value));
+                    case "replay-buffer" -> config.setReplayBufferSize(Integer.parseInt(value));
+                    case "room-threads" -> config.setRoomThreads(Integer.parseInt(value));
+                    case "max-rooms" -> config.setMaxRooms(Integer.parseInt(value));
+                    case "galaxy" -> {
+                        int[] size = parseSize(value);
+                        config.setGalaxySize(size[0], size[1]);
+                    }
+                    case "regions" -> {
+                        int[] grid = parseSize(value);
+                        config.setRegionGrid(grid[0], grid[1]);
+                    }
+                    case "region" -> config.setRegion(Integer.parseInt(value));
+                    case "shards" -> config.setShards(List.of(value.split(",")));
+                    case "shard-secret" -> config.setShardSecret(value);
+                    case "compress-threshold" -> config.setCompressThreshold(Integer.parseInt(value));
+                    case "input-rate" -> config.setInputRate(Double.parseDouble(value));
+                    case "input-burst" -> config.setInputBurst(Double.parseDouble(value));
+                    case "command-rate" -> {
+                        for (String limit : value.split(",")) {
+                            String[] parts = limit.split(":");
+                            if (parts.length != 2) {
+                                throw new IllegalArgumentException(limit);
+                            }
+                            config.setCommandRate(Opcode.valueOf(parts[0].toUpperCase()), Double.parseDouble(parts[1]));
+                        }
+                    }
+                    case "abuse-limit" -> config.setAbuseLimit(Integer.parseInt(value));
+                    default -> System.err.println("Ignoring unknown option: " + arg);
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid value for " + key + ": " + value);
+            }
+        }
+        return config;
+    }
+
+    /**
+     * @param value {@code ROWSxCOLS}
+     * @return rows and columns
+     * @throws NumberFormatException if the value is not in that form
+     */
+    private static int[] parseSize(String value) {
+        String[] parts = value.toLowerCase().split("x");
+        if (parts.length != 2) {
+            throw new NumberFormatException("Expected ROWSxCOLS: " + value);
+        }
+        return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public ServerMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ServerMode mode) {
+        this.mode = mode;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = Math.max(1, ioThreads);
+    }
+
+    /**
+     * @return seconds between connection reports, or 0 if reporting is disabled
+     */
+    public int getReportIntervalSeconds() {
+        return reportIntervalSeconds;
+    }
+
+    public void setReportIntervalSeconds(int reportIntervalSeconds) {
+        this.reportIntervalSeconds = Math.max(0, reportIntervalSeconds);
+    }
+
+    /**
+     * @return maximum number of messages queued per client before the overflow policy applies
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * @return milliseconds between state replication passes
+     */
+    public int getReplicationIntervalMillis() {
+        return replicationIntervalMillis;
+    }
+
+    public void setReplicationIntervalMillis(int replicationIntervalMillis) {
+        this.replicationIntervalMillis = Math.max(1, replicationIntervalMillis);
+    }
+
+    /**
+     * @return board squares within which clients receive position and combat updates,
+     *         or -1 if updates are not filtered by distance
+     */
+    public int getInterestRadius() {
+        return interestRadius;
+    }
+
+    public void setInterestRadius(int interestRadius) {
+        this.interestRadius = Math.max(-1, interestRadius);
+    }
+
+    /**
+     * @return side of the square board regions whose players always see each other,
+     *         or 0 if updates are not filtered by region
+     */
+    public int getInterestRegionSize() {
+        return interestRegionSize;
+    }
+
+    public void setInterestRegionSize(int interestRegionSize) {
+        this.interestRegionSize = Math.max(0, interestRegionSize);
+    }
+
+    /**
+     * @return milliseconds over which each client's output is batched into one write, with
+     *         same-key updates collapsed to the latest; 0 writes every message as it is queued
+     */
+    public int getTickWindowMillis() {
+        return tickWindowMillis;
+    }
+
+    public void setTickWindowMillis(int tickWindowMillis) {
+        this.tickWindowMillis = Math.max(0, tickWindowMillis);
+    }
+
+    /**
+     * @return milliseconds per tick of the server's game simulation
+     */
+    public int getSimulationTickMillis() {
+        return simulationTickMillis;
+    }
+
+    public void setSimulationTickMillis(int simulationTickMillis) {
+        this.simulationTickMillis = Math.max(1, simulationTickMillis);
+    }
+
+    /**
+     * @return seconds a dropped client's session can still be resumed
+     */
+    public int getResumeGraceSeconds() {
+        return resumeGraceSeconds;
+    }
+
+    public void setResumeGraceSeconds(int resumeGraceSeconds) {
+        this.resumeGraceSeconds = Math.max(0, resumeGraceSeconds);
+    }
+
+    /**
+     * @return recent messages kept per session for replay after a reconnect
+     */
+    public int getReplayBufferSize() {
+        return replayBufferSize;
+    }
+
+    public void setReplayBufferSize(int replayBufferSize) {
+        this.replayBufferSize = Math.max(1, replayBufferSize);
+    }
+
+    /**
+     * @return threads shared by every room for simulation ticks and replication
+     */
+    public int getRoomThreads() {
+        return roomThreads;
+    }
+
+    public void setRoomThreads(int roomThreads) {
+        this.roomThreads = Math.max(1, roomThreads);
+    }
+
+    /**
+     * @return most game rooms open at once, including the lobby
+     */
+    public int getMaxRooms() {
+        return maxRooms;
+    }
+
+    public void setMaxRooms(int maxRooms) {
+        this.maxRooms = Math.max(1, maxRooms);
+    }
+
+    public int getGalaxyRows() {
+        return galaxyRows;
+    }
+
+    public int getGalaxyCols() {
+        return galaxyCols;
+    }
+
+    public void setGalaxySize(int rows, int cols) {
+        this.galaxyRows = Math.max(1, rows);
+        this.galaxyCols = Math.max(1, cols);
+    }
+
+    public int getRegionGridRows() {
+        return regionGridRows;
+    }
+
+    public int getRegionGridCols() {
+        return regionGridCols;
+    }
+
+    /**
+     * Splits the galaxy into regions owned by separate servers.
+     *
+     * @param rows regions from top to bottom
+     * @param cols regions from left to right
+     */
+    public void setRegionGrid(int rows, int cols) {
+        this.regionGridRows = Math.max(1, rows);
+        this.regionGridCols = Math.max(1, cols);
+    }
+
+    /**
+     * @return the region this server owns, numbered row by row from 0
+     */
+    public int getRegion() {
+        return region;
+    }
+
+    public void setRegion(int region) {
+        this.region = Math.max(0, region);
+    }
+
+    /**
+     * @return {@code host:port} of the server owning each region, in region order
+     */
+    public List<String> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<String> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    /**
+     * @return the secret every server of a sharded galaxy is started with; a connection is only
+     *         trusted to hand players over once it has sent it
+     */
+    public String getShardSecret() {
+        return shardSecret;
+    }
+
+    public void setShardSecret(String shardSecret) {
+        this.shardSecret = shardSecret == null ? "" : shardSecret;
+    }
+
+    /**
+     * @return smallest binary frame body, in bytes, that is deflated for clients that asked for
+     *         compression, or -1 if compression is refused
+     */
+    public int getCompressThreshold() {
+        return compressThreshold;
+    }
+
+    public void setCompressThreshold(int compressThreshold) {
+        this.compressThreshold = Math.max(-1, compressThreshold);
+    }
+
+    /**
+     * @return messages per second each connection may send in the long run, or 0 for no limits
+     */
+    public double getInputRate() {
+        return inputRate;
+    }
+
+    public void setInputRate(double inputRate) {
+        this.inputRate = Math.max(0, inputRate);
+    }
+
+    /**
+     * @return messages a connection may send at once before its reads are paused
+     */
+    public double getInputBurst() {
+        return inputBurst;
+    }
+
+    public void setInputBurst(double inputBurst) {
+        this.inputBurst = Math.max(1, inputBurst);
+    }
+
+    /**
+     * @return per-second limits for individual commands
+     */
+    public Map<Opcode, Double> getCommandRates() {
+        return Collections.unmodifiableMap(commandRates);
+    }
+
+    /**
+     * @param opcode the command
+     * @param perSecond its limit, or 0 to leave it under the connection limit only
+     */
+    public void setCommandRate(Opcode opcode, double perSecond) {
+        commandRates.put(opcode, Math.max(0, perSecond));
+    }
+
+    /**
+     * @return dropped messages a client is forgiven, one more per second, before it is disconnected
+     */
+    public int getAbuseLimit() {
+        return abuseLimit;
+    }
+
+    public void setAbuseLimit(int abuseLimit) {
+        this.abuseLimit = Math.max(1, abuseLimit);
+    }
+
+    /**
+     * @return the region layout described by the galaxy, region and shard options
+     * @throws IllegalArgumentException if those options do not fit together
+     */
+    RegionMap newRegionMap() {
+        return new RegionMap(galaxyRows, galaxyCols, regionGridRows, regionGridCols, region, shards);
+    }
+
+    /**
+     * @return a new set of input limits for one client connection
+     */
+    RateLimiter newRateLimiter() {
+        return new RateLimiter(inputRate, inputBurst, commandRates, abuseLimit, System.nanoTime());
+    }
+
+    /**
+     * @return a new outbound queue sized and configured for one client connection
+     */
+    OutboundQueue newOutboundQueue() {
+        return new OutboundQueue(queueCapacity, overflowPolicy, tickWindowMillis > 0);
+    }
+
+    @Override
+    public String toString() {
+        return "ServerConfig{" +
+                "port=" + port +
+                ", mode=" + mode +
+                ", ioThreads=" + ioThreads +
+                ", reportIntervalSeconds=" + reportIntervalSeconds +
+                ", queueCapacity=" + queueCapacity +
+                ", overflowPolicy=" + overflowPolicy +
+                ", replicationIntervalMillis=" + replicationIntervalMillis +
+                ", interestRadius=" + interestRadius +
+                ", interestRegionSize=" + interestRegionSize +
+                ", tickWindowMillis=" + tickWindowMillis +
+                ", simulationTickMillis=" + simulationTickMillis +
+                ", resumeGraceSeconds=" + resumeGraceSeconds +
+                ", replayBufferSize=" + replayBufferSize +
+                ", roomThreads=" + roomThreads +
+                ", maxRooms=" + maxRooms +
+                ", galaxy=" + galaxyRows + "x" + galaxyCols +
+                ", regions=" + regionGridRows + "x" + regionGridCols +
+                ", region=" + region +
+                ", shards=" + shards +
+                ", shardSecret=" + (shardSecret.isEmpty() ? "unset" : "set") +
+                ", compressThreshold=" + compressThreshold +
+                ", inputRate=" + inputRate +
+                ", inputBurst=" + inputBurst +
+                ", commandRates=" + commandRates +
+                ", abuseLimit=" + abuseLimit +
+                '}';
+    }
+}
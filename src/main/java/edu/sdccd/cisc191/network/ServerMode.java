@@ -0,0 +1,13 @@
+package edu.sdccd.cisc191.network;
+
+/**
+ * Connection-handling strategies supported by {@link MultiplayerServer}.
+ */
+public enum ServerMode {
+    /** One platform thread per connected client, blocking on {@code readLine()}. */
+    THREAD,
+    /** One Java 21 virtual thread per connected client; blocking reads park instead of holding a carrier. */
+    VIRTUAL,
+    /** A small fixed pool of {@link java.nio.channels.Selector} loops shared by all clients. */
+    NIO
+}
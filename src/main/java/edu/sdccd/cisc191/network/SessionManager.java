@@ -0,0 +1,224 @@
+package edu.sdccd.cisc191.network;
+
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Issues session tokens and lets a client that lost its connection pick up where it left off.
+ * <p>
+ * Sessions are opt-in: a client sends {@code /session new} and gets back
+ * {@code /session <token>}. From then on every message written to it is numbered and the last
+ * {@code bufferSize} are kept. If the connection drops, the session is parked with the client's
+ * replication state for the grace window. A client that reconnects and sends
+ * {@code /resume <token> <last message number>} gets {@code /resume <token> <number>} followed by
+ * only the messages it missed, and replication carries on with deltas from where it stopped.
+ * If the session expired or the gap is larger than the buffer, the client gets a new session
+ * and a full resync instead.
+ */
+public class SessionManager {
+    private static final int TOKEN_BYTES = 16;
+
+    private final int bufferSize;
+    private final long graceNanos;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, ClientSession> byToken = new ConcurrentHashMap<>();
+    private final Map<ClientConnection, ClientSession> byConnection = new ConcurrentHashMap<>();
+    private final Set<ClientSession> parked = ConcurrentHashMap.newKeySet();
+    private final LongAdder resumed = new LongAdder();
+    private final LongAdder resynced = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+
+    /**
+     * @param bufferSize messages kept per session for replay
+     * @param graceSeconds how long a disconnected session can still be resumed
+     */
+    public SessionManager(int bufferSize, int graceSeconds) {
+        this.bufferSize = bufferSize;
+        this.graceNanos = TimeUnit.SECONDS.toNanos(graceSeconds);
+    }
+
+    /**
+     * Starts a session for a connection, or returns its existing one.
+     *
+     * @param client the connection
+     * @return the session token to send to the client
+     */
+    public String open(ClientConnection client) {
+        ClientSession existing = byConnection.get(client);
+        if (existing != null) {
+            return existing.getToken();
+        }
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        ClientSession session = new ClientSession(HexFormat.of().formatHex(bytes), bufferSize, client);
+        byToken.put(session.getToken(), session);
+        byConnection.put(client, session);
+        return session.getToken();
+    }
+
+    /**
+     * Called by a connection's writer for every message it hands to the socket, in order.
+     *
+     * @param client the connection
+     * @param message the message written
+     */
+    public void written(ClientConnection client, OutboundMessage message) {
+        if (byConnection.isEmpty()) {
+            return;
+        }
+        ClientSession session = byConnection.get(client);
+        if (session != null) {
+            session.written(client, message);
+        }
+    }
+
+    /**
+     * Parks a closed connection's session, if it had one, for the grace window.
+     *
+     * @param client the connection that closed
+     * @param room the room it was in
+     * @param view its replication state, kept for the next connection
+     * @param playerId the player it controlled, or null
+     */
+    void park(ClientConnection client, GameRoom room, StateReplicator.ClientView view, String playerId) {
+        ClientSession session = byConnection.remove(client);
+        if (session != null && session.park(client, room, view, playerId, System.nanoTime())) {
+            parked.add(session);
+        }
+    }
+
+    /**
+     * Keeps a room's broadcast for every session parked in that room so a resuming client
+     * still gets it.
+     *
+     * @param room the room the broadcast was sent in
+     * @param message the broadcast
+     */
+    void bufferForParked(GameRoom room, OutboundMessage message) {
+        bufferForParked(room, message, playerId -> true);
+    }
+
+    /**
+     * Keeps a room's message for the sessions parked in that room whose player it concerns.
+     *
+     * @param room the room the message was sent in
+     * @param message the message
+     * @param audience tests the player a parked session controlled, which may be null
+     */
+    void bufferForParked(GameRoom room, OutboundMessage message, Predicate<String> audience) {
+        if (parked.isEmpty()) {
+            return;
+        }
+        for (ClientSession session : parked) {
+            if (session.getRoom() == room && audience.test(session.getPlayerId())) {
+                session.buffer(room, message);
+            }
+        }
+    }
+
+    /**
+     * @param room a room
+     * @return true if a session parked in the room could still resume into it
+     */
+    boolean hasParkedIn(GameRoom room) {
+        for (ClientSession session : parked) {
+            if (session.getRoom() == room) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param token a session token
+     * @return the session, or null if unknown or expired
+     */
+    ClientSession find(String token) {
+        ClientSession session = byToken.get(token);
+        if (session != null && session.isExpired(System.nanoTime(), graceNanos)) {
+            byToken.remove(token, session);
+            parked.remove(session);
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * Moves a parked session to a new connection.
+     *
+     * @param client the new connection
+     * @param session a parked session
+     * @param lastSeq the last message number the client received
+     * @return the messages to replay, or null if the session cannot be resumed; it is then
+     *         discarded and the caller should start a new one
+     */
+    List<OutboundMessage> resume(ClientConnection client, ClientSession session, long lastSeq) {
+        List<OutboundMessage> missed = session.resume(client, lastSeq);
+        parked.remove(session);
+        if (missed == null) {
+            byToken.remove(session.getToken(), session);
+            resynced.increment();
+            return null;
+        }
+        byConnection.put(client, session);
+        resumed.increment();
+        replayed.add(missed.size());
+        return missed;
+    }
+
+    /**
+     * Counts a reconnect that could not be resumed because its token was unknown or expired.
+     */
+    void recordResync() {
+        resynced.increment();
+    }
+
+    /**
+     * Drops every session parked for longer than the grace window.
+     *
+     * @return the number dropped
+     */
+    public int expire() {
+        long now = System.nanoTime();
+        int expired = 0;
+        for (ClientSession session : byToken.values()) {
+            if (session.isExpired(now, graceNanos) && byToken.remove(session.getToken(), session)) {
+                parked.remove(session);
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return sessions that are connected or still within their grace window
+     */
+    public int getSessionCount() {
+        return byToken.size();
+    }
+
+    public long getResumedCount() {
+        return resumed.sum();
+    }
+
+    /**
+     * @return reconnects that needed a full resync
+     */
+    public long getResyncCount() {
+        return resynced.sum();
+    }
+
+    /**
+     * @return messages replayed to resumed sessions
+     */
+    public long getReplayedCount() {
+        return replayed.sum();
+    }
+}
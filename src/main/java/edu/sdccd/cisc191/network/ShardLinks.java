@@ -0,0 +1,156 @@
+package edu.sdccd.cisc191.network;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connections from this server to the servers owning the other regions of the galaxy, opened
+ * on first use and reopened after a failure.
+ * <p>
+ * A link is an ordinary binary {@link MultiplayerClient} that first sends the galaxy's shared
+ * secret in a {@link Opcode#PEER} message; the other server only then trusts it with a
+ * {@link Opcode#HANDOFF} and takes it out of its rooms, so it is never sent game traffic.
+ * <p>
+ * Connecting and writing happen on this object's own thread, never on a room's tick, and a
+ * connect gives up after {@link #CONNECT_TIMEOUT_MILLIS}. A handoff is only done once the other
+ * server answers with a {@link Opcode#HANDOFF_ACK}; no answer within
+ * {@link #ANSWER_TIMEOUT_MILLIS} counts as a refusal.
+ */
+class ShardLinks {
+    /** Longest wait for another server to accept a link. */
+    static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    /** Longest wait for another server to answer a handoff. */
+    static final long ANSWER_TIMEOUT_MILLIS = 5000;
+
+    private final RegionMap regions;
+    private final String secret;
+    /** Open links by region; only used on the sender thread, and by {@link #close}. */
+    private final Map<Integer, MultiplayerClient> links = new HashMap<>();
+    /** Handoffs waiting for their answer, by region, room and player. */
+    private final Map<String, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shard-links");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param regions where each region's server is
+     * @param secret the secret every server of the galaxy shares
+     */
+    ShardLinks(RegionMap regions, String secret) {
+        this.regions = regions;
+        this.secret = secret;
+    }
+
+    /**
+     * Sends a player to the server owning a region. Returns at once; the link is opened and
+     * written on the sender thread.
+     *
+     * @param region the target region
+     * @param handoff the {@link Opcode#HANDOFF} message
+     * @return completes with true once the other server has taken the player over, or false if
+     *         it refused, could not be reached or did not answer in time
+     */
+    CompletableFuture<Boolean> handOff(int region, GameMessage handoff) {
+        String key = key(region, handoff.getString(1), handoff.getString(0));
+        CompletableFuture<Boolean> answer = new CompletableFuture<>();
+        if (pending.putIfAbsent(key, answer) != null) {
+            return CompletableFuture.completedFuture(false); // already on its way there
+        }
+        try {
+            sender.execute(() -> {
+                if (!send(region, handoff)) {
+                    answer.complete(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            answer.complete(false); // closed
+        }
+        return answer.orTimeout(ANSWER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                .handle((accepted, failure) -> {
+                    pending.remove(key, answer);
+                    return failure == null && accepted;
+                });
+    }
+
+    private static String key(int region, String room, String playerId) {
+        return region + "/" + room + "/" + playerId;
+    }
+
+    /** Runs on a link's reader thread: completes the handoff the other server answered. */
+    private void onReply(int region, GameMessage message) {
+        if (message.getOpcode() == Opcode.HANDOFF_ACK) {
+            CompletableFuture<Boolean> answer = pending.get(key(region, message.getString(1), message.getString(0)));
+            if (answer != null) {
+                answer.complete(message.getInt(2) != 0);
+            }
+        } else if (message.getOpcode() == Opcode.NOTICE) {
+            System.err.println("Shard link to region " + region + ": " + message.getString(0));
+        }
+    }
+
+    /**
+     * Sends a message to the server owning a region, reconnecting once if the link has dropped.
+     * Runs on the sender thread.
+     *
+     * @param region the target region
+     * @param message the message
+     * @return false if the server could not be reached
+     */
+    private synchronized boolean send(int region, GameMessage message) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                link(region).send(message);
+                return true;
+            } catch (IOException e) {
+                MultiplayerClient failed = links.remove(region);
+                if (failed != null) {
+                    failed.close();
+                }
+                System.err.println("Shard link to region " + region + " failed: " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private MultiplayerClient link(int region) throws IOException {
+        MultiplayerClient link = links.get(region);
+        if (link == null || !link.isConnected()) {
+            link = MultiplayerClient.connect(regions.getHost(region), regions.getPort(region), WireProtocol.BINARY,
+                    message -> onReply(region, message), null, CONNECT_TIMEOUT_MILLIS);
+            link.setAutoAck(false);
+            try {
+                link.send(GameMessage.of(Opcode.PEER, secret));
+            } catch (IOException e) {
+                link.close();
+                throw e;
+            }
+            links.put(region, link);
+        }
+        return link;
+    }
+
+    /**
+     * Closes every link; handoffs still waiting for an answer count as refused.
+     */
+    void close() {
+        sender.shutdownNow();
+        synchronized (this) {
+            for (MultiplayerClient link : links.values()) {
+                link.close();
+            }
+            links.clear();
+        }
+        for (CompletableFuture<Boolean> answer : pending.values()) {
+            answer.complete(false);
+        }
+    }
+}
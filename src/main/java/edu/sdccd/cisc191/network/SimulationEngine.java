@@ -0,0 +1,516 @@
+package edu.sdccd.cisc191.network;
+
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.game.GameBoard;
+import edu.sdccd.cisc191.game.Planet;
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.game.Shipyard;
+import edu.sdccd.cisc191.subsystems.ExplorationSystem;
+import edu.sdccd.cisc191.subsystems.ResourceManagement;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Server-authoritative game simulation running at a fixed tick rate.
+ * <p>
+ * I/O threads never touch game state: they {@link #submit} player commands (move, build,
+ * explore, gather, trade) to a lock-free queue. Once per tick the simulation thread drains the
+ * commands that were queued when the tick began, applies them in arrival order to each
+ * player's {@link PlayerSession} on the shared {@link GameBoard}, and publishes every changed
+ * player through {@link MultiplayerHandler#updatePlayer}, from where the replicator sends the
+ * results to clients. Rejected commands get a notice back to the client that sent them.
+ * <p>
+ * Exploring never blocks a tick: a battle it runs into is fought on another thread, and its
+ * outcome (a lost ship leaves the fleet, the fleet's health changes) is queued back and
+ * applied at the start of a later tick, so the fleet is only ever changed by this thread.
+ * <p>
+ * When the galaxy is split across servers (see {@link RegionMap}), a move across the border of
+ * this server's region hands the player over: its whole session goes to the owning server as
+ * a {@link Opcode#HANDOFF}, without the tick waiting on the network. The player stays here, and
+ * its commands are refused, until that server answers on a later tick. If it took the player, the
+ * client is told to reconnect there with a {@link Opcode#REDIRECT} and further commands for the
+ * player here are answered with the same redirect; if it refused or did not answer, the player
+ * carries on here with its fuel back. A handoff arriving from another server is applied like any
+ * other command and answered with a {@link Opcode#HANDOFF_ACK}.
+ * <p>
+ * Each tick's duration is recorded so {@link #report()} can show how much of the tick budget
+ * is in use. A tick that runs past its budget counts as an overrun, and the schedule skips
+ * ahead rather than running a burst of late ticks back to back.
+ */
+public class SimulationEngine {
+    /** Minerals consumed by building one ship. */
+    static final int BUILD_COST = 20;
+
+    private final MultiplayerHandler handler;
+    private final GameBoard board;
+    private final long tickNanos;
+    private final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+    /** Outcomes of work finished off the simulation thread, applied at the start of a tick. */
+    private final Queue<Runnable> completions = new ConcurrentLinkedQueue<>();
+    /** Authoritative state; only touched on the simulation thread. */
+    private final Map<String, PlayerSession> sessions = new HashMap<>();
+    /** Sessions changed during the current tick, published when it ends. */
+    private final Map<String, PlayerSession> changed = new LinkedHashMap<>();
+    private final ExplorationSystem exploration = new ExplorationSystem();
+    private final ResourceManagement resourceManagement = new ResourceManagement();
+
+    /** Players handed to another region, and the redirect their clients should follow. */
+    private final Map<String, GameMessage> handedOff = new HashMap<>();
+    /** Players sent to another region whose server has not answered yet. */
+    private final Map<String, PlayerSession> leaving = new HashMap<>();
+    private RegionMap regions;
+    private Handoff handoff;
+
+    private final LatencyHistogram tickDurations = new LatencyHistogram();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong overruns = new AtomicLong();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder handoffsOut = new LongAdder();
+    private final LongAdder handoffsIn = new LongAdder();
+    private volatile long lastTickNanos;
+    private volatile boolean running;
+    private Thread thread;
+
+    /** A command and the connection it came from, which may be null. */
+    private static final class Command {
+        final ClientConnection origin;
+        final GameMessage message;
+
+        Command(ClientConnection origin, GameMessage message) {
+            this.origin = origin;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Sends a player's session to the server owning another region.
+     */
+    interface Handoff {
+        /**
+         * Called on the simulation thread; must not block.
+         *
+         * @param session the player leaving this region
+         * @param row the galaxy row it is moving to
+         * @param col the galaxy column it is moving to
+         * @param region the region owning that square
+         * @return completes with the {@link Opcode#REDIRECT} for the player's client once the
+         *         other server has taken the player, or with null if it refused or could not be
+         *         reached; the player then stays here
+         */
+        CompletableFuture<GameMessage> handOff(PlayerSession session, int row, int col, int region);
+    }
+
+    /**
+     * @param handler registry the results are published to
+     * @param board the board every player moves on
+     * @param tickMillis milliseconds per tick
+     */
+    public SimulationEngine(MultiplayerHandler handler, GameBoard board, int tickMillis) {
+        this.handler = handler;
+        this.board = board;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+    }
+
+    /**
+     * Lets moves leave the board for the rest of a sharded galaxy. Call before starting.
+     *
+     * @param regions the galaxy's regions; the board must be the local one
+     * @param handoff sends players to other regions
+     */
+    void setHandoff(RegionMap regions, Handoff handoff) {
+        this.regions = regions;
+        this.handoff = handoff;
+    }
+
+    /**
+     * Queues a player command for the next tick. Safe to call from any thread; never blocks.
+     *
+     * @param origin the connection that sent it, told if it is rejected; may be null
+     * @param command a {@link Opcode#MOVE}, {@link Opcode#BUILD}, {@link Opcode#EXPLORE},
+     *                {@link Opcode#GATHER}, {@link Opcode#TRADE}, {@link Opcode#PLAYER_DATA}
+     *                (join) or {@link Opcode#HANDOFF} message; field 0 is always the player id
+     */
+    public void submit(ClientConnection origin, GameMessage command) {
+        commands.add(new Command(origin, command));
+    }
+
+    /**
+     * Starts ticking on a dedicated thread.
+     */
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
+        long nextTick = System.nanoTime();
+        while (running) {
+            tick();
+            nextTick += tickNanos;
+            long wait = nextTick - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                nextTick = System.nanoTime(); // fell behind: skip the missed ticks
+            }
+        }
+    }
+
+    /**
+     * Runs one tick: applies the queued commands and publishes what changed. Called by the
+     * simulation thread; tests may call it directly instead of starting the engine.
+     */
+    public void tick() {
+        long start = System.nanoTime();
+        for (int pending = completions.size(); pending > 0; pending--) {
+            Runnable completion = completions.poll();
+            if (completion == null) {
+                break;
+            }
+            try {
+                completion.run();
+            } catch (RuntimeException e) {
+                System.err.println("Completion failed: " + e.getMessage());
+            }
+        }
+        // only the commands already queued; anything arriving now waits for the next tick
+        for (int pending = commands.size(); pending > 0; pending--) {
+            Command command = commands.poll();
+            if (command == null) {
+                break;
+            }
+            try {
+                apply(command);
+            } catch (RuntimeException e) {
+                rejected.increment();
+                System.err.println("Command failed: " + command.message + ": " + e.getMessage());
+            }
+        }
+        for (PlayerSession session : changed.values()) {
+            handler.updatePlayer(session.getPlayerId(), session.getPlayerName(), session::publishTo);
+        }
+        changed.clear();
+
+        long duration = System.nanoTime() - start;
+        lastTickNanos = duration;
+        tickDurations.record(duration);
+        ticks.incrementAndGet();
+        if (duration > tickNanos) {
+            overruns.incrementAndGet();
+        }
+    }
+
+    private void apply(Command command) {
+        GameMessage message = command.message;
+        String playerId = message.getString(0);
+        if (message.getOpcode() == Opcode.HANDOFF) {
+            arrive(message, command.origin);
+            return;
+        }
+        GameMessage redirect = handedOff.get(playerId);
+        if (redirect != null) {
+            rejected.increment();
+            if (command.origin != null) {
+                command.origin.send(OutboundMessage.of(redirect));
+            }
+            return;
+        }
+        if (leaving.containsKey(playerId)) {
+            rejected.increment();
+            if (command.origin != null) {
+                command.origin.send(OutboundMessage.of(GameMessage.notice("Command rejected: " + playerId
+                        + " is moving to another region")));
+            }
+            return;
+        }
+        PlayerSession session = sessions.get(playerId);
+        if (session == null) {
+            String name = message.getOpcode() == Opcode.PLAYER_DATA ? message.getString(1) : playerId;
+            session = new PlayerSession(playerId, name, board);
+            sessions.put(playerId, session);
+            changed.put(playerId, session);
+        }
+        String rejection = switch (message.getOpcode()) {
+            case PLAYER_DATA -> null;
+            case MOVE -> move(session, message.getInt(1), message.getInt(2), command.origin);
+            case BUILD -> build(session, message.getString(1));
+            case EXPLORE -> explore(session);
+            case GATHER -> gather(session, message.getString(1));
+            case TRADE -> trade(session, message.getString(1), message.getString(2), message.getInt(3));
+            default -> "Not a game command: " + message.getOpcode().keyword();
+        };
+        if (rejection == null) {
+            applied.increment();
+            if (sessions.get(playerId) == session) { // not handed off
+                changed.put(playerId, session);
+            }
+            return;
+        }
+        rejected.increment();
+        if (command.origin != null) {
+            command.origin.send(OutboundMessage.of(GameMessage.notice(rejection)));
+        }
+    }
+
+    /**
+     * Moves one square; the target must be next to the player's current square. A square in
+     * another region hands the player over to that region's server.
+     */
+    private String move(PlayerSession session, int row, int col, ClientConnection origin) {
+        int dRow = row - session.getMovement().getRow();
+        int dCol = col - session.getMovement().getCol();
+        String direction;
+        if (dRow == 0 && dCol == 0) {
+            return null;
+        } else if (dRow == -1 && dCol == 0) {
+            direction = "up";
+        } else if (dRow == 1 && dCol == 0) {
+            direction = "down";
+        } else if (dRow == 0 && dCol == -1) {
+            direction = "left";
+        } else if (dRow == 0 && dCol == 1) {
+            direction = "right";
+        } else {
+            return "Move rejected: " + row + "," + col + " is not next to your position";
+        }
+        if (!board.inBounds(row, col) && regions != null && regions.inGalaxy(row, col)) {
+            return handOff(session, row, col, origin);
+        }
+        return session.getMovement().move(direction) ? null : "Move rejected: out of bounds or not enough fuel";
+    }
+
+    /**
+     * Pays for the move and sends the session to the region that owns the square. The player is
+     * held here, out of the simulation, until that server answers. The fuel cost is the default
+     * one: the square's own cost is on the other server, which lays out its board the same way.
+     */
+    private String handOff(PlayerSession session, int row, int col, ClientConnection origin) {
+        if (!session.getInventory().useResource(ResourceType.FUEL, GameBoard.DEFAULT_COST)) {
+            return "Move rejected: out of bounds or not enough fuel";
+        }
+        String playerId = session.getPlayerId();
+        sessions.remove(playerId);
+        changed.remove(playerId);
+        leaving.put(playerId, session);
+        handoff.handOff(session, row, col, regions.regionOf(row, col))
+                .whenComplete((redirect, failure) -> completions.add(() -> handedOver(session, row, col, redirect, origin)));
+        return null;
+    }
+
+    /** Finishes a handoff once the other server has answered, back on the simulation thread. */
+    private void handedOver(PlayerSession session, int row, int col, GameMessage redirect, ClientConnection origin) {
+        String playerId = session.getPlayerId();
+        leaving.remove(playerId);
+        if (redirect == null) {
+            // refused or unreachable: the player never left
+            session.getInventory().addResource(ResourceType.FUEL, GameBoard.DEFAULT_COST);
+            sessions.put(playerId, session);
+            changed.put(playerId, session);
+            if (origin != null) {
+                origin.send(OutboundMessage.of(GameMessage.notice("Move rejected: the region at " + row + "," + col
+                        + " did not take the player")));
+            }
+            return;
+        }
+        handler.removePlayer(playerId);
+        handedOff.put(playerId, redirect);
+        handoffsOut.increment();
+        if (origin != null) {
+            origin.send(OutboundMessage.of(redirect));
+        }
+    }
+
+    /** Takes over a player handed over by the server owning another region, and answers it. */
+    private void arrive(GameMessage message, ClientConnection peer) {
+        PlayerSession session;
+        try {
+            session = PlayerSession.fromHandoff(message, board);
+            if (session == null) {
+                System.err.println("Handoff to a square outside this region: " + message);
+            }
+        } catch (IllegalArgumentException e) {
+            session = null;
+            System.err.println("Bad handoff: " + e.getMessage());
+        }
+        boolean accepted = session != null;
+        if (accepted) {
+            handedOff.remove(session.getPlayerId());
+            sessions.put(session.getPlayerId(), session);
+            changed.put(session.getPlayerId(), session);
+            handoffsIn.increment();
+        } else {
+            rejected.increment();
+        }
+        if (peer != null) {
+            peer.send(OutboundMessage.of(GameMessage.of(Opcode.HANDOFF_ACK, message.getString(0), message.getString(1),
+                    accepted ? 1 : 0)));
+        }
+    }
+
+    private String build(PlayerSession session, String shipType) {
+        GalacticShip ship = Shipyard.newShip(shipType);
+        if (ship == null) {
+            return "Build rejected: unknown ship type " + shipType;
+        }
+        if (!session.getInventory().useResource(ResourceType.MINERALS, BUILD_COST)) {
+            return "Build rejected: a " + shipType + " needs " + BUILD_COST + " Minerals";
+        }
+        session.getPlayer().addShip(ship);
+        return null;
+    }
+
+    private String explore(PlayerSession session) {
+        String planetName = session.getMovement().getCurrentPlanetName();
+        if (planetName == null) {
+            return "Explore rejected: there is no planet here";
+        }
+        if (session.getPlayer().getFleet().isEmpty()) {
+            return "Explore rejected: build a ship first";
+        }
+        exploration.exploreAsync(session.getPlayer(), new Planet(planetName), session.getInventory())
+                .whenComplete((lost, failure) -> completions.add(() -> afterBattle(session, lost, failure)));
+        return null;
+    }
+
+    /** Applies the outcome of an exploration's battle, back on the simulation thread. */
+    private void afterBattle(PlayerSession session, GalacticShip lost, Throwable failure) {
+        if (failure != null) {
+            System.err.println("Exploration failed for " + session.getPlayerId() + ": " + failure.getMessage());
+        }
+        if (sessions.get(session.getPlayerId()) != session) {
+            return; // handed off or replaced while the battle was fought
+        }
+        if (lost != null) {
+            exploration.removeLostShip(session.getPlayer(), lost);
+        }
+        changed.put(session.getPlayerId(), session);
+    }
+
+    private String gather(PlayerSession session, String resource) {
+        if (session.getMovement().getCurrentPlanetName() == null) {
+            return "Gather rejected: resources can only be gathered at a planet";
+        }
+        if (ResourceType.byName(resource) == null) {
+            return "Gather rejected: unknown resource " + resource;
+        }
+        resourceManagement.gatherResources(session.getPlayer(), resource, session.getInventory());
+        return null;
+    }
+
+    private String trade(PlayerSession session, String partnerId, String resource, int amount) {
+        PlayerSession partner = sessions.get(partnerId);
+        if (partner == null || partner == session) {
+            return "Trade rejected: no such partner " + partnerId;
+        }
+        ResourceType type = ResourceType.byName(resource);
+        if (amount <= 0 || type == null) {
+            return "Trade rejected: invalid offer";
+        }
+        if (!session.getInventory().useResource(type, amount)) {
+            return "Trade rejected: not enough " + type;
+        }
+        partner.getInventory().addResource(type, amount);
+        changed.put(partner.getPlayerId(), partner);
+        return null;
+    }
+
+    /**
+     * @return ticks run so far
+     */
+    public long getTickCount() {
+        return ticks.get();
+    }
+
+    /**
+     * @return ticks that took longer than the tick budget
+     */
+    public long getOverrunCount() {
+        return overruns.get();
+    }
+
+    public long getAppliedCommands() {
+        return applied.sum();
+    }
+
+    public long getRejectedCommands() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return players sent to another region
+     */
+    public long getHandoffsOut() {
+        return handoffsOut.sum();
+    }
+
+    /**
+     * @return players received from another region
+     */
+    public long getHandoffsIn() {
+        return handoffsIn.sum();
+    }
+
+    /**
+     * @return commands waiting for the next tick
+     */
+    public int getQueuedCommands() {
+        return commands.size();
+    }
+
+    /**
+     * @return the tick budget in nanoseconds
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * @return tick durations in nanoseconds since the last {@link #report()}
+     */
+    public LatencyHistogram getTickDurations() {
+        return tickDurations;
+    }
+
+    /**
+     * Builds a one-line summary of tick timing and resets the duration window.
+     *
+     * @return the report text
+     */
+    public String report() {
+        double budget = tickNanos;
+        long p99 = tickDurations.getPercentile(99);
+        String line = String.format("Simulation: tick=%dms, ticks=%d, overruns=%d, commands=%d applied/%d rejected/%d queued, "
+                        + "duration mean=%.2fms p99=%.2fms max=%.2fms, headroom=%.1f%% (p99 %.1f%%)",
+                TimeUnit.NANOSECONDS.toMillis(tickNanos), ticks.get(), overruns.get(), applied.sum(), rejected.sum(),
+                commands.size(), tickDurations.getMean() / 1e6, p99 / 1e6, tickDurations.getMax() / 1e6,
+                100.0 * (1 - tickDurations.getMean() / budget), 100.0 * (1 - p99 / budget));
+        tickDurations.reset();
+        return line;
+    }
+}
@@ -0,0 +1,230 @@
+package edu.sdccd.cisc191.network;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps every client's copy of every player's {@link PlayerData} up to date with as few bytes
+ * as possible.
+ * <p>
+ * A client that has never acknowledged a player gets a full {@link Opcode#SNAPSHOT}. Once it
+ * acknowledges a version, it only gets {@link Opcode#DELTA}s containing the fields that changed
+ * after that version, and nothing at all while the player is unchanged. Deltas are cumulative
+ * since the last ack, so a newer one may safely replace an older one still queued.
+ * <p>
+ * When an {@link InterestManager} filters by position, a client only gets state for players in
+ * its area. A player that moves out of the area is sent as {@link Opcode#REMOVE} and forgotten,
+ * so it arrives as a fresh snapshot if it comes back.
+ * <p>
+ * {@link #replicate()} is meant to run on a single thread at a fixed rate; acks may arrive on
+ * any I/O thread and are queued for that thread, which drops acks for players the client no
+ * longer holds: an ack still in flight when a player was removed refers to state the client has
+ * thrown away.
+ */
+public class StateReplicator {
+    private final MultiplayerHandler handler;
+    private final InterestManager interest;
+    private final Map<ClientConnection, ClientView> views = new ConcurrentHashMap<>();
+
+    /**
+     * What one client holds for each player. Handed between connections when a session resumes.
+     */
+    public static class ClientView {
+        /** Acks as they arrive from I/O threads, applied by the replication thread. */
+        final Queue<Map.Entry<String, Long>> incomingAcks = new ConcurrentLinkedQueue<>();
+        /** Last version the client confirmed, per player. Replication thread only. */
+        final Map<String, Long> acked = new HashMap<>();
+        /** Last version sent to the client, per player. Replication thread only. */
+        final Map<String, Long> sent = new HashMap<>();
+        /** Version of the snapshot that last introduced each player. Replication thread only. */
+        final Map<String, Long> introduced = new HashMap<>();
+        /** Set when the view moves to a new connection; {@link #sent} is then rewound on the next pass. */
+        volatile boolean resumed;
+
+        /**
+         * Forgets what was sent but never confirmed: it may have been queued on a connection
+         * that died before writing it. Players the client has acked are sent again from that
+         * version, and players it never acked are sent as snapshots. Every player stays known,
+         * so one that has left is still removed.
+         */
+        void rewindToAcked() {
+            sent.replaceAll((playerId, version) -> acked.getOrDefault(playerId, -1L));
+        }
+
+        /**
+         * Applies the acks that arrived since the last pass. An ack for a player the client is
+         * not holding, or for a version older than the snapshot that last introduced it, is
+         * left over from before a {@link Opcode#REMOVE} and is ignored.
+         */
+        void applyAcks() {
+            Map.Entry<String, Long> ack;
+            while ((ack = incomingAcks.poll()) != null) {
+                String playerId = ack.getKey();
+                Long since = introduced.get(playerId);
+                if (since != null && ack.getValue() >= since) {
+                    acked.merge(playerId, ack.getValue(), Math::max);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replicates every player to every client.
+     *
+     * @param handler the player registry
+     */
+    public StateReplicator(MultiplayerHandler handler) {
+        this(handler, new InterestManager(handler, -1, 0));
+    }
+
+    /**
+     * Replicates to each client only the players its area of interest covers.
+     *
+     * @param handler the player registry
+     * @param interest decides which players each client sees
+     */
+    public StateReplicator(MultiplayerHandler handler, InterestManager interest) {
+        this.handler = handler;
+        this.interest = interest;
+    }
+
+    /**
+     * Starts replicating to a client; it will receive snapshots of every player on the next pass.
+     *
+     * @param client the client that joined
+     */
+    public void addClient(ClientConnection client) {
+        views.put(client, new ClientView());
+    }
+
+    /**
+     * Carries on replicating to a resumed client from the state its previous connection had
+     * confirmed, so it gets deltas rather than snapshots. Anything sent to the previous
+     * connection but never acked is sent again.
+     *
+     * @param client the new connection
+     * @param view the state taken from the previous connection
+     */
+    public void addClient(ClientConnection client, ClientView view) {
+        view.resumed = true;
+        views.put(client, view);
+    }
+
+    /**
+     * @param client the client that left
+     * @return what the client held, for a session that may resume, or null
+     */
+    public ClientView removeClient(ClientConnection client) {
+        return views.remove(client);
+    }
+
+    /**
+     * Records that a client holds a player's state up to {@code version}.
+     *
+     * @param client the acknowledging client
+     * @param playerId the player the ack refers to
+     * @param version the version the client now holds
+     */
+    public void acknowledge(ClientConnection client, String playerId, long version) {
+        ClientView view = views.get(client);
+        if (view != null) {
+            view.incomingAcks.add(Map.entry(playerId, version));
+        }
+    }
+
+    /**
+     * Sends every client whatever it is missing. Clients that acknowledged the same version of a
+     * player share one encoded delta.
+     */
+    public void replicate() {
+        Map<String, Map<Long, OutboundMessage>> deltaCache = new HashMap<>();
+        Map<String, OutboundMessage> snapshotCache = new HashMap<>();
+
+        Collection<PlayerData> allPlayers = handler.getAllPlayers();
+        Map<String, PlayerData> byId = new HashMap<>();
+        for (PlayerData player : allPlayers) {
+            byId.put(player.getPlayerId(), player);
+        }
+        Set<String> allPlayerIds = byId.keySet();
+
+        for (Map.Entry<ClientConnection, ClientView> entry : views.entrySet()) {
+            ClientConnection client = entry.getKey();
+            ClientView view = entry.getValue();
+            view.applyAcks();
+            if (view.resumed) {
+                // on this thread, as a pass on the old connection may have been writing sent
+                view.resumed = false;
+                view.rewindToAcked();
+            }
+
+            Set<String> visible = interest.visiblePlayers(client);
+            Collection<PlayerData> players = allPlayers;
+            Set<String> playerIds = allPlayerIds;
+            if (visible != null) {
+                players = new ArrayList<>(visible.size());
+                for (String id : visible) {
+                    PlayerData data = byId.get(id);
+                    if (data != null) {
+                        players.add(data);
+                    }
+                }
+                playerIds = visible;
+            }
+
+            for (PlayerData player : players) {
+                String playerId = player.getPlayerId();
+                long version = player.getVersion();
+                Long sent = view.sent.get(playerId);
+                if (sent != null && sent >= version) {
+                    continue; // nothing new since the last send
+                }
+
+                Long acked = view.acked.get(playerId);
+                OutboundMessage message;
+                if (acked == null) {
+                    message = snapshotCache.computeIfAbsent(playerId,
+                            id -> OutboundMessage.forBroadcast(stateKey(id), player.toSnapshot()));
+                } else {
+                    message = deltaCache.computeIfAbsent(playerId, id -> new HashMap<>())
+                            .computeIfAbsent(acked, since -> {
+                                GameMessage delta = player.toDelta(since);
+                                return delta == null ? null : OutboundMessage.forBroadcast(stateKey(playerId), delta);
+                            });
+                }
+                if (message != null) {
+                    client.send(message);
+                    // the message may carry a newer version than we read above
+                    GameMessage state = message.getMessage();
+                    version = state.getLong(state.getOpcode() == Opcode.SNAPSHOT ? 2 : 1);
+                }
+                if (sent == null) {
+                    view.introduced.put(playerId, version);
+                }
+                view.sent.put(playerId, version);
+            }
+
+            // tell the client about players that have left, or left its area, since the last pass
+            Iterator<String> known = view.sent.keySet().iterator();
+            while (known.hasNext()) {
+                String playerId = known.next();
+                if (!playerIds.contains(playerId)) {
+                    known.remove();
+                    view.acked.remove(playerId);
+                    view.introduced.remove(playerId);
+                    client.send(OutboundMessage.keyed(stateKey(playerId), GameMessage.of(Opcode.REMOVE, playerId)));
+                }
+            }
+        }
+    }
+
+    private static String stateKey(String playerId) {
+        return "state:" + playerId;
+    }
+}
@@ -0,0 +1,89 @@
+package edu.sdccd.cisc191.network;
+
+/**
+ * A token bucket: holds up to {@code burst} tokens and gains {@code ratePerSecond} more every
+ * second, so it allows short bursts while holding the long-run rate.
+ * <p>
+ * Time is passed in as {@link System#nanoTime()} values rather than read here, so callers that
+ * check several buckets use one clock reading and tests can step time by hand. Not thread-safe:
+ * every bucket belongs to one connection and is only used by the thread reading it.
+ */
+public class TokenBucket {
+    private final double tokensPerNano;
+    private final double burst;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * @param ratePerSecond tokens added per second
+     * @param burst most tokens held at once; the bucket starts full
+     * @param now the current {@link System#nanoTime()}
+     */
+    public TokenBucket(double ratePerSecond, double burst, long now) {
+        this.tokensPerNano = ratePerSecond / 1e9;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefill = now;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + elapsed * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return false if the bucket is empty
+     */
+    public boolean tryTake(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes a token even if the bucket is empty, running up to a full burst of debt that later
+     * refills have to pay back first. Lets work that has already arrived through while making
+     * the sender wait ({@link #nanosUntilAvailable}) before sending more.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return false, taking nothing, if the debt is already a full burst
+     */
+    public boolean tryBorrow(long now) {
+        refill(now);
+        if (tokens > -burst) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param now the current {@link System#nanoTime()}
+     * @return nanoseconds until a whole token is available, 0 if one is now
+     */
+    public long nanosUntilAvailable(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            return 0;
+        }
+        return tokensPerNano <= 0 ? Long.MAX_VALUE : (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    /**
+     * @param now the current {@link System#nanoTime()}
+     * @return tokens available, negative while in debt
+     */
+    public double getTokens(long now) {
+        refill(now);
+        return tokens;
+    }
+}
@@ -0,0 +1,18 @@
+package edu.sdccd.cisc191.network;
+
+/**
+ * Framing spoken on a client connection. Every connection starts in {@link #TEXT}; a client
+ * that sends {@code /hello binary} switches to {@link #BINARY} for the rest of the session, and
+ * one that sends {@code /hello compressed} to {@link #COMPRESSED} if the server allows it.
+ */
+public enum WireProtocol {
+    /** Newline-delimited UTF-8 lines, as understood by every existing client. */
+    TEXT,
+    /** Varint length prefix, one opcode byte, then varint/string fields (see {@link BinaryCodec}). */
+    BINARY,
+    /**
+     * {@link #BINARY} framing with large frames deflated (see {@link FrameCompressor}). Only
+     * describes what a connection sends; it reads compressed frames whenever it reads binary.
+     */
+    COMPRESSED
+}
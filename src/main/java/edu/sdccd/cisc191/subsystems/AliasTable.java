@@ -0,0 +1,92 @@
+package edu.sdccd.cisc191.subsystems;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks an index at random in proportion to fixed weights, in constant time however many
+ * weights there are (Vose's alias method).
+ * <p>
+ * Building the table takes time linear in the number of weights; after that each pick is one
+ * random number, one multiply and one comparison. The table never changes, so build a new one
+ * when the weights do; it is safe to share between threads.
+ */
+public final class AliasTable {
+    /** Chance of keeping column i rather than taking its alias. */
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param weights relative weights, none negative and at least one positive
+     * @throws IllegalArgumentException if the weights cannot be sampled
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Weights must be finite and not negative: " + weight);
+            }
+            total += weight;
+        }
+        if (!(total > 0)) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+        probability = new double[n];
+        alias = new int[n];
+
+        // columns below the average lend their spare room to columns above it
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // whatever is left is full up to rounding error
+        while (largeCount > 0) {
+            int i = large[--largeCount];
+            probability[i] = 1;
+            alias[i] = i;
+        }
+        while (smallCount > 0) {
+            int i = small[--smallCount];
+            probability[i] = 1;
+            alias[i] = i;
+        }
+    }
+
+    /**
+     * @param random source of the pick
+     * @return an index, chosen with probability proportional to its weight
+     */
+    public int sample(RandomGenerator random) {
+        double u = random.nextDouble() * probability.length;
+        int column = Math.min((int) u, probability.length - 1);
+        return u - column < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * @return the number of weights
+     */
+    public int size() {
+        return probability.length;
+    }
+}
@@ -0,0 +1,94 @@
+package edu.sdccd.cisc191.subsystems;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Resolves many independent battles at once on a {@link ForkJoinPool}.
+ * <p>
+ * The batch is split in halves until the pieces are small, and idle workers steal pieces from
+ * busy ones, so thousands of short battles keep every core busy without a task per battle.
+ * Each battle gets its own seed, drawn from the batch seed in battle order before any work
+ * starts, and rolls its damage from its own {@link SplittableRandom}. No generator is shared
+ * between threads, the same seed and batch give the same results however the work was divided,
+ * and every result carries a {@link CombatLog} that replays its battle on its own.
+ * <p>
+ * Battles take only the locks of their own two ships (see {@link CombatSystem#withShipsLocked}),
+ * so they are safe if a ship appears in more than one battle, but such battles then depend on
+ * which one ran first. Nothing sleeps: presenting a battle at a watchable pace is the client's job.
+ */
+public class BatchCombatResolver {
+    /** Battles resolved in one task without splitting further. */
+    private static final int SEQUENTIAL_THRESHOLD = 64;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Uses the common pool.
+     */
+    public BatchCombatResolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool the pool to resolve battles on
+     */
+    public BatchCombatResolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Resolves every battle in the batch and waits for all of them.
+     *
+     * @param engagements the battles; each ship should normally appear in only one
+     * @param seed seed for the damage rolls
+     * @return one result per engagement, in the same order
+     */
+    public List<CombatResult> resolveAll(List<Engagement> engagements, long seed) {
+        Engagement[] battles = engagements.toArray(new Engagement[0]);
+        SplittableRandom root = new SplittableRandom(seed);
+        long[] seeds = new long[battles.length];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = root.nextLong();
+        }
+        CombatResult[] results = new CombatResult[battles.length];
+        pool.invoke(new ResolveRange(battles, seeds, results, 0, battles.length));
+        return Arrays.asList(results);
+    }
+
+    /** Resolves battles {@code from} (inclusive) to {@code to} (exclusive), splitting large ranges. */
+    private static class ResolveRange extends RecursiveAction {
+        private final Engagement[] battles;
+        private final long[] seeds;
+        private final CombatResult[] results;
+        private final int from;
+        private final int to;
+
+        ResolveRange(Engagement[] battles, long[] seeds, CombatResult[] results, int from, int to) {
+            this.battles = battles;
+            this.seeds = seeds;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    Engagement battle = battles[i];
+                    long battleSeed = seeds[i];
+                    results[i] = CombatSystem.withShipsLocked(battle.getAttacker(), battle.getDefender(),
+                            () -> CombatSystem.fight(battle.getAttacker(), battle.getDefender(), battleSeed));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ResolveRange(battles, seeds, results, from, middle),
+                    new ResolveRange(battles, seeds, results, middle, to));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package edu.sdccd.cisc191.subsystems;
+
+/**
+ * The odds of a battle before it is fought, as worked out by {@link BattlePredictor}.
+ * <p>
+ * Expected health is the health a side has left at the end, counting a destroyed ship as zero;
+ * for fleets it is the whole fleet's total. The bounds are a 95% interval on the attacker's
+ * chance of winning; an exact prediction has both bounds equal to the probability itself.
+ */
+public class BattlePrediction {
+    private final double attackerWinProbability;
+    private final double defenderWinProbability;
+    private final double expectedAttackerHealth;
+    private final double expectedDefenderHealth;
+    private final double lowerBound;
+    private final double upperBound;
+    private final long simulations;
+
+    /**
+     * @param attackerWinProbability chance the attacker wins
+     * @param defenderWinProbability chance the defender wins; the rest is a called-off battle
+     * @param expectedAttackerHealth attacker health expected to be left
+     * @param expectedDefenderHealth defender health expected to be left
+     * @param lowerBound low end of the interval on {@code attackerWinProbability}
+     * @param upperBound high end of the interval on {@code attackerWinProbability}
+     * @param simulations battles simulated, or 0 if the odds were calculated exactly
+     */
+    public BattlePrediction(double attackerWinProbability, double defenderWinProbability,
+                            double expectedAttackerHealth, double expectedDefenderHealth,
+                            double lowerBound, double upperBound, long simulations) {
+        this.attackerWinProbability = attackerWinProbability;
+        this.defenderWinProbability = defenderWinProbability;
+        this.expectedAttackerHealth = expectedAttackerHealth;
+        this.expectedDefenderHealth = expectedDefenderHealth;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.simulations = simulations;
+    }
+
+    public double getAttackerWinProbability() {
+        return attackerWinProbability;
+    }
+
+    public double getDefenderWinProbability() {
+        return defenderWinProbability;
+    }
+
+    /**
+     * @return chance neither side is destroyed within {@link CombatSystem#MAX_ROUNDS}
+     */
+    public double getDrawProbability() {
+        return Math.max(0, 1 - attackerWinProbability - defenderWinProbability);
+    }
+
+    public double getExpectedAttackerHealth() {
+        return expectedAttackerHealth;
+    }
+
+    public double getExpectedDefenderHealth() {
+        return expectedDefenderHealth;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    public long getSimulations() {
+        return simulations;
+    }
+
+    /**
+     * @return true if the odds were calculated rather than simulated
+     */
+    public boolean isExact() {
+        return simulations == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("attacker wins %.1f%% (%.1f-%.1f%%), defender wins %.1f%%, health left %.1f vs. %.1f%s",
+                attackerWinProbability * 100, lowerBound * 100, upperBound * 100, defenderWinProbability * 100,
+                expectedAttackerHealth, expectedDefenderHealth,
+                isExact() ? ", exact" : ", " + simulations + " simulations");
+    }
+}
@@ -0,0 +1,479 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.GalacticShip;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Predicts how a battle will go before anyone commits to it, for players weighing an attack
+ * and for the matchmaking AI.
+ * <p>
+ * A duel between two ships follows {@link CombatSystem}'s model: alternating strikes of attack
+ * power plus a roll of 0 to {@link CombatSystem#DAMAGE_VARIATION} less one, passed through the
+ * target's {@link CombatEffects}. Each ship's total damage after k strikes is independent of the
+ * other's, so as long as no strike can heal and neither ship has repair drones the odds are
+ * worked out exactly from the two damage distributions, round by round, with no simulation.
+ * Fleets, and duels the exact method cannot handle cheaply, are simulated with
+ * {@link FleetCombat} or {@link CombatSystem#fight} on copies of the ships, in waves spread over
+ * a {@link ForkJoinPool}, until the time budget or simulation cap runs out. Each simulation task
+ * has its own {@link SplittableRandom} split from one seed, so nothing is shared while they run.
+ * The attacker's win chance comes with a 95% Wilson interval.
+ * <p>
+ * Predictions are cached by matchup, meaning the health, attack and abilities of every ship in
+ * order rather than the ships themselves, so a matchup seen before is answered at once. A cached
+ * estimate is only reused if it reached the caller's simulation cap or had at least the caller's
+ * time budget; otherwise the matchup is simulated again and the estimate with more battles
+ * behind it is kept. The real ships are never changed.
+ */
+public class BattlePredictor {
+    /** Time spent simulating a duel that cannot be worked out exactly. */
+    public static final Duration DEFAULT_BUDGET = Duration.ofMillis(50);
+    /** Most battles simulated for such a duel. */
+    public static final int DEFAULT_MAX_SIMULATIONS = 200_000;
+    /** z for a 95% interval. */
+    private static final double Z_95 = 1.96;
+    /** Simulations one task runs in a wave. */
+    private static final int SIMULATIONS_PER_TASK = 256;
+    /** Largest duel, in probability updates, worked out exactly instead of simulated. */
+    private static final long EXACT_WORK_LIMIT = 20_000_000;
+    /** Cached matchups; the cache starts over when it fills. */
+    private static final int CACHE_LIMIT = 10_000;
+
+    private final ForkJoinPool pool;
+    private final long seed;
+    private final ConcurrentHashMap<Matchup, Estimate> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Simulates on the common pool.
+     */
+    public BattlePredictor() {
+        this(ForkJoinPool.commonPool(), 0x5DEECE66DL);
+    }
+
+    /**
+     * @param pool the pool to simulate on
+     * @param seed seed for the simulations; combined with the matchup, so one matchup always
+     *             starts from the same rolls
+     */
+    public BattlePredictor(ForkJoinPool pool, long seed) {
+        this.pool = pool;
+        this.seed = seed;
+    }
+
+    /**
+     * Predicts a duel as {@link CombatSystem#engageCombat} would fight it, within the
+     * {@link #DEFAULT_BUDGET} if it has to be simulated.
+     *
+     * @param attacker the ship that strikes first
+     * @param defender its target
+     * @return the odds
+     */
+    public BattlePrediction predict(GalacticShip attacker, GalacticShip defender) {
+        Matchup key = new Matchup(true, List.of(attacker), List.of(defender));
+        BattlePrediction cached = cached(key, DEFAULT_BUDGET, DEFAULT_MAX_SIMULATIONS);
+        if (cached != null) {
+            return cached;
+        }
+        int attackerHealth = attacker.getHealth();
+        int defenderHealth = defender.getHealth();
+        int attackerMask = attacker.getAbilityMask();
+        int defenderMask = defender.getAbilityMask();
+        double[] attackerStrike = strikeChances(
+                CombatEffects.attackPower(attackerMask, attacker.getAttackPower()), defenderMask);
+        double[] defenderStrike = strikeChances(
+                CombatEffects.attackPower(defenderMask, defender.getAttackPower()), attackerMask);
+        BattlePrediction prediction;
+        if (((attackerMask | defenderMask) & CombatEffects.DRONES) == 0
+                && exactWork(attackerHealth, attackerStrike, defenderHealth, defenderStrike)
+                        <= EXACT_WORK_LIMIT) {
+            prediction = exact(attackerHealth, attackerStrike, defenderHealth, defenderStrike);
+        } else {
+            prediction = simulate(key, DEFAULT_BUDGET, DEFAULT_MAX_SIMULATIONS, (random, tally) -> {
+                GalacticShip a = copy(List.of(attacker)).get(0);
+                GalacticShip d = copy(List.of(defender)).get(0);
+                CombatResult result = CombatSystem.fight(a, d, random, null);
+                GalacticShip winner = result.getWinner();
+                tally.record(winner == a, winner == d, a.getHealth(), d.getHealth());
+            });
+        }
+        return remember(key, DEFAULT_BUDGET, prediction);
+    }
+
+    /**
+     * Predicts a fleet battle as {@link FleetCombat} would fight it.
+     *
+     * @param attackers the attacking fleet
+     * @param defenders the defending fleet
+     * @param budget time to spend simulating; at least one wave always runs
+     * @param maxSimulations stop early after this many battles
+     * @return the odds; a cached estimate is only returned if it was simulated with at least this
+     *         budget or this many battles
+     */
+    public BattlePrediction predict(List<GalacticShip> attackers, List<GalacticShip> defenders,
+                                    Duration budget, int maxSimulations) {
+        Matchup key = new Matchup(false, attackers, defenders);
+        BattlePrediction cached = cached(key, budget, maxSimulations);
+        if (cached != null) {
+            return cached;
+        }
+        BattlePrediction prediction = simulate(key, budget, maxSimulations, (random, tally) -> {
+            List<GalacticShip> a = copy(attackers);
+            List<GalacticShip> d = copy(defenders);
+            FleetCombatResult result = new FleetCombat(a, d).resolve(random);
+            tally.record(result.isAttackerVictory(), result.isDefenderVictory(),
+                    totalHealth(a), totalHealth(d));
+        });
+        return remember(key, budget, prediction);
+    }
+
+    /**
+     * @return matchups currently cached
+     */
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * @return the cached prediction for a matchup if it is as good as the caller asked for, or
+     *         null if there is none or it had less time and fewer battles than asked for
+     */
+    private BattlePrediction cached(Matchup key, Duration budget, int maxSimulations) {
+        Estimate cached = cache.get(key);
+        if (cached == null) {
+            return null;
+        }
+        BattlePrediction prediction = cached.prediction;
+        if (prediction.isExact() || prediction.getSimulations() >= maxSimulations
+                || cached.budget.compareTo(budget) >= 0) {
+            return prediction;
+        }
+        return null;
+    }
+
+    /**
+     * Caches a prediction unless one with more battles behind it got there first.
+     *
+     * @return the prediction now cached for the matchup
+     */
+    private BattlePrediction remember(Matchup key, Duration budget, BattlePrediction prediction) {
+        if (cache.size() >= CACHE_LIMIT) {
+            cache.clear();
+        }
+        Estimate estimate = new Estimate(prediction, budget);
+        return cache.merge(key, estimate, (old, fresh) -> fresh.isBetterThan(old) ? fresh : old)
+                .prediction;
+    }
+
+    /**
+     * @param power the striking ship's attack power, bonuses included
+     * @param targetMask the target's abilities
+     * @return the chance of each amount of damage landing in one strike, indexed by damage,
+     *         or null if a strike could heal
+     */
+    private static double[] strikeChances(int power, int targetMask) {
+        int most = CombatEffects.shield(targetMask, power + CombatSystem.DAMAGE_VARIATION - 1);
+        if (CombatEffects.shield(targetMask, power) < 0 || most < 0) {
+            return null;
+        }
+        double[] chances = new double[most + 1];
+        double evade = (targetMask & CombatEffects.CLOAK) != 0 ? 1.0 / CombatEffects.EVADE_ODDS : 0;
+        for (int roll = 0; roll < CombatSystem.DAMAGE_VARIATION; roll++) {
+            chances[CombatEffects.shield(targetMask, power + roll)] +=
+                    (1 - evade) / CombatSystem.DAMAGE_VARIATION;
+        }
+        chances[0] += evade;
+        return chances;
+    }
+
+    /**
+     * @return probability updates {@link #exact} would make, or {@code Long.MAX_VALUE} if it
+     *         cannot handle the duel
+     */
+    private static long exactWork(int attackerHealth, double[] attackerStrike,
+                                  int defenderHealth, double[] defenderStrike) {
+        if (attackerStrike == null || defenderStrike == null) {
+            return Long.MAX_VALUE;
+        }
+        long rounds = CombatSystem.MAX_ROUNDS;
+        int attackerLeast = least(attackerStrike);
+        int defenderLeast = least(defenderStrike);
+        if (attackerLeast > 0 && defenderLeast > 0) {
+            long fastest = Math.min(ceilDiv(defenderHealth, attackerLeast),
+                    ceilDiv(attackerHealth, defenderLeast));
+            rounds = Math.min(rounds, fastest + 1);
+        }
+        long outcomes = Math.max(attackerStrike.length, defenderStrike.length);
+        long health = (long) Math.max(0, attackerHealth) + Math.max(0, defenderHealth);
+        return rounds * health * outcomes;
+    }
+
+    /** The least damage a strike can do. */
+    private static int least(double[] strike) {
+        int damage = 0;
+        while (strike[damage] == 0) {
+            damage++;
+        }
+        return damage;
+    }
+
+    private static long ceilDiv(int a, int b) {
+        return Math.max(0, (a + (long) b - 1) / b);
+    }
+
+    /**
+     * Works out a duel's odds from the distribution of each ship's total damage. Only the totals
+     * that leave the target alive are kept: damage never goes negative here, so a destroyed ship
+     * stays destroyed and the arrays never grow past the target's health.
+     */
+    static BattlePrediction exact(int attackerHealth, double[] attackerStrike,
+                                  int defenderHealth, double[] defenderStrike) {
+        if (attackerHealth <= 0 || defenderHealth <= 0) {
+            double attackerWins = defenderHealth <= 0 && attackerHealth > 0 ? 1 : 0;
+            double defenderWins = attackerHealth <= 0 && defenderHealth > 0 ? 1 : 0;
+            return new BattlePrediction(attackerWins, defenderWins, Math.max(0, attackerHealth),
+                    Math.max(0, defenderHealth), attackerWins, attackerWins, 0);
+        }
+        // dealt[s]: chance the attacker has dealt s in total and the defender is still flying
+        double[] dealt = new double[defenderHealth];
+        double[] taken = new double[attackerHealth];
+        dealt[0] = 1;
+        taken[0] = 1;
+        double defenderAlive = 1;
+        double attackerAlive = 1;
+        double attackerLeft = attackerHealth;   // expected health left, counting only while alive
+        double attackerWins = 0;
+        double defenderWins = 0;
+        double expectedAttacker = 0;
+        double expectedDefender = 0;
+        double defenderLeft = defenderHealth;
+        for (int round = 1; round <= CombatSystem.MAX_ROUNDS; round++) {
+            dealt = strike(dealt, attackerStrike);
+            double stillAlive = sum(dealt);
+            double destroyed = defenderAlive - stillAlive;
+            attackerWins += destroyed * attackerAlive;
+            expectedAttacker += destroyed * attackerLeft;
+            defenderAlive = stillAlive;
+            defenderLeft = healthLeft(dealt, defenderHealth);
+            if (defenderAlive == 0) {
+                break;
+            }
+
+            taken = strike(taken, defenderStrike);
+            stillAlive = sum(taken);
+            destroyed = attackerAlive - stillAlive;
+            defenderWins += destroyed * defenderAlive;
+            expectedDefender += destroyed * defenderLeft;
+            attackerAlive = stillAlive;
+            attackerLeft = healthLeft(taken, attackerHealth);
+            if (attackerAlive == 0) {
+                break;
+            }
+        }
+        // battles still going after the last round are called off with both ships flying
+        expectedAttacker += attackerLeft * defenderAlive;
+        expectedDefender += defenderLeft * attackerAlive;
+        return new BattlePrediction(attackerWins, defenderWins, expectedAttacker, expectedDefender,
+                attackerWins, attackerWins, 0);
+    }
+
+    /** Adds one strike, as chances of each amount of damage, to a distribution of totals. */
+    private static double[] strike(double[] totals, double[] chances) {
+        double[] next = new double[totals.length];
+        for (int s = 0; s < totals.length; s++) {
+            double p = totals[s];
+            if (p == 0) {
+                continue;
+            }
+            for (int damage = 0; damage < chances.length && s + damage < next.length; damage++) {
+                next[s + damage] += p * chances[damage];
+            }
+        }
+        return next;
+    }
+
+    private static double sum(double[] totals) {
+        double sum = 0;
+        for (double p : totals) {
+            sum += p;
+        }
+        return sum;
+    }
+
+    private static double healthLeft(double[] totals, int health) {
+        double left = 0;
+        for (int s = 0; s < totals.length; s++) {
+            left += totals[s] * (health - s);
+        }
+        return left;
+    }
+
+    /** One simulated battle, recorded into the tally. */
+    private interface Trial {
+        void run(SplittableRandom random, Tally tally);
+    }
+
+    private BattlePrediction simulate(Matchup key, Duration budget, int maxSimulations,
+                                      Trial trial) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        SplittableRandom root = new SplittableRandom(seed ^ key.hashCode());
+        int tasks = Math.max(1, pool.getParallelism());
+        Tally total = new Tally();
+        do {
+            SplittableRandom[] streams = new SplittableRandom[tasks];
+            for (int i = 0; i < tasks; i++) {
+                streams[i] = root.split();
+            }
+            total.add(pool.invoke(new SimulateRange(trial, streams, 0, tasks)));
+        } while (System.nanoTime() < deadline && total.battles < maxSimulations);
+        return total.toPrediction();
+    }
+
+    /**
+     * Runs {@link #SIMULATIONS_PER_TASK} battles per stream, splitting the streams between
+     * workers.
+     */
+    private static class SimulateRange extends RecursiveTask<Tally> {
+        private final Trial trial;
+        private final SplittableRandom[] streams;
+        private final int from;
+        private final int to;
+
+        SimulateRange(Trial trial, SplittableRandom[] streams, int from, int to) {
+            this.trial = trial;
+            this.streams = streams;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from == 1) {
+                Tally tally = new Tally();
+                for (int i = 0; i < SIMULATIONS_PER_TASK; i++) {
+                    trial.run(streams[from], tally);
+                }
+                return tally;
+            }
+            int middle = (from + to) >>> 1;
+            SimulateRange right = new SimulateRange(trial, streams, middle, to);
+            right.fork();
+            Tally tally = new SimulateRange(trial, streams, from, middle).compute();
+            tally.add(right.join());
+            return tally;
+        }
+    }
+
+    /** Counts of simulated outcomes. */
+    private static class Tally {
+        private long battles;
+        private long attackerWins;
+        private long defenderWins;
+        private double attackerHealth;
+        private double defenderHealth;
+
+        void record(boolean attackerWon, boolean defenderWon,
+                    long attackerLeft, long defenderLeft) {
+            battles++;
+            attackerWins += attackerWon ? 1 : 0;
+            defenderWins += defenderWon ? 1 : 0;
+            attackerHealth += attackerLeft;
+            defenderHealth += defenderLeft;
+        }
+
+        void add(Tally other) {
+            battles += other.battles;
+            attackerWins += other.attackerWins;
+            defenderWins += other.defenderWins;
+            attackerHealth += other.attackerHealth;
+            defenderHealth += other.defenderHealth;
+        }
+
+        BattlePrediction toPrediction() {
+            double n = battles;
+            double p = attackerWins / n;
+            // Wilson score interval: stays inside [0, 1] and behaves near 0% and 100%
+            double z2 = Z_95 * Z_95;
+            double centre = (p + z2 / (2 * n)) / (1 + z2 / n);
+            double spread = Z_95 * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n)) / (1 + z2 / n);
+            return new BattlePrediction(p, defenderWins / n, attackerHealth / n, defenderHealth / n,
+                    Math.max(0, Math.min(p, centre - spread)),
+                    Math.min(1, Math.max(p, centre + spread)), battles);
+        }
+    }
+
+    private static List<GalacticShip> copy(List<GalacticShip> fleet) {
+        GalacticShip[] copies = new GalacticShip[fleet.size()];
+        for (int i = 0; i < copies.length; i++) {
+            GalacticShip ship = fleet.get(i);
+            copies[i] = new GalacticShip(ship.getName(), ship.getHealth(), ship.getAttackPower());
+            for (GalacticShip.CombatAbility ability : ship.getCombatAbilities()) {
+                copies[i].addCombatAbility(ability);
+            }
+        }
+        return Arrays.asList(copies);
+    }
+
+    private static long totalHealth(List<GalacticShip> fleet) {
+        long total = 0;
+        for (GalacticShip ship : fleet) {
+            total += ship.getHealth();
+        }
+        return total;
+    }
+
+    /** A cached prediction and the time budget it was simulated with. */
+    private static final class Estimate {
+        private final BattlePrediction prediction;
+        private final Duration budget;
+
+        Estimate(BattlePrediction prediction, Duration budget) {
+            this.prediction = prediction;
+            this.budget = budget;
+        }
+
+        /** Exact odds beat any simulation; otherwise more battles mean a narrower interval. */
+        boolean isBetterThan(Estimate other) {
+            if (other.prediction.isExact()) {
+                return false;
+            }
+            return prediction.isExact()
+                    || prediction.getSimulations() > other.prediction.getSimulations();
+        }
+    }
+
+    /** What decides a battle: every ship's health, attack and abilities, in order. */
+    private static final class Matchup {
+        private final int[] stats;
+
+        Matchup(boolean duel, List<GalacticShip> attackers, List<GalacticShip> defenders) {
+            stats = new int[3 + 3 * (attackers.size() + defenders.size())];
+            stats[0] = duel ? 1 : 0;
+            stats[1] = attackers.size();
+            stats[2] = defenders.size();
+            int i = 3;
+            for (List<GalacticShip> fleet : List.of(attackers, defenders)) {
+                for (GalacticShip ship : fleet) {
+                    stats[i++] = ship.getHealth();
+                    stats[i++] = ship.getAttackPower();
+                    stats[i++] = ship.getAbilityMask();
+                }
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Matchup other && Arrays.equals(stats, other.stats);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(stats);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.GalacticShip.CombatAbility;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * What combat abilities do, as the fixed pipeline every battle runs its ships through:
+ * <ol>
+ *     <li>once per battle, {@link #attackPower} adds the weapon bonuses</li>
+ *     <li>per strike, {@link #land} lets a cloaked target evade, then its shields take their share</li>
+ *     <li>per round, {@link #repair} lets repair drones patch up a surviving ship</li>
+ * </ol>
+ * Every stage works on a ship's ability mask ({@link edu.sdccd.cisc191.game.GalacticShip#getAbilityMask()}),
+ * so checking an ability is one AND and a ship with no abilities pays nothing but those. The
+ * damage roll is only drawn on for a cloaked target, so a battle between ships without
+ * abilities uses the same rolls as before abilities took effect.
+ * <p>
+ * {@link CombatSystem} runs the whole pipeline. {@link FleetCombat} uses the bonuses and repair;
+ * in a fleet battle cloaking hides a ship behind its fleet instead, and shields are worked out
+ * on the whole volley.
+ */
+public final class CombatEffects {
+    static final int LASER_BONUS = 5;
+    static final int MISSILE_BONUS = 10;
+    static final int REPAIR_PER_ROUND = 5;
+    /** A cloaked ship evades one strike in this many. */
+    static final int EVADE_ODDS = 5;
+
+    static final int LASER = CombatAbility.LASER_CANNON.bit();
+    static final int SHIELD = CombatAbility.SHIELD_GENERATOR.bit();
+    static final int MISSILE = CombatAbility.MISSILE_LAUNCHER.bit();
+    static final int CLOAK = CombatAbility.CLOAKING_DEVICE.bit();
+    static final int DRONES = CombatAbility.REPAIR_DRONES.bit();
+
+    private CombatEffects() {
+    }
+
+    /**
+     * @param mask the attacking ship's abilities
+     * @param attack its base attack power
+     * @return its attack power with {@value #LASER_BONUS} for a laser and {@value #MISSILE_BONUS} for missiles
+     */
+    static int attackPower(int mask, int attack) {
+        return attack + ((mask & LASER) != 0 ? LASER_BONUS : 0) + ((mask & MISSILE) != 0 ? MISSILE_BONUS : 0);
+    }
+
+    /**
+     * @param mask the target's abilities
+     * @param damage the strike's damage
+     * @param random source of the evasion roll, only drawn on for a cloaked target
+     * @return the damage that lands: none if the target evaded, less a quarter if it is shielded
+     */
+    static int land(int mask, int damage, RandomGenerator random) {
+        if ((mask & CLOAK) != 0 && random.nextInt(EVADE_ODDS) == 0) {
+            return 0;
+        }
+        return shield(mask, damage);
+    }
+
+    /**
+     * @param mask the target's abilities
+     * @param damage the damage coming in
+     * @return the damage left after its shields turn away a quarter
+     */
+    static int shield(int mask, int damage) {
+        return (mask & SHIELD) != 0 ? damage - damage / 4 : damage;
+    }
+
+    /**
+     * @param mask the target's abilities
+     * @param health its health
+     * @return the least damage that destroys it once its shields have taken their share
+     */
+    static int toDestroy(int mask, int health) {
+        // d - d / 4 >= health first holds at d = health + (health - 1) / 3
+        return (mask & SHIELD) != 0 && health > 0 ? health + (health - 1) / 3 : health;
+    }
+
+    /**
+     * @param mask the ship's abilities
+     * @return health its repair drones restore each round
+     */
+    static int repairPerRound(int mask) {
+        return (mask & DRONES) != 0 ? REPAIR_PER_ROUND : 0;
+    }
+
+    /**
+     * @param mask the ship's abilities
+     * @param health its health now
+     * @param maxHealth the health it started the battle with
+     * @return its health after a round of repairs; a destroyed ship stays destroyed
+     */
+    static int repair(int mask, int health, int maxHealth) {
+        return health > 0 ? Math.max(health, Math.min(maxHealth, health + repairPerRound(mask))) : health;
+    }
+}
@@ -0,0 +1,266 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.GalacticShip;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A compact record of one battle: the seed its damage rolls came from, both ships as they were
+ * when it started, and the damage of every strike in order.
+ * <p>
+ * Battles are deterministic given their seed, so {@link #replay()} fights the battle again from
+ * the recorded starting ships and {@link #verify()} checks that it goes exactly the same way,
+ * which settles any dispute about what happened. Recording a strike appends a varint to a byte
+ * array; the text a player reads is only built by {@link #lines()} when someone asks for it, so
+ * a battle nobody looks at costs no string work at all.
+ * <p>
+ * {@link #toBytes()} gives the whole record in a few dozen bytes: a version byte, the seed,
+ * both names and starting stats (health, attack, ability mask), then the strike count and each
+ * strike as a zigzag varint. Strikes alternate, the attacker's first, and record the damage that
+ * landed after the target's abilities; repairs are not recorded, as they follow from the stats.
+ */
+public class CombatLog {
+    private static final int FORMAT_VERSION = 2;
+
+    private final long seed;
+    private final String attackerName;
+    private final String defenderName;
+    private final int attackerHealth;
+    private final int attackerAttack;
+    private final int attackerAbilities;
+    private final int defenderHealth;
+    private final int defenderAttack;
+    private final int defenderAbilities;
+    private byte[] strikes = new byte[16];
+    private int strikeBytes;
+    private int strikeCount;
+
+    private CombatLog(long seed, String attackerName, int attackerHealth, int attackerAttack, int attackerAbilities,
+                      String defenderName, int defenderHealth, int defenderAttack, int defenderAbilities) {
+        this.seed = seed;
+        this.attackerName = attackerName;
+        this.attackerHealth = attackerHealth;
+        this.attackerAttack = attackerAttack;
+        this.attackerAbilities = attackerAbilities;
+        this.defenderName = defenderName;
+        this.defenderHealth = defenderHealth;
+        this.defenderAttack = defenderAttack;
+        this.defenderAbilities = defenderAbilities;
+    }
+
+    /**
+     * Starts a log for a battle about to be fought with damage rolls from
+     * {@code new SplittableRandom(seed)}.
+     *
+     * @param attacker the ship that strikes first, before the battle
+     * @param defender its target, before the battle
+     * @param seed the battle's seed
+     * @return an empty log
+     */
+    public static CombatLog start(GalacticShip attacker, GalacticShip defender, long seed) {
+        return new CombatLog(seed, attacker.getName(), attacker.getHealth(), attacker.getAttackPower(),
+                attacker.getAbilityMask(), defender.getName(), defender.getHealth(), defender.getAttackPower(),
+                defender.getAbilityMask());
+    }
+
+    /**
+     * Records the next strike.
+     *
+     * @param damage the damage it did
+     */
+    void strike(int damage) {
+        if (strikeBytes + 5 > strikes.length) {
+            strikes = Arrays.copyOf(strikes, strikes.length * 2);
+        }
+        int value = (damage << 1) ^ (damage >> 31);
+        while ((value & ~0x7F) != 0) {
+            strikes[strikeBytes++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        strikes[strikeBytes++] = (byte) value;
+        strikeCount++;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getStrikeCount() {
+        return strikeCount;
+    }
+
+    /**
+     * @return the damage of every strike in order, attacker's strikes at even indexes
+     */
+    public int[] getStrikes() {
+        int[] damage = new int[strikeCount];
+        int[] pos = {0};
+        for (int i = 0; i < strikeCount; i++) {
+            damage[i] = readVarInt(strikes, pos);
+        }
+        return damage;
+    }
+
+    /**
+     * Fights the battle again from the recorded starting ships and seed, on fresh ships.
+     *
+     * @return the replayed result, carrying its own log
+     */
+    public CombatResult replay() {
+        GalacticShip attacker = ship(attackerName, attackerHealth, attackerAttack, attackerAbilities);
+        GalacticShip defender = ship(defenderName, defenderHealth, defenderAttack, defenderAbilities);
+        CombatLog again = start(attacker, defender, seed);
+        return CombatSystem.fight(attacker, defender, new SplittableRandom(seed), again);
+    }
+
+    private static GalacticShip ship(String name, int health, int attack, int abilities) {
+        GalacticShip ship = new GalacticShip(name, health, attack);
+        for (GalacticShip.CombatAbility ability : GalacticShip.CombatAbility.values()) {
+            if ((abilities & ability.bit()) != 0) {
+                ship.addCombatAbility(ability);
+            }
+        }
+        return ship;
+    }
+
+    /**
+     * @return true if replaying the battle gives exactly the recorded strikes
+     */
+    public boolean verify() {
+        CombatLog again = replay().getLog();
+        return again.strikeCount == strikeCount
+                && Arrays.equals(again.strikes, 0, again.strikeBytes, strikes, 0, strikeBytes);
+    }
+
+    /**
+     * Builds the battle's play-by-play text.
+     *
+     * @return one line per strike, with the start and any destruction
+     */
+    public List<String> lines() {
+        List<String> lines = new ArrayList<>(strikeCount + 2);
+        lines.add("Combat Started: " + attackerName + " vs. " + defenderName);
+        int attackerLeft = attackerHealth;
+        int defenderLeft = defenderHealth;
+        int[] damage = getStrikes();
+        for (int i = 0; i < damage.length; i++) {
+            if (i % 2 == 0) {
+                defenderLeft -= damage[i];
+                lines.add(attackerName + " attacks! " + defenderName + " takes " + damage[i] + " damage. ");
+                if (defenderLeft <= 0) {
+                    lines.add(defenderName + " has been destroyed!");
+                }
+            } else {
+                attackerLeft -= damage[i];
+                lines.add(defenderName + " attacks! " + attackerName + " takes " + damage[i] + " damage. ");
+                if (attackerLeft <= 0) {
+                    lines.add(attackerName + " has been destroyed! GAME OVER!");
+                }
+                attackerLeft = CombatEffects.repair(attackerAbilities, attackerLeft, attackerHealth);
+                defenderLeft = CombatEffects.repair(defenderAbilities, defenderLeft, defenderHealth);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * @return the record in its compact binary form
+     */
+    public byte[] toBytes() {
+        byte[] attacker = attackerName.getBytes(StandardCharsets.UTF_8);
+        byte[] defender = defenderName.getBytes(StandardCharsets.UTF_8);
+        byte[] out = new byte[1 + 8 + 9 * 5 + attacker.length + defender.length + strikeBytes];
+        int pos = 0;
+        out[pos++] = FORMAT_VERSION;
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out[pos++] = (byte) (seed >>> shift);
+        }
+        pos = writeVarInt(out, pos, attacker.length);
+        System.arraycopy(attacker, 0, out, pos, attacker.length);
+        pos += attacker.length;
+        pos = writeVarInt(out, pos, attackerHealth);
+        pos = writeVarInt(out, pos, attackerAttack);
+        pos = writeVarInt(out, pos, attackerAbilities);
+        pos = writeVarInt(out, pos, defender.length);
+        System.arraycopy(defender, 0, out, pos, defender.length);
+        pos += defender.length;
+        pos = writeVarInt(out, pos, defenderHealth);
+        pos = writeVarInt(out, pos, defenderAttack);
+        pos = writeVarInt(out, pos, defenderAbilities);
+        pos = writeVarInt(out, pos, strikeCount);
+        System.arraycopy(strikes, 0, out, pos, strikeBytes);
+        return Arrays.copyOf(out, pos + strikeBytes);
+    }
+
+    /**
+     * @param bytes a record made by {@link #toBytes()}
+     * @return the log it holds
+     * @throws IllegalArgumentException if the bytes are not a combat log
+     */
+    public static CombatLog fromBytes(byte[] bytes) {
+        try {
+            if (bytes[0] != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unknown combat log version " + bytes[0]);
+            }
+            long seed = 0;
+            for (int i = 1; i <= 8; i++) {
+                seed = (seed << 8) | (bytes[i] & 0xFF);
+            }
+            int[] pos = {9};
+            int length = readVarInt(bytes, pos);
+            String attackerName = new String(bytes, pos[0], length, StandardCharsets.UTF_8);
+            pos[0] += length;
+            int attackerHealth = readVarInt(bytes, pos);
+            int attackerAttack = readVarInt(bytes, pos);
+            int attackerAbilities = readVarInt(bytes, pos);
+            length = readVarInt(bytes, pos);
+            String defenderName = new String(bytes, pos[0], length, StandardCharsets.UTF_8);
+            pos[0] += length;
+            int defenderHealth = readVarInt(bytes, pos);
+            int defenderAttack = readVarInt(bytes, pos);
+            int defenderAbilities = readVarInt(bytes, pos);
+            int count = readVarInt(bytes, pos);
+            CombatLog log = new CombatLog(seed, attackerName, attackerHealth, attackerAttack, attackerAbilities,
+                    defenderName, defenderHealth, defenderAttack, defenderAbilities);
+            for (int i = 0; i < count; i++) {
+                log.strike(readVarInt(bytes, pos));
+            }
+            return log;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated combat log", e);
+        }
+    }
+
+    private static int writeVarInt(byte[] out, int pos, int value) {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            out[pos++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        out[pos++] = (byte) zigzag;
+        return pos;
+    }
+
+    private static int readVarInt(byte[] in, int[] pos) {
+        int zigzag = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (shift > 28) {
+                throw new IllegalArgumentException("Malformed varint in combat log");
+            }
+            int b = in[pos[0]++] & 0xFF;
+            zigzag |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CombatLog{" + attackerName + " vs. " + defenderName + ", seed=" + seed + ", strikes=" + strikeCount + "}";
+    }
+}
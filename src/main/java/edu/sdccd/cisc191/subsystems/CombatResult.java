@@ -0,0 +1,85 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.GalacticShip;
+
+/**
+ * How one battle between two ships ended.
+ * <p>
+ * Battles are resolved in one go, with no pauses between turns; a client that wants to show
+ * the fight turn by turn paces its own animation from the round count and damage totals, or
+ * from the strikes in the {@link CombatLog}.
+ */
+public class CombatResult {
+    private final GalacticShip attacker;
+    private final GalacticShip defender;
+    private final int rounds;
+    private final int damageDealt;
+    private final int damageTaken;
+    private final CombatLog log;
+
+    /**
+     * @param attacker the ship that struck first
+     * @param defender the other ship
+     * @param rounds rounds fought; a round is the attacker's strike and, if the defender
+     *               survives it, the defender's reply
+     * @param damageDealt total damage the attacker did
+     * @param damageTaken total damage the attacker received
+     * @param log the battle's log, or null if it was not recorded
+     */
+    public CombatResult(GalacticShip attacker, GalacticShip defender, int rounds, int damageDealt, int damageTaken,
+                        CombatLog log) {
+        this.attacker = attacker;
+        this.defender = defender;
+        this.rounds = rounds;
+        this.damageDealt = damageDealt;
+        this.damageTaken = damageTaken;
+        this.log = log;
+    }
+
+    public GalacticShip getAttacker() {
+        return attacker;
+    }
+
+    public GalacticShip getDefender() {
+        return defender;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public int getDamageDealt() {
+        return damageDealt;
+    }
+
+    public int getDamageTaken() {
+        return damageTaken;
+    }
+
+    /**
+     * @return the battle's log, or null if it was not recorded
+     */
+    public CombatLog getLog() {
+        return log;
+    }
+
+    /**
+     * @return the surviving ship, or null if the battle was called off with both still flying
+     */
+    public GalacticShip getWinner() {
+        if (defender.isDestroyed() && !attacker.isDestroyed()) {
+            return attacker;
+        }
+        if (attacker.isDestroyed() && !defender.isDestroyed()) {
+            return defender;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        GalacticShip winner = getWinner();
+        return attacker.getName() + " vs. " + defender.getName() + ": "
+                + (winner == null ? "draw" : winner.getName() + " wins") + " after " + rounds + " rounds";
+    }
+}
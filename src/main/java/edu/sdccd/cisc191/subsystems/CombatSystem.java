@@ -1,9 +1,11 @@
 package edu.sdccd.cisc191.subsystems;
 
 import edu.sdccd.cisc191.game.GalacticShip;
-import java.util.Random;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
 
     /*
      * Features added:
@@ -11,48 +13,160 @@ import java.util.concurrent.locks.ReentrantLock;
      * Attack power variation (randomized damage)
      * UI logs for attacks and destruction
      * Game Over condition if player's ship is destroyed
+     * Battles lock only their own two ships, so unrelated battles run in parallel
+     * No pause between turns: pacing the fight for display is up to the client
+     * Every battle is seeded and recorded in a compact CombatLog that can be replayed exactly
+     * Combat abilities take effect each round through CombatEffects
      */
 
 // Handles combat between two ships in a turn-based system
 public class CombatSystem {
-    private final Lock lock = new ReentrantLock();
-    private final Random random = new Random();
+    /** Rounds after which a battle neither side is winning is called off. */
+    public static final int MAX_ROUNDS = 1000;
+    /** Each strike does the ship's attack power plus up to this much less one. */
+    static final int DAMAGE_VARIATION = 5;
+    /** Taken when two ships' identity hashes collide, so their locks are still taken in one order. */
+    private static final Object TIE_LOCK = new Object();
+
+    /** Seed of the next battle; each battle takes the next value. */
+    private final AtomicLong nextSeed;
+
+    /**
+     * Seeds battles from a random starting point.
+     */
+    public CombatSystem() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * @param seed seed of the first battle; later battles use the following seeds, so the same
+     *             seed and the same battles in the same order always go the same way
+     */
+    public CombatSystem(long seed) {
+        this.nextSeed = new AtomicLong(seed);
+    }
 
     /*
-     * Engages combat between two ships with turn-based mechanics
+     * Engages combat between two ships with turn-based mechanics. Nothing is formatted or
+     * printed: a viewer that wants the play-by-play asks the log for its lines.
      * @param playerShip The player's ship
      * @param enemyShip The enemy ship
+     * @return the battle's log, which can replay it
      */
 
-    public void engageCombat(GalacticShip playerShip, GalacticShip enemyShip) {
-        lock.lock();
-        try {
-            System.out.println("Combat Started: " + playerShip.getName() + " vs. " + enemyShip.getName());
-
-            while (!playerShip.isDestroyed() && !enemyShip.isDestroyed()) {
-                // Player Attacks
-                int playerAttack = playerShip.getAttackPower() + random.nextInt(5); // Slight damage variation
-                enemyShip.takeDamage(playerAttack);
-                System.out.println(playerShip.getName() + " attacks! " + enemyShip.getName() + " takes " + playerAttack + " damage. ");
+    public CombatLog engageCombat(GalacticShip playerShip, GalacticShip enemyShip) {
+        long seed = nextSeed.getAndIncrement();
+        return withShipsLocked(playerShip, enemyShip, () -> {
+            CombatLog battle = CombatLog.start(playerShip, enemyShip, seed);
+            fight(playerShip, enemyShip, new SplittableRandom(seed), battle);
+            return battle;
+        });
+    }
 
-                if (enemyShip.isDestroyed()) {
-                    System.out.println(enemyShip.getName() + " has been destroyed!");
-                    break;
-                }
+    /**
+     * Fights a battle from a seed, as {@link CombatLog#replay()} will.
+     *
+     * @param attacker the ship that strikes first
+     * @param defender its target
+     * @param seed seed for the damage rolls
+     * @return how the battle went, with its log
+     * @see #fight(GalacticShip, GalacticShip, RandomGenerator, CombatLog)
+     */
+    public static CombatResult fight(GalacticShip attacker, GalacticShip defender, long seed) {
+        return fight(attacker, defender, new SplittableRandom(seed), CombatLog.start(attacker, defender, seed));
+    }
 
-                // Enemy Attacks
-                int enemyAttack = enemyShip.getAttackPower() + random.nextInt(5);
-                playerShip.takeDamage(enemyAttack);
-                System.out.println(enemyShip.getName() + " has been destroyed! GAME OVER!");
+    /**
+     * Fights a battle to the end: the attacker strikes, then the defender replies if it
+     * survived, until one ship is destroyed or {@link #MAX_ROUNDS} have passed. Each strike goes
+     * through {@link CombatEffects}: weapon bonuses, then the target's cloak and shields; at the
+     * end of each round repair drones patch up whoever is still flying. The caller must
+     * make sure no other thread changes either ship meanwhile, for instance with
+     * {@link #withShipsLocked}.
+     *
+     * @param attacker the ship that strikes first
+     * @param defender its target
+     * @param random source of the damage variation
+     * @param log records every strike, or null for an unrecorded battle; it only replays
+     *            correctly if {@code random} is {@code new SplittableRandom(log.getSeed())}
+     * @return how the battle went
+     */
+    public static CombatResult fight(GalacticShip attacker, GalacticShip defender, RandomGenerator random, CombatLog log) {
+        int attackerMask = attacker.getAbilityMask();
+        int defenderMask = defender.getAbilityMask();
+        int attackerPower = CombatEffects.attackPower(attackerMask, attacker.getAttackPower());
+        int defenderPower = CombatEffects.attackPower(defenderMask, defender.getAttackPower());
+        int attackerMax = attacker.getHealth();
+        int defenderMax = defender.getHealth();
+        int rounds = 0;
+        int dealt = 0;
+        int taken = 0;
+        while (!attacker.isDestroyed() && !defender.isDestroyed() && rounds < MAX_ROUNDS) {
+            rounds++;
+            int roll = attackerPower + random.nextInt(DAMAGE_VARIATION); // Slight damage variation
+            int attack = CombatEffects.land(defenderMask, roll, random);
+            defender.takeDamage(attack);
+            dealt += attack;
+            if (log != null) {
+                log.strike(attack);
+            }
+            if (defender.isDestroyed()) {
+                break;
             }
 
-            // Pause between turns to simulate real-time combat
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } finally {
-            lock.unlock();
+            int reply = CombatEffects.land(attackerMask, defenderPower + random.nextInt(DAMAGE_VARIATION), random);
+            attacker.takeDamage(reply);
+            taken += reply;
+            if (log != null) {
+                log.strike(reply);
+            }
+            if (((attackerMask | defenderMask) & CombatEffects.DRONES) != 0) {
+                attacker.takeDamage(attacker.getHealth() - CombatEffects.repair(attackerMask, attacker.getHealth(), attackerMax));
+                defender.takeDamage(defender.getHealth() - CombatEffects.repair(defenderMask, defender.getHealth(), defenderMax));
+            }
+        }
+        return new CombatResult(attacker, defender, rounds, dealt, taken, log);
+    }
 
+    /**
+     * Runs an action holding the locks of both ships and nothing else, so battles between
+     * different ships never wait for each other. The locks are always taken in the same order
+     * whichever ship is named first, so two battles sharing ships cannot deadlock.
+     *
+     * @param first one ship
+     * @param second the other ship; may be the same as {@code first}
+     * @param action the work to do
+     * @param <T> the action's result type
+     * @return the action's result
+     */
+    public static <T> T withShipsLocked(GalacticShip first, GalacticShip second, Supplier<T> action) {
+        int firstHash = System.identityHashCode(first);
+        int secondHash = System.identityHashCode(second);
+        if (first == second) {
+            synchronized (first) {
+                return action.get();
+            }
+        }
+        if (firstHash < secondHash) {
+            synchronized (first) {
+                synchronized (second) {
+                    return action.get();
+                }
+            }
+        }
+        if (secondHash < firstHash) {
+            synchronized (second) {
+                synchronized (first) {
+                    return action.get();
+                }
+            }
+        }
+        synchronized (TIE_LOCK) {
+            synchronized (first) {
+                synchronized (second) {
+                    return action.get();
+                }
+            }
         }
     }
-}
\ No newline at end of file
+}
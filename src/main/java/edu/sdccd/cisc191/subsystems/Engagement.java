@@ -0,0 +1,29 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.GalacticShip;
+
+/**
+ * One battle waiting to be resolved by a {@link BatchCombatResolver}: the attacking ship, which
+ * strikes first, and its target.
+ */
+public class Engagement {
+    private final GalacticShip attacker;
+    private final GalacticShip defender;
+
+    /**
+     * @param attacker the ship that strikes first
+     * @param defender its target
+     */
+    public Engagement(GalacticShip attacker, GalacticShip defender) {
+        this.attacker = attacker;
+        this.defender = defender;
+    }
+
+    public GalacticShip getAttacker() {
+        return attacker;
+    }
+
+    public GalacticShip getDefender() {
+        return defender;
+    }
+}
@@ -0,0 +1,182 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.game.ResourceType;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Something that can happen to a player exploring a planet, as described by one row of the
+ * event data file (see {@link ExplorationEventTable}).
+ * <p>
+ * An event has a base weight, optional weights for particular planets, and a {@link Rarity}
+ * that scales all of them. Its payload depends on its {@link Kind}: an enemy to fight, resources
+ * to grant, or health to restore. Events never change; {@link #withWeight} makes an adjusted copy.
+ */
+public class ExplorationEvent {
+
+    /** What an event does to the explorer. */
+    public enum Kind {
+        /** An enemy ship attacks. */
+        ENEMY,
+        /** Resources are added to the inventory. */
+        RESOURCE,
+        /** The exploring ship is repaired. */
+        HEAL
+    }
+
+    /** How often an event comes up, as a factor on its weights. */
+    public enum Rarity {
+        COMMON(1.0),
+        UNCOMMON(0.5),
+        RARE(0.15),
+        LEGENDARY(0.03);
+
+        private final double factor;
+
+        Rarity(double factor) {
+            this.factor = factor;
+        }
+
+        public double getFactor() {
+            return factor;
+        }
+    }
+
+    private final String name;
+    private final Kind kind;
+    private final Rarity rarity;
+    private final double weight;
+    private final Map<String, Double> planetWeights;
+    private final String message;
+    private final String enemyName;
+    private final int enemyHealth;
+    private final int enemyAttack;
+    private final int enemyAbilities;
+    private final Map<ResourceType, Integer> grants;
+    private final int heal;
+
+    /**
+     * @param name unique id of the event
+     * @param kind what it does
+     * @param rarity how rare it is
+     * @param weight weight on planets without their own
+     * @param planetWeights weights for particular planets, by planet name
+     * @param message shown to the player; {@code {planet}} is replaced by the planet's name
+     * @param enemyName for {@link Kind#ENEMY}, the enemy ship's name
+     * @param enemyHealth for {@link Kind#ENEMY}, its health
+     * @param enemyAttack for {@link Kind#ENEMY}, its attack power
+     * @param enemyAbilities for {@link Kind#ENEMY}, its ability mask
+     * @param grants for {@link Kind#RESOURCE}, the amount of each resource granted
+     * @param heal for {@link Kind#HEAL}, the health restored
+     */
+    public ExplorationEvent(String name, Kind kind, Rarity rarity, double weight, Map<String, Double> planetWeights,
+                            String message, String enemyName, int enemyHealth, int enemyAttack, int enemyAbilities,
+                            Map<ResourceType, Integer> grants, int heal) {
+        this.name = name;
+        this.kind = kind;
+        this.rarity = rarity;
+        this.weight = weight;
+        this.planetWeights = Collections.unmodifiableMap(new LinkedHashMap<>(planetWeights));
+        this.message = message;
+        this.enemyName = enemyName;
+        this.enemyHealth = enemyHealth;
+        this.enemyAttack = enemyAttack;
+        this.enemyAbilities = enemyAbilities;
+        Map<ResourceType, Integer> granted = new EnumMap<>(ResourceType.class);
+        granted.putAll(grants);
+        this.grants = Collections.unmodifiableMap(granted);
+        this.heal = heal;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Rarity getRarity() {
+        return rarity;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public Map<String, Double> getPlanetWeights() {
+        return planetWeights;
+    }
+
+    /**
+     * @param planet a planet's name
+     * @return how likely the event is there, relative to the other events, rarity included
+     */
+    public double weightOn(String planet) {
+        return planetWeights.getOrDefault(planet, weight) * rarity.getFactor();
+    }
+
+    /**
+     * @param planet a planet's name, or null for the base weight
+     * @param newWeight the new weight
+     * @return a copy of this event with that weight
+     */
+    public ExplorationEvent withWeight(String planet, double newWeight) {
+        Map<String, Double> weights = new LinkedHashMap<>(planetWeights);
+        double base = weight;
+        if (planet == null) {
+            base = newWeight;
+        } else {
+            weights.put(planet, newWeight);
+        }
+        return new ExplorationEvent(name, kind, rarity, base, weights, message, enemyName, enemyHealth, enemyAttack,
+                enemyAbilities, grants, heal);
+    }
+
+    /**
+     * @param planet the planet's name
+     * @return the message to show the player
+     */
+    public String getMessage(String planet) {
+        return message.replace("{planet}", planet);
+    }
+
+    /**
+     * @return a new enemy ship built from the template, or null if this is not an enemy event
+     */
+    public GalacticShip newEnemy() {
+        if (kind != Kind.ENEMY) {
+            return null;
+        }
+        GalacticShip enemy = new GalacticShip(enemyName, enemyHealth, enemyAttack);
+        for (GalacticShip.CombatAbility ability : GalacticShip.CombatAbility.values()) {
+            if ((enemyAbilities & ability.bit()) != 0) {
+                enemy.addCombatAbility(ability);
+            }
+        }
+        return enemy;
+    }
+
+    /**
+     * @return resources granted, by type; empty unless this is a resource event
+     */
+    public Map<ResourceType, Integer> getGrants() {
+        return grants;
+    }
+
+    /**
+     * @return health restored; zero unless this is a heal event
+     */
+    public int getHeal() {
+        return heal;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + kind + ", " + rarity + ")";
+    }
+}
@@ -0,0 +1,265 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.game.ResourceType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+/**
+ * The events exploration can run into, loaded from a data file, and the per-planet tables they
+ * are drawn from.
+ * <p>
+ * The file is CSV with a header row, one event per line; blank lines and lines starting with
+ * {@code #} are skipped:
+ * <pre>
+ * Event,Kind,Rarity,Weight,Planet Weights,Payload,Message
+ * alien_raider,ENEMY,COMMON,10,,Alien Raider:150:30,Enemy detected on {planet}!
+ * ore_belt,RESOURCE,UNCOMMON,6,Mars=14;Earth=0,Minerals:30,A rich ore belt circles {planet}.
+ * </pre>
+ * Planet Weights overrides the base weight on the planets it names. The payload is
+ * {@code name:health:attack[:ABILITY+ABILITY...]} for an {@link ExplorationEvent.Kind#ENEMY},
+ * {@code Resource:amount;Resource:amount...} for a {@link ExplorationEvent.Kind#RESOURCE}, each
+ * resource named as in {@link ResourceType#byName}, and
+ * the health restored for a {@link ExplorationEvent.Kind#HEAL}. The message comes last, so it
+ * may contain commas.
+ * <p>
+ * Each planet gets an {@link AliasTable} over every event's weight there, built the first time
+ * the planet is explored, so a roll costs the same with three events or three hundred. The
+ * events and their tables are one immutable catalog: {@link #setWeight} publishes a new catalog
+ * with no tables, and they are rebuilt as planets are next explored. Rolls running meanwhile
+ * finish on the old catalog.
+ */
+public class ExplorationEventTable {
+    /** The event file shipped with the game, on the class path. */
+    public static final String DEFAULT_RESOURCE = "/exploration_events.csv";
+    private static final int COLUMNS = 7;
+
+    /** Events and the tables drawn from their weights; replaced whole when a weight changes. */
+    private volatile Catalog catalog;
+    private final AtomicInteger tablesBuilt = new AtomicInteger();
+
+    private static final class Catalog {
+        final ExplorationEvent[] events;
+        final Map<String, AliasTable> tables = new ConcurrentHashMap<>();
+
+        Catalog(ExplorationEvent[] events) {
+            this.events = events;
+        }
+    }
+
+    /** Stands in for a planet where no event has any weight. */
+    private static final AliasTable NO_EVENTS = new AliasTable(new double[]{1});
+
+    /**
+     * @param events the events, with unique names
+     */
+    public ExplorationEventTable(List<ExplorationEvent> events) {
+        Set<String> names = new HashSet<>();
+        for (ExplorationEvent event : events) {
+            if (!names.add(event.getName())) {
+                throw new IllegalArgumentException("Duplicate exploration event " + event.getName());
+            }
+        }
+        this.catalog = new Catalog(events.toArray(new ExplorationEvent[0]));
+    }
+
+    /**
+     * @return the events shipped in {@link #DEFAULT_RESOURCE}
+     * @throws IllegalStateException if the file is missing or cannot be read
+     */
+    public static ExplorationEventTable loadDefault() {
+        InputStream in = ExplorationEventTable.class.getResourceAsStream(DEFAULT_RESOURCE);
+        if (in == null) {
+            throw new IllegalStateException("Missing exploration event file " + DEFAULT_RESOURCE);
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return load(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + DEFAULT_RESOURCE, e);
+        }
+    }
+
+    /**
+     * @param reader an event file
+     * @return its events
+     * @throws IOException if it cannot be read
+     * @throws IllegalArgumentException if a line is malformed, naming the line
+     */
+    public static ExplorationEventTable load(Reader reader) throws IOException {
+        List<ExplorationEvent> events = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        boolean header = true;
+        int number = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            if (header) {
+                header = false;
+                continue;
+            }
+            try {
+                events.add(parse(trimmed.split(",", COLUMNS)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Bad exploration event on line " + number + ": " + e.getMessage(), e);
+            }
+        }
+        return new ExplorationEventTable(events);
+    }
+
+    private static ExplorationEvent parse(String[] fields) {
+        if (fields.length != COLUMNS) {
+            throw new IllegalArgumentException("expected " + COLUMNS + " columns, found " + fields.length);
+        }
+        String name = fields[0].trim();
+        ExplorationEvent.Kind kind = ExplorationEvent.Kind.valueOf(fields[1].trim());
+        ExplorationEvent.Rarity rarity = ExplorationEvent.Rarity.valueOf(fields[2].trim());
+        double weight = Double.parseDouble(fields[3].trim());
+        Map<String, Double> planetWeights = new LinkedHashMap<>();
+        for (String entry : list(fields[4])) {
+            String[] parts = entry.split("=");
+            planetWeights.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+        }
+        String payload = fields[5].trim();
+        String message = fields[6].trim();
+
+        String enemyName = null;
+        int enemyHealth = 0;
+        int enemyAttack = 0;
+        int enemyAbilities = 0;
+        Map<ResourceType, Integer> grants = new EnumMap<>(ResourceType.class);
+        int heal = 0;
+        switch (kind) {
+            case ENEMY -> {
+                String[] parts = payload.split(":");
+                enemyName = parts[0].trim();
+                enemyHealth = Integer.parseInt(parts[1].trim());
+                enemyAttack = Integer.parseInt(parts[2].trim());
+                if (parts.length > 3) {
+                    for (String ability : parts[3].split("\\+")) {
+                        enemyAbilities |= GalacticShip.CombatAbility.valueOf(ability.trim()).bit();
+                    }
+                }
+            }
+            case RESOURCE -> {
+                for (String grant : list(payload)) {
+                    String[] parts = grant.split(":");
+                    ResourceType resource = ResourceType.byName(parts[0].trim());
+                    if (resource == null) {
+                        throw new IllegalArgumentException("unknown resource " + parts[0].trim());
+                    }
+                    grants.merge(resource, Integer.parseInt(parts[1].trim()), Integer::sum);
+                }
+            }
+            case HEAL -> heal = Integer.parseInt(payload);
+        }
+        // the alias table would reject these too, but only once a planet is explored
+        if (!(weight >= 0) || planetWeights.values().stream().anyMatch(w -> !(w >= 0))) {
+            throw new IllegalArgumentException("weights must not be negative");
+        }
+        return new ExplorationEvent(name, kind, rarity, weight, planetWeights, message,
+                enemyName, enemyHealth, enemyAttack, enemyAbilities, grants, heal);
+    }
+
+    private static List<String> list(String field) {
+        List<String> items = new ArrayList<>();
+        for (String item : field.split(";")) {
+            if (!item.isBlank()) {
+                items.add(item.trim());
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Rolls the event a player runs into on a planet.
+     *
+     * @param planet the planet's name
+     * @param random source of the roll
+     * @return the event, or null if no event can happen there
+     */
+    public ExplorationEvent sample(String planet, RandomGenerator random) {
+        Catalog current = catalog;
+        AliasTable table = current.tables.computeIfAbsent(planet, name -> build(current.events, name));
+        return table == NO_EVENTS ? null : current.events[table.sample(random)];
+    }
+
+    private AliasTable build(ExplorationEvent[] events, String planet) {
+        tablesBuilt.incrementAndGet();
+        double[] weights = new double[events.length];
+        double total = 0;
+        for (int i = 0; i < events.length; i++) {
+            weights[i] = events[i].weightOn(planet);
+            total += weights[i];
+        }
+        return total > 0 ? new AliasTable(weights) : NO_EVENTS;
+    }
+
+    /**
+     * Changes an event's weight. Every planet's table is rebuilt the next time it is rolled on.
+     *
+     * @param eventName the event
+     * @param planet the planet to change it on, or null for its base weight
+     * @param weight the new weight, not negative
+     * @throws IllegalArgumentException if there is no such event or the weight is negative
+     */
+    public synchronized void setWeight(String eventName, String planet, double weight) {
+        if (!(weight >= 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Weights must be finite and not negative: " + weight);
+        }
+        ExplorationEvent[] events = catalog.events.clone();
+        for (int i = 0; i < events.length; i++) {
+            if (events[i].getName().equals(eventName)) {
+                events[i] = events[i].withWeight(planet, weight);
+                catalog = new Catalog(events);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("No exploration event " + eventName);
+    }
+
+    /**
+     * @param name an event's name
+     * @return the event, or null if there is none by that name
+     */
+    public ExplorationEvent getEvent(String name) {
+        for (ExplorationEvent event : catalog.events) {
+            if (event.getName().equals(name)) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return every event, in file order
+     */
+    public List<ExplorationEvent> getEvents() {
+        return List.of(catalog.events);
+    }
+
+    /**
+     * @return alias tables built so far, for checking that rolls do not rebuild them
+     */
+    public int getTablesBuilt() {
+        return tablesBuilt.get();
+    }
+}
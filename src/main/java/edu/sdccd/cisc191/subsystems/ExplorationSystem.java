@@ -4,73 +4,168 @@ import edu.sdccd.cisc191.game.GalacticShip;
 import edu.sdccd.cisc191.game.Planet;
 import edu.sdccd.cisc191.game.Player;
 import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
 
-import java.util.Random;
-import java.util.concurrent.locks.Lock;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.locks.ReentrantLock;
 
 
     /*
      * Features added:
-     * Random events (enemy battle, resources, healing zone)
+     * Random events (enemy battle, resources, healing zone), loaded from exploration_events.csv
+     * Per-planet event weights and rarity tiers, rolled in constant time from alias tables
      * Enemy combat integrated (triggers CombatSystem)
      * UI messages for immersion
      * Ensures the player has a ship before exploring (Prevents crashes)
+     * Locks only the exploring player, so players explore in parallel, on one planet or many
+     * Combat runs asynchronously, after every exploration lock is released
+     * A ship lost in battle is reported back; only the fleet's owner removes it
      */
 
 // Handles planet exploration with random events
 public class ExplorationSystem {
-    private final Lock lock = new ReentrantLock();
-    private final Random random = new Random();
-    private final CombatSystem combatSystem = new CombatSystem();
+    /** Lock stripes; a power of two. */
+    private static final int STRIPES = 64;
+
+    /**
+     * Guard a player's fleet while it explores; a player always uses the same stripe. Planets
+     * need none: the event table swaps in a new catalog rather than changing one, so any number
+     * of explorers can roll a planet's events at once.
+     */
+    private final ReentrantLock[] playerLocks = newStripes();
+    private final ExplorationEventTable events;
+    private final CombatSystem combatSystem;
+    private final Executor combatExecutor;
+
+    public ExplorationSystem() {
+        this(ExplorationEventTable.loadDefault(), new CombatSystem(), ForkJoinPool.commonPool());
+    }
 
     /*
-     * Explores a planet and triggers a random event
+     * @param events The events exploring can run into
+     * @param combatSystem Fights the battles exploration runs into
+     * @param combatExecutor Runs those battles
+     */
+    public ExplorationSystem(ExplorationEventTable events, CombatSystem combatSystem, Executor combatExecutor) {
+        this.events = events;
+        this.combatSystem = combatSystem;
+        this.combatExecutor = combatExecutor;
+    }
+
+    public ExplorationEventTable getEvents() {
+        return events;
+    }
+
+    private static ReentrantLock[] newStripes() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private static ReentrantLock stripe(ReentrantLock[] locks, int hash) {
+        return locks[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    /*
+     * Explores a planet and triggers a random event, waiting for any battle it leads to
      * @param player The player exploring
      * @param planet The planet is being explored.
      */
     public void explorePlanet(Player player, Planet planet, PlayerInventory inventory) {
-        lock.lock();
+        GalacticShip lost = exploreAsync(player, planet, inventory).join();
+        if (lost != null) {
+            removeLostShip(player, lost);
+        }
+    }
+
+    /*
+     * Takes a ship lost in battle out of its player's fleet. Call from the thread that owns the
+     * fleet, the same one that adds ships to it.
+     * @param player The player whose ship was lost
+     * @param ship The ship exploreAsync reported lost
+     */
+    public void removeLostShip(Player player, GalacticShip ship) {
+        ReentrantLock playerLock = stripe(playerLocks, System.identityHashCode(player));
+        playerLock.lock();
+        try {
+            if (player.getFleet().remove(ship)) {
+                System.out.println("Your ship was destroyed! You must build a new one.");
+            }
+        } finally {
+            playerLock.unlock();
+        }
+    }
+
+    /*
+     * Explores a planet and triggers a random event. Only the player's lock stripe is held, and
+     * only while the event is picked and applied; an enemy encounter is
+     * fought on the combat executor afterwards. The fleet is never changed from that executor:
+     * a ship lost in battle is reported, and the caller removes it with removeLostShip.
+     * @param player The player exploring
+     * @param planet The planet is being explored.
+     * @return Completes once the exploration, including any battle, is over, with the ship lost
+     *         in battle or null
+     */
+    public CompletableFuture<GalacticShip> exploreAsync(Player player, Planet planet, PlayerInventory inventory) {
+        GalacticShip playerShip;
+        ExplorationEvent event;
+        ReentrantLock playerLock = stripe(playerLocks, System.identityHashCode(player));
+        playerLock.lock();
         try {
             System.out.println(player.getName() + " is exploring " + planet.getName());
 
             if (player.getFleet().isEmpty()) {
                 System.out.println("No ships available to explore! Build a ship first.");
-                return;
+                return CompletableFuture.completedFuture(null);
             }
 
             // Get Player's first ship for interactions
-            GalacticShip playerShip = player.getFleet().get(0);
-
-            // Generate a random event
-            int event = random.nextInt(3);
-
-            switch (event) {
-                case 0 -> {
-                    // Enemy Encounter
-                    System.out.println("Enemy detected on " + planet.getName() + "!");
-                    // Create an AI enemy ship
-                    GalacticShip enemyShip = new GalacticShip("Alien Raider", 150, 30);
-                    combatSystem.engageCombat(playerShip, enemyShip);
-
-                    if (playerShip.isDestroyed()) {
-                        System.out.println("Your ship was destroyed! You must build a new one.");
-                        player.getFleet().remove(playerShip);
-                    }
+            playerShip = player.getFleet().get(0);
+
+            // Roll a random event from the planet's table
+            event = events.sample(planet.getName(), ThreadLocalRandom.current());
+            if (event == null) {
+                System.out.println("Nothing of note on " + planet.getName() + ".");
+                return CompletableFuture.completedFuture(null);
+            }
+
+            System.out.println(event.getMessage(planet.getName()));
+            switch (event.getKind()) {
+                case ENEMY -> {
+                    // Enemy Encounter: fought below, once the locks are released
                 }
-                case 1 -> {
+                case RESOURCE -> {
                     // Resource Discovery
-                    System.out.println("You found resources on " + planet.getName() + "! +10 fuel, +10 minerals.");
+                    if (inventory != null) {
+                        for (Map.Entry<ResourceType, Integer> grant : event.getGrants().entrySet()) {
+                            inventory.addResource(grant.getKey(), grant.getValue());
+                        }
+                    }
                 }
-                case 2 -> {
+                case HEAL -> {
                     // Safe Zone Healing
-                    System.out.println("Safe zone detected! Your ships regain +20 HP.");
-                    playerShip.takeDamage(-20); // Heals the ship
+                    CombatSystem.withShipsLocked(playerShip, playerShip, () -> {
+                        playerShip.takeDamage(-event.getHeal()); // Heals the ship
+                        return null;
+                    });
                 }
             }
-
         } finally {
-            lock.unlock();
+            playerLock.unlock();
         }
+        if (event.getKind() != ExplorationEvent.Kind.ENEMY) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Create an AI enemy ship and fight it without holding any exploration lock
+        GalacticShip enemyShip = event.newEnemy();
+        return CompletableFuture.supplyAsync(() -> combatSystem.engageCombat(playerShip, enemyShip), combatExecutor)
+                .thenApply(log -> playerShip.isDestroyed() ? playerShip : null);
     }
-}
\ No newline at end of file
+}
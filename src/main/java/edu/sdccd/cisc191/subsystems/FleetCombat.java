@@ -0,0 +1,161 @@
+package edu.sdccd.cisc191.subsystems;
+
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.game.GalacticShip.CombatAbility;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * A battle between two whole fleets.
+ * <p>
+ * The ships are copied into flat {@code int[]} columns (health, attack, repair) with their
+ * abilities folded into a bitmask, and the rounds run on those columns alone: no getters, no
+ * objects, nothing allocated, so a battle of hundreds of ships a side is a few tight loops over
+ * arrays. The final health of every ship is written back to its {@link GalacticShip} at the end.
+ * <p>
+ * Each round both fleets fire at once. A fleet's volley is the attack power of all its living
+ * ships plus one damage roll for the whole volley, and lands on the enemy front to back: each
+ * ship soaks up damage until it is destroyed and the rest carries on to the next. Abilities
+ * are worked in as follows:
+ * <ul>
+ *     <li>{@link CombatAbility#LASER_CANNON} and {@link CombatAbility#MISSILE_LAUNCHER} add
+ *     {@value CombatEffects#LASER_BONUS} and {@value CombatEffects#MISSILE_BONUS} attack</li>
+ *     <li>{@link CombatAbility#SHIELD_GENERATOR} turns away a quarter of the damage a ship takes</li>
+ *     <li>{@link CombatAbility#CLOAKING_DEVICE} ships are fired on only after the rest of their fleet</li>
+ *     <li>{@link CombatAbility#REPAIR_DRONES} restore {@value CombatEffects#REPAIR_PER_ROUND} health a round,
+ *     up to what the ship started with</li>
+ * </ul>
+ * A battle changes its ships, so the caller must keep other threads away from both fleets while
+ * it runs, as the simulation tick does.
+ */
+public class FleetCombat {
+    private final Side attackers;
+    private final Side defenders;
+
+    /**
+     * @param attackers the fleet that started the battle
+     * @param defenders the fleet it attacked
+     */
+    public FleetCombat(List<GalacticShip> attackers, List<GalacticShip> defenders) {
+        this.attackers = new Side(attackers);
+        this.defenders = new Side(defenders);
+    }
+
+    /**
+     * Fights until one fleet is destroyed or {@link CombatSystem#MAX_ROUNDS} have passed, then
+     * writes every ship's health back.
+     *
+     * @param random source of the volley damage rolls
+     * @return how the battle went
+     */
+    public FleetCombatResult resolve(RandomGenerator random) {
+        int rounds = 0;
+        long dealt = 0;
+        long taken = 0;
+        while (attackers.living > 0 && defenders.living > 0 && rounds < CombatSystem.MAX_ROUNDS) {
+            rounds++;
+            int volley = attackers.firepower() + random.nextInt(CombatSystem.DAMAGE_VARIATION * attackers.living);
+            int reply = defenders.firepower() + random.nextInt(CombatSystem.DAMAGE_VARIATION * defenders.living);
+            dealt += Math.max(0, volley);
+            taken += Math.max(0, reply);
+            defenders.absorb(volley);
+            attackers.absorb(reply);
+            attackers.repair();
+            defenders.repair();
+        }
+        attackers.writeBack();
+        defenders.writeBack();
+        return new FleetCombatResult(rounds, attackers.living, defenders.living, dealt, taken);
+    }
+
+    /** One fleet as columns, in the order it is fired on. */
+    private static class Side {
+        private final GalacticShip[] ships;
+        private final int[] health;
+        private final int[] maxHealth;
+        private final int[] attack;
+        private final int[] repair;
+        private final int[] abilities;
+        /** Ships left flying. */
+        private int living;
+        /** Every ship before this one is destroyed. */
+        private int front;
+
+        Side(List<GalacticShip> fleet) {
+            int size = fleet.size();
+            ships = new GalacticShip[size];
+            health = new int[size];
+            maxHealth = new int[size];
+            attack = new int[size];
+            repair = new int[size];
+            abilities = new int[size];
+            // visible ships first, cloaked ships behind them
+            int next = 0;
+            for (int pass = 0; pass < 2; pass++) {
+                for (GalacticShip ship : fleet) {
+                    int mask = ship.getAbilityMask();
+                    boolean cloaked = (mask & CombatEffects.CLOAK) != 0;
+                    if (cloaked == (pass == 1)) {
+                        load(next++, ship, mask);
+                    }
+                }
+            }
+        }
+
+        private void load(int i, GalacticShip ship, int mask) {
+            ships[i] = ship;
+            health[i] = ship.getHealth();
+            maxHealth[i] = health[i];
+            attack[i] = CombatEffects.attackPower(mask, ship.getAttackPower());
+            repair[i] = CombatEffects.repairPerRound(mask);
+            abilities[i] = mask;
+            if (health[i] > 0) {
+                living++;
+            }
+        }
+
+        int firepower() {
+            int total = 0;
+            for (int i = front; i < health.length; i++) {
+                total += health[i] > 0 ? attack[i] : 0;
+            }
+            return total;
+        }
+
+        void absorb(int damage) {
+            for (int i = front; i < health.length && damage > 0; i++) {
+                int hp = health[i];
+                if (hp <= 0) {
+                    continue;
+                }
+                int landed = CombatEffects.shield(abilities[i], damage);
+                if (landed < hp) {
+                    health[i] = hp - landed;
+                    break;
+                }
+                health[i] = 0;
+                living--;
+                // what it took to bring this ship down; the rest goes on to the next one
+                damage -= CombatEffects.toDestroy(abilities[i], hp);
+            }
+            while (front < health.length && health[front] <= 0) {
+                front++;
+            }
+        }
+
+        void repair() {
+            for (int i = front; i < health.length; i++) {
+                if (health[i] > 0) {
+                    health[i] = Math.min(maxHealth[i], health[i] + repair[i]);
+                }
+            }
+        }
+
+        void writeBack() {
+            for (int i = 0; i < ships.length; i++) {
+                ships[i].takeDamage(ships[i].getHealth() - health[i]);
+            }
+        }
+    }
+}
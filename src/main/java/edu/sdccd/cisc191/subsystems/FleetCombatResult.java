@@ -0,0 +1,67 @@
+package edu.sdccd.cisc191.subsystems;
+
+/**
+ * How a {@link FleetCombat} ended. The ships themselves already carry their final health.
+ */
+public class FleetCombatResult {
+    private final int rounds;
+    private final int attackersLeft;
+    private final int defendersLeft;
+    private final long damageDealt;
+    private final long damageTaken;
+
+    /**
+     * @param rounds rounds fought
+     * @param attackersLeft attacking ships still flying
+     * @param defendersLeft defending ships still flying
+     * @param damageDealt total damage the attacking fleet fired, before shields
+     * @param damageTaken total damage the defending fleet fired back, before shields
+     */
+    public FleetCombatResult(int rounds, int attackersLeft, int defendersLeft, long damageDealt, long damageTaken) {
+        this.rounds = rounds;
+        this.attackersLeft = attackersLeft;
+        this.defendersLeft = defendersLeft;
+        this.damageDealt = damageDealt;
+        this.damageTaken = damageTaken;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public int getAttackersLeft() {
+        return attackersLeft;
+    }
+
+    public int getDefendersLeft() {
+        return defendersLeft;
+    }
+
+    public long getDamageDealt() {
+        return damageDealt;
+    }
+
+    public long getDamageTaken() {
+        return damageTaken;
+    }
+
+    /**
+     * @return true if the attackers destroyed the whole defending fleet and have ships left
+     */
+    public boolean isAttackerVictory() {
+        return defendersLeft == 0 && attackersLeft > 0;
+    }
+
+    /**
+     * @return true if the defenders destroyed the whole attacking fleet and have ships left
+     */
+    public boolean isDefenderVictory() {
+        return attackersLeft == 0 && defendersLeft > 0;
+    }
+
+    @Override
+    public String toString() {
+        String outcome = isAttackerVictory() ? "attackers win" : isDefenderVictory() ? "defenders win" : "no winner";
+        return outcome + " after " + rounds + " rounds, " + attackersLeft + " vs. " + defendersLeft + " ships left";
+    }
+}
@@ -14,7 +14,10 @@ public class ResourceManagement {
         lock.lock();
         try {
             int collectedAmount = (int) (Math.random() * 10 + 5); // Random between 5-15
-            inventory.addResource(resourceName, collectedAmount);
+            if (!inventory.addResource(resourceName, collectedAmount)) {
+                System.out.println("There is no " + resourceName + " to gather here.");
+                return;
+            }
             System.out.println(player.getName() + " collcted " + collectedAmount + " " + resourceName + "!");
         } finally {
             lock.unlock();
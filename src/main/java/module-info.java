@@ -1,8 +1,10 @@
 module module_name {
     requires javafx.controls;
     requires javafx.graphics;
+    requires java.management;
     requires jetty;
     requires opencsv;
 
     exports edu.sdccd.cisc191.game;
+    exports edu.sdccd.cisc191.network to java.management;
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.subsystems.BatchCombatResolver;
+import edu.sdccd.cisc191.subsystems.CombatResult;
+import edu.sdccd.cisc191.subsystems.CombatSystem;
+import edu.sdccd.cisc191.subsystems.Engagement;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchCombatResolverTest {
+
+    private static List<Engagement> battles(int count) {
+        List<Engagement> battles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            battles.add(new Engagement(new GalacticShip("Fighter-" + i, 100, 20 + i % 7),
+                    new GalacticShip("Raider-" + i, 120, 18 + i % 5)));
+        }
+        return battles;
+    }
+
+    @Test
+    void testThousandsOfBattlesResolveInParallel() {
+        List<Engagement> battles = battles(10_000);
+        List<CombatResult> results = new BatchCombatResolver().resolveAll(battles, 42);
+        assertEquals(battles.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            CombatResult result = results.get(i);
+            assertSame(battles.get(i).getAttacker(), result.getAttacker(), "Results come back in batch order");
+            assertNotNull(result.getWinner(), "Ships that can hurt each other always finish");
+            assertTrue(result.getAttacker().isDestroyed() != result.getDefender().isDestroyed());
+            assertEquals(120 - result.getDefender().getHealth(), Math.min(120, result.getDamageDealt()));
+        }
+    }
+
+    @Test
+    void testSameSeedSameResultsWhateverThePool() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool wide = new ForkJoinPool(4);
+        try {
+            List<CombatResult> first = new BatchCombatResolver(single).resolveAll(battles(2000), 7);
+            List<CombatResult> second = new BatchCombatResolver(wide).resolveAll(battles(2000), 7);
+            for (int i = 0; i < first.size(); i++) {
+                assertEquals(first.get(i).toString(), second.get(i).toString());
+                assertEquals(first.get(i).getDamageDealt(), second.get(i).getDamageDealt());
+                assertEquals(first.get(i).getDamageTaken(), second.get(i).getDamageTaken());
+            }
+        } finally {
+            single.shutdown();
+            wide.shutdown();
+        }
+    }
+
+    @Test
+    void testBattlesNoLongerWaitForEachOther() throws InterruptedException {
+        CombatSystem combatSystem = new CombatSystem();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        long start = System.nanoTime();
+        for (int i = 0; i < 8; i++) {
+            executor.submit(() -> combatSystem.engageCombat(new GalacticShip("Enterprise", 100, 20),
+                    new GalacticShip("Klingon Raider", 80, 18)));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(900),
+                "Eight battles used to take eight seconds");
+    }
+
+    @Test
+    void testStalemateIsCalledOff() {
+        GalacticShip healer = new GalacticShip("Healer", 50, -10);
+        GalacticShip mender = new GalacticShip("Mender", 50, -10);
+        CombatResult result = new BatchCombatResolver().resolveAll(List.of(new Engagement(healer, mender)), 1).get(0);
+        assertNull(result.getWinner());
+        assertEquals(CombatSystem.MAX_ROUNDS, result.getRounds());
+    }
+}
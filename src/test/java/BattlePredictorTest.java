@@ -0,0 +1,111 @@
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.subsystems.BattlePrediction;
+import edu.sdccd.cisc191.subsystems.BattlePredictor;
+import edu.sdccd.cisc191.subsystems.CombatResult;
+import edu.sdccd.cisc191.subsystems.CombatSystem;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BattlePredictorTest {
+
+    @Test
+    void testExactDuelMatchesFoughtBattles() {
+        BattlePrediction prediction = new BattlePredictor().predict(new GalacticShip("Enterprise", 100, 20),
+                new GalacticShip("Klingon Raider", 100, 21));
+        assertTrue(prediction.isExact());
+        assertEquals(1.0, prediction.getAttackerWinProbability() + prediction.getDefenderWinProbability(), 1e-9);
+
+        int battles = 20_000;
+        int wins = 0;
+        long attackerHealth = 0;
+        long defenderHealth = 0;
+        for (int seed = 0; seed < battles; seed++) {
+            GalacticShip attacker = new GalacticShip("Enterprise", 100, 20);
+            GalacticShip defender = new GalacticShip("Klingon Raider", 100, 21);
+            CombatResult result = CombatSystem.fight(attacker, defender, seed);
+            wins += result.getWinner() == attacker ? 1 : 0;
+            attackerHealth += attacker.getHealth();
+            defenderHealth += defender.getHealth();
+        }
+        assertEquals(prediction.getAttackerWinProbability(), wins / (double) battles, 0.015, prediction.toString());
+        assertEquals(prediction.getExpectedAttackerHealth(), attackerHealth / (double) battles, 1.0);
+        assertEquals(prediction.getExpectedDefenderHealth(), defenderHealth / (double) battles, 1.0);
+    }
+
+    @Test
+    void testCertainOutcomes() {
+        BattlePredictor predictor = new BattlePredictor();
+        BattlePrediction hammer = predictor.predict(new GalacticShip("Hammer", 100, 200), new GalacticShip("Nail", 50, 1));
+        assertEquals(1.0, hammer.getAttackerWinProbability(), 1e-12);
+        assertEquals(100, hammer.getExpectedAttackerHealth(), 1e-9, "The nail never gets to reply");
+
+        // healing ships cannot be worked out exactly and never finish
+        BattlePrediction stalemate = predictor.predict(new GalacticShip("Healer", 50, -10), new GalacticShip("Mender", 50, -10));
+        assertFalse(stalemate.isExact());
+        assertEquals(1.0, stalemate.getDrawProbability(), 1e-12);
+        assertEquals(0.0, stalemate.getLowerBound(), 1e-12);
+        assertTrue(stalemate.getUpperBound() > 0 && stalemate.getUpperBound() < 4.0 / stalemate.getSimulations(),
+                "Wilson's bound for no wins in n is about z^2/n");
+    }
+
+    @Test
+    void testFleetsAreSimulatedWithinBudget() {
+        List<GalacticShip> strong = new ArrayList<>();
+        List<GalacticShip> weak = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            strong.add(new GalacticShip("Cruiser-" + i, 200, 40));
+            weak.add(new GalacticShip("Fighter-" + i, 100, 20));
+        }
+        BattlePredictor predictor = new BattlePredictor();
+        long start = System.nanoTime();
+        BattlePrediction prediction = predictor.predict(strong, weak, Duration.ofMillis(100), 1_000_000);
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos(), "The budget bounds the work");
+        assertFalse(prediction.isExact());
+        assertTrue(prediction.getSimulations() > 0);
+        assertTrue(prediction.getLowerBound() > 0.99, prediction.toString());
+        assertTrue(prediction.getLowerBound() <= prediction.getAttackerWinProbability());
+        assertTrue(prediction.getUpperBound() >= prediction.getAttackerWinProbability());
+        assertEquals(0, prediction.getExpectedDefenderHealth(), 1e-9);
+        assertTrue(strong.stream().allMatch(ship -> ship.getHealth() == 200), "The real ships are left alone");
+
+        List<GalacticShip> even = List.of(new GalacticShip("A", 100, 20), new GalacticShip("B", 100, 20));
+        List<GalacticShip> mirror = List.of(new GalacticShip("C", 100, 20), new GalacticShip("D", 100, 20));
+        BattlePrediction close = predictor.predict(even, mirror, Duration.ofMillis(20), 50_000);
+        assertTrue(close.getLowerBound() < close.getUpperBound());
+        double halfWidth = 1.96 * Math.sqrt(0.25 / close.getSimulations());
+        assertTrue(close.getUpperBound() - close.getLowerBound() <= 2 * halfWidth + 1e-9, close.toString());
+    }
+
+    @Test
+    void testSeenMatchupsComeFromTheCache() {
+        BattlePredictor predictor = new BattlePredictor();
+        List<GalacticShip> attackers = List.of(new GalacticShip("A", 100, 20));
+        List<GalacticShip> defenders = List.of(new GalacticShip("B", 90, 20));
+        BattlePrediction first = predictor.predict(attackers, defenders, Duration.ofMillis(20), 10_000);
+        BattlePrediction again = predictor.predict(List.of(new GalacticShip("Other name", 100, 20)),
+                List.of(new GalacticShip("B", 90, 20)), Duration.ofMillis(20), 10_000);
+        assertSame(first, again, "Same stats, same matchup");
+        assertSame(predictor.predict(new GalacticShip("A", 100, 20), new GalacticShip("B", 90, 20)),
+                predictor.predict(new GalacticShip("X", 100, 20), new GalacticShip("Y", 90, 20)));
+        assertEquals(2, predictor.getCacheSize(), "Duels and one-ship fleets are fought differently");
+    }
+
+    @Test
+    void testQuickEstimateIsNotServedToLargerRequests() {
+        BattlePredictor predictor = new BattlePredictor();
+        List<GalacticShip> attackers = List.of(new GalacticShip("A", 100, 20));
+        List<GalacticShip> defenders = List.of(new GalacticShip("B", 90, 20));
+        BattlePrediction quick = predictor.predict(attackers, defenders, Duration.ofMillis(1), 10);
+        BattlePrediction thorough = predictor.predict(attackers, defenders, Duration.ofSeconds(5), 20_000);
+        assertNotSame(quick, thorough, "A one-wave estimate does not answer a larger request");
+        assertTrue(thorough.getSimulations() >= 20_000, thorough.toString());
+        assertSame(thorough, predictor.predict(attackers, defenders, Duration.ofMillis(1), 10),
+                "The larger run replaces the quick one");
+        assertSame(thorough, predictor.predict(attackers, defenders, Duration.ofSeconds(5), 20_000));
+    }
+}
@@ -0,0 +1,80 @@
+import edu.sdccd.cisc191.network.BinaryCodec;
+import edu.sdccd.cisc191.network.GameMessage;
+import edu.sdccd.cisc191.network.InboundDecoder;
+import edu.sdccd.cisc191.network.Opcode;
+import edu.sdccd.cisc191.network.WireProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryProtocolTest {
+
+    @Test
+    void testFrameRoundTrip() throws ProtocolException {
+        GameMessage result = GameMessage.of(Opcode.COMBAT_RESULT, "Enterprise", "Alien Raider", 24, 76, -3);
+        byte[] frame = BinaryCodec.encodeFrame(result);
+
+        int[] header = BinaryCodec.readFrameHeader(frame, 0, frame.length);
+        assertNotNull(header);
+        assertEquals(frame.length, header[0] + header[1], "Length prefix should cover the whole body");
+        assertEquals(result, BinaryCodec.decodeBody(frame, header[0], header[1]));
+    }
+
+    @Test
+    void testVariableLengthDeltaRoundTrip() throws ProtocolException {
+        GameMessage delta = GameMessage.of(Opcode.DELTA, "kirk", 12, 0b101, 4, 90);
+        byte[] frame = BinaryCodec.encodeFrame(delta);
+        int[] header = BinaryCodec.readFrameHeader(frame, 0, frame.length);
+        assertEquals(delta, BinaryCodec.decodeBody(frame, header[0], header[1]));
+        assertEquals(delta, GameMessage.fromText(delta.toText()));
+    }
+
+    @Test
+    void testMoveFrameIsSmallerThanText() {
+        GameMessage move = GameMessage.of(Opcode.MOVE, "kirk", 2, 3);
+        assertTrue(BinaryCodec.encodeFrame(move).length < move.toText().length() + 1,
+                "Binary move should be smaller than its text line");
+    }
+
+    @Test
+    void testTextParsing() {
+        assertEquals(GameMessage.of(Opcode.MOVE, "kirk", 2, 3), GameMessage.fromText("/move kirk 2 3"));
+        assertEquals(Opcode.CHAT, GameMessage.fromText("hello there").getOpcode(), "Plain lines stay chat");
+        assertEquals(Opcode.CHAT, GameMessage.fromText("/move kirk north 3").getOpcode(),
+                "Lines that do not match the layout fall back to chat");
+        assertEquals("[1.2.3.4:5]: hi", GameMessage.chat("1.2.3.4:5", "hi").toText());
+    }
+
+    @Test
+    void testDecoderSwitchesToBinaryMidBuffer() throws ProtocolException {
+        List<GameMessage> received = new ArrayList<>();
+        InboundDecoder decoder = new InboundDecoder(received::add);
+
+        byte[] hello = "/hello binary\n".getBytes(StandardCharsets.UTF_8);
+        byte[] frame = BinaryCodec.encodeFrame(GameMessage.of(Opcode.BUILD, "kirk", "Cruiser"));
+        byte[] input = new byte[hello.length + frame.length];
+        System.arraycopy(hello, 0, input, 0, hello.length);
+        System.arraycopy(frame, 0, input, hello.length, frame.length);
+
+        // split the frame across two reads
+        decoder.feed(input, 0, input.length - 2);
+        assertEquals(1, received.size());
+        assertEquals(WireProtocol.BINARY, decoder.getProtocol());
+        decoder.feed(input, input.length - 2, 2);
+
+        assertEquals(2, received.size());
+        assertEquals(GameMessage.of(Opcode.BUILD, "kirk", "Cruiser"), received.get(1));
+    }
+
+    @Test
+    void testDecoderRejectsOversizedFrame() {
+        InboundDecoder decoder = new InboundDecoder(message -> { });
+        byte[] input = "/hello binary\nÿÿÿ\u007f".getBytes(StandardCharsets.ISO_8859_1);
+        assertThrows(ProtocolException.class, () -> decoder.feed(input, 0, input.length));
+    }
+}
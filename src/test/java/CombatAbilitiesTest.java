@@ -0,0 +1,106 @@
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.game.GalacticShip.CombatAbility;
+import edu.sdccd.cisc191.subsystems.BattlePrediction;
+import edu.sdccd.cisc191.subsystems.BattlePredictor;
+import edu.sdccd.cisc191.subsystems.CombatLog;
+import edu.sdccd.cisc191.subsystems.CombatResult;
+import edu.sdccd.cisc191.subsystems.CombatSystem;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CombatAbilitiesTest {
+
+    private static GalacticShip ship(String name, int health, int attack, CombatAbility... abilities) {
+        GalacticShip ship = new GalacticShip(name, health, attack);
+        for (CombatAbility ability : abilities) {
+            ship.addCombatAbility(ability);
+        }
+        return ship;
+    }
+
+    @Test
+    void testAbilitiesAreABitmask() throws Exception {
+        GalacticShip ship = ship("Defiant", 100, 20, CombatAbility.REPAIR_DRONES, CombatAbility.LASER_CANNON);
+        assertEquals(CombatAbility.LASER_CANNON.bit() | CombatAbility.REPAIR_DRONES.bit(), ship.getAbilityMask());
+        assertEquals(List.of(CombatAbility.LASER_CANNON, CombatAbility.REPAIR_DRONES), ship.getCombatAbilities());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(ship);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            GalacticShip loaded = (GalacticShip) in.readObject();
+            assertEquals(ship.getAbilityMask(), loaded.getAbilityMask(), "Saved fleets keep their abilities");
+            assertEquals("Defiant", loaded.getName());
+            assertEquals(20, loaded.getAttackPower());
+        }
+    }
+
+    @Test
+    void testShieldsTurnAwayAQuarter() {
+        CombatLog plain = CombatSystem.fight(ship("Gunner", 10_000, 100), ship("Hull", 10_000, 0), 11).getLog();
+        CombatLog shielded = CombatSystem.fight(ship("Gunner", 10_000, 100),
+                ship("Hull", 10_000, 0, CombatAbility.SHIELD_GENERATOR), 11).getLog();
+        int[] open = plain.getStrikes();
+        int[] guarded = shielded.getStrikes();
+        for (int i = 0; i < 10; i += 2) {
+            assertEquals(open[i] - open[i] / 4, guarded[i], "Same rolls, a quarter turned away");
+        }
+    }
+
+    @Test
+    void testWeaponsDronesAndCloaking() {
+        CombatLog armed = CombatSystem.fight(ship("Striker", 1000, 20, CombatAbility.LASER_CANNON, CombatAbility.MISSILE_LAUNCHER),
+                ship("Target", 100_000, 0), 4).getLog();
+        assertTrue(Arrays.stream(armed.getStrikes()).filter(d -> d >= 35).count() >= armed.getStrikeCount() / 2,
+                "Every attacker strike carries both bonuses");
+
+        GalacticShip mender = ship("Mender", 100, 0, CombatAbility.REPAIR_DRONES);
+        CombatResult repaired = CombatSystem.fight(ship("Pest", 100, 1), mender, 2);
+        assertSame(mender, repaired.getWinner());
+        assertEquals(100, mender.getHealth(), "Drones repair faster than 1-5 damage a round");
+
+        CombatLog cloaked = CombatSystem.fight(ship("Hunter", 1_000_000, 50),
+                ship("Ghost", 1_000_000, 0, CombatAbility.CLOAKING_DEVICE), 6).getLog();
+        int[] strikes = cloaked.getStrikes();
+        int evaded = 0;
+        for (int i = 0; i < strikes.length; i += 2) {
+            evaded += strikes[i] == 0 ? 1 : 0;
+        }
+        assertTrue(evaded > 120 && evaded < 280, "About one strike in five misses: " + evaded);
+        assertTrue(cloaked.verify(), "Abilities replay too");
+        assertTrue(CombatLog.fromBytes(cloaked.toBytes()).verify());
+    }
+
+    @Test
+    void testPredictionsAccountForAbilities() {
+        BattlePredictor predictor = new BattlePredictor();
+        BattlePrediction bare = predictor.predict(ship("A", 100, 20), ship("B", 100, 20));
+        BattlePrediction shielded = predictor.predict(ship("A", 100, 20), ship("B", 100, 20, CombatAbility.SHIELD_GENERATOR));
+        assertTrue(shielded.isExact());
+        assertTrue(shielded.getAttackerWinProbability() < bare.getAttackerWinProbability());
+
+        int wins = 0;
+        int battles = 20_000;
+        for (int seed = 0; seed < battles; seed++) {
+            GalacticShip attacker = ship("A", 100, 20);
+            CombatResult result = CombatSystem.fight(attacker, ship("B", 100, 15, CombatAbility.CLOAKING_DEVICE), seed);
+            wins += result.getWinner() == attacker ? 1 : 0;
+        }
+        BattlePrediction ghost = predictor.predict(ship("A", 100, 20), ship("B", 100, 15, CombatAbility.CLOAKING_DEVICE));
+        assertTrue(ghost.isExact());
+        assertEquals(ghost.getAttackerWinProbability(), wins / (double) battles, 0.015, ghost.toString());
+
+        BattlePrediction drones = predictor.predict(ship("A", 100, 20), ship("B", 100, 20, CombatAbility.REPAIR_DRONES));
+        assertFalse(drones.isExact(), "Repairs are simulated");
+        assertTrue(drones.getAttackerWinProbability() < bare.getAttackerWinProbability());
+    }
+}
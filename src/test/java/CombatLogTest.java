@@ -0,0 +1,89 @@
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.subsystems.BatchCombatResolver;
+import edu.sdccd.cisc191.subsystems.CombatLog;
+import edu.sdccd.cisc191.subsystems.CombatResult;
+import edu.sdccd.cisc191.subsystems.CombatSystem;
+import edu.sdccd.cisc191.subsystems.Engagement;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CombatLogTest {
+
+    @Test
+    void testSameSeedSameBattle() {
+        CombatResult first = CombatSystem.fight(new GalacticShip("Enterprise", 100, 20),
+                new GalacticShip("Klingon Raider", 80, 18), 1234);
+        CombatResult second = CombatSystem.fight(new GalacticShip("Enterprise", 100, 20),
+                new GalacticShip("Klingon Raider", 80, 18), 1234);
+        assertArrayEquals(first.getLog().getStrikes(), second.getLog().getStrikes());
+        assertEquals(first.toString(), second.toString());
+
+        CombatLog a = new CombatSystem(99).engageCombat(new GalacticShip("A", 100, 20), new GalacticShip("B", 100, 20));
+        CombatLog b = new CombatSystem(99).engageCombat(new GalacticShip("A", 100, 20), new GalacticShip("B", 100, 20));
+        assertEquals(a.getSeed(), b.getSeed());
+        assertEquals(a.lines(), b.lines());
+    }
+
+    @Test
+    void testReplayMatchesTheRecordedBattle() {
+        GalacticShip attacker = new GalacticShip("Enterprise", 100, 20);
+        GalacticShip defender = new GalacticShip("Klingon Raider", 80, 18);
+        CombatResult result = CombatSystem.fight(attacker, defender, 77);
+        CombatLog log = result.getLog();
+
+        int[] strikes = log.getStrikes();
+        assertEquals(result.getDamageDealt() + result.getDamageTaken(), Arrays.stream(strikes).sum());
+        assertTrue(log.verify(), "The seed and starting ships reproduce every strike");
+
+        CombatResult replayed = log.replay();
+        assertEquals(result.toString(), replayed.toString());
+        assertEquals(defender.getHealth(), replayed.getDefender().getHealth());
+        assertEquals(100, attacker.getHealth() + result.getDamageTaken(), "Replaying leaves the real ships alone");
+    }
+
+    @Test
+    void testBytesRoundTripCompactly() {
+        CombatLog log = CombatSystem.fight(new GalacticShip("Enterprise", 100, 20),
+                new GalacticShip("Klingon Raider", 80, 18), 5).getLog();
+        byte[] bytes = log.toBytes();
+        assertTrue(bytes.length < 64, "Seed, names, stats and a byte per strike: " + bytes.length);
+
+        CombatLog read = CombatLog.fromBytes(bytes);
+        assertEquals(log.getSeed(), read.getSeed());
+        assertArrayEquals(log.getStrikes(), read.getStrikes());
+        assertEquals(log.lines(), read.lines());
+        assertTrue(read.verify());
+
+        byte[] tampered = bytes.clone();
+        tampered[tampered.length - 1]++;
+        assertFalse(CombatLog.fromBytes(tampered).verify(), "An edited strike no longer matches the seed");
+        assertThrows(IllegalArgumentException.class, () -> CombatLog.fromBytes(Arrays.copyOf(bytes, 12)));
+    }
+
+    @Test
+    void testTextIsBuiltFromTheStrikes() {
+        CombatLog log = CombatSystem.fight(new GalacticShip("Hammer", 100, 200),
+                new GalacticShip("Nail", 50, 1), 3).getLog();
+        assertEquals(1, log.getStrikeCount());
+        List<String> lines = log.lines();
+        assertEquals("Combat Started: Hammer vs. Nail", lines.get(0));
+        assertTrue(lines.get(1).startsWith("Hammer attacks! Nail takes 20"));
+        assertEquals("Nail has been destroyed!", lines.get(2));
+        assertEquals(3, lines.size());
+    }
+
+    @Test
+    void testBatchResultsReplayOnTheirOwn() {
+        List<CombatResult> results = new BatchCombatResolver().resolveAll(List.of(
+                new Engagement(new GalacticShip("Healer", 50, -10), new GalacticShip("Mender", 50, -10)),
+                new Engagement(new GalacticShip("Fighter", 100, 25), new GalacticShip("Raider", 120, 18))), 8);
+        for (CombatResult result : results) {
+            assertTrue(result.getLog().verify());
+            assertEquals(result.toString(), result.getLog().replay().toString());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import edu.sdccd.cisc191.network.BinaryCodec;
+import edu.sdccd.cisc191.network.FrameCompressor;
+import edu.sdccd.cisc191.network.GameMessage;
+import edu.sdccd.cisc191.network.InboundDecoder;
+import edu.sdccd.cisc191.network.MultiplayerClient;
+import edu.sdccd.cisc191.network.NioServer;
+import edu.sdccd.cisc191.network.Opcode;
+import edu.sdccd.cisc191.network.OutboundMessage;
+import edu.sdccd.cisc191.network.ServerConfig;
+import edu.sdccd.cisc191.network.WireProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionTest {
+
+    private static GameMessage await(BlockingQueue<GameMessage> inbox, Predicate<GameMessage> match) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            GameMessage message = inbox.poll(20, TimeUnit.MILLISECONDS);
+            if (message != null && match.test(message)) {
+                return message;
+            }
+        }
+        return null;
+    }
+
+    /** Feeds encoded frames to a decoder that has already switched to binary. */
+    private static List<GameMessage> decodeBinary(ByteBuffer... frames) throws ProtocolException {
+        List<GameMessage> received = new ArrayList<>();
+        InboundDecoder decoder = new InboundDecoder(received::add);
+        byte[] hello = "/hello compressed\n".getBytes(StandardCharsets.UTF_8);
+        decoder.feed(hello, 0, hello.length);
+        for (ByteBuffer frame : frames) {
+            decoder.feed(frame);
+        }
+        return received.subList(1, received.size());
+    }
+
+    @Test
+    void testLargeFrameShrinksAndRoundTrips() throws ProtocolException {
+        String fleet = "Battleship:300:60;Cruiser:200:40;Fighter:100:20;".repeat(20);
+        GameMessage message = GameMessage.of(Opcode.NOTICE, "Fleet of kirk: " + fleet);
+        OutboundMessage outbound = OutboundMessage.of(message);
+
+        ByteBuffer compressed = outbound.payload(WireProtocol.COMPRESSED);
+        assertTrue(compressed.remaining() < BinaryCodec.encodeFrame(message).length / 4,
+                "Repetitive text should compress well, got " + compressed.remaining() + " bytes");
+        assertEquals(List.of(message), decodeBinary(compressed));
+    }
+
+    @Test
+    void testSmallFramesAreSentAsTheyAre() throws ProtocolException {
+        GameMessage move = GameMessage.of(Opcode.MOVE, "kirk", 2, 3);
+        OutboundMessage outbound = OutboundMessage.of(move);
+        assertEquals(outbound.payload(WireProtocol.BINARY), outbound.payload(WireProtocol.COMPRESSED),
+                "Frames under the threshold are plain binary frames");
+        assertEquals(List.of(move, move), decodeBinary(outbound.payload(WireProtocol.COMPRESSED),
+                OutboundMessage.of(move).payload(WireProtocol.BINARY)));
+    }
+
+    @Test
+    void testCorruptFrameIsRejected() {
+        ByteBuffer good = OutboundMessage.of("x".repeat(1000)).payload(WireProtocol.COMPRESSED);
+        byte[] frame = new byte[good.remaining()];
+        good.get(frame);
+        for (int i = frame.length - 4; i < frame.length; i++) {
+            frame[i] ^= 0x5A;
+        }
+        assertThrows(ProtocolException.class, () -> decodeBinary(ByteBuffer.wrap(frame)));
+
+        // a small body claiming to inflate past the frame limit
+        byte[] bomb = {5, (byte) 0xFF, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01};
+        assertThrows(ProtocolException.class, () -> decodeBinary(ByteBuffer.wrap(bomb)));
+    }
+
+    @Test
+    void testCompressedClientSeesTheSameChat() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setIoThreads(2);
+        NioServer server = new NioServer(config);
+        int port = server.bind();
+        Thread acceptor = new Thread(server::serve);
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        BlockingQueue<GameMessage> packed = new LinkedBlockingQueue<>();
+        BlockingQueue<GameMessage> plain = new LinkedBlockingQueue<>();
+        long before = FrameCompressor.getCompressedFrames();
+        try (MultiplayerClient compressed = MultiplayerClient.connect("localhost", port, WireProtocol.COMPRESSED, packed::add, null);
+             MultiplayerClient text = MultiplayerClient.connect("localhost", port, WireProtocol.TEXT, plain::add, null)) {
+            GameMessage hello = await(packed, m -> m.getOpcode() == Opcode.HELLO);
+            assertNotNull(hello);
+            assertEquals("compressed", hello.getString(0), "The server agrees to compress");
+
+            String report = "Saturn arrived at empty space. ".repeat(30);
+            text.chat(report);
+            GameMessage overText = await(plain, m -> m.getOpcode() == Opcode.CHAT && m.getString(1).endsWith(report));
+            GameMessage overCompressed = await(packed, m -> m.getOpcode() == Opcode.CHAT && m.getString(1).endsWith(report));
+            assertNotNull(overText);
+            assertNotNull(overCompressed);
+            // a text client parses the relayed line back as chat from nobody, so compare the lines
+            assertEquals(overText.getString(1), overCompressed.toText(), "Compression does not change what the client sees");
+            assertTrue(FrameCompressor.getCompressedFrames() > before);
+        } finally {
+            server.close();
+        }
+    }
+}
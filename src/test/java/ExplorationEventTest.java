@@ -0,0 +1,124 @@
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.game.Planet;
+import edu.sdccd.cisc191.game.Player;
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
+import edu.sdccd.cisc191.subsystems.AliasTable;
+import edu.sdccd.cisc191.subsystems.CombatSystem;
+import edu.sdccd.cisc191.subsystems.ExplorationEvent;
+import edu.sdccd.cisc191.subsystems.ExplorationEventTable;
+import edu.sdccd.cisc191.subsystems.ExplorationSystem;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExplorationEventTest {
+
+    @Test
+    void testAliasTableFollowsTheWeights() {
+        double[] weights = {1, 0, 3, 6};
+        AliasTable table = new AliasTable(weights);
+        int[] counts = new int[weights.length];
+        SplittableRandom random = new SplittableRandom(1);
+        int rolls = 100_000;
+        for (int i = 0; i < rolls; i++) {
+            counts[table.sample(random)]++;
+        }
+        assertEquals(0, counts[1], "A zero weight is never rolled");
+        assertEquals(0.1, counts[0] / (double) rolls, 0.01);
+        assertEquals(0.3, counts[2] / (double) rolls, 0.01);
+        assertEquals(0.6, counts[3] / (double) rolls, 0.01);
+
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, -1}));
+    }
+
+    @Test
+    void testShippedEventsHonourPlanetWeightsAndRarity() {
+        ExplorationEventTable events = ExplorationEventTable.loadDefault();
+        assertTrue(events.getEvents().size() >= 10);
+        ExplorationEvent guardian = events.getEvent("ancient_guardian");
+        assertEquals(ExplorationEvent.Rarity.LEGENDARY, guardian.getRarity());
+        assertEquals(500, guardian.newEnemy().getHealth());
+        assertTrue(guardian.newEnemy().hasCombatAbility(GalacticShip.CombatAbility.SHIELD_GENERATOR));
+        assertEquals(0.0, guardian.weightOn("Earth"), "Earth is safe from guardians");
+        assertTrue(guardian.weightOn("Andromeda") > guardian.weightOn("Mars"));
+
+        Map<String, Integer> earth = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < 20_000; i++) {
+            earth.merge(events.sample("Earth", random).getName(), 1, Integer::sum);
+        }
+        assertNull(earth.get("pirate_ambush"));
+        assertNull(earth.get("ancient_guardian"));
+        assertTrue(earth.get("repair_station") > earth.get("ore_belt"), "Earth's repair stations are common there");
+        assertTrue(earth.get("alien_raider") > earth.getOrDefault("precursor_vault", 0) * 10, "Legendary events are rare");
+    }
+
+    @Test
+    void testTablesAreOnlyRebuiltWhenWeightsChange() {
+        ExplorationEventTable events = ExplorationEventTable.loadDefault();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 1000; i++) {
+            events.sample("Mars", random);
+            events.sample("Neptune", random);
+        }
+        assertEquals(2, events.getTablesBuilt(), "One table per planet, however many rolls");
+
+        for (ExplorationEvent event : events.getEvents()) {
+            events.setWeight(event.getName(), "Mars", event.getName().equals("ore_belt") ? 1 : 0);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals("ore_belt", events.sample("Mars", random).getName());
+        }
+        assertEquals(3, events.getTablesBuilt());
+        assertTrue(events.getEvent("ore_belt").weightOn("Neptune") > 0, "Other planets keep their weights");
+
+        events.setWeight("ore_belt", "Mars", 0);
+        assertNull(events.sample("Mars", random), "Nothing can happen on Mars any more");
+        assertThrows(IllegalArgumentException.class, () -> events.setWeight("no_such_event", null, 1));
+    }
+
+    @Test
+    void testEventFileErrorsNameTheLine() {
+        String file = "Event,Kind,Rarity,Weight,Planet Weights,Payload,Message\n"
+                + "windfall,RESOURCE,COMMON,1,,Credits:5,Coins, lots of coins\n"
+                + "broken,ENEMY,EPIC,1,,Raider:10:1,Oops\n";
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> ExplorationEventTable.load(new StringReader(file)));
+        assertTrue(error.getMessage().contains("line 3"), error.getMessage());
+
+        String typo = "Event,Kind,Rarity,Weight,Planet Weights,Payload,Message\n"
+                + "windfall,RESOURCE,COMMON,1,,Credits:5,Coins\n"
+                + "\n"
+                + "spill,RESOURCE,COMMON,1,,Fuel:5;Dilithum:2,A leaky tanker\n";
+        error = assertThrows(IllegalArgumentException.class, () -> ExplorationEventTable.load(new StringReader(typo)));
+        assertTrue(error.getMessage().contains("line 4") && error.getMessage().contains("Dilithum"), error.getMessage());
+    }
+
+    @Test
+    void testEventsApplyTheirPayloads() throws Exception {
+        ExplorationEventTable events = ExplorationEventTable.load(new StringReader(
+                "Event,Kind,Rarity,Weight,Planet Weights,Payload,Message\n"
+                        + "windfall,RESOURCE,COMMON,1,Neptune=0,Credits:5;Energy:7,Coins, lots of coins on {planet}\n"
+                        + "dock,HEAL,COMMON,0,Neptune=1,30,Docked at {planet}\n"));
+        ExplorationSystem exploration = new ExplorationSystem(events, new CombatSystem(4), Runnable::run);
+        Player player = new Player("Quartermaster");
+        GalacticShip ship = new GalacticShip("Hauler", 50, 5);
+        player.addShip(ship);
+        PlayerInventory inventory = new PlayerInventory();
+        int credits = inventory.getResourceAmount("Credits");
+        assertEquals(Map.of(ResourceType.CREDITS, 5, ResourceType.ENERGY, 7), events.getEvent("windfall").getGrants());
+
+        exploration.explorePlanet(player, new Planet("Mars"), inventory);
+        assertEquals(credits + 5, inventory.getResourceAmount("Credits"));
+        exploration.explorePlanet(player, new Planet("Neptune"), inventory);
+        assertEquals(80, ship.getHealth());
+        assertEquals("Coins, lots of coins on Mars", events.getEvent("windfall").getMessage("Mars"));
+    }
+}
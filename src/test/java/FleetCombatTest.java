@@ -0,0 +1,116 @@
+import edu.sdccd.cisc191.game.GalacticShip;
+import edu.sdccd.cisc191.game.GalacticShip.CombatAbility;
+import edu.sdccd.cisc191.subsystems.FleetCombat;
+import edu.sdccd.cisc191.subsystems.FleetCombatResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetCombatTest {
+
+    private static List<GalacticShip> fleet(String name, int size, int health, int attack) {
+        List<GalacticShip> fleet = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            fleet.add(new GalacticShip(name + "-" + i, health, attack));
+        }
+        return fleet;
+    }
+
+    @Test
+    void testLargeBattleWritesHealthBack() {
+        List<GalacticShip> strong = fleet("Cruiser", 300, 200, 40);
+        List<GalacticShip> weak = fleet("Fighter", 300, 100, 20);
+        FleetCombatResult result = new FleetCombat(strong, weak).resolve(new SplittableRandom(1));
+
+        assertTrue(result.isAttackerVictory(), result.toString());
+        assertTrue(weak.stream().allMatch(GalacticShip::isDestroyed), "The losing fleet is wiped out");
+        long survivors = strong.stream().filter(ship -> !ship.isDestroyed()).count();
+        assertEquals(result.getAttackersLeft(), survivors, "Health is written back to the ships");
+        assertTrue(strong.stream().anyMatch(ship -> ship.getHealth() < 200), "The winners took damage too");
+    }
+
+    @Test
+    void testDamageCarriesFromShipToShip() {
+        List<GalacticShip> attackers = List.of(new GalacticShip("Battleship", 1000, 300));
+        List<GalacticShip> defenders = fleet("Fighter", 3, 100, 0);
+        FleetCombatResult result = new FleetCombat(attackers, defenders).resolve(new SplittableRandom(3));
+        assertEquals(1, result.getRounds(), "One volley is enough for all three");
+        assertTrue(result.isAttackerVictory());
+        assertTrue(attackers.get(0).getHealth() >= 1000 - 4, "Defenders with no attack only roll variation");
+    }
+
+    @Test
+    void testAbilitiesShapeTheBattle() {
+        GalacticShip cloaked = new GalacticShip("Shadow", 100, 0);
+        cloaked.addCombatAbility(CombatAbility.CLOAKING_DEVICE);
+        GalacticShip decoy = new GalacticShip("Decoy", 100, 0);
+        GalacticShip attacker = new GalacticShip("Hunter", 10_000, 100);
+        new FleetCombat(List.of(attacker), List.of(cloaked, decoy)).resolve(new SplittableRandom(5));
+        assertTrue(decoy.isDestroyed() && cloaked.isDestroyed());
+
+        // the sniper's only volley destroys the bait and spills onto the next visible ship
+        GalacticShip shadow = new GalacticShip("Shadow", 100, 0);
+        shadow.addCombatAbility(CombatAbility.CLOAKING_DEVICE);
+        GalacticShip bait = new GalacticShip("Bait", 100, 0);
+        GalacticShip escort = new GalacticShip("Escort", 1000, 200);
+        GalacticShip sniper = new GalacticShip("Sniper", 100, 100);
+        GalacticShip tank = new GalacticShip("Tank", 10_000, 0);
+        FleetCombatResult hidden = new FleetCombat(List.of(shadow, bait, escort), List.of(sniper, tank))
+                .resolve(new SplittableRandom(5));
+        assertTrue(hidden.isAttackerVictory(), hidden.toString());
+        assertTrue(bait.isDestroyed());
+        assertTrue(escort.getHealth() < 1000);
+        assertEquals(100, shadow.getHealth(), "The cloaked ship is fired on last, even though it was listed first");
+
+        // missiles make every volley 410-414; shields turn a quarter of that away
+        FleetCombatResult plain = new FleetCombat(List.of(gunner()), List.of(new GalacticShip("Hull", 1000, 0)))
+                .resolve(new SplittableRandom(9));
+        assertEquals(3, plain.getRounds());
+        GalacticShip shielded = new GalacticShip("Bulwark", 1000, 0);
+        shielded.addCombatAbility(CombatAbility.SHIELD_GENERATOR);
+        FleetCombatResult guarded = new FleetCombat(List.of(gunner()), List.of(shielded)).resolve(new SplittableRandom(9));
+        assertEquals(4, guarded.getRounds());
+
+        GalacticShip mender = new GalacticShip("Mender", 100, 0);
+        mender.addCombatAbility(CombatAbility.REPAIR_DRONES);
+        new FleetCombat(List.of(new GalacticShip("Pest", 100, 1)), List.of(mender)).resolve(new SplittableRandom(2));
+        assertEquals(100, mender.getHealth(), "Drones repair faster than 1-5 damage a round");
+    }
+
+    @Test
+    void testVolleyClearsShieldedRowExactly() {
+        RandomGenerator noVariation = () -> 0L;
+        // shields turn away a quarter, so a 4-health shielded ship takes exactly 5 to destroy
+        List<GalacticShip> row = fleet("Guard", 3, 4, 0);
+        row.forEach(ship -> ship.addCombatAbility(CombatAbility.SHIELD_GENERATOR));
+        List<GalacticShip> defenders = new ArrayList<>(row);
+        GalacticShip hull = new GalacticShip("Hull", 1, 0);
+        defenders.add(hull);
+        FleetCombatResult result = new FleetCombat(List.of(new GalacticShip("Gun", 100, 16)), defenders).resolve(noVariation);
+        assertEquals(1, result.getRounds(), "3 x 5 clears the row and the last point spills onto the hull");
+        assertTrue(result.isAttackerVictory());
+        assertTrue(hull.isDestroyed());
+
+        // 1 and 3 health take exactly 1 and 3, leaving 1 of a 5-point volley for the next ship
+        GalacticShip small = new GalacticShip("Small", 1, 0);
+        GalacticShip medium = new GalacticShip("Medium", 3, 0);
+        small.addCombatAbility(CombatAbility.SHIELD_GENERATOR);
+        medium.addCombatAbility(CombatAbility.SHIELD_GENERATOR);
+        GalacticShip last = new GalacticShip("Last", 1, 0);
+        FleetCombatResult spilled = new FleetCombat(List.of(new GalacticShip("Gun", 100, 5)), List.of(small, medium, last))
+                .resolve(noVariation);
+        assertEquals(1, spilled.getRounds(), spilled.toString());
+        assertTrue(small.isDestroyed() && medium.isDestroyed() && last.isDestroyed());
+    }
+
+    private static GalacticShip gunner() {
+        GalacticShip gunner = new GalacticShip("Gunner", 1000, 400);
+        gunner.addCombatAbility(CombatAbility.MISSILE_LAUNCHER);
+        return gunner;
+    }
+}
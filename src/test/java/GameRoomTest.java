@@ -0,0 +1,239 @@
+import edu.sdccd.cisc191.network.ClientConnection;
+import edu.sdccd.cisc191.network.GameMessage;
+import edu.sdccd.cisc191.network.GameRoom;
+import edu.sdccd.cisc191.network.MultiplayerClient;
+import edu.sdccd.cisc191.network.MultiplayerServer;
+import edu.sdccd.cisc191.network.NioServer;
+import edu.sdccd.cisc191.network.Opcode;
+import edu.sdccd.cisc191.network.OutboundMessage;
+import edu.sdccd.cisc191.network.PlayerData;
+import edu.sdccd.cisc191.network.PlayerField;
+import edu.sdccd.cisc191.network.RoomManager;
+import edu.sdccd.cisc191.network.ServerConfig;
+import edu.sdccd.cisc191.network.SessionManager;
+import edu.sdccd.cisc191.network.WireProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameRoomTest {
+
+    /** A connection that discards everything sent to it. */
+    private static ClientConnection idleConnection(String info) {
+        return new ClientConnection() {
+            @Override
+            public void send(OutboundMessage message) {
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public String getClientInfo() {
+                return info;
+            }
+
+            @Override
+            public int getQueueDepth() {
+                return 0;
+            }
+
+            @Override
+            public long getDroppedMessages() {
+                return 0;
+            }
+        };
+    }
+
+    private static GameMessage await(BlockingQueue<GameMessage> inbox, Predicate<GameMessage> match) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            GameMessage message = inbox.poll(20, TimeUnit.MILLISECONDS);
+            if (message != null && match.test(message)) {
+                return message;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void testChatStaysInsideItsRoom() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setIoThreads(2);
+        NioServer server = new NioServer(config);
+        int port = server.bind();
+        Thread acceptor = new Thread(server::serve);
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        BlockingQueue<GameMessage> first = new LinkedBlockingQueue<>();
+        BlockingQueue<GameMessage> second = new LinkedBlockingQueue<>();
+        BlockingQueue<GameMessage> outsider = new LinkedBlockingQueue<>();
+        try (MultiplayerClient a = MultiplayerClient.connect("localhost", port, WireProtocol.BINARY, first::add, null);
+             MultiplayerClient b = MultiplayerClient.connect("localhost", port, WireProtocol.TEXT, second::add, null);
+             MultiplayerClient c = MultiplayerClient.connect("localhost", port, WireProtocol.TEXT, outsider::add, null)) {
+            a.send(GameMessage.of(Opcode.JOIN, "alpha"));
+            b.send(GameMessage.of(Opcode.JOIN, "alpha"));
+            GameMessage joined = await(first, m -> m.getOpcode() == Opcode.JOIN);
+            assertNotNull(joined, "Joining is acknowledged");
+            assertEquals("alpha", joined.getString(0));
+            assertNotNull(await(second, m -> m.getOpcode() == Opcode.JOIN));
+
+            a.chat("only for alpha");
+            assertNotNull(await(second, m -> m.getOpcode() == Opcode.CHAT && m.getString(1).endsWith("only for alpha")),
+                    "Members of the same room see each other's chat");
+            c.chat("only for the lobby");
+            Thread.sleep(100);
+            assertTrue(outsider.stream().noneMatch(m -> m.getOpcode() == Opcode.CHAT && m.getString(1).contains("alpha")),
+                    "Another room does not see it");
+            assertTrue(first.stream().noneMatch(m -> m.getOpcode() == Opcode.CHAT && m.getString(1).contains("lobby")),
+                    "Nor does a room see the lobby's chat");
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    void testServerOnlyMessagesFromClientsAreNotRelayed() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setIoThreads(2);
+        NioServer server = new NioServer(config);
+        int port = server.bind();
+        Thread acceptor = new Thread(server::serve);
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        BlockingQueue<GameMessage> forger = new LinkedBlockingQueue<>();
+        BlockingQueue<GameMessage> victim = new LinkedBlockingQueue<>();
+        try (MultiplayerClient a = MultiplayerClient.connect("localhost", port, WireProtocol.BINARY, forger::add, null);
+             MultiplayerClient b = MultiplayerClient.connect("localhost", port, WireProtocol.BINARY, victim::add, null)) {
+            a.send(GameMessage.of(Opcode.JOIN, "alpha"));
+            b.send(GameMessage.of(Opcode.JOIN, "alpha"));
+            assertNotNull(await(forger, m -> m.getOpcode() == Opcode.JOIN));
+            assertNotNull(await(victim, m -> m.getOpcode() == Opcode.JOIN));
+
+            a.send(GameMessage.of(Opcode.SNAPSHOT, "b", "B", 99, 0, 0));
+            a.send(GameMessage.of(Opcode.REDIRECT, "evil.example", 1, "b"));
+            a.send(GameMessage.of(Opcode.COMBAT_RESULT, "a", "b", 100, 100, 0));
+            a.send(GameMessage.notice("The server is shutting down"));
+            a.chat("sent after the forgeries");
+
+            assertNotNull(await(victim, m -> m.getOpcode() == Opcode.CHAT && m.getString(1).endsWith("sent after the forgeries")),
+                    "Chat is still relayed");
+            assertTrue(victim.stream().noneMatch(m -> m.getOpcode() == Opcode.SNAPSHOT || m.getOpcode() == Opcode.REDIRECT
+                            || m.getOpcode() == Opcode.COMBAT_RESULT || m.getOpcode() == Opcode.NOTICE),
+                    "Nothing only the server may send reaches other clients");
+            GameMessage refused = await(forger, m -> m.getOpcode() == Opcode.NOTICE);
+            assertNotNull(refused, "The sender is told its message was refused");
+            assertTrue(refused.getString(0).contains("/snapshot"), refused.getString(0));
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    void testClientCannotActAsAnotherPlayer() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setIoThreads(2);
+        NioServer server = new NioServer(config);
+        int port = server.bind();
+        Thread acceptor = new Thread(server::serve);
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        BlockingQueue<GameMessage> first = new LinkedBlockingQueue<>();
+        BlockingQueue<GameMessage> second = new LinkedBlockingQueue<>();
+        try (MultiplayerClient a = MultiplayerClient.connect("localhost", port, WireProtocol.BINARY, first::add, null);
+             MultiplayerClient b = MultiplayerClient.connect("localhost", port, WireProtocol.BINARY, second::add, null)) {
+            a.send(GameMessage.of(Opcode.JOIN, "guarded"));
+            b.send(GameMessage.of(Opcode.JOIN, "guarded"));
+            assertNotNull(await(first, m -> m.getOpcode() == Opcode.JOIN));
+            assertNotNull(await(second, m -> m.getOpcode() == Opcode.JOIN));
+            a.send(GameMessage.of(Opcode.PLAYER_DATA, "kirk", "Kirk", 0, 0, 0, 0));
+            b.send(GameMessage.of(Opcode.PLAYER_DATA, "spock", "Spock", 0, 0, 0, 0));
+
+            b.move("kirk", 0, 1);
+            b.trade("kirk", "spock", "Credits", 50);
+            for (int i = 0; i < 2; i++) {
+                assertNotNull(await(second, m -> m.getOpcode() == Opcode.NOTICE && m.getString(0).contains("does not control kirk")),
+                        "Commands for a player the connection does not control are refused");
+            }
+
+            a.move("kirk", 1, 0);
+            GameRoom room = MultiplayerServer.getRooms().getRoom("guarded");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            PlayerData kirk = room.getHandler().players.get("kirk");
+            while ((kirk == null || kirk.get(PlayerField.ROW) != 1) && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+                kirk = room.getHandler().players.get("kirk");
+            }
+            assertNotNull(kirk);
+            assertEquals(1, kirk.get(PlayerField.ROW), "Kirk's own connection still moves him");
+            assertEquals(0, kirk.get(PlayerField.COL), "The other client's move was not applied");
+            assertEquals(100, kirk.get(PlayerField.CREDITS), "Nor was its trade");
+            assertEquals(100, room.getHandler().players.get("spock").get(PlayerField.CREDITS));
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    void testManyRoomsTickOnFewThreads() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setRoomThreads(1);
+        config.setSimulationTickMillis(10);
+        RoomManager rooms = new RoomManager(config, new SessionManager(16, 0));
+        try {
+            List<ClientConnection> clients = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                ClientConnection client = idleConnection("client-" + i);
+                clients.add(client);
+                assertNotNull(rooms.join(client, "match-" + i));
+            }
+            assertEquals(101, rooms.getRoomCount(), "Every match plus the lobby");
+
+            Thread.sleep(500);
+            for (GameRoom room : rooms.getRooms()) {
+                assertTrue(room.getEngine().getTickCount() >= 10,
+                        room.getName() + " should keep ticking alongside the others, ticked " + room.getEngine().getTickCount());
+            }
+
+            for (ClientConnection client : clients) {
+                rooms.leave(client);
+            }
+            assertEquals(100, rooms.closeIdleRooms(), "Empty matches are closed");
+            assertEquals(1, rooms.getRoomCount(), "The lobby stays open");
+            assertNotNull(rooms.getRoom(RoomManager.LOBBY));
+        } finally {
+            rooms.shutdown();
+        }
+    }
+
+    @Test
+    void testRoomLimit() {
+        ServerConfig config = new ServerConfig();
+        config.setMaxRooms(2);
+        RoomManager rooms = new RoomManager(config, new SessionManager(16, 0));
+        try {
+            ClientConnection client = idleConnection("client");
+            GameRoom first = rooms.join(client, "first");
+            assertNotNull(first);
+            assertNull(rooms.join(client, "second"), "The lobby and one match are already open");
+            assertSame(first, rooms.roomOf(client), "A refused join leaves the client where it was");
+            assertNull(rooms.join(client, " "), "Blank names are refused");
+        } finally {
+            rooms.shutdown();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+import edu.sdccd.cisc191.network.InterestGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterestGridTest {
+
+    @Test
+    void testRangeQueryFollowsMoves() {
+        InterestGrid<String> grid = new InterestGrid<>(2);
+        grid.move("kirk", 0, 0);
+        grid.move("picard", 4, 4);
+
+        Set<String> found = new HashSet<>();
+        grid.forEachInRange(0, 0, 1, 1, found::add);
+        assertEquals(Set.of("kirk"), found);
+
+        grid.move("picard", 1, 1);
+        found.clear();
+        grid.forEachInRange(0, 0, 1, 1, found::add);
+        assertEquals(Set.of("kirk", "picard"), found, "Index should follow the move across buckets");
+
+        grid.remove("kirk");
+        found.clear();
+        grid.forEachInRange(0, 0, 4, 4, found::add);
+        assertEquals(Set.of("picard"), found);
+    }
+}
@@ -0,0 +1,76 @@
+import edu.sdccd.cisc191.network.GameMessage;
+import edu.sdccd.cisc191.network.LatencyHistogram;
+import edu.sdccd.cisc191.network.MultiplayerClient;
+import edu.sdccd.cisc191.network.NioServer;
+import edu.sdccd.cisc191.network.Opcode;
+import edu.sdccd.cisc191.network.ServerConfig;
+import edu.sdccd.cisc191.network.WireProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiplayerClientTest {
+
+    @Test
+    void testPingAndChatOverBothProtocols() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setIoThreads(1);
+        NioServer server = new NioServer(config);
+        int port = server.bind();
+        Thread acceptor = new Thread(server::serve);
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        LatencyHistogram roundTrips = new LatencyHistogram();
+        BlockingQueue<GameMessage> textInbox = new LinkedBlockingQueue<>();
+        try (MultiplayerClient binary = MultiplayerClient.connect("localhost", port, WireProtocol.BINARY, null, roundTrips);
+             MultiplayerClient text = MultiplayerClient.connect("localhost", port, WireProtocol.TEXT, textInbox::add, null)) {
+            for (int i = 0; i < 10; i++) {
+                binary.ping();
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (roundTrips.getCount() < 10 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(10, roundTrips.getCount(), "Every ping should be echoed back to its sender");
+            assertTrue(roundTrips.getPercentile(50) > 0);
+
+            // the text client may not be registered yet, so repeat until the chat arrives
+            GameMessage chat = null;
+            for (int attempt = 0; attempt < 50 && chat == null; attempt++) {
+                binary.chat("hello galaxy");
+                chat = textInbox.poll(20, TimeUnit.MILLISECONDS);
+                while (chat != null && chat.getOpcode() != Opcode.CHAT) {
+                    chat = textInbox.poll(20, TimeUnit.MILLISECONDS);
+                }
+            }
+            assertNotNull(chat, "Chat from a binary client should reach a text client");
+            assertTrue(chat.getString(1).endsWith("]: hello galaxy"), "Text clients see the [sender]: text form");
+            assertTrue(textInbox.stream().noneMatch(m -> m.getOpcode() == Opcode.PING), "Pings are not broadcast");
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    void testHistogramPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500, histogram.getMean(), 0.001);
+        assertEquals(500_000, histogram.getPercentile(50), 500_000 * 0.07);
+        assertEquals(990_000, histogram.getPercentile(99), 990_000 * 0.07);
+        assertEquals(1_000_000, histogram.getPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getPercentile(99));
+    }
+}
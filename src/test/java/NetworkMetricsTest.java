@@ -0,0 +1,96 @@
+import edu.sdccd.cisc191.network.GameMessage;
+import edu.sdccd.cisc191.network.MultiplayerClient;
+import edu.sdccd.cisc191.network.MultiplayerServer;
+import edu.sdccd.cisc191.network.NetworkMetrics;
+import edu.sdccd.cisc191.network.NioServer;
+import edu.sdccd.cisc191.network.Opcode;
+import edu.sdccd.cisc191.network.ServerConfig;
+import edu.sdccd.cisc191.network.WireProtocol;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkMetricsTest {
+
+    private static boolean awaitJoin(BlockingQueue<GameMessage> inbox) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            GameMessage message = inbox.poll(20, TimeUnit.MILLISECONDS);
+            if (message != null && message.getOpcode() == Opcode.JOIN) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void testTrafficIsCountedAndPublishedOverJmx() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setIoThreads(1);
+        NioServer server = new NioServer(config);
+        int port = server.bind();
+        Thread acceptor = new Thread(server::serve);
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        NetworkMetrics metrics = MultiplayerServer.getMetrics();
+        MBeanServer beans = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(NetworkMetrics.OBJECT_NAME);
+        if (!beans.isRegistered(name)) {
+            assertTrue(metrics.registerMBean());
+        }
+        metrics.sample();
+        long messagesIn = metrics.getMessagesIn();
+        long messagesOut = metrics.getMessagesOut();
+        long bytesIn = metrics.getBytesIn();
+        long accepted = metrics.getAcceptedConnections();
+        long events = (Long) ((TabularData) beans.getAttribute(name, "EventFanOutMicros")).get(new Object[] {"count"}).get("value");
+
+        BlockingQueue<GameMessage> inbox = new LinkedBlockingQueue<>();
+        BlockingQueue<GameMessage> senderInbox = new LinkedBlockingQueue<>();
+        try (MultiplayerClient sender = MultiplayerClient.connect("localhost", port, WireProtocol.BINARY, senderInbox::add, null);
+             MultiplayerClient listener = MultiplayerClient.connect("localhost", port, WireProtocol.TEXT, inbox::add, null)) {
+            // connect returns before the server has registered the connection; a join answer proves it has
+            sender.send(GameMessage.of(Opcode.JOIN, "lobby"));
+            listener.send(GameMessage.of(Opcode.JOIN, "lobby"));
+            assertTrue(awaitJoin(senderInbox) && awaitJoin(inbox), "Both clients are in the lobby");
+            for (int i = 0; i < 5; i++) {
+                sender.chat("metrics " + i);
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            int chats = 0;
+            while (chats < 5 && System.nanoTime() < deadline) {
+                GameMessage message = inbox.poll(20, TimeUnit.MILLISECONDS);
+                if (message != null && message.getOpcode() == Opcode.CHAT) {
+                    chats++;
+                }
+            }
+            assertEquals(5, chats);
+            metrics.sample();
+
+            assertTrue(metrics.getAcceptedConnections() >= accepted + 2);
+            assertTrue(metrics.getActiveConnections() >= 2);
+            assertTrue(metrics.getMessagesIn() >= messagesIn + 6, "Hello plus five chats");
+            assertTrue(metrics.getBytesIn() > bytesIn);
+            assertTrue(metrics.getMessagesOut() >= messagesOut + 10, "Each chat reaches both clients");
+            assertTrue(metrics.getMessagesOutPerSecond() > 0);
+
+            long counted = metrics.getMessagesIn();
+            assertTrue((Long) beans.getAttribute(name, "MessagesIn") >= counted, "JMX shows the same counter");
+            long eventsNow = (Long) ((TabularData) beans.getAttribute(name, "EventFanOutMicros")).get(new Object[] {"count"}).get("value");
+            assertTrue(eventsNow >= events + 10, "Every chat delivery is timed");
+            assertTrue(metrics.report().contains("Fan-out: events"));
+        } finally {
+            server.close();
+        }
+    }
+}
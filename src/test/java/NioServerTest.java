@@ -0,0 +1,59 @@
+import edu.sdccd.cisc191.network.NioServer;
+import edu.sdccd.cisc191.network.ServerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioServerTest {
+
+    @Test
+    void testLineProtocolBroadcastOverNio() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setIoThreads(2);
+        assertBroadcastArrives(config);
+    }
+
+    @Test
+    void testBroadcastArrivesWithTickBatching() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setIoThreads(2);
+        config.setTickWindowMillis(20);
+        assertBroadcastArrives(config);
+    }
+
+    private static void assertBroadcastArrives(ServerConfig config) throws Exception {
+        NioServer server = new NioServer(config);
+        int port = server.bind();
+        Thread acceptor = new Thread(server::serve);
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        try (Socket sender = new Socket("localhost", port);
+             Socket receiver = new Socket("localhost", port)) {
+            receiver.setSoTimeout(5000);
+            BufferedReader in = new BufferedReader(new InputStreamReader(receiver.getInputStream()));
+            PrintWriter out = new PrintWriter(sender.getOutputStream(), true);
+
+            // The receiver may not be registered yet, so keep sending until a line arrives
+            String received = null;
+            for (int attempt = 0; attempt < 50 && received == null; attempt++) {
+                out.println("hello galaxy");
+                Thread.sleep(20);
+                if (receiver.getInputStream().available() > 0) {
+                    received = in.readLine();
+                }
+            }
+            assertNotNull(received, "Receiver should get the broadcast line");
+            assertTrue(received.endsWith("]: hello galaxy"), "Broadcast should keep the [host:port]: prefix format");
+        } finally {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import edu.sdccd.cisc191.network.OutboundMessage;
+import edu.sdccd.cisc191.network.OutboundQueue;
+import edu.sdccd.cisc191.network.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundQueueTest {
+
+    @Test
+    void testDropOldestWhenFull() {
+        OutboundQueue queue = new OutboundQueue(2, OverflowPolicy.DROP_OLDEST);
+        assertTrue(queue.offer(OutboundMessage.of("a")));
+        assertTrue(queue.offer(OutboundMessage.of("b")));
+        assertTrue(queue.offer(OutboundMessage.of("c")));
+
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals("b", queue.poll().getText());
+        assertEquals("c", queue.poll().getText());
+    }
+
+    @Test
+    void testDropOldestNeverDropsState() {
+        OutboundQueue queue = new OutboundQueue(2, OverflowPolicy.DROP_OLDEST);
+        queue.offer(OutboundMessage.keyed("state:kirk", "kirk joined"));
+        queue.offer(OutboundMessage.of("chat 1"));
+        queue.offer(OutboundMessage.keyed("state:spock", "spock joined"));
+        assertEquals(2, queue.size(), "The chat line gives way, not kirk's snapshot");
+        assertTrue(queue.offer(OutboundMessage.of("chat 2")));
+        assertEquals(2, queue.size(), "With only state queued, new chat is what is dropped");
+        queue.offer(OutboundMessage.keyed("state:picard", "picard joined"));
+        queue.offer(OutboundMessage.keyed("state:kirk", "kirk left"));
+        assertEquals(3, queue.size(), "State goes past the capacity rather than being lost");
+        assertEquals(3, queue.getDroppedCount());
+
+        assertEquals("kirk left", queue.poll().getText(), "A newer state message takes the old one's place");
+        assertEquals("spock joined", queue.poll().getText());
+        assertEquals("picard joined", queue.poll().getText());
+    }
+
+    @Test
+    void testCoalesceReplacesSameKeyInPlace() {
+        OutboundQueue queue = new OutboundQueue(2, OverflowPolicy.COALESCE);
+        queue.offer(OutboundMessage.keyed("pos:kirk", "kirk 0 0"));
+        queue.offer(OutboundMessage.of("chat"));
+        queue.offer(OutboundMessage.keyed("pos:kirk", "kirk 1 0"));
+
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals("kirk 1 0", queue.poll().getText(), "Newer position should take the old one's place");
+        assertEquals("chat", queue.poll().getText());
+    }
+
+    @Test
+    void testDisconnectPolicyRejectsWhenFull() {
+        OutboundQueue queue = new OutboundQueue(1, OverflowPolicy.DISCONNECT);
+        assertTrue(queue.offer(OutboundMessage.of("a")));
+        assertFalse(queue.offer(OutboundMessage.of("b")), "Full queue should ask for a disconnect");
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    void testAwaitMessagesStopsAfterClose() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(4, OverflowPolicy.DROP_OLDEST);
+        queue.offer(OutboundMessage.of("a"));
+        queue.offer(OutboundMessage.of("b"));
+
+        List<OutboundMessage> batch = new ArrayList<>();
+        assertTrue(queue.awaitMessages());
+        assertEquals(2, queue.drainTo(batch));
+
+        queue.close();
+        assertFalse(queue.awaitMessages());
+        assertFalse(queue.offer(OutboundMessage.of("c")));
+    }
+
+    @Test
+    void testKeyedCoalescingKeepsLatestPerKeyWithinTick() {
+        OutboundQueue queue = new OutboundQueue(16, OverflowPolicy.DROP_OLDEST, true);
+        for (int col = 0; col < 5; col++) {
+            queue.offer(OutboundMessage.keyed("state:kirk", "kirk 0 " + col));
+            queue.offer(OutboundMessage.keyed("state:spock", "spock 1 " + col));
+        }
+        queue.offer(OutboundMessage.of("chat"));
+        queue.offer(OutboundMessage.of("chat"));
+
+        List<OutboundMessage> batch = new ArrayList<>();
+        assertEquals(4, queue.drainTo(batch), "One message per key plus every unkeyed message");
+        assertEquals("kirk 0 4", batch.get(0).getText());
+        assertEquals("spock 1 4", batch.get(1).getText());
+        assertEquals(8, queue.getCoalescedCount());
+        assertEquals(0, queue.getDroppedCount(), "Coalescing within a tick is not an overflow drop");
+
+        queue.offer(OutboundMessage.keyed("state:kirk", "kirk 0 5"));
+        assertEquals(1, queue.size(), "A drained key starts a fresh slot");
+    }
+}
@@ -0,0 +1,90 @@
+import edu.sdccd.cisc191.game.PlayerInventory;
+import edu.sdccd.cisc191.game.ResourceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerInventoryTest {
+
+    @Test
+    void testEveryResourceHasItsOwnSlot() {
+        PlayerInventory inventory = new PlayerInventory();
+        for (ResourceType type : ResourceType.values()) {
+            assertEquals(0, inventory.getResourceAmount(type));
+        }
+        inventory.addResource(ResourceType.FUEL, 40);
+        assertTrue(inventory.addResource("Dilithium", 3));
+        assertEquals(40, inventory.getResourceAmount("Fuel"), "Fuel is not Dilithium");
+        assertEquals(3, inventory.getResourceAmount(ResourceType.DILITHIUM));
+        assertEquals(ResourceType.MINERALS, ResourceType.byName("minerals"));
+        assertTrue(inventory.displayResources().contains("Fuel: 40\n"));
+    }
+
+    @Test
+    void testUnknownResourcesHoldNothing() {
+        PlayerInventory inventory = new PlayerInventory();
+        assertFalse(inventory.addResource("Unobtainium", 10), "An unknown name is refused, not added");
+        assertEquals(0, inventory.getResourceAmount("Unobtainium"));
+        assertFalse(inventory.useResource("Unobtainium", 0));
+        assertNull(ResourceType.byName(null));
+    }
+
+    @Test
+    void testUsingTooMuchLeavesTheAmountAlone() {
+        PlayerInventory inventory = new PlayerInventory();
+        inventory.addResource(ResourceType.ENERGY, 10);
+        assertFalse(inventory.useResource(ResourceType.ENERGY, 11));
+        assertEquals(10, inventory.getResourceAmount(ResourceType.ENERGY));
+        assertTrue(inventory.useResource(ResourceType.ENERGY, 10));
+        assertEquals(0, inventory.getResourceAmount(ResourceType.ENERGY));
+    }
+
+    @Test
+    void testConcurrentUpdatesAreNeitherLostNorOverdrawn() throws InterruptedException {
+        PlayerInventory inventory = new PlayerInventory();
+        int threads = 8;
+        int rounds = 10_000;
+        inventory.addResource(ResourceType.CREDITS, rounds);
+        AtomicInteger spent = new AtomicInteger();
+        AtomicInteger overdrawn = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            boolean spender = t % 2 == 0;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < rounds; i++) {
+                    if (spender) {
+                        if (inventory.useResource(ResourceType.CREDITS, 3)) {
+                            spent.addAndGet(3);
+                        }
+                    } else {
+                        inventory.addResource(ResourceType.CREDITS, 1);
+                        inventory.addResource(ResourceType.FUEL, 1);
+                    }
+                    if (inventory.getResourceAmount(ResourceType.CREDITS) < 0) {
+                        overdrawn.incrementAndGet(); // an assertion here would fail only the pool thread
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(0, overdrawn.get(), "Credits never went below zero");
+
+        int earned = threads / 2 * rounds;
+        assertEquals(earned, inventory.getResourceAmount(ResourceType.FUEL));
+        assertEquals(rounds + earned - spent.get(), inventory.getResourceAmount(ResourceType.CREDITS));
+    }
+}
@@ -0,0 +1,136 @@
+import edu.sdccd.cisc191.network.MultiplayerHandler;
+import edu.sdccd.cisc191.network.PlayerData;
+import edu.sdccd.cisc191.network.PlayerField;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerRegistryStressTest {
+    private static final int PLAYERS = 1_000;
+    private static final int OPS_PER_THREAD = 200_000;
+
+    @Test
+    void testConcurrentUpdatesAreNotLost() throws InterruptedException {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int updatesPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < updatesPerThread; i++) {
+                    // a handful of hot players so updates collide often
+                    String id = "player-" + (i % 8);
+                    handler.updatePlayer(id, id, data -> data.set(PlayerField.CREDITS, data.get(PlayerField.CREDITS) + 1));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        int total = 0;
+        for (PlayerData data : handler.getAllPlayers()) {
+            total += data.get(PlayerField.CREDITS);
+        }
+        assertEquals(threads * updatesPerThread, total, "Every compute-style update should be applied exactly once");
+    }
+
+    @Test
+    void testPositionIndexAgreesWithRegistryUnderRemoveAndUpdate() throws Exception {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 5_000; round++) {
+                String id = "player-" + round;
+                handler.updatePosition(id, 0, 0);
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> update = executor.submit(() -> {
+                    start.await();
+                    handler.updatePosition(id, 1, 1);
+                    return null;
+                });
+                Future<?> remove = executor.submit(() -> {
+                    start.await();
+                    handler.removePlayer(id);
+                    return null;
+                });
+                start.countDown();
+                update.get();
+                remove.get();
+
+                PlayerData data = handler.players.get(id);
+                int[] pos = handler.getPositions().positionOf(id);
+                if (data == null) {
+                    assertNull(pos, id + " was removed but is still in the position index");
+                } else {
+                    assertNotNull(pos, id + " is registered but missing from the position index");
+                    assertEquals(data.get(PlayerField.ROW), pos[0], "The index follows the last applied update");
+                    assertEquals(data.get(PlayerField.COL), pos[1]);
+                }
+            }
+            assertEquals(handler.players.size(), handler.getPositions().size(), "No ghosts in the index");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testMixedWorkloadScalesWithThreads() throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        double singleThreaded = 0;
+        for (int threads = 1; threads <= Math.max(2, cores); threads *= 2) {
+            double opsPerSecond = runMixedWorkload(threads);
+            if (threads == 1) {
+                singleThreaded = opsPerSecond;
+            }
+            System.out.printf("registry threads=%d throughput=%.0f ops/s speedup=%.2fx%n",
+                    threads, opsPerSecond, opsPerSecond / singleThreaded);
+            assertTrue(opsPerSecond > 0);
+        }
+    }
+
+    /**
+     * 90% lookups, 8% position updates, 2% joins/leaves across {@link #PLAYERS} players.
+     */
+    private double runMixedWorkload(int threads) throws InterruptedException {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        for (int i = 0; i < PLAYERS; i++) {
+            handler.updatePosition("player-" + i, 0, 0);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                start.await();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    String id = "player-" + random.nextInt(PLAYERS);
+                    int roll = random.nextInt(100);
+                    if (roll < 90) {
+                        handler.players.get(id);
+                    } else if (roll < 98) {
+                        handler.updatePosition(id, random.nextInt(5), random.nextInt(5));
+                    } else {
+                        // join/leave churn
+                        handler.removePlayer(id);
+                        handler.updatePosition(id, 0, 0);
+                    }
+                }
+                return null;
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - begin;
+        return (double) threads * OPS_PER_THREAD / (elapsed / 1e9);
+    }
+}
@@ -0,0 +1,121 @@
+import edu.sdccd.cisc191.network.GameMessage;
+import edu.sdccd.cisc191.network.LatencyHistogram;
+import edu.sdccd.cisc191.network.MultiplayerClient;
+import edu.sdccd.cisc191.network.NioServer;
+import edu.sdccd.cisc191.network.Opcode;
+import edu.sdccd.cisc191.network.RateLimiter;
+import edu.sdccd.cisc191.network.ServerConfig;
+import edu.sdccd.cisc191.network.TokenBucket;
+import edu.sdccd.cisc191.network.WireProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testBucketRefillsAtItsRate() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryTake(0), "Starts with a full burst");
+        }
+        assertFalse(bucket.tryTake(0));
+        assertEquals(SECOND / 10, bucket.nanosUntilAvailable(0), 1);
+        assertTrue(bucket.tryTake(SECOND / 10), "One token every tenth of a second");
+        assertFalse(bucket.tryTake(SECOND / 10));
+        assertEquals(5, bucket.getTokens(10 * SECOND), 1e-9, "Never holds more than a burst");
+
+        assertTrue(bucket.tryBorrow(10 * SECOND));
+        for (int i = 0; i < 9; i++) {
+            assertTrue(bucket.tryBorrow(10 * SECOND), "Borrowing runs into debt");
+        }
+        assertFalse(bucket.tryBorrow(10 * SECOND), "But no more than a burst of it");
+        assertEquals(SECOND * 6 / 10, bucket.nanosUntilAvailable(10 * SECOND), 1, "Debt is paid back before the next token");
+    }
+
+    @Test
+    void testCommandLimitsDropAndAbuseDisconnects() {
+        RateLimiter limiter = new RateLimiter(100, 100, Map.of(Opcode.CHAT, 1.0), 3, 0);
+        GameMessage chat = GameMessage.chat("", "spam");
+        assertEquals(RateLimiter.Verdict.ADMIT, limiter.check(chat, 0));
+        assertEquals(RateLimiter.Verdict.ADMIT, limiter.check(chat, 0), "Bursts of twice the command rate");
+        assertEquals(RateLimiter.Verdict.ADMIT, limiter.check(GameMessage.of(Opcode.PING, 1), 0),
+                "Other commands have only the connection limit");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(RateLimiter.Verdict.DROP, limiter.check(chat, 0));
+        }
+        assertEquals(RateLimiter.Verdict.DISCONNECT, limiter.check(chat, 0), "Too many drops");
+        assertEquals(4, limiter.getDropped());
+
+        RateLimiter forgiving = new RateLimiter(100, 100, Map.of(Opcode.CHAT, 1.0), 1, 0);
+        forgiving.check(chat, 0);
+        forgiving.check(chat, 0);
+        assertEquals(RateLimiter.Verdict.DROP, forgiving.check(chat, 0));
+        assertEquals(RateLimiter.Verdict.ADMIT, forgiving.check(chat, SECOND), "A quiet second restores a token");
+        assertEquals(RateLimiter.Verdict.DROP, forgiving.check(chat, SECOND), "And the tolerance has recovered too");
+    }
+
+    @Test
+    void testConnectionLimitPausesBeforeDropping() {
+        RateLimiter limiter = new RateLimiter(10, 5, Map.of(), 100, 0);
+        GameMessage ping = GameMessage.of(Opcode.PING, 1);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(RateLimiter.Verdict.ADMIT, limiter.check(ping, 0), "A burst plus a burst of debt is handled");
+        }
+        assertTrue(limiter.nanosUntilReady(0) > 0, "The reader is told to wait");
+        assertEquals(RateLimiter.Verdict.DROP, limiter.check(ping, 0));
+        for (int i = 0; i < 50; i++) {
+            assertEquals(RateLimiter.Verdict.ADMIT, limiter.check(GameMessage.of(Opcode.ACK, "p", i), 0),
+                    "Acknowledgements are not held to the connection limit");
+        }
+        assertEquals(0, new RateLimiter(0, 0, Map.of(), 1, 0).nanosUntilReady(0), "A rate of 0 turns limits off");
+    }
+
+    @Test
+    void testFloodingClientIsDisconnectedWithoutStarvingOthers() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setIoThreads(1);
+        config.setAbuseLimit(20);
+        NioServer server = new NioServer(config);
+        int port = server.bind();
+        Thread acceptor = new Thread(server::serve);
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        BlockingQueue<GameMessage> observed = new LinkedBlockingQueue<>();
+        LatencyHistogram roundTrips = new LatencyHistogram();
+        try (MultiplayerClient flooder = MultiplayerClient.connect("localhost", port, WireProtocol.BINARY, null, null);
+             MultiplayerClient observer = MultiplayerClient.connect("localhost", port, WireProtocol.TEXT, observed::add, roundTrips)) {
+            try {
+                for (int i = 0; i < 2000; i++) {
+                    flooder.chat("flood " + i);
+                }
+            } catch (IOException e) {
+                // disconnected part way through, as intended
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (flooder.isConnected() && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertFalse(flooder.isConnected(), "The flooding client is disconnected");
+
+            observer.ping();
+            while (roundTrips.getCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, roundTrips.getCount(), "Other clients are still served");
+            long relayed = observed.stream().filter(m -> m.getOpcode() == Opcode.CHAT && m.getString(1).contains("flood")).count();
+            assertTrue(relayed <= 12, "Only the chat burst was broadcast, got " + relayed);
+        } finally {
+            server.close();
+        }
+    }
+}
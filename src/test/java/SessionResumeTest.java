@@ -0,0 +1,108 @@
+import edu.sdccd.cisc191.network.GameMessage;
+import edu.sdccd.cisc191.network.MultiplayerClient;
+import edu.sdccd.cisc191.network.NioServer;
+import edu.sdccd.cisc191.network.Opcode;
+import edu.sdccd.cisc191.network.ServerConfig;
+import edu.sdccd.cisc191.network.WireProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionResumeTest {
+
+    private static GameMessage await(BlockingQueue<GameMessage> inbox, Predicate<GameMessage> match) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            GameMessage message = inbox.poll(20, TimeUnit.MILLISECONDS);
+            if (message != null && match.test(message)) {
+                return message;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isChat(GameMessage message, String text) {
+        return message.getOpcode() == Opcode.CHAT && message.getString(1).endsWith(text);
+    }
+
+    @Test
+    void testResumeReplaysOnlyMissedMessages() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setIoThreads(1);
+        NioServer server = new NioServer(config);
+        int port = server.bind();
+        Thread acceptor = new Thread(server::serve);
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        BlockingQueue<GameMessage> first = new LinkedBlockingQueue<>();
+        BlockingQueue<GameMessage> second = new LinkedBlockingQueue<>();
+        try (MultiplayerClient other = MultiplayerClient.connect("localhost", port, WireProtocol.TEXT, null, null)) {
+            MultiplayerClient player = MultiplayerClient.connect("localhost", port, WireProtocol.BINARY, first::add, null);
+            player.openSession();
+            assertNotNull(await(first, m -> m.getOpcode() == Opcode.SESSION));
+            String token = player.getSessionToken();
+
+            other.chat("before the drop");
+            assertNotNull(await(first, m -> isChat(m, "before the drop")));
+            long seenBeforeDrop = player.getLastSeq();
+            assertTrue(seenBeforeDrop >= 1);
+
+            player.close();
+            Thread.sleep(100); // let the server notice and park the session
+            other.chat("while away 1");
+            other.chat("while away 2");
+            Thread.sleep(100);
+
+            try (MultiplayerClient resumed = MultiplayerClient.resume("localhost", port, WireProtocol.BINARY, second::add, null, player)) {
+                GameMessage reply = await(second, m -> m.getOpcode() == Opcode.RESUME || m.getOpcode() == Opcode.SESSION);
+                assertNotNull(reply);
+                assertEquals(Opcode.RESUME, reply.getOpcode(), "A session inside its grace window should resume");
+                assertEquals(token, reply.getString(0));
+                assertEquals(seenBeforeDrop, reply.getLong(1));
+
+                assertNotNull(await(second, m -> isChat(m, "while away 1")), "Messages sent during the gap are replayed");
+                assertNotNull(await(second, m -> isChat(m, "while away 2")));
+                GameMessage room = await(second, m -> m.getOpcode() == Opcode.JOIN);
+                assertNotNull(room, "The resumed client is told which room it is back in");
+                assertEquals("lobby", room.getString(0));
+                assertEquals(seenBeforeDrop + 3, resumed.getLastSeq(), "Nothing seen before the drop is sent again");
+
+                other.chat("after resume");
+                assertNotNull(await(second, m -> isChat(m, "after resume")));
+            }
+        } finally {
+            server.close();
+        }
+    }
+
+    @Test
+    void testUnknownTokenFallsBackToNewSession() throws Exception {
+        ServerConfig config = new ServerConfig();
+        config.setPort(0);
+        config.setIoThreads(1);
+        NioServer server = new NioServer(config);
+        int port = server.bind();
+        Thread acceptor = new Thread(server::serve);
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        BlockingQueue<GameMessage> inbox = new LinkedBlockingQueue<>();
+        try (MultiplayerClient client = MultiplayerClient.connect("localhost", port, WireProtocol.TEXT, inbox::add, null)) {
+            client.send(GameMessage.of(Opcode.RESUME, "no-such-token", 42));
+            GameMessage reply = await(inbox, m -> m.getOpcode() == Opcode.RESUME || m.getOpcode() == Opcode.SESSION);
+            assertNotNull(reply);
+            assertEquals(Opcode.SESSION, reply.getOpcode(), "An unknown session needs a full resync");
+            assertNotEquals("no-such-token", reply.getString(0));
+            assertEquals(0, client.getLastSeq());
+        } finally {
+            server.close();
+        }
+    }
+}
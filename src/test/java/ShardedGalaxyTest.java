@@ -0,0 +1,233 @@
+import edu.sdccd.cisc191.network.GameMessage;
+import edu.sdccd.cisc191.network.MultiplayerClient;
+import edu.sdccd.cisc191.network.MultiplayerServer;
+import edu.sdccd.cisc191.network.Opcode;
+import edu.sdccd.cisc191.network.PlayerField;
+import edu.sdccd.cisc191.network.RegionMap;
+import edu.sdccd.cisc191.network.WireProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedGalaxyTest {
+
+    private static GameMessage await(BlockingQueue<GameMessage> inbox, Predicate<GameMessage> match) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            GameMessage message = inbox.poll(20, TimeUnit.MILLISECONDS);
+            if (message != null && match.test(message)) {
+                return message;
+            }
+        }
+        return null;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static final String SECRET = "test-galaxy-secret";
+
+    private static Process startShard(int region, int port, String shards, String... options) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        // the build may have put the main classes on the module path
+        String classPath = System.getProperty("java.class.path");
+        String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null && !modulePath.isEmpty()) {
+            classPath = classPath + File.pathSeparator + modulePath;
+        }
+        List<String> command = new ArrayList<>(List.of(java, "-cp", classPath,
+                MultiplayerServer.class.getName(), "--mode=nio", "--port=" + port, "--io-threads=1",
+                "--galaxy=5x10", "--regions=1x2", "--region=" + region, "--shards=" + shards,
+                "--shard-secret=" + SECRET, "--sim-tick=10", "--replication-interval=10"));
+        command.addAll(List.of(options));
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        return builder.start();
+    }
+
+    private static void awaitListening(int port) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (System.nanoTime() < deadline) {
+            try (Socket ignored = new Socket("localhost", port)) {
+                return;
+            } catch (IOException e) {
+                Thread.sleep(50);
+            }
+        }
+        fail("Shard on port " + port + " did not start");
+    }
+
+    private static boolean isSnapshotAt(GameMessage message, String playerId, int col) {
+        return message.getOpcode() == Opcode.SNAPSHOT && playerId.equals(message.getString(0))
+                && message.getLong(3 + PlayerField.COL.ordinal()) == col;
+    }
+
+    @Test
+    void testRegionMapSplitsTheGalaxy() {
+        RegionMap map = new RegionMap(5, 10, 1, 2, 1, List.of("localhost:5000", "localhost:5001"));
+        assertTrue(map.isSharded());
+        assertEquals(0, map.regionOf(4, 4));
+        assertEquals(1, map.regionOf(0, 5));
+        assertEquals(-1, map.regionOf(0, 10), "Outside the galaxy");
+        assertEquals(5001, map.getPort(1));
+        assertTrue(map.newLocalBoard().inBounds(0, 5));
+        assertFalse(map.newLocalBoard().inBounds(0, 4), "The other region's squares are not on this board");
+        assertEquals(1, map.newLocalBoard().getPlanetId(0, 5), "Planets repeat in every sector");
+        assertThrows(IllegalArgumentException.class, () -> new RegionMap(5, 10, 1, 2, 0, List.of("localhost:5000")));
+    }
+
+    @Test
+    void testOnlyPeersWithTheSecretHandPlayersOver() throws Exception {
+        int firstPort = freePort();
+        int secondPort = freePort();
+        Process shard = startShard(1, secondPort, "localhost:" + firstPort + ",localhost:" + secondPort);
+        try {
+            awaitListening(secondPort);
+            BlockingQueue<GameMessage> forged = new LinkedBlockingQueue<>();
+            BlockingQueue<GameMessage> east = new LinkedBlockingQueue<>();
+            List<GameMessage> seen = new CopyOnWriteArrayList<>();
+            try (MultiplayerClient forger = MultiplayerClient.connect("localhost", secondPort, WireProtocol.BINARY, forged::add, null);
+                 MultiplayerClient observer = MultiplayerClient.connect("localhost", secondPort, WireProtocol.BINARY, m -> {
+                     seen.add(m);
+                     east.add(m);
+                 }, null)) {
+                // a local client shares the shards' address, but not their secret
+                forger.send(GameMessage.of(Opcode.HANDOFF, "intruder", "lobby", "Dreadnought:9999:999", "Intruder", 0, 5,
+                        9999, 9999, 9999, 9999, 9999));
+                assertNotNull(await(forged, m -> m.getOpcode() == Opcode.NOTICE && m.getString(0).startsWith("Handoff refused")),
+                        "A handoff from a connection that never proved it is a peer is refused");
+                forger.send(GameMessage.of(Opcode.PEER, "a guess"));
+                assertNotNull(await(forged, m -> m.getOpcode() == Opcode.NOTICE && m.getString(0).startsWith("Peer refused")));
+
+                observer.send(GameMessage.of(Opcode.PLAYER_DATA, "watcher", "Watcher", 0, 0, 0, 0));
+                assertNotNull(await(east, m -> m.getOpcode() == Opcode.SNAPSHOT && "watcher".equals(m.getString(0))));
+                Thread.sleep(100);
+                assertTrue(seen.stream().noneMatch(m -> m.getOpcode() == Opcode.SNAPSHOT && "intruder".equals(m.getString(0))),
+                        "The forged player never appears");
+            }
+        } finally {
+            shard.destroy();
+            shard.waitFor(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testPlayerStaysUntilTheOtherRegionTakesIt() throws Exception {
+        int firstPort = freePort();
+        int secondPort = freePort();
+        String shards = "localhost:" + firstPort + ",localhost:" + secondPort;
+        List<Process> processes = new ArrayList<>();
+        processes.add(startShard(0, firstPort, shards));
+        try {
+            awaitListening(firstPort);
+            BlockingQueue<GameMessage> west = new LinkedBlockingQueue<>();
+            try (MultiplayerClient client = MultiplayerClient.connect("localhost", firstPort, WireProtocol.BINARY, west::add, null)) {
+                client.send(GameMessage.of(Opcode.JOIN, "match"));
+                assertNotNull(await(west, m -> m.getOpcode() == Opcode.JOIN));
+                client.send(GameMessage.of(Opcode.PLAYER_DATA, "p1", "Pilot", 0, 0, 0, 0));
+                for (int col = 1; col <= 5; col++) {
+                    client.move("p1", 0, col);
+                }
+                assertNotNull(await(west, m -> m.getOpcode() == Opcode.NOTICE && m.getString(0).contains("did not take the player")),
+                        "The other region's server is down");
+
+                // its server is up now, but has no room left for the match
+                processes.add(startShard(1, secondPort, shards, "--max-rooms=1"));
+                awaitListening(secondPort);
+                client.move("p1", 0, 5);
+                assertNotNull(await(west, m -> m.getOpcode() == Opcode.NOTICE && m.getString(0).contains("did not take the player")),
+                        "The other region's server refused the player");
+                assertTrue(west.stream().noneMatch(m -> m.getOpcode() == Opcode.REDIRECT));
+
+                BlockingQueue<GameMessage> watched = new LinkedBlockingQueue<>();
+                try (MultiplayerClient watcher = MultiplayerClient.connect("localhost", firstPort, WireProtocol.BINARY, watched::add, null)) {
+                    watcher.send(GameMessage.of(Opcode.JOIN, "match"));
+                    GameMessage stayed = await(watched, m -> isSnapshotAt(m, "p1", 4));
+                    assertNotNull(stayed, "The player is still simulated here");
+                    assertEquals(96, stayed.getLong(3 + PlayerField.FUEL.ordinal()), "Fuel for the refused moves was given back");
+                }
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+                process.waitFor(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Test
+    void testPlayerIsHandedOffAcrossProcesses() throws Exception {
+        int firstPort = freePort();
+        int secondPort = freePort();
+        String shards = "localhost:" + firstPort + ",localhost:" + secondPort;
+        List<Process> processes = new ArrayList<>();
+        processes.add(startShard(0, firstPort, shards));
+        processes.add(startShard(1, secondPort, shards));
+        try {
+            awaitListening(firstPort);
+            awaitListening(secondPort);
+
+            BlockingQueue<GameMessage> west = new LinkedBlockingQueue<>();
+            BlockingQueue<GameMessage> east = new LinkedBlockingQueue<>();
+            MultiplayerClient client = MultiplayerClient.connect("localhost", firstPort, WireProtocol.BINARY, west::add, null);
+            client.send(GameMessage.of(Opcode.PLAYER_DATA, "p1", "Pilot", 0, 0, 0, 0));
+            client.build("p1", "Fighter");
+            for (int col = 1; col <= 5; col++) {
+                client.move("p1", 0, col);
+            }
+
+            GameMessage redirect = await(west, m -> m.getOpcode() == Opcode.REDIRECT);
+            assertNotNull(redirect, "Crossing into the other region redirects the client");
+            assertEquals(secondPort, redirect.getInt(1));
+            assertEquals("p1", redirect.getString(2));
+
+            MultiplayerClient moved = client.follow(redirect);
+            MultiplayerClient observer = MultiplayerClient.connect("localhost", secondPort, WireProtocol.TEXT, east::add, null);
+            GameMessage arrived = await(east, m -> isSnapshotAt(m, "p1", 5));
+            assertNotNull(arrived, "The other process now simulates the player at its new square");
+            assertEquals(1, arrived.getLong(3 + PlayerField.SHIP_COUNT.ordinal()), "The fleet moved over");
+            assertEquals(100, arrived.getLong(3 + PlayerField.FLEET_HEALTH.ordinal()));
+            assertEquals(95, arrived.getLong(3 + PlayerField.FUEL.ordinal()), "Five moves, five fuel");
+            assertEquals(80, arrived.getLong(3 + PlayerField.MINERALS.ordinal()), "The inventory moved over");
+
+            // the old region no longer accepts commands for the player
+            BlockingQueue<GameMessage> stale = new LinkedBlockingQueue<>();
+            try (MultiplayerClient old = MultiplayerClient.connect("localhost", firstPort, WireProtocol.TEXT, stale::add, null)) {
+                old.build("p1", "Fighter");
+                GameMessage again = await(stale, m -> m.getOpcode() == Opcode.REDIRECT);
+                assertNotNull(again, "Commands sent to the old region are redirected, not applied");
+                assertEquals(secondPort, again.getInt(1));
+            }
+
+            // and the player can come back
+            BlockingQueue<GameMessage> back = new LinkedBlockingQueue<>();
+            try (MultiplayerClient watcher = MultiplayerClient.connect("localhost", firstPort, WireProtocol.TEXT, back::add, null)) {
+                moved.move("p1", 0, 4);
+                assertNotNull(await(back, m -> isSnapshotAt(m, "p1", 4)), "Moving back hands the player back");
+            }
+            moved.close();
+            observer.close();
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+                process.waitFor(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
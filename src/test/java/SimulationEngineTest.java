@@ -0,0 +1,152 @@
+import edu.sdccd.cisc191.game.GameBoard;
+import edu.sdccd.cisc191.network.ClientConnection;
+import edu.sdccd.cisc191.network.GameMessage;
+import edu.sdccd.cisc191.network.MultiplayerHandler;
+import edu.sdccd.cisc191.network.Opcode;
+import edu.sdccd.cisc191.network.OutboundMessage;
+import edu.sdccd.cisc191.network.PlayerData;
+import edu.sdccd.cisc191.network.PlayerField;
+import edu.sdccd.cisc191.network.SimulationEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationEngineTest {
+
+    private static class RecordingClient implements ClientConnection {
+        final List<GameMessage> sent = new ArrayList<>();
+
+        @Override
+        public void send(OutboundMessage message) {
+            sent.add(message.getMessage());
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String getClientInfo() {
+            return "test:0";
+        }
+
+        @Override
+        public int getQueueDepth() {
+            return 0;
+        }
+
+        @Override
+        public long getDroppedMessages() {
+            return 0;
+        }
+    }
+
+    private static SimulationEngine newEngine(MultiplayerHandler handler) {
+        GameBoard board = new GameBoard();
+        board.initializeBoard();
+        return new SimulationEngine(handler, board, 50);
+    }
+
+    @Test
+    void testCommandsApplyOnTickAndPublishResults() {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        SimulationEngine engine = newEngine(handler);
+        RecordingClient client = new RecordingClient();
+
+        engine.submit(client, GameMessage.of(Opcode.PLAYER_DATA, "kirk", "Kirk", 4, 4, 9, 999));
+        engine.submit(client, GameMessage.of(Opcode.MOVE, "kirk", 0, 1));
+        engine.submit(client, GameMessage.of(Opcode.BUILD, "kirk", "Cruiser"));
+        assertNull(handler.getPlayerData("kirk"), "Nothing is applied before the tick");
+
+        engine.tick();
+        PlayerData kirk = handler.getPlayerData("kirk");
+        assertEquals("Kirk", kirk.getPlayerName());
+        assertEquals(0, kirk.get(PlayerField.ROW), "Client-sent position in PLAYER_DATA is ignored");
+        assertEquals(1, kirk.get(PlayerField.COL));
+        assertEquals(1, kirk.get(PlayerField.SHIP_COUNT));
+        assertEquals(200, kirk.get(PlayerField.FLEET_HEALTH));
+        assertEquals(99, kirk.get(PlayerField.FUEL), "Moving one square costs its traversal cost");
+        assertEquals(80, kirk.get(PlayerField.MINERALS));
+        assertTrue(client.sent.isEmpty());
+        assertEquals(3, engine.getAppliedCommands());
+    }
+
+    @Test
+    void testInvalidCommandsAreRejectedWithNotice() {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        SimulationEngine engine = newEngine(handler);
+        RecordingClient client = new RecordingClient();
+
+        engine.submit(client, GameMessage.of(Opcode.MOVE, "kirk", 3, 3));
+        engine.submit(client, GameMessage.of(Opcode.BUILD, "kirk", "Death Star"));
+        engine.submit(client, GameMessage.of(Opcode.EXPLORE, "kirk"));
+        engine.tick();
+
+        assertEquals(3, engine.getRejectedCommands());
+        assertEquals(3, client.sent.size());
+        assertTrue(client.sent.stream().allMatch(m -> m.getOpcode() == Opcode.NOTICE));
+        PlayerData kirk = handler.getPlayerData("kirk");
+        assertNotNull(kirk, "A player is still created by its first command");
+        assertEquals(0, kirk.get(PlayerField.ROW));
+        assertEquals(0, kirk.get(PlayerField.COL));
+    }
+
+    @Test
+    void testTradeMovesResourcesBetweenPlayers() {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        SimulationEngine engine = newEngine(handler);
+
+        engine.submit(null, GameMessage.of(Opcode.PLAYER_DATA, "kirk", "Kirk", 0, 0, 0, 0));
+        engine.submit(null, GameMessage.of(Opcode.PLAYER_DATA, "spock", "Spock", 0, 0, 0, 0));
+        engine.submit(null, GameMessage.of(Opcode.TRADE, "kirk", "spock", "Credits", 30));
+        engine.submit(null, GameMessage.of(Opcode.TRADE, "kirk", "spock", "Credits", 500));
+        engine.tick();
+
+        assertEquals(70, handler.getPlayerData("kirk").get(PlayerField.CREDITS));
+        assertEquals(130, handler.getPlayerData("spock").get(PlayerField.CREDITS));
+        assertEquals(1, engine.getRejectedCommands(), "Cannot trade more than you have");
+    }
+
+    @Test
+    void testBattleOutcomeIsAppliedOnALaterTick() throws InterruptedException {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        SimulationEngine engine = newEngine(handler);
+        RecordingClient client = new RecordingClient();
+
+        engine.submit(client, GameMessage.of(Opcode.BUILD, "kirk", "Fighter"));
+        engine.tick();
+        assertEquals(1, handler.getPlayerData("kirk").get(PlayerField.SHIP_COUNT));
+
+        // Earth has alien raiders, which outgun a fighter; explore until one wins
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (handler.getPlayerData("kirk").get(PlayerField.SHIP_COUNT) > 0 && System.nanoTime() < deadline) {
+            engine.submit(client, GameMessage.of(Opcode.EXPLORE, "kirk"));
+            engine.tick();
+            Thread.sleep(5);
+            engine.tick();
+        }
+        assertEquals(0, handler.getPlayerData("kirk").get(PlayerField.SHIP_COUNT),
+                "The lost fighter leaves the fleet on the tick after its battle");
+        assertEquals(0, handler.getPlayerData("kirk").get(PlayerField.FLEET_HEALTH));
+        assertTrue(client.sent.isEmpty(), "Every explore was accepted while the fighter was still in the fleet");
+    }
+
+    @Test
+    void testTickMetricsAreRecorded() {
+        SimulationEngine engine = newEngine(new MultiplayerHandler());
+        for (int i = 0; i < 5; i++) {
+            engine.tick();
+        }
+        assertEquals(5, engine.getTickCount());
+        assertEquals(5, engine.getTickDurations().getCount());
+        assertEquals(0, engine.getOverrunCount());
+        String report = engine.report();
+        assertTrue(report.contains("ticks=5"), report);
+        assertTrue(report.contains("headroom="), report);
+        assertEquals(0, engine.getTickDurations().getCount(), "Reporting starts a new window");
+    }
+}
@@ -0,0 +1,194 @@
+import edu.sdccd.cisc191.network.ClientConnection;
+import edu.sdccd.cisc191.network.GameMessage;
+import edu.sdccd.cisc191.network.InterestManager;
+import edu.sdccd.cisc191.network.MultiplayerHandler;
+import edu.sdccd.cisc191.network.Opcode;
+import edu.sdccd.cisc191.network.OutboundMessage;
+import edu.sdccd.cisc191.network.PlayerField;
+import edu.sdccd.cisc191.network.StateReplicator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateReplicatorTest {
+
+    /** Records everything sent to it instead of writing to a socket. */
+    private static class RecordingClient implements ClientConnection {
+        final List<GameMessage> sent = new ArrayList<>();
+
+        @Override
+        public void send(OutboundMessage message) {
+            sent.add(message.getMessage());
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String getClientInfo() {
+            return "test:0";
+        }
+
+        @Override
+        public int getQueueDepth() {
+            return 0;
+        }
+
+        @Override
+        public long getDroppedMessages() {
+            return 0;
+        }
+    }
+
+    @Test
+    void testSnapshotThenDeltaThenNothing() {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        StateReplicator replicator = new StateReplicator(handler);
+        RecordingClient client = new RecordingClient();
+        handler.updatePosition("kirk", 1, 2);
+        replicator.addClient(client);
+
+        replicator.replicate();
+        assertEquals(1, client.sent.size());
+        GameMessage snapshot = client.sent.get(0);
+        assertEquals(Opcode.SNAPSHOT, snapshot.getOpcode(), "A joining client should get a full snapshot");
+        assertEquals(3 + PlayerField.COUNT, snapshot.size());
+
+        replicator.acknowledge(client, "kirk", snapshot.getLong(2));
+        handler.updatePosition("kirk", 1, 3);
+        replicator.replicate();
+        assertEquals(2, client.sent.size());
+        GameMessage delta = client.sent.get(1);
+        assertEquals(Opcode.DELTA, delta.getOpcode());
+        assertEquals(1L << PlayerField.COL.ordinal(), delta.getLong(2), "Only the column changed");
+        assertEquals(3, delta.getLong(3));
+
+        replicator.acknowledge(client, "kirk", delta.getLong(1));
+        handler.updatePosition("kirk", 1, 3);
+        replicator.replicate();
+        assertEquals(2, client.sent.size(), "Unchanged state should never be resent");
+    }
+
+    @Test
+    void testResumedClientGetsWhatItNeverAcked() {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        StateReplicator replicator = new StateReplicator(handler);
+        RecordingClient dropped = new RecordingClient();
+        handler.updatePosition("kirk", 1, 2);
+        handler.updatePosition("spock", 0, 0);
+        replicator.addClient(dropped);
+        replicator.replicate();
+        GameMessage kirkSnapshot = dropped.sent.stream().filter(m -> m.getString(0).equals("kirk")).findFirst().orElseThrow();
+        replicator.acknowledge(dropped, "kirk", kirkSnapshot.getLong(2));
+        handler.updatePosition("kirk", 1, 3);
+        replicator.replicate(); // this delta, and spock's snapshot, may never have left the dead socket
+
+        RecordingClient resumed = new RecordingClient();
+        replicator.addClient(resumed, replicator.removeClient(dropped));
+        replicator.replicate();
+        assertEquals(2, resumed.sent.size(), "Everything not acked is sent again, with no new changes");
+        GameMessage kirk = resumed.sent.stream().filter(m -> m.getString(0).equals("kirk")).findFirst().orElseThrow();
+        assertEquals(Opcode.DELTA, kirk.getOpcode(), "Kirk was acked, so a delta from the acked version is enough");
+        assertEquals(3, kirk.getLong(3));
+        GameMessage spock = resumed.sent.stream().filter(m -> m.getString(0).equals("spock")).findFirst().orElseThrow();
+        assertEquals(Opcode.SNAPSHOT, spock.getOpcode(), "Spock was never acked");
+
+        replicator.acknowledge(resumed, "kirk", kirk.getLong(1));
+        replicator.acknowledge(resumed, "spock", spock.getLong(2));
+        replicator.replicate();
+        assertEquals(2, resumed.sent.size(), "Once resent, nothing is repeated");
+    }
+
+    @Test
+    void testRemovedPlayerIsAnnounced() {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        StateReplicator replicator = new StateReplicator(handler);
+        RecordingClient client = new RecordingClient();
+        handler.updatePosition("picard", 0, 0);
+        replicator.addClient(client);
+        replicator.replicate();
+
+        handler.removePlayer("picard");
+        replicator.replicate();
+        assertEquals(GameMessage.of(Opcode.REMOVE, "picard"), client.sent.get(client.sent.size() - 1));
+    }
+
+    @Test
+    void testPlayerIsBoundToOneConnectionAtATime() {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        InterestManager interest = new InterestManager(handler, 1, 0);
+        RecordingClient first = new RecordingClient();
+        RecordingClient second = new RecordingClient();
+        assertTrue(interest.bind(first, "kirk"));
+        assertTrue(interest.bind(first, "kirk"), "Binding again to the same player is fine");
+        assertFalse(interest.bind(first, "spock"), "A connection keeps its first player");
+        assertFalse(interest.bind(second, "kirk"), "Kirk already has a connection");
+        assertNull(interest.playerOf(second));
+
+        handler.updatePosition("kirk", 0, 0);
+        List<ClientConnection> near = new ArrayList<>();
+        interest.forEachClientNear(0, 0, near::add);
+        assertEquals(List.of(first), near, "Kirk's updates still go to the connection that owns him");
+
+        interest.unbind(first);
+        assertTrue(interest.bind(second, "kirk"), "Once the owner is gone another connection may take over");
+        near.clear();
+        interest.forEachClientNear(0, 0, near::add);
+        assertEquals(List.of(second), near);
+    }
+
+    @Test
+    void testLateAckForRemovedPlayerIsIgnored() {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        InterestManager interest = new InterestManager(handler, 1, 0);
+        StateReplicator replicator = new StateReplicator(handler, interest);
+        RecordingClient client = new RecordingClient();
+        replicator.addClient(client);
+        interest.bind(client, "spock");
+        handler.updatePosition("spock", 0, 0);
+        handler.updatePosition("kirk", 0, 1);
+        replicator.replicate();
+        GameMessage snapshot = client.sent.stream().filter(m -> m.getString(0).equals("kirk")).findFirst().orElseThrow();
+
+        handler.updatePosition("kirk", 3, 3);
+        replicator.replicate();
+        assertEquals(GameMessage.of(Opcode.REMOVE, "kirk"), client.sent.get(client.sent.size() - 1));
+        replicator.acknowledge(client, "kirk", snapshot.getLong(2)); // was still in flight
+
+        handler.updatePosition("kirk", 0, 1);
+        replicator.replicate();
+        GameMessage back = client.sent.get(client.sent.size() - 1);
+        assertEquals(Opcode.SNAPSHOT, back.getOpcode(), "The client dropped kirk, so it needs a snapshot, not " + back);
+        assertEquals("kirk", back.getString(0));
+    }
+
+    @Test
+    void testOnlyPlayersInAreaAreReplicated() {
+        MultiplayerHandler handler = new MultiplayerHandler();
+        InterestManager interest = new InterestManager(handler, 1, 0);
+        StateReplicator replicator = new StateReplicator(handler, interest);
+        RecordingClient client = new RecordingClient();
+        replicator.addClient(client);
+        interest.bind(client, "kirk");
+        handler.updatePosition("kirk", 0, 0);
+        handler.updatePosition("spock", 1, 1);
+        handler.updatePosition("picard", 4, 4);
+
+        replicator.replicate();
+        assertEquals(2, client.sent.size(), "Picard is out of range");
+        assertTrue(client.sent.stream().noneMatch(m -> m.getString(0).equals("picard")));
+
+        handler.updatePosition("picard", 1, 0);
+        replicator.replicate();
+        assertEquals(GameMessage.of(Opcode.SNAPSHOT, "picard", "picard", 4, 1, 0, 0, 0, 0, 0, 0, 0, 0),
+                client.sent.get(2), "Entering the area should deliver a snapshot");
+
+        handler.updatePosition("picard", 4, 4);
+        replicator.replicate();
+        assertEquals(GameMessage.of(Opcode.REMOVE, "picard"), client.sent.get(3), "Leaving the area should remove the player");
+    }
+}
@@ -5,6 +5,10 @@ import edu.sdccd.cisc191.subsystems.TradeSystem;
 import edu.sdccd.cisc191.subsystems.ResourceManagement;
 import edu.sdccd.cisc191.subsystems.ExplorationSystem;
 import edu.sdccd.cisc191.subsystems.CombatSystem;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -81,6 +85,61 @@ class SubsystemsConcurrencyTest {
         assertTrue(tasksFinished, "Exploration system should handle concurrent explorations");
     }
 
+    @Test
+    void testManyPlayersExploreAtOnce() throws InterruptedException {
+        ExplorationSystem explorationSystem = new ExplorationSystem();
+        String[] planets = {"Mars", "Earth", "Jupiter", "Andromeda", "Neptune"};
+        int playerCount = 16;
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            Player player = new Player("Captain-" + i);
+            player.addShip(new GalacticShip("Dreadnought-" + i, 1_000_000, 1000));
+            players.add(player);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(playerCount);
+        CountDownLatch done = new CountDownLatch(playerCount);
+        for (Player player : players) {
+            executor.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    explorationSystem.explorePlanet(player, new Planet(planets[i % planets.length]), null);
+                }
+                done.countDown();
+            });
+        }
+        executor.shutdown();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS), "Players no longer wait for one global lock");
+        for (Player player : players) {
+            assertEquals(1, player.getFleet().size(), "A dreadnought wins every encounter");
+        }
+    }
+
+    @Test
+    void testCombatIsHandedOffAndLosesTheShip() {
+        ExplorationSystem explorationSystem = new ExplorationSystem();
+        Player player = new Player("Cadet");
+        GalacticShip shuttle = new GalacticShip("Shuttle", 1, 0);
+        player.addShip(shuttle);
+
+        List<CompletableFuture<GalacticShip>> explorations = new ArrayList<>();
+        for (int i = 0; i < 200 && !player.getFleet().isEmpty(); i++) {
+            CompletableFuture<GalacticShip> exploration = explorationSystem.exploreAsync(player, new Planet("Mars"), null);
+            explorations.add(exploration);
+            GalacticShip lost = exploration.join();
+            if (lost != null) {
+                assertSame(shuttle, lost);
+                assertEquals(List.of(shuttle), player.getFleet(), "The battle reports the loss but leaves the fleet to its owner");
+                explorationSystem.removeLostShip(player, lost);
+            }
+        }
+        assertTrue(shuttle.isDestroyed(), "An enemy shows up in a third of explorations");
+        assertTrue(player.getFleet().isEmpty(), "The destroyed ship leaves the fleet once its owner removes it");
+        assertTrue(explorations.stream().allMatch(CompletableFuture::isDone));
+        assertTrue(explorationSystem.exploreAsync(player, new Planet("Mars"), null).isDone(),
+                "Nothing to fight with, nothing to wait for");
+    }
+
     // Additional tests for ResourceManagement and TradeSystem can be added here
     // following a similar pattern to the above tests.
 }